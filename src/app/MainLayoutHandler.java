@@ -3,6 +3,7 @@ package app;
 import app.uiControllers.MapController;
 import app.uiControllers.NavigationBarController;
 import app.uiControllers.SidePanelController;
+import app.uiControllers.TimeLapseController;
 import app.uiViews.MapOverlay;
 import app.uiViews.SidePanel;
 import dataProcessing.Pollutant;
@@ -59,11 +60,12 @@ public class MainLayoutHandler {
         // Initialise map with default values:
         mapController.initialisePollutionLayer(2018, Pollutant.NO2);
 
-        this.sidePanelController = new SidePanelController(mapController, root);
+        TimeLapseController timeLapseController = new TimeLapseController(mapController, mapOverlay.getTimeLapseControls());
+        this.sidePanelController = new SidePanelController(mapController, timeLapseController, root);
         SidePanel sidePanel = sidePanelController.getSidePanel();
         mapOverlay.setSidePanel(sidePanel);
 
-        this.navBarController = new NavigationBarController(app);
+        this.navBarController = new NavigationBarController(app, mapController);
 
         setupLayout();
     }
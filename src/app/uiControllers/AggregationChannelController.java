@@ -0,0 +1,90 @@
+package app.uiControllers;
+
+import lod.AggregationChannel;
+
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.VBox;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Controller for managing the aggregation channel selection via dropdown.
+ * The aggregation channel decides which statistic of the coarse LOD cells is displayed on the map.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class AggregationChannelController {
+    private final ComboBox<AggregationChannel> channelDropdown;
+
+    private Consumer<AggregationChannel> onChannelChangedCallback;
+
+    /**
+     * Constructor for AggregationChannelController.
+     */
+    public AggregationChannelController() {
+        this.channelDropdown = new ComboBox<>();
+        initialiseChannelDropdown();
+    }
+
+    /**
+     * Initialises the aggregation channel dropdown with all channels.
+     */
+    private void initialiseChannelDropdown() {
+        channelDropdown.setMaxWidth(Double.MAX_VALUE);
+        channelDropdown.getItems().addAll(Arrays.asList(AggregationChannel.values()));
+        channelDropdown.getSelectionModel().selectFirst();
+
+        channelDropdown.setCellFactory(listView -> new ChannelListCell());
+        channelDropdown.setButtonCell(new ChannelListCell());
+
+        channelDropdown.setOnAction(e -> notifyChannelChanged());
+    }
+
+    /**
+     * List cell displaying the display name of an aggregation channel.
+     */
+    private static class ChannelListCell extends ListCell<AggregationChannel> {
+        @Override
+        protected void updateItem(AggregationChannel item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : item.getDisplayName());
+        }
+    }
+
+    /**
+     * Notify listeners that the aggregation channel has changed.
+     */
+    private void notifyChannelChanged() {
+        if (onChannelChangedCallback != null && channelDropdown.getValue() != null) {
+            onChannelChangedCallback.accept(channelDropdown.getValue());
+        }
+    }
+
+    /**
+     * Set a callback for when the aggregation channel changes.
+     * @param callback Consumer that takes the selected AggregationChannel.
+     */
+    public void setOnChannelChanged(Consumer<AggregationChannel> callback) {
+        this.onChannelChangedCallback = callback;
+    }
+
+    /**
+     * Creates a VBox containing the aggregation channel dropdown and label.
+     * @return VBox with the aggregation channel selector.
+     */
+    public VBox createChannelSelector() {
+        Label label = new Label("Coarse Cell Value:");
+        return new VBox(6, label, channelDropdown);
+    }
+
+    /**
+     * @return The currently selected aggregation channel.
+     */
+    public AggregationChannel getSelectedChannel() {
+        return channelDropdown.getValue();
+    }
+}
@@ -0,0 +1,59 @@
+package app.uiControllers;
+
+import javafx.scene.control.CheckBox;
+import javafx.scene.layout.VBox;
+
+import java.util.function.Consumer;
+
+/**
+ * Controller for turning the composite DAQI view on and off via a checkbox.
+ * The composite view shows the highest DAQI band of any pollutant, instead of the selected pollutant's values.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class CompositeIndexController {
+    private final CheckBox compositeIndexCheckBox;
+
+    private Consumer<Boolean> onCompositeIndexChangedCallback;
+
+    /**
+     * Constructor for CompositeIndexController.
+     */
+    public CompositeIndexController() {
+        this.compositeIndexCheckBox = new CheckBox("Composite DAQI (All Pollutants)");
+        compositeIndexCheckBox.setOnAction(e -> notifyCompositeIndexChanged());
+    }
+
+    /**
+     * Notify listeners that the composite DAQI view was turned on or off.
+     */
+    private void notifyCompositeIndexChanged() {
+        if (onCompositeIndexChangedCallback != null) {
+            onCompositeIndexChangedCallback.accept(compositeIndexCheckBox.isSelected());
+        }
+    }
+
+    /**
+     * Set a callback for when the composite DAQI view is turned on or off.
+     * @param callback Consumer that takes true if the composite view is shown.
+     */
+    public void setOnCompositeIndexChanged(Consumer<Boolean> callback) {
+        this.onCompositeIndexChangedCallback = callback;
+    }
+
+    /**
+     * Creates a VBox containing the composite DAQI checkbox.
+     * @return VBox with the composite DAQI selector.
+     */
+    public VBox createCompositeIndexSelector() {
+        return new VBox(6, compositeIndexCheckBox);
+    }
+
+    /**
+     * @return True if the composite DAQI view is selected.
+     */
+    public boolean isCompositeIndexSelected() {
+        return compositeIndexCheckBox.isSelected();
+    }
+}
@@ -268,6 +268,16 @@ public class DataSelectionController {
         yearLabel.setText(text);
     }
 
+    /**
+     * Selects a year in the year dropdown, notifying listeners as if it was selected by the user.
+     * @param year The year to select, ignored if it is not available.
+     */
+    public void selectYear(int year) {
+        if (yearDropdown.getItems().contains(year)) {
+            yearDropdown.setValue(year);
+        }
+    }
+
     /**
      * @return The selected year from the dropdown.
      */
@@ -0,0 +1,151 @@
+package app.uiControllers;
+
+import dataProcessing.DifferenceType;
+
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Controller for managing the year-over-year difference selection via dropdowns.
+ * When a base year is selected, the map shows the change in pollution since that year, instead of the selected year's values.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class DifferenceController {
+    private final static int NO_BASE_YEAR = -1; // The base year item meaning the map shows values, not changes.
+
+    private final ComboBox<Integer> baseYearDropdown;
+    private final ComboBox<DifferenceType> typeDropdown;
+
+    private BiConsumer<Integer, DifferenceType> onDifferenceChangedCallback; // Called with the base year, or null, and the difference type.
+    private boolean updatingDropdowns = false; // Flag to prevent notifying listeners when the years are replaced.
+
+    /**
+     * Constructor for DifferenceController.
+     */
+    public DifferenceController() {
+        this.baseYearDropdown = new ComboBox<>();
+        this.typeDropdown = new ComboBox<>();
+        initialiseDropdowns();
+    }
+
+    /**
+     * Initialises the dropdowns, with no base year selected.
+     */
+    private void initialiseDropdowns() {
+        baseYearDropdown.setMaxWidth(Double.MAX_VALUE);
+        baseYearDropdown.getItems().add(NO_BASE_YEAR);
+        baseYearDropdown.getSelectionModel().selectFirst();
+        baseYearDropdown.setCellFactory(listView -> new BaseYearListCell());
+        baseYearDropdown.setButtonCell(new BaseYearListCell());
+
+        typeDropdown.setMaxWidth(Double.MAX_VALUE);
+        typeDropdown.getItems().addAll(Arrays.asList(DifferenceType.values()));
+        typeDropdown.getSelectionModel().selectFirst();
+        typeDropdown.setCellFactory(listView -> new TypeListCell());
+        typeDropdown.setButtonCell(new TypeListCell());
+        typeDropdown.setDisable(true); // Only used once a base year is selected.
+
+        baseYearDropdown.setOnAction(e -> notifyDifferenceChanged());
+        typeDropdown.setOnAction(e -> notifyDifferenceChanged());
+    }
+
+    /**
+     * List cell displaying a base year, or "None" for no base year.
+     */
+    private static class BaseYearListCell extends ListCell<Integer> {
+        @Override
+        protected void updateItem(Integer item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : item == NO_BASE_YEAR ? "None" : item.toString());
+        }
+    }
+
+    /**
+     * List cell displaying the display name of a difference type.
+     */
+    private static class TypeListCell extends ListCell<DifferenceType> {
+        @Override
+        protected void updateItem(DifferenceType item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : item.getDisplayName());
+        }
+    }
+
+    /**
+     * Replaces the years that can be selected as the base year, keeping the selected year if it is still available.
+     * Listeners are not notified, the map falls back to showing values itself if the base year is no longer available.
+     * @param years The available years of the selected pollutant.
+     */
+    public void setAvailableYears(List<Integer> years) {
+        updatingDropdowns = true;
+
+        Integer previousBaseYear = baseYearDropdown.getValue();
+        List<Integer> sortedYears = new ArrayList<>(years); // Copied before sorting, as the available years are shared.
+        Collections.sort(sortedYears);
+
+        baseYearDropdown.getItems().setAll(NO_BASE_YEAR);
+        baseYearDropdown.getItems().addAll(sortedYears);
+        if (sortedYears.contains(previousBaseYear)) {
+            baseYearDropdown.setValue(previousBaseYear);
+        } else {
+            baseYearDropdown.getSelectionModel().selectFirst();
+        }
+        typeDropdown.setDisable(getSelectedBaseYear() == null);
+
+        updatingDropdowns = false;
+    }
+
+    /**
+     * Notify listeners that the base year or difference type has changed.
+     */
+    private void notifyDifferenceChanged() {
+        if (updatingDropdowns) return;
+
+        typeDropdown.setDisable(getSelectedBaseYear() == null);
+        if (onDifferenceChangedCallback != null && typeDropdown.getValue() != null) {
+            onDifferenceChangedCallback.accept(getSelectedBaseYear(), typeDropdown.getValue());
+        }
+    }
+
+    /**
+     * Set a callback for when the base year or difference type changes.
+     * @param callback BiConsumer that takes the selected base year, or null for none, and the difference type.
+     */
+    public void setOnDifferenceChanged(BiConsumer<Integer, DifferenceType> callback) {
+        this.onDifferenceChangedCallback = callback;
+    }
+
+    /**
+     * Creates a VBox containing the base year and difference type dropdowns and label.
+     * @return VBox with the difference selector.
+     */
+    public VBox createDifferenceSelector() {
+        Label label = new Label("Change Since:");
+        return new VBox(6, label, baseYearDropdown, typeDropdown);
+    }
+
+    /**
+     * @return The selected base year, or null if the map shows values.
+     */
+    public Integer getSelectedBaseYear() {
+        Integer baseYear = baseYearDropdown.getValue();
+        return baseYear == null || baseYear == NO_BASE_YEAR ? null : baseYear;
+    }
+
+    /**
+     * @return The selected difference type.
+     */
+    public DifferenceType getSelectedType() {
+        return typeDropdown.getValue();
+    }
+}
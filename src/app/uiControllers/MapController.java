@@ -1,18 +1,35 @@
 package app.uiControllers;
 
 import com.gluonhq.maps.MapPoint;
+import javafx.application.Platform;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 
+import java.util.Objects;
+
 import app.PollutionLayerNotInitialisedException;
 import app.uiViews.MapOverlay;
 import colors.ColorScheme;
 import colors.ColorSchemeManager;
+import colors.DAQIColorScheme;
+import colors.DivergingColorScheme;
+import contours.ContourCache;
+import contours.ContourLevels;
+import dataProcessing.CompositeIndexDataSet;
 import dataProcessing.DataManager;
 import dataProcessing.DataSet;
+import dataProcessing.DifferenceDataSet;
+import dataProcessing.DifferenceType;
 import dataProcessing.Pollutant;
 import infoPopup.MapClickHandler;
+import lod.AggregationChannel;
+import pollutionLayer.PollutionDataLoader;
 import pollutionLayer.PollutionLayer;
+import pollutionLayer.PollutionTileCache;
+import pollutionLayer.RenderStatistics;
+import pollutionLayer.RenderMode;
+import pollutionLayer.TimeLapseFrameCache;
+import pollutionLayer.TimeLapseLayer;
 import utility.CustomMapView;
 
 /**
@@ -23,18 +40,37 @@ import utility.CustomMapView;
  * @author Anas Ahmed, Mehmet Kutay Bozkurt, Matthias Loong, and Chelsea Feliciano
  */
 public class MapController {
+    private final static long TILE_CACHE_BYTES = 256L * 1024 * 1024; // Memory budget of the pollution tile cache.
+
     private final CustomMapView mapView;
     private final MapClickHandler clickHandler;
     private final ColorSchemeManager colorSchemeManager;
+    private final ColorSchemeManager differenceColorSchemeManager; // Holds the diverging scheme changes are shown in.
+    private final ColorSchemeManager compositeIndexColorSchemeManager; // Holds the fixed palette DAQI bands are shown in.
     private final MapOverlay mapOverlay;
+    private final PollutionTileCache tileCache; // Shared by all pollution layers, so switching back to a dataset reuses its tiles.
+    private final ContourCache contourCache; // Shared by all pollution layers, so switching back to a dataset reuses its contours.
+    private final RenderStatistics renderStatistics; // Shared by all pollution layers, disabled until the overlay is shown.
+    private final PollutionDataLoader dataLoader; // Loads the datasets of the pollution layer in the background.
 
     private int currentYear;
     private Pollutant currentPollutant;
     private ColorScheme currentColourScheme;
     private PollutionLayer pollutionLayer;
-    private boolean pollutionLayerInitialised = false;
+    private boolean pollutionLayerShown = false; // False while the pollution layer is replaced by a time-lapse.
+    private TimeLapseLayer timeLapseLayer; // Shown during time-lapse playback, null otherwise.
+    private boolean pollutionLayerInitialised = false; // True once the first dataset was requested, the pollution layer is only created once it loads.
+
+    private Integer differenceBaseYear = null; // The year changes are shown since, null to show the current year's values.
+    private DifferenceType differenceType = DifferenceType.ABSOLUTE;
+    private boolean compositeIndexShown = false; // True to show the composite DAQI band of all pollutants, instead of the current pollutant.
 
     private double currentPollutionThreshold = 0; // Stores current pollution threshold to send to pollution layer on creation.
+    private AggregationChannel currentAggregationChannel = AggregationChannel.MEAN; // Stores current aggregation channel to send to pollution layer on creation.
+    private RenderMode currentRenderMode = RenderMode.VECTOR; // Stores current render mode to send to pollution layer on creation.
+    private boolean fullResolutionClicks = false; // Stores whether clicks show 1 km values, to send to pollution layer on creation.
+    private boolean hoverInspection = false; // Stores whether the hover readout is on, to send to pollution layer on creation.
+    private ContourLevels currentContourLevels = ContourLevels.EVENLY_SPACED; // Stores how contour levels are chosen, to send to pollution layer on creation.
 
     /**
      * Constructor for MapController.
@@ -45,7 +81,16 @@ public class MapController {
         this.mapOverlay = mapOverlay;
         this.mapView = mapOverlay.getMapView();
 
+        differenceColorSchemeManager = new ColorSchemeManager();
+        differenceColorSchemeManager.updateColorScheme(new DivergingColorScheme());
+        compositeIndexColorSchemeManager = new ColorSchemeManager();
+        compositeIndexColorSchemeManager.updateColorScheme(new DAQIColorScheme());
+
         clickHandler = new MapClickHandler(stage);
+        tileCache = new PollutionTileCache(TILE_CACHE_BYTES);
+        contourCache = new ContourCache();
+        renderStatistics = new RenderStatistics();
+        dataLoader = new PollutionDataLoader(Platform::runLater);
 
         setupMapView(); // Opens mapView in London.
     }
@@ -81,40 +126,286 @@ public class MapController {
 
     /**
      * Updates the map data set with the new year and pollutant.
-     * Updates the colour scheme data accordingly
+     * Updates the colour scheme data accordingly. If only the colour scheme changed, the pollution
+     * layer is only re-coloured. Otherwise the dataset is loaded in the background, see refreshPollutionLayer().
      * @param year The year to update to.
      * @param pollutant The pollutant to update to.
      */
     public void updateMapDataSet(int year, Pollutant pollutant, ColorScheme colorScheme) {
-        if (year == currentYear && pollutant == currentPollutant && colorScheme.toString().equals(currentColourScheme.toString())) {
+        boolean dataSetChanged = year != currentYear || pollutant != currentPollutant;
+        boolean colorSchemeChanged = currentColourScheme == null || !colorScheme.toString().equals(currentColourScheme.toString());
+        if (!dataSetChanged && !colorSchemeChanged) {
             return; // No need to update if the data is the same.
         }
 
         currentYear = year;
         currentPollutant = pollutant;
         currentColourScheme = colorScheme;
-
-        if (pollutionLayer != null) mapView.removeLayer(pollutionLayer);
         colorSchemeManager.updateColorScheme(colorScheme);
 
+        if (dataSetChanged) {
+            refreshPollutionLayer();
+        } else if (pollutionLayer != null && !(pollutionLayer.getDataSet() instanceof DifferenceDataSet || pollutionLayer.getDataSet() instanceof CompositeIndexDataSet)) {
+            // Changes and bands are shown in their own fixed colour schemes, so only values are re-coloured.
+            // A dataset still loading is coloured with the new colour scheme once shown.
+            mapOverlay.getLegend().updateLegend(colorSchemeManager, pollutionLayer.getDataSet().getMaxPollutionValue());
+            pollutionLayer.setColorSchemeManager(colorSchemeManager);
+        }
+    }
+
+    /**
+     * Shows the change in pollution since a base year instead of the current year's values, or turns this off.
+     * The change is computed once per pair of years and cached, so switching back and forth is cheap.
+     * @param baseYear The year changes are measured from, or null to show the current year's values.
+     * @param type Whether changes are absolute or a percentage of the base year's values.
+     */
+    public void updateDifference(Integer baseYear, DifferenceType type) {
+        if (Objects.equals(baseYear, differenceBaseYear) && type == differenceType) return;
+
+        differenceBaseYear = baseYear;
+        differenceType = type;
+        refreshPollutionLayer();
+    }
+
+    /**
+     * Shows the composite DAQI band of the current year, the highest band of any pollutant, instead of the
+     * current pollutant's values or changes, or turns this off. Bands are computed once per year and cached.
+     * @param shown True to show the composite DAQI bands.
+     */
+    public void updateCompositeIndex(boolean shown) {
+        if (shown == compositeIndexShown) return;
+
+        compositeIndexShown = shown;
+        refreshPollutionLayer();
+    }
+
+    /**
+     * Loads the current dataset in the background, either the current year's values, their change since
+     * the difference base year, or the composite DAQI bands, and shows it once loaded. The displayed
+     * dataset stays on the map while loading, and a load still in progress is cancelled, so only the
+     * latest selection is shown.
+     */
+    private void refreshPollutionLayer() {
         DataManager dataManager = DataManager.getInstance();
-        DataSet dataSet = dataManager.getPollutantData(year, pollutant);
+        if (differenceBaseYear != null && !dataManager.getAvailableYears(currentPollutant).contains(differenceBaseYear)) {
+            differenceBaseYear = null; // The base year has no data for this pollutant, so values are shown instead.
+        }
+
+        // Copied, as the selection may change while loading.
+        int year = currentYear;
+        Pollutant pollutant = currentPollutant;
+        Integer baseYear = differenceBaseYear;
+        DifferenceType type = differenceType;
+        boolean compositeIndex = compositeIndexShown;
+
+        String description = compositeIndex ? year + " DAQI bands" : year + " " + pollutant.getDisplayName();
+        mapOverlay.getLoadingIndicator().show("Loading " + description + "...");
+        dataLoader.load(() -> {
+            if (compositeIndex) return dataManager.getCompositeIndexData(year);
+            if (baseYear != null) return dataManager.getDifferenceData(baseYear, year, pollutant, type);
+            return dataManager.getPollutantData(year, pollutant);
+        }, loadedData -> showLoadedData(loadedData, pollutant), e -> {
+            mapOverlay.getLoadingIndicator().hide();
+            System.err.println("Failed to load " + description + ": " + e.getMessage());
+        });
+    }
 
-        mapOverlay.getLegend().updateLegend(colorSchemeManager, dataSet.getMaxPollutionValue());
+    /**
+     * Shows a loaded dataset on the pollution layer and updates the legend to match. The pollution layer
+     * is created the first time, and afterwards only has its dataset and colour scheme swapped.
+     * @param loadedData The loaded dataset and its LODs.
+     * @param pollutant The pollutant of the dataset.
+     */
+    private void showLoadedData(PollutionDataLoader.LoadedData loadedData, Pollutant pollutant) {
+        mapOverlay.getLoadingIndicator().hide();
+
+        DataSet dataSet = loadedData.dataSet();
+        ColorSchemeManager layerColorSchemeManager;
+        if (dataSet instanceof CompositeIndexDataSet) {
+            mapOverlay.getLegend().updateBandLegend(compositeIndexColorSchemeManager);
+
+            layerColorSchemeManager = compositeIndexColorSchemeManager;
+        } else if (dataSet instanceof DifferenceDataSet differenceDataSet) {
+            double maxChange = differenceDataSet.getMaxChangeMagnitude();
+            mapOverlay.getLegend().updateLegend(differenceColorSchemeManager, -maxChange, maxChange, differenceDataSet.getUnits());
+
+            layerColorSchemeManager = differenceColorSchemeManager;
+        } else {
+            mapOverlay.getLegend().updateLegend(colorSchemeManager, dataSet.getMaxPollutionValue());
+
+            layerColorSchemeManager = colorSchemeManager;
+        }
+
+        if (pollutionLayer != null) {
+            pollutionLayer.setDataSet(dataSet, loadedData.lodManager(), pollutant);
+            pollutionLayer.setColorSchemeManager(layerColorSchemeManager);
+            return;
+        }
 
-        pollutionLayer = new PollutionLayer(mapView, dataSet, clickHandler, pollutant, colorSchemeManager);
+        pollutionLayer = new PollutionLayer(mapView, dataSet, loadedData.lodManager(), clickHandler, pollutant, layerColorSchemeManager, tileCache, contourCache, renderStatistics);
         pollutionLayer.setVisiblePolygonThreshold(currentPollutionThreshold); //update threshold
+        pollutionLayer.setAggregationChannel(currentAggregationChannel);
+        pollutionLayer.setRenderMode(currentRenderMode);
+        pollutionLayer.setFullResolutionClicks(fullResolutionClicks);
+        pollutionLayer.setHoverInspection(hoverInspection);
+        pollutionLayer.setContourLevels(currentContourLevels);
+
+        if (timeLapseLayer == null) setPollutionLayerShown(true);
+    }
+
+    /**
+     * Adds or removes the pollution layer from the map.
+     * @param shown True to add the pollution layer, false to remove it.
+     */
+    private void setPollutionLayerShown(boolean shown) {
+        if (pollutionLayer == null || shown == pollutionLayerShown) return;
+
+        if (shown) {
+            mapView.addLayer(pollutionLayer);
+            mapView.dirtyRefresh();
+        } else {
+            mapView.removeLayer(pollutionLayer);
+        }
+        pollutionLayerShown = shown;
+    }
+
+    /**
+     * Shows a time-lapse layer over the pollution layer. The pollution layer stays underneath, so the
+     * map is not empty before the first time-lapse frame is ready, until hidePollutionLayer() is called.
+     * @param timeLapseLayer The time-lapse layer to show.
+     */
+    public void showTimeLapseLayer(TimeLapseLayer timeLapseLayer) {
+        if (this.timeLapseLayer != null) return;
 
-        mapView.addLayer(pollutionLayer); // Add back the new pollution layer.
+        this.timeLapseLayer = timeLapseLayer;
+        mapView.addLayer(timeLapseLayer);
         mapView.dirtyRefresh();
     }
 
+    /**
+     * Removes the pollution layer from under the time-lapse layer, so it is not re-drawn during playback.
+     */
+    public void hidePollutionLayer() {
+        if (timeLapseLayer != null) setPollutionLayerShown(false);
+    }
+
+    /**
+     * Removes the time-lapse layer and shows the pollution layer again.
+     */
+    public void hideTimeLapseLayer() {
+        if (timeLapseLayer == null) return;
+
+        mapView.removeLayer(timeLapseLayer);
+        timeLapseLayer = null;
+        setPollutionLayerShown(true);
+    }
+
+    /**
+     * @return What the pollution layer currently shows, for rendering time-lapse frames that look the same.
+     * Uses the configured settings, so it can be called before the first dataset has loaded.
+     */
+    public TimeLapseFrameCache.FrameStyle getTimeLapseFrameStyle() {
+        double opacity = pollutionLayer != null ? pollutionLayer.getPolygonOpacity() : PollutionLayer.DEFAULT_POLYGON_OPACITY;
+        return new TimeLapseFrameCache.FrameStyle(
+            currentPollutant, currentAggregationChannel, currentPollutionThreshold,
+            colorSchemeManager.getColorScheme().getLookupTable(opacity) // Years are played as values, not changes.
+        );
+    }
+
     /**
      * Updates the pollution layer with a new threshold percentage.
      * @param thresholdPercentage The new threshold percentage.
      */
     public void updatePollutionThreshold(double thresholdPercentage){
-        pollutionLayer.setVisiblePolygonThreshold(thresholdPercentage);
+        if (pollutionLayer != null) pollutionLayer.setVisiblePolygonThreshold(thresholdPercentage);
         currentPollutionThreshold = thresholdPercentage;
     }
-}
\ No newline at end of file
+
+    /**
+     * Updates the pollution layer to display a different aggregation channel of the LODs.
+     * This only re-colours the layer, the LODs are not regenerated.
+     * @param aggregationChannel The new aggregation channel.
+     */
+    public void updateAggregationChannel(AggregationChannel aggregationChannel) {
+        if (pollutionLayer != null) pollutionLayer.setAggregationChannel(aggregationChannel);
+        currentAggregationChannel = aggregationChannel;
+    }
+
+    /**
+     * Updates how the pollution layer draws its polygons.
+     * @param renderMode The new render mode.
+     */
+    public void updateRenderMode(RenderMode renderMode) {
+        if (pollutionLayer != null) pollutionLayer.setRenderMode(renderMode);
+        currentRenderMode = renderMode;
+    }
+
+    /**
+     * Updates how the levels of the pollution layer's contour lines are chosen, used in contour render mode.
+     * @param contourLevels The way to choose contour levels.
+     */
+    public void updateContourLevels(ContourLevels contourLevels) {
+        if (pollutionLayer != null) pollutionLayer.setContourLevels(contourLevels);
+        currentContourLevels = contourLevels;
+    }
+
+    /**
+     * @return How the levels of the pollution layer's contour lines are chosen.
+     */
+    public ContourLevels getContourLevels() {
+        return currentContourLevels;
+    }
+
+    /**
+     * @return The render mode of the pollution layer.
+     */
+    public RenderMode getRenderMode() {
+        return currentRenderMode;
+    }
+
+    /**
+     * Sets whether clicking or hovering the map shows the full resolution 1 km value, instead of the value of the displayed LOD cell.
+     * @param fullResolutionClicks True to show the 1 km value.
+     */
+    public void updateFullResolutionClicks(boolean fullResolutionClicks) {
+        if (pollutionLayer != null) {
+            pollutionLayer.setFullResolutionClicks(fullResolutionClicks);
+            pollutionLayer.setHoverInspection(hoverInspection);
+        }
+        this.fullResolutionClicks = fullResolutionClicks;
+    }
+
+    /**
+     * Turns the hover readout of the pollution layer on or off.
+     * @param hoverInspection True to show the value of the cell under the pointer.
+     */
+    public void updateHoverInspection(boolean hoverInspection) {
+        if (pollutionLayer != null) pollutionLayer.setHoverInspection(hoverInspection);
+        this.hoverInspection = hoverInspection;
+    }
+
+    /**
+     * Shows or hides the render statistics overlay. Statistics are only recorded while it is shown.
+     * @param visible True to show the overlay, false to hide it.
+     */
+    public void setRenderStatisticsVisible(boolean visible) {
+        renderStatistics.setEnabled(visible);
+        if (visible) {
+            mapOverlay.getRenderStatisticsPane().show(renderStatistics);
+        } else {
+            mapOverlay.getRenderStatisticsPane().hide();
+        }
+    }
+
+    /**
+     * @return The render statistics of the pollution layers, for benchmarks.
+     */
+    public RenderStatistics getRenderStatistics() {
+        return renderStatistics;
+    }
+
+    // Getters:
+    public int getCurrentYear() { return currentYear; }
+    public Pollutant getCurrentPollutant() { return currentPollutant; }
+    public CustomMapView getMapView() { return mapView; }
+}
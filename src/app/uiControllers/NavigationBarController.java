@@ -1,10 +1,19 @@
 package app.uiControllers;
 
 import app.App;
+import contours.ContourLevels;
+import pollutionLayer.RenderMode;
 
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.RadioMenuItem;
+import javafx.scene.control.SeparatorMenuItem;
+import javafx.scene.control.ToggleGroup;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Controls the top navigation bar of the application.
@@ -16,19 +25,21 @@ import javafx.scene.control.MenuItem;
 public class NavigationBarController {
     private final MenuBar menuBar;
     private final App app;
+    private final MapController mapController;
 
     /**
      * Constructor for NavigationBarController.
      * Creates and initialises the top navigation bar.
      */
-    public NavigationBarController(App app) {
+    public NavigationBarController(App app, MapController mapController) {
         this.app = app;
+        this.mapController = mapController;
         menuBar = createTopNavBar();
         menuBar.getStyleClass().add("top-nav");
     }
 
     /**
-     * Creates menus file and help, and then adds them to top navigation bar.
+     * Creates menus file, view and help, and then adds them to top navigation bar.
      * @return Top navigation bar.
      */
     private MenuBar createTopNavBar() {
@@ -40,6 +51,24 @@ public class NavigationBarController {
         exitItem.setOnAction(e -> System.exit(0));
         fileMenu.getItems().add(exitItem);
 
+        // View Menu:
+        Menu viewMenu = new Menu("View");
+        viewMenu.getItems().addAll(createRenderModeItems());
+
+        Menu contourLevelsMenu = new Menu("Contour Levels");
+        contourLevelsMenu.getItems().addAll(createContourLevelsItems());
+        viewMenu.getItems().addAll(new SeparatorMenuItem(), contourLevelsMenu);
+
+        CheckMenuItem statisticsItem = new CheckMenuItem("Show Render Statistics");
+        statisticsItem.setOnAction(e -> mapController.setRenderStatisticsVisible(statisticsItem.isSelected()));
+        CheckMenuItem hoverItem = new CheckMenuItem("Show Values on Hover");
+        hoverItem.setOnAction(e -> mapController.updateHoverInspection(hoverItem.isSelected()));
+
+        CheckMenuItem fullResolutionItem = new CheckMenuItem("Inspect 1 km Values");
+        fullResolutionItem.setOnAction(e -> mapController.updateFullResolutionClicks(fullResolutionItem.isSelected()));
+
+        viewMenu.getItems().addAll(new SeparatorMenuItem(), hoverItem, fullResolutionItem, statisticsItem);
+
         // Help Menu:
         Menu helpMenu = new Menu("Help");
 
@@ -52,10 +81,48 @@ public class NavigationBarController {
         tutorialItem.setOnAction(e -> app.showWelcomePage());
         helpMenu.getItems().addAll(aboutItem, tutorialItem);
 
-        topNavBar.getMenus().addAll(fileMenu, helpMenu);
+        topNavBar.getMenus().addAll(fileMenu, viewMenu, helpMenu);
         return topNavBar;
     }
 
+    /**
+     * Creates one radio item per render mode, to switch how the pollution layer is drawn.
+     * @return The render mode items.
+     */
+    private List<RadioMenuItem> createRenderModeItems() {
+        ToggleGroup renderModeGroup = new ToggleGroup();
+        List<RadioMenuItem> items = new ArrayList<>();
+
+        for (RenderMode renderMode : RenderMode.values()) {
+            RadioMenuItem item = new RadioMenuItem(renderMode.getDisplayName());
+            item.setToggleGroup(renderModeGroup);
+            item.setSelected(renderMode == mapController.getRenderMode());
+            item.setOnAction(e -> mapController.updateRenderMode(renderMode));
+            items.add(item);
+        }
+
+        return items;
+    }
+
+    /**
+     * Creates one radio item per way of choosing contour levels, used when drawing contour lines.
+     * @return The contour levels items.
+     */
+    private List<RadioMenuItem> createContourLevelsItems() {
+        ToggleGroup contourLevelsGroup = new ToggleGroup();
+        List<RadioMenuItem> items = new ArrayList<>();
+
+        for (ContourLevels contourLevels : ContourLevels.values()) {
+            RadioMenuItem item = new RadioMenuItem(contourLevels.getDisplayName());
+            item.setToggleGroup(contourLevelsGroup);
+            item.setSelected(contourLevels == mapController.getContourLevels());
+            item.setOnAction(e -> mapController.updateContourLevels(contourLevels));
+            items.add(item);
+        }
+
+        return items;
+    }
+
     /**
      * @return The menu bar.
      */
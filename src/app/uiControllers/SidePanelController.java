@@ -2,6 +2,7 @@ package app.uiControllers;
 
 import app.uiViews.SidePanel;
 import colors.ColorScheme;
+import dataProcessing.DataManager;
 import dataProcessing.Pollutant;
 
 import javafx.scene.layout.BorderPane;
@@ -19,10 +20,14 @@ public class SidePanelController {
 
     // UI Component Controllers:
     private final MapController mapController;
+    private final TimeLapseController timeLapseController;
     private final DataSelectionController dataSelectionController;
     private final ColorSchemeController colorSchemeController;
+    private final AggregationChannelController aggregationChannelController;
     private final StatisticsController statisticsController;
     private final PollutionThresholdController pollutionThresholdController;
+    private final DifferenceController differenceController;
+    private final CompositeIndexController compositeIndexController;
 
     // UI Navigation Elements:
     private Node mapContent;
@@ -31,20 +36,25 @@ public class SidePanelController {
     /**
      * Constructor for SidePanelController.
      * @param mapController The current map controller.
+     * @param timeLapseController The controller of the year time-lapse on the map.
      * @param rootPane The root BorderPane of the application.
      */
-    public SidePanelController(MapController mapController, BorderPane rootPane) {
+    public SidePanelController(MapController mapController, TimeLapseController timeLapseController, BorderPane rootPane) {
         this.rootPane = rootPane;
         this.mapController = mapController;
+        this.timeLapseController = timeLapseController;
         this.mapContent = mapController.getMapOverlay();
 
         this.statisticsController = new StatisticsController();
         this.dataSelectionController = new DataSelectionController();
         this.colorSchemeController = new ColorSchemeController();
+        this.aggregationChannelController = new AggregationChannelController();
         this.pollutionThresholdController = new PollutionThresholdController();
+        this.differenceController = new DifferenceController();
+        this.compositeIndexController = new CompositeIndexController();
 
         // Creates a VBox with UI components of sidepanel:
-        this.sidePanel = new SidePanel(dataSelectionController, colorSchemeController, pollutionThresholdController);
+        this.sidePanel = new SidePanel(dataSelectionController, colorSchemeController, aggregationChannelController, pollutionThresholdController, differenceController, compositeIndexController);
         setupEventHandlers();
     }
 
@@ -60,6 +70,8 @@ public class SidePanelController {
         // Handle data selection changes (year, pollutant):
         dataSelectionController.setOnSelectionChanged((year, pollutant) -> {
             ColorScheme colorScheme = colorSchemeController.getSelectedColorScheme();
+            timeLapseController.showSelectedYear(year, pollutant);
+            differenceController.setAvailableYears(DataManager.getInstance().getAvailableYears(pollutant));
             mapController.updateMapDataSet(year, pollutant, colorScheme);
             
             if (!mapShown) {
@@ -84,6 +96,21 @@ public class SidePanelController {
             }
         });
 
+        // Handle the time-lapse selecting a year to display:
+        timeLapseController.setOnYearSelected(dataSelectionController::selectYear);
+
+        // Handle year-over-year difference changes:
+        differenceController.setOnDifferenceChanged(mapController::updateDifference);
+
+        // Handle the composite DAQI view being turned on or off, which replaces the pollutant's values or changes:
+        compositeIndexController.setOnCompositeIndexChanged(shown -> {
+            sidePanel.getDifferenceDropdownBox().setDisable(shown);
+            mapController.updateCompositeIndex(shown);
+        });
+
+        // Handle aggregation channel changes:
+        aggregationChannelController.setOnChannelChanged(mapController::updateAggregationChannel);
+
         pollutionThresholdController.getThresholdSlider().valueProperty().addListener((e1, e2, newValue) -> {
             mapController.updatePollutionThreshold(newValue.doubleValue());
         });
@@ -107,6 +134,7 @@ public class SidePanelController {
      */
     private void switchToStatistics() {
         // Switching to statistics view.
+        timeLapseController.stop();
         rootPane.setCenter(statisticsController.getStatisticsPane());
         sidePanel.getSwitchLabel().setText("Return to Map");
         
@@ -117,6 +145,12 @@ public class SidePanelController {
 
         sidePanel.getColorDropdownBox().setVisible(false);
         sidePanel.getColorDropdownBox().setManaged(false);
+        sidePanel.getChannelDropdownBox().setVisible(false);
+        sidePanel.getChannelDropdownBox().setManaged(false);
+        sidePanel.getDifferenceDropdownBox().setVisible(false);
+        sidePanel.getDifferenceDropdownBox().setManaged(false);
+        sidePanel.getCompositeIndexBox().setVisible(false);
+        sidePanel.getCompositeIndexBox().setManaged(false);
         sidePanel.getSliderContainer().setVisible(false);
         sidePanel.getSliderContainer().setManaged(false);
         
@@ -146,6 +180,12 @@ public class SidePanelController {
 
         sidePanel.getColorDropdownBox().setVisible(true);
         sidePanel.getColorDropdownBox().setManaged(true);
+        sidePanel.getChannelDropdownBox().setVisible(true);
+        sidePanel.getChannelDropdownBox().setManaged(true);
+        sidePanel.getDifferenceDropdownBox().setVisible(true);
+        sidePanel.getDifferenceDropdownBox().setManaged(true);
+        sidePanel.getCompositeIndexBox().setVisible(true);
+        sidePanel.getCompositeIndexBox().setManaged(true);
         sidePanel.getSliderContainer().setVisible(true);
         sidePanel.getSliderContainer().setManaged(true);
         
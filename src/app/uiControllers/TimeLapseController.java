@@ -0,0 +1,221 @@
+package app.uiControllers;
+
+import app.uiViews.TimeLapseControls;
+import dataProcessing.DataManager;
+import dataProcessing.Pollutant;
+import pollutionLayer.TimeLapseFrameCache;
+import pollutionLayer.TimeLapseLayer;
+import pollutionLayer.TimeLapsePlayback;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Plays a time-lapse of the map through the available years of the selected pollutant.
+ *
+ * The frames of the current and next few years are prepared in the background while playing, so
+ * every year is shown for the same time. While paused, the interactive pollution layer of the
+ * displayed year is shown instead, and scrubbing selects the year. Years whose frame cannot be
+ * rendered are skipped, and playback stops if no year can be.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class TimeLapseController {
+    private final static Duration TICK_INTERVAL = Duration.millis(1000.0 / 60); // Playback refreshes at 60 frames per second.
+    private final static double SECONDS_PER_YEAR = 1.0;
+    private final static double CROSSFADE_SECONDS = 0.4;
+    private final static int PRELOAD_WINDOW = 4; // The number of years kept ready, starting with the displayed year.
+
+    private final MapController mapController;
+    private final TimeLapseControls controls;
+    private final TimeLapseLayer timeLapseLayer;
+    private final TimeLapseFrameCache frameCache;
+    private final Timeline timeline;
+
+    private IntConsumer onYearSelected; // Called with the year to display when playback is paused or the paused slider is moved.
+
+    private List<Integer> years = List.of(); // The available years of the pollutant, in ascending order.
+    private TimeLapsePlayback playback;
+    private boolean playing = false;
+    private long lastTickTime;
+    private boolean updatingSlider = false; // Flag to prevent slider updates from playback being handled as scrubbing.
+
+    /**
+     * Constructor.
+     * @param mapController The map controller of the map to play the time-lapse on.
+     * @param controls The time-lapse controls.
+     */
+    public TimeLapseController(MapController mapController, TimeLapseControls controls) {
+        this.mapController = mapController;
+        this.controls = controls;
+        timeLapseLayer = new TimeLapseLayer(mapController.getMapView());
+        frameCache = new TimeLapseFrameCache((year, pollutant) -> DataManager.getInstance().getPollutantData(year, pollutant), Platform::runLater, this::skipYear);
+
+        timeline = new Timeline(new KeyFrame(TICK_INTERVAL, e -> tick()));
+        timeline.setCycleCount(Animation.INDEFINITE);
+
+        setupEventHandlers();
+    }
+
+    /**
+     * Sets up event handlers for the play button, slider and crossfade checkbox.
+     */
+    private void setupEventHandlers() {
+        controls.getPlayButton().setOnAction(e -> {
+            if (playing) {
+                pause();
+            } else {
+                play();
+            }
+        });
+
+        controls.getYearSlider().valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!updatingSlider) scrub(newValue.intValue());
+        });
+
+        controls.getCrossfadeCheckBox().selectedProperty().addListener((observable, oldValue, newValue) -> {
+            if (playback != null) playback.setCrossfade(newValue);
+        });
+    }
+
+    /**
+     * Starts playing from the displayed year.
+     */
+    public void play() {
+        if (playing || years.isEmpty()) return;
+
+        playback = new TimeLapsePlayback(years.size(), SECONDS_PER_YEAR, CROSSFADE_SECONDS);
+        playback.setCrossfade(controls.getCrossfadeCheckBox().isSelected());
+        playback.seek(Math.max(years.indexOf(mapController.getCurrentYear()), 0));
+
+        // The pollution layer stays underneath until the first frame is ready.
+        mapController.showTimeLapseLayer(timeLapseLayer);
+        playing = true;
+        controls.setPlaying(true);
+
+        lastTickTime = System.nanoTime();
+        timeline.play();
+    }
+
+    /**
+     * Pauses on the displayed year, showing its interactive pollution layer.
+     */
+    public void pause() {
+        if (!playing) return;
+
+        int year = years.get(playback.getFrame());
+        stop();
+        if (onYearSelected != null) onYearSelected.accept(year);
+    }
+
+    /**
+     * Stops playing and frees the prepared frames, leaving the pollution layer as it was.
+     */
+    public void stop() {
+        if (!playing) return;
+
+        playing = false;
+        timeline.stop();
+        frameCache.clear();
+        timeLapseLayer.showFrames(null, null, 0); // Do not show this playback's last frame when playback starts again.
+        mapController.hideTimeLapseLayer();
+        controls.setPlaying(false);
+    }
+
+    /**
+     * Shows the displayed year on the controls. Called when a year or pollutant is selected,
+     * which stops playback if it was not the time-lapse that selected it.
+     * @param year The selected year.
+     * @param pollutant The selected pollutant.
+     */
+    public void showSelectedYear(int year, Pollutant pollutant) {
+        stop();
+
+        // Copied before sorting, as the available years are shared.
+        List<Integer> availableYears = new ArrayList<>(DataManager.getInstance().getAvailableYears(pollutant));
+        Collections.sort(availableYears);
+        years = availableYears;
+
+        controls.setYearRange(years.size());
+        updateControls(Math.max(years.indexOf(year), 0), false);
+    }
+
+    /**
+     * Jumps to the year at a slider position, while playing, or selects it, while paused.
+     */
+    private void scrub(int index) {
+        if (index < 0 || index >= years.size()) return;
+
+        if (playing) {
+            playback.seek(index);
+        } else if (onYearSelected != null) {
+            onYearSelected.accept(years.get(index));
+        }
+    }
+
+    /**
+     * Skips a year whose frame could not be rendered, stopping playback if no year is left to show.
+     */
+    private void skipYear(int year) {
+        if (!playing) return;
+
+        playback.skip(years.indexOf(year));
+        if (!playback.hasFrames()) stop();
+    }
+
+    /**
+     * Advances playback, keeps the upcoming years' frames preloading, and shows the current frame.
+     */
+    private void tick() {
+        long now = System.nanoTime();
+        double seconds = (now - lastTickTime) / 1e9;
+        lastTickTime = now;
+
+        TimeLapseFrameCache.FrameView view = timeLapseLayer.getView();
+        if (view == null) return; // Not on the map yet.
+
+        List<Integer> window = Arrays.stream(playback.getWindow(PRELOAD_WINDOW)).mapToObj(years::get).toList();
+        frameCache.preload(window, mapController.getTimeLapseFrameStyle(), view);
+        playback.advance(seconds, i -> frameCache.isReady(years.get(i)));
+
+        TimeLapseFrameCache.Frame currentFrame = frameCache.getFrame(years.get(playback.getFrame()));
+        if (currentFrame != null) {
+            double crossfadeProgress = playback.getCrossfadeProgress();
+            TimeLapseFrameCache.Frame nextFrame = crossfadeProgress > 0 ? frameCache.getFrame(years.get(playback.getNextFrame())) : null;
+            timeLapseLayer.showFrames(currentFrame, nextFrame, crossfadeProgress);
+            mapController.hidePollutionLayer();
+        }
+
+        updateControls(playback.getFrame(), playback.isWaiting());
+    }
+
+    /**
+     * Moves the slider to a year and shows it, without scrubbing.
+     */
+    private void updateControls(int index, boolean loading) {
+        if (years.isEmpty()) return;
+
+        updatingSlider = true;
+        controls.getYearSlider().setValue(index);
+        updatingSlider = false;
+        controls.showYear(years.get(index), loading);
+    }
+
+    /**
+     * Set a callback for when the time-lapse selects a year to display interactively.
+     * @param callback IntConsumer that takes the year.
+     */
+    public void setOnYearSelected(IntConsumer callback) {
+        this.onYearSelected = callback;
+    }
+}
@@ -65,24 +65,50 @@ public class LegendPane extends VBox {
      * @param maxPollutionValue The maximum pollution value.
      */
     public void updateLegend(ColorSchemeManager colorSchemeManager, double maxPollutionValue) {
+        updateLegend(colorSchemeManager, 0, maxPollutionValue, Pollutant.UNITS);
+    }
+
+    /**
+     * Updates the legend according to the color scheme and range of values, which can be negative
+     * for changes in pollution.
+     * @param colorSchemeManager The color scheme manager.
+     * @param minValue The value of the first colour.
+     * @param maxValue The value of the last colour.
+     * @param units The units of the values.
+     */
+    public void updateLegend(ColorSchemeManager colorSchemeManager, double minValue, double maxValue, String units) {
         clearLegendItems();
 
         List<Color> colors = colorSchemeManager.getColorScheme().getColors();
         for (int i = 0; i < colors.size(); i++) {
             Color color = colors.get(i);
 
-            double lowerBound = ((double) i / colors.size()) * maxPollutionValue;
-            double upperBound = ((double) (i + 1) / colors.size()) * maxPollutionValue;
+            double lowerBound = minValue + ((double) i / colors.size()) * (maxValue - minValue);
+            double upperBound = minValue + ((double) (i + 1) / colors.size()) * (maxValue - minValue);
 
             lowerBound = (double) (int) (lowerBound * 10) / 10; // Round to 1 decimal place.
             upperBound = (double) (int) (upperBound * 10) / 10;
 
-            String label = lowerBound + "-" + upperBound + " " + Pollutant.UNITS;
+            String label = lowerBound + " to " + upperBound + " " + units;
 
             addLegendItem(label, color);
         }
     }
 
+    /**
+     * Updates the legend to show the DAQI band of each colour of a banded color scheme.
+     * @param colorSchemeManager The color scheme manager, with one colour per band.
+     */
+    public void updateBandLegend(ColorSchemeManager colorSchemeManager) {
+        clearLegendItems();
+
+        List<Color> colors = colorSchemeManager.getColorScheme().getColors();
+        for (int i = 0; i < colors.size(); i++) {
+            int band = i + 1;
+            addLegendItem("Band " + band + " (" + Pollutant.getPollutionBandName(band) + ")", colors.get(i));
+        }
+    }
+
     /**
      * Adds a legend item to the legend.
      * @param label The label.
@@ -120,7 +146,7 @@ public class LegendPane extends VBox {
             // Expand animation:
             Timeline expand = new Timeline(
                 new KeyFrame(Duration.millis(200),
-                    new KeyValue(content.maxHeightProperty(), 100),
+                    new KeyValue(content.maxHeightProperty(), Math.max(100, content.prefHeight(-1))), // Fits every item, such as the 10 DAQI bands.
                     new KeyValue(content.opacityProperty(), 1)
                 )
             );
@@ -0,0 +1,54 @@
+package app.uiViews;
+
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.HBox;
+
+/**
+ * A small map overlay showing that a dataset is loading in the background, while the map keeps
+ * showing the previous dataset.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class LoadingIndicator extends HBox {
+    private final Label messageLabel;
+
+    /**
+     * Constructor. The indicator starts hidden.
+     */
+    public LoadingIndicator() {
+        ProgressIndicator progressIndicator = new ProgressIndicator(); // Indeterminate, as files are read in one go.
+        progressIndicator.setPrefSize(18, 18);
+
+        messageLabel = new Label();
+        messageLabel.getStyleClass().add("loading-indicator-text");
+
+        getChildren().addAll(progressIndicator, messageLabel);
+        getStyleClass().add("loading-indicator");
+        setAlignment(Pos.CENTER_LEFT);
+        setSpacing(8);
+        setMaxWidth(USE_PREF_SIZE);
+        setMaxHeight(USE_PREF_SIZE);
+        setMouseTransparent(true); // Do not block dragging the map underneath.
+
+        setVisible(false);
+    }
+
+    /**
+     * Shows the indicator.
+     * @param message What is loading.
+     */
+    public void show(String message) {
+        messageLabel.setText(message);
+        setVisible(true);
+    }
+
+    /**
+     * Hides the indicator.
+     */
+    public void hide() {
+        setVisible(false);
+    }
+}
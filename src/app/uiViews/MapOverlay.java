@@ -9,7 +9,10 @@ import utility.CustomMapView;
  * This overlay contains:
  * - A legend for map data representation,
  * - Zoom controls for adjusting the map view,
- * - A toggle button for showing or hiding the side panel.
+ * - A toggle button for showing or hiding the side panel,
+ * - A render statistics overlay for debugging, hidden by default,
+ * - Time-lapse controls for playing through the years,
+ * - A loading indicator, shown while a dataset loads in the background.
  *
  * It ensures proper alignment and placement of these components within the overlay.
  *
@@ -19,6 +22,9 @@ import utility.CustomMapView;
 public class MapOverlay extends AnchorPane {
     private final LegendPane legend;
     private final ZoomControls zoomControls;
+    private final RenderStatisticsPane renderStatisticsPane;
+    private final TimeLapseControls timeLapseControls;
+    private final LoadingIndicator loadingIndicator;
     private final CustomMapView mapView;
     
     private HideSidePanelButton hideSidePanelButton;
@@ -32,6 +38,9 @@ public class MapOverlay extends AnchorPane {
         this.mapView = mapView;
         legend = new LegendPane();
         zoomControls = new ZoomControls(mapView);
+        renderStatisticsPane = new RenderStatisticsPane();
+        timeLapseControls = new TimeLapseControls();
+        loadingIndicator = new LoadingIndicator();
 
         // Ensure the map view covers the entire overlay:
         setTopAnchor(mapView, 0.0);
@@ -44,8 +53,14 @@ public class MapOverlay extends AnchorPane {
         setRightAnchor(legend, 20.0);
         setTopAnchor(zoomControls, 20.0);
         setRightAnchor(zoomControls, 20.0);
+        setTopAnchor(renderStatisticsPane, 20.0);
+        setLeftAnchor(renderStatisticsPane, 20.0);
+        setBottomAnchor(timeLapseControls, 20.0);
+        setLeftAnchor(timeLapseControls, 40.0);
+        setTopAnchor(loadingIndicator, 20.0);
+        setRightAnchor(loadingIndicator, 80.0); // Left of the zoom controls.
 
-        getChildren().addAll(mapView, legend, zoomControls);
+        getChildren().addAll(mapView, legend, zoomControls, renderStatisticsPane, timeLapseControls, loadingIndicator);
     }
 
     /**
@@ -62,4 +77,7 @@ public class MapOverlay extends AnchorPane {
     // Getters:
     public LegendPane getLegend() { return legend; }
     public CustomMapView getMapView() { return mapView; }
+    public RenderStatisticsPane getRenderStatisticsPane() { return renderStatisticsPane; }
+    public TimeLapseControls getTimeLapseControls() { return timeLapseControls; }
+    public LoadingIndicator getLoadingIndicator() { return loadingIndicator; }
 }
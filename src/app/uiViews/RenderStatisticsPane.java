@@ -0,0 +1,94 @@
+package app.uiViews;
+
+import pollutionLayer.RenderStatistics;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Animation;
+import javafx.animation.Timeline;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+/**
+ * A debug overlay that displays the render statistics of the pollution layer, refreshed a few times per second.
+ * The refresh only runs while the overlay is shown.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class RenderStatisticsPane extends VBox {
+    private final static Duration REFRESH_INTERVAL = Duration.millis(250);
+
+    private final Label statisticsLabel;
+    private final Timeline refreshTimeline;
+    private RenderStatistics statistics;
+
+    /**
+     * Constructor. The overlay starts hidden.
+     */
+    public RenderStatisticsPane() {
+        Label titleLabel = new Label("Render Statistics");
+        titleLabel.getStyleClass().add("render-statistics-title");
+
+        statisticsLabel = new Label();
+        statisticsLabel.getStyleClass().add("render-statistics-text");
+
+        getChildren().addAll(titleLabel, statisticsLabel);
+        getStyleClass().add("render-statistics-pane");
+        setMaxWidth(USE_PREF_SIZE);
+        setMaxHeight(USE_PREF_SIZE);
+        setMouseTransparent(true); // Do not block dragging the map underneath.
+
+        refreshTimeline = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> refresh()));
+        refreshTimeline.setCycleCount(Animation.INDEFINITE);
+
+        setVisible(false);
+    }
+
+    /**
+     * Shows the overlay and starts refreshing it.
+     * @param statistics The statistics to display.
+     */
+    public void show(RenderStatistics statistics) {
+        this.statistics = statistics;
+        refresh();
+        setVisible(true);
+        refreshTimeline.play();
+    }
+
+    /**
+     * Hides the overlay and stops refreshing it.
+     */
+    public void hide() {
+        refreshTimeline.stop();
+        setVisible(false);
+    }
+
+    /**
+     * Updates the displayed text from the statistics.
+     */
+    private void refresh() {
+        if (statistics == null) return;
+
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("FPS: %d%n", statistics.getFramesPerSecond()));
+        text.append(String.format("Frame time p50/p95/p99: %.2f / %.2f / %.2f ms%n",
+            statistics.getFrameTimePercentile(0.50), statistics.getFrameTimePercentile(0.95), statistics.getFrameTimePercentile(0.99)));
+        for (RenderStatistics.Stage stage : RenderStatistics.Stage.values()) {
+            text.append(String.format("%s: %.2f ms%n", stage.getDisplayName(), statistics.getMeanStageTime(stage)));
+        }
+        text.append(String.format("Polygons drawn/culled: %d / %d%n", statistics.getPolygonsDrawn(), statistics.getPolygonsCulled()));
+        text.append(String.format("LOD index: %d%n", statistics.getLODIndex()));
+        text.append(String.format("Tile cache hit rate: %s%n", formatRate(statistics.getTileCacheHitRate())));
+        text.append(String.format("Raster reuse rate: %s", formatRate(statistics.getRasterReuseRate())));
+
+        statisticsLabel.setText(text.toString());
+    }
+
+    /**
+     * @return The rate as a percentage, or a dash if it is undefined.
+     */
+    private static String formatRate(double rate) {
+        return Double.isNaN(rate) ? "-" : String.format("%.1f%%", rate * 100);
+    }
+}
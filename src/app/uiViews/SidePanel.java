@@ -34,21 +34,30 @@ public class SidePanel extends VBox {
     // UI Component Controllers:
     private DataSelectionController dataSelectionController;
     private ColorSchemeController colorSchemeController;
+    private AggregationChannelController aggregationChannelController;
     private PollutionThresholdController pollutionThresholdController;
+    private DifferenceController differenceController;
+    private CompositeIndexController compositeIndexController;
 
     private VBox pollutantDropdownBox;
     private VBox yearDropdownBox;
     private VBox endYearDropdownBox;
     private VBox colorDropdownBox;
+    private VBox channelDropdownBox;
+    private VBox differenceDropdownBox;
+    private VBox compositeIndexBox;
     private VBox sliderContainer;
 
     /**
      * Constructor initialises the UI components.
      */
-    public SidePanel(DataSelectionController dataSelectionController, ColorSchemeController colorSchemeController, PollutionThresholdController pollutionThresholdController) {
+    public SidePanel(DataSelectionController dataSelectionController, ColorSchemeController colorSchemeController, AggregationChannelController aggregationChannelController, PollutionThresholdController pollutionThresholdController, DifferenceController differenceController, CompositeIndexController compositeIndexController) {
         this.dataSelectionController = dataSelectionController;
         this.colorSchemeController = colorSchemeController;
+        this.aggregationChannelController = aggregationChannelController;
         this.pollutionThresholdController = pollutionThresholdController;
+        this.differenceController = differenceController;
+        this.compositeIndexController = compositeIndexController;
 
         this.getStyleClass().add("side-panel");
         this.getChildren().addAll(
@@ -98,7 +107,7 @@ public class SidePanel extends VBox {
     }
 
     /**
-     * Creates selection controls for year, pollutant, and color scheme.
+     * Creates selection controls for year, pollutant, color scheme, aggregation channel, year-over-year difference and composite DAQI.
      */
     private VBox createSelectionControls() {
         VBox selectionControls = new VBox();
@@ -107,17 +116,23 @@ public class SidePanel extends VBox {
         yearDropdownBox = dataSelectionController.createYearSelector();
         endYearDropdownBox = dataSelectionController.createEndYearSelector();
         colorDropdownBox = colorSchemeController.createColorSelector();
+        channelDropdownBox = aggregationChannelController.createChannelSelector();
+        differenceDropdownBox = differenceController.createDifferenceSelector();
+        compositeIndexBox = compositeIndexController.createCompositeIndexSelector();
 
         pollutantDropdownBox.getStyleClass().add("dropdown");
         yearDropdownBox.getStyleClass().add("dropdown");
         endYearDropdownBox.getStyleClass().add("dropdown");
         colorDropdownBox.getStyleClass().add("dropdown");
+        channelDropdownBox.getStyleClass().add("dropdown");
+        differenceDropdownBox.getStyleClass().add("dropdown");
+        compositeIndexBox.getStyleClass().add("dropdown");
 
         // Initially hide end year dropdown
         endYearDropdownBox.setVisible(false);
         endYearDropdownBox.setManaged(false);
 
-        selectionControls.getChildren().addAll(pollutantDropdownBox, yearDropdownBox, endYearDropdownBox, colorDropdownBox);
+        selectionControls.getChildren().addAll(pollutantDropdownBox, yearDropdownBox, endYearDropdownBox, colorDropdownBox, channelDropdownBox, differenceDropdownBox, compositeIndexBox);
         selectionControls.getStyleClass().add("dropdown-box");
 
         return selectionControls;
@@ -175,5 +190,8 @@ public class SidePanel extends VBox {
     public Label getSwitchLabel() { return switchLabel; }
     public VBox getEndYearDropdownBox() { return endYearDropdownBox; }
     public VBox getColorDropdownBox() { return colorDropdownBox; }
+    public VBox getChannelDropdownBox() { return channelDropdownBox; }
+    public VBox getDifferenceDropdownBox() { return differenceDropdownBox; }
+    public VBox getCompositeIndexBox() { return compositeIndexBox; }
     public VBox getSliderContainer() { return sliderContainer; }
 }
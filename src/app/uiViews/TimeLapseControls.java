@@ -0,0 +1,84 @@
+package app.uiViews;
+
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.HBox;
+
+/**
+ * The controls of the year time-lapse: a play/pause button, a slider to scrub through the years,
+ * the displayed year and a checkbox to crossfade between years.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class TimeLapseControls extends HBox {
+    private final static String PLAY_TEXT = "▶";
+    private final static String PAUSE_TEXT = "⏸";
+
+    private final Button playButton;
+    private final Slider yearSlider;
+    private final Label yearLabel;
+    private final CheckBox crossfadeCheckBox;
+
+    /**
+     * Constructor. The slider has no years until setYearRange() is called.
+     */
+    public TimeLapseControls() {
+        playButton = new Button(PLAY_TEXT);
+        playButton.getStyleClass().add("time-lapse-button");
+        Tooltip.install(playButton, new Tooltip("Play Years"));
+
+        yearSlider = new Slider(0, 0, 0);
+        yearSlider.setMajorTickUnit(1);
+        yearSlider.setMinorTickCount(0);
+        yearSlider.setSnapToTicks(true);
+        yearSlider.setShowTickMarks(true);
+        yearSlider.setPrefWidth(200);
+
+        yearLabel = new Label();
+        yearLabel.getStyleClass().add("time-lapse-year");
+
+        crossfadeCheckBox = new CheckBox("Crossfade");
+
+        getChildren().addAll(playButton, yearSlider, yearLabel, crossfadeCheckBox);
+        getStyleClass().add("time-lapse-controls");
+        setAlignment(Pos.CENTER_LEFT);
+        setSpacing(10);
+        setMaxWidth(USE_PREF_SIZE);
+        setMaxHeight(USE_PREF_SIZE);
+    }
+
+    /**
+     * Sets the years the slider scrubs through, one tick per year.
+     * @param yearCount The number of years.
+     */
+    public void setYearRange(int yearCount) {
+        yearSlider.setMax(Math.max(yearCount - 1, 0));
+    }
+
+    /**
+     * Shows the year being displayed.
+     * @param year The displayed year.
+     * @param loading True if playback is waiting for the year's next frame to be prepared.
+     */
+    public void showYear(int year, boolean loading) {
+        yearLabel.setText(loading ? year + " (loading)" : String.valueOf(year));
+    }
+
+    /**
+     * Switches the play button between playing and paused.
+     * @param playing True if the time-lapse is playing.
+     */
+    public void setPlaying(boolean playing) {
+        playButton.setText(playing ? PAUSE_TEXT : PLAY_TEXT);
+    }
+
+    // Getters:
+    public Button getPlayButton() { return playButton; }
+    public Slider getYearSlider() { return yearSlider; }
+    public CheckBox getCrossfadeCheckBox() { return crossfadeCheckBox; }
+}
@@ -0,0 +1,83 @@
+package colors;
+
+import javafx.scene.paint.Color;
+
+/**
+ * A colour scheme compiled into a table of colours at a fixed opacity, indexed by the quantised
+ * normalised value. Looking up a colour is an array access, with no searching, interpolation
+ * or allocation, so the map renderers can colour every polygon of a frame without creating objects.
+ *
+ * Each entry is stored both as a premultiplied ARGB pixel, for the rasterisers, and as a Color, for
+ * drawing on a canvas. The null colour is stored at NULL_INDEX, after the scheme's colours.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class ColorLookupTable {
+    public final static int SIZE = 1024; // The number of quantised colours.
+    public final static int NULL_INDEX = SIZE; // The index of the null colour.
+
+    private final int[] premultipliedArgb;
+    private final Color[] colors;
+
+    /**
+     * Compiles a colour scheme into a lookup table. Use ColorScheme.getLookupTable() to get a cached table.
+     * @param colorScheme The colour scheme to compile.
+     * @param opacity The opacity of the colours in range 0 - 1.
+     */
+    public ColorLookupTable(ColorScheme colorScheme, double opacity) {
+        premultipliedArgb = new int[SIZE + 1];
+        colors = new Color[SIZE + 1];
+
+        for (int i = 0; i < SIZE; i++) {
+            setEntry(i, colorScheme.getColor((double) i / (SIZE - 1)), opacity);
+        }
+        setEntry(NULL_INDEX, colorScheme.getNullColour(), opacity);
+    }
+
+    private void setEntry(int index, Color color, double opacity) {
+        premultipliedArgb[index] = toPremultipliedArgb(color, opacity);
+        colors[index] = new Color(color.getRed(), color.getGreen(), color.getBlue(), Math.min(Math.max(0.0, opacity), 1.0));
+    }
+
+    /**
+     * @param normalisedValue Normalised pollution value from 0 to 1, values outside the range are clamped.
+     * @return The index of the table entry closest to the value.
+     */
+    public static int getIndex(double normalisedValue) {
+        if (!(normalisedValue > 0)) return 0; // Also catches NaN.
+        if (normalisedValue >= 1) return SIZE - 1;
+        return (int) (normalisedValue * (SIZE - 1) + 0.5);
+    }
+
+    /**
+     * @param index The table index, from getIndex() or NULL_INDEX.
+     * @return The premultiplied ARGB pixel of the entry.
+     */
+    public int getArgb(int index) {
+        return premultipliedArgb[index];
+    }
+
+    /**
+     * @param index The table index, from getIndex() or NULL_INDEX.
+     * @return The colour of the entry, with the table's opacity.
+     */
+    public Color getColor(int index) {
+        return colors[index];
+    }
+
+    /**
+     * Converts a colour with an opacity into a premultiplied ARGB pixel.
+     * @param color The colour, its own opacity is ignored.
+     * @param opacity The opacity in range 0 - 1.
+     * @return The premultiplied ARGB pixel.
+     */
+    public static int toPremultipliedArgb(Color color, double opacity) {
+        opacity = Math.min(Math.max(0.0, opacity), 1.0); // Sanitise to be in range 0 - 1.
+        int alpha = (int) Math.round(opacity * 255);
+        int red = (int) Math.round(color.getRed() * alpha);
+        int green = (int) Math.round(color.getGreen() * alpha);
+        int blue = (int) Math.round(color.getBlue() * alpha);
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+}
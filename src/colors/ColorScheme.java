@@ -3,16 +3,20 @@ package colors;
 import javafx.scene.paint.Color;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Maps a normalised value from 0 - 1 to a range of colours.
  * Subclasses can define different colour sets to use.
+ * For rendering, the scheme can be compiled into lookup tables with getLookupTable().
  *
  * @author Mehmet Kutay Bozkurt and Anas Ahmed
- * @version 1.0
+ * @version 1.1
  */
 public abstract class ColorScheme {
     protected List<Color> colors;
+    private final Map<Integer, ColorLookupTable> lookupTables = new ConcurrentHashMap<>(); // Compiled tables by alpha 0 - 255.
 
     /**
      * Linearly interpolate from a to b with ratio t.
@@ -56,6 +60,16 @@ public abstract class ColorScheme {
         return colors.getLast(); // Fallback case.
     }
 
+    /**
+     * Gets the lookup table of the scheme at an opacity, compiling it on first use. Safe to call from any thread.
+     * @param opacity The opacity of the colours in range 0 - 1.
+     * @return The lookup table.
+     */
+    public ColorLookupTable getLookupTable(double opacity) {
+        int alpha = (int) Math.round(Math.min(Math.max(0.0, opacity), 1.0) * 255);
+        return lookupTables.computeIfAbsent(alpha, key -> new ColorLookupTable(this, key / 255.0));
+    }
+
     /**
      * @return The list of colours in the scheme.
      */
@@ -0,0 +1,45 @@
+package colors;
+
+import javafx.scene.paint.Color;
+
+import java.util.List;
+
+/**
+ * Color scheme of the 10 bands of the Daily Air Quality Index, using DEFRA's band colours.
+ * Colours are not interpolated: each band, normalised from 0 (band 1) to 1 (band 10), has its own colour.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class DAQIColorScheme extends ColorScheme {
+    public DAQIColorScheme() {
+        colors = List.of(
+            Color.rgb(156, 255, 156), // Band 1 (Low).
+            Color.rgb(49, 255, 0), // Band 2 (Low).
+            Color.rgb(49, 207, 0), // Band 3 (Low).
+            Color.rgb(255, 255, 0), // Band 4 (Moderate).
+            Color.rgb(255, 207, 0), // Band 5 (Moderate).
+            Color.rgb(255, 154, 0), // Band 6 (Moderate).
+            Color.rgb(255, 100, 100), // Band 7 (High).
+            Color.rgb(255, 0, 0), // Band 8 (High).
+            Color.rgb(153, 0, 0), // Band 9 (High).
+            Color.rgb(206, 48, 255) // Band 10 (Very High).
+        );
+    }
+
+    /**
+     * Maps a normalised band to the colour of the nearest band.
+     * @param normalisedValue Normalised band from 0 to 1.
+     * @return The colour of the band.
+     */
+    @Override
+    public Color getColor(double normalisedValue) {
+        double clampedValue = Math.min(Math.max(0.0, normalisedValue), 1.0);
+        return colors.get((int) Math.round(clampedValue * (colors.size() - 1)));
+    }
+
+    @Override
+    public String toString() {
+        return "DAQI";
+    }
+}
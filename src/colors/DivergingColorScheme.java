@@ -0,0 +1,29 @@
+package colors;
+
+import javafx.scene.paint.Color;
+
+import java.util.List;
+
+/**
+ * Diverging color scheme for visualising changes in pollution.
+ * Uses a gradient from blue (large fall) to near-white (no change) to red (large rise).
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class DivergingColorScheme extends ColorScheme {
+    public DivergingColorScheme() {
+        colors = List.of(
+            Color.rgb(33, 102, 172), // Dark Blue (Large fall).
+            Color.rgb(103, 169, 207), // Blue (Fall).
+            Color.rgb(247, 247, 247), // Near-White (No change).
+            Color.rgb(239, 138, 98), // Orange-Red (Rise).
+            Color.rgb(178, 24, 43) // Dark Red (Large rise).
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "Diverging";
+    }
+}
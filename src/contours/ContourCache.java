@@ -0,0 +1,40 @@
+package contours;
+
+import dataProcessing.DataSet;
+import lod.AggregationChannel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches the contour sets of each dataset, so switching back to a dataset, LOD, aggregation channel
+ * or set of levels does not trace its contours again. Entries are dropped with their dataset.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class ContourCache {
+    private final Map<DataSet, Map<ContourKey, ContourSet>> contourSets = new WeakHashMap<>();
+
+    /**
+     * Identifies the contour set of a dataset.
+     */
+    private record ContourKey(int lodIndex, AggregationChannel channel, String levels) {}
+
+    /**
+     * Gets the cached contour set of a dataset, or traces and caches it.
+     * @param dataSet The dataset the contours are of.
+     * @param lodIndex The index of the LOD the contours are traced from.
+     * @param channel The aggregation channel of the LOD's values.
+     * @param levels The levels of the contours.
+     * @param tracer Traces the contour set if it is not cached.
+     * @return The contour set.
+     */
+    public synchronized ContourSet getContourSet(DataSet dataSet, int lodIndex, AggregationChannel channel, double[] levels, Supplier<ContourSet> tracer) {
+        ContourKey key = new ContourKey(lodIndex, channel, Arrays.toString(levels));
+        return contourSets.computeIfAbsent(dataSet, k -> new HashMap<>()).computeIfAbsent(key, k -> tracer.get());
+    }
+}
@@ -0,0 +1,64 @@
+package contours;
+
+import dataProcessing.CompositeIndexDataSet;
+import dataProcessing.DataPoint;
+import dataProcessing.DataSet;
+import dataProcessing.Pollutant;
+
+import java.util.Arrays;
+
+/**
+ * Enum for the ways the levels of contour lines are chosen.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public enum ContourLevels {
+    DAQI_BANDS, EVENLY_SPACED;
+
+    private final static int EVENLY_SPACED_COUNT = 9; // An odd count puts a level at 0 for changes.
+
+    /**
+     * Gets the contour levels of a dataset. Datasets of changes have no DAQI bands, so they use evenly spaced levels.
+     * @param dataSet The dataset the contours are of.
+     * @param pollutant The pollutant of the dataset.
+     * @return The levels, in ascending order.
+     */
+    public double[] getLevels(DataSet dataSet, Pollutant pollutant) {
+        if (this == DAQI_BANDS && dataSet instanceof CompositeIndexDataSet) {
+            // The boundaries between bands, which are the dataset's values.
+            double[] levels = new double[CompositeIndexDataSet.MAX_BAND - CompositeIndexDataSet.MIN_BAND];
+            for (int i = 0; i < levels.length; i++) {
+                levels[i] = CompositeIndexDataSet.MIN_BAND + i + 0.5;
+            }
+            return levels;
+        }
+        if (this == DAQI_BANDS && !dataSet.hasSignedValues()) {
+            return Arrays.stream(Pollutant.CONCENTRATION_BANDS.get(pollutant)).asDoubleStream().toArray();
+        }
+
+        double minValue = dataSet.getData().stream().mapToDouble(DataPoint::value).filter(dataSet::isValidValue).min().orElse(0);
+        double maxValue = dataSet.getData().stream().mapToDouble(DataPoint::value).filter(dataSet::isValidValue).max().orElse(0);
+        if (dataSet.hasSignedValues()) {
+            // Changes are spaced symmetrically about no change.
+            maxValue = Math.max(Math.abs(minValue), Math.abs(maxValue));
+            minValue = -maxValue;
+        }
+
+        double[] levels = new double[EVENLY_SPACED_COUNT];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = minValue + (i + 1) * (maxValue - minValue) / (EVENLY_SPACED_COUNT + 1);
+        }
+        return levels;
+    }
+
+    /**
+     * @return The display name of the contour levels.
+     */
+    public String getDisplayName() {
+        return switch (this) {
+            case DAQI_BANDS -> "DAQI Band Boundaries";
+            case EVENLY_SPACED -> "Evenly Spaced Levels";
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package contours;
+
+/**
+ * A contour line at a level, as x, y pairs of normalised Web Mercator coordinates, with its bounds for culling.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public record ContourLine(double level, double[] points, double minX, double minY, double maxX, double maxY) {
+    /**
+     * Creates a contour line, finding its bounds.
+     * @param level The level of the line.
+     * @param points The line as x, y pairs of normalised Web Mercator coordinates.
+     * @return The contour line.
+     */
+    public static ContourLine of(double level, double[] points) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < points.length; i += 2) {
+            minX = Math.min(minX, points[i]);
+            maxX = Math.max(maxX, points[i]);
+            minY = Math.min(minY, points[i + 1]);
+            maxY = Math.max(maxY, points[i + 1]);
+        }
+        return new ContourLine(level, points, minX, minY, maxX, maxY);
+    }
+
+    /**
+     * @return The number of line segments of the line.
+     */
+    public int getSegmentCount() {
+        return points.length / 2 - 1;
+    }
+}
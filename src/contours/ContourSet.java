@@ -0,0 +1,92 @@
+package contours;
+
+import dataProcessing.OccupancyMask;
+import utility.GeographicUtilities;
+import utility.WebMercator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The contour lines of a LOD grid at a set of levels. The lines are traced once at full detail,
+ * and simplified for each zoom level on first use, so a zoomed out map draws a few hundred line
+ * segments instead of every cell.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class ContourSet {
+    private final static double SIMPLIFY_TOLERANCE = 0.5; // The furthest a simplified line may move, in pixels.
+
+    private final List<ContourLine> lines; // Ordered by level.
+    private final Map<Integer, List<ContourLine>> simplifiedLines = new HashMap<>(); // Simplified lines by zoom level.
+
+    /**
+     * Traces the contour lines of a LOD grid.
+     * @param occupancyMask The occupied cells of the grid.
+     * @param values The value of each occupied cell, indexed like the mask's cells.
+     * @param levels The levels to trace lines at.
+     */
+    public ContourSet(OccupancyMask occupancyMask, double[] values, double[] levels) {
+        int columns = occupancyMask.getColumns();
+        int rows = occupancyMask.getRows();
+        double[] grid = new double[columns * rows];
+        Arrays.fill(grid, Double.NaN);
+        for (int row = 0; row < rows; row++) {
+            for (int run = occupancyMask.getRowRunsStart(row); run < occupancyMask.getRowRunsEnd(row); run++) {
+                int startColumn = occupancyMask.getRunStartColumn(run);
+                int firstCell = occupancyMask.getRunFirstCell(run);
+                for (int i = 0; i < occupancyMask.getRunLength(run); i++) {
+                    grid[row * columns + startColumn + i] = values[firstCell + i];
+                }
+            }
+        }
+
+        double[] sortedLevels = levels.clone();
+        Arrays.sort(sortedLevels);
+        lines = new ArrayList<>();
+        double[] latitudeLongitude = new double[2];
+        for (double level : sortedLevels) {
+            for (double[] gridPoints : MarchingSquares.trace(grid, columns, rows, level)) {
+                // Grid points are the cells' centroids, converted once to normalised Web Mercator coordinates.
+                double[] points = new double[gridPoints.length];
+                for (int i = 0; i < gridPoints.length; i += 2) {
+                    double easting = occupancyMask.getOriginEasting() + gridPoints[i] * occupancyMask.getCellSize();
+                    double northing = occupancyMask.getOriginNorthing() + gridPoints[i + 1] * occupancyMask.getCellSize();
+                    GeographicUtilities.approximateEastingNorthingToLatLon(easting, northing, latitudeLongitude);
+                    points[i] = WebMercator.toNormalisedX(latitudeLongitude[1]);
+                    points[i + 1] = WebMercator.toNormalisedY(latitudeLongitude[0]);
+                }
+                lines.add(ContourLine.of(level, points));
+            }
+        }
+    }
+
+    /**
+     * Gets the lines simplified for a zoom level, simplifying them on first use. Lines smaller than
+     * the tolerance are left out, as they would not be visible.
+     * @param zoomLevel The integer zoom level of the map.
+     * @return The simplified lines, ordered by level.
+     */
+    public synchronized List<ContourLine> getLines(int zoomLevel) {
+        return simplifiedLines.computeIfAbsent(zoomLevel, key -> {
+            double tolerance = SIMPLIFY_TOLERANCE / WebMercator.getWorldSize(zoomLevel);
+            List<ContourLine> simplified = new ArrayList<>();
+            for (ContourLine line : lines) {
+                if (line.maxX() - line.minX() < tolerance && line.maxY() - line.minY() < tolerance) continue;
+                simplified.add(ContourLine.of(line.level(), DouglasPeucker.simplify(line.points(), tolerance)));
+            }
+            return simplified;
+        });
+    }
+
+    /**
+     * @return The lines at full detail, ordered by level.
+     */
+    public List<ContourLine> getLines() {
+        return lines;
+    }
+}
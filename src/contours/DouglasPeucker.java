@@ -0,0 +1,88 @@
+package contours;
+
+/**
+ * Simplifies polylines with the Douglas-Peucker algorithm: a point is kept only if the line
+ * would move further than a tolerance without it, so straight runs collapse to their end points.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class DouglasPeucker {
+    /**
+     * Simplifies a polyline, always keeping its first and last points.
+     * @param points The polyline as x, y pairs.
+     * @param tolerance The furthest the simplified line may be from a removed point.
+     * @return The simplified polyline as x, y pairs.
+     */
+    public static double[] simplify(double[] points, double tolerance) {
+        int count = points.length / 2;
+        if (count <= 2) return points.clone();
+
+        boolean[] kept = new boolean[count];
+        kept[0] = true;
+        kept[count - 1] = true;
+
+        // Ranges of points still to simplify, as pairs of start and end indices.
+        int[] stack = new int[count * 2];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        stack[stackSize++] = count - 1;
+        double toleranceSquared = tolerance * tolerance;
+        while (stackSize > 0) {
+            int end = stack[--stackSize];
+            int start = stack[--stackSize];
+
+            int furthest = -1;
+            double furthestDistance = toleranceSquared;
+            for (int i = start + 1; i < end; i++) {
+                double distance = getSegmentDistanceSquared(points, i, start, end);
+                if (distance > furthestDistance) {
+                    furthest = i;
+                    furthestDistance = distance;
+                }
+            }
+
+            if (furthest != -1) {
+                kept[furthest] = true;
+                stack[stackSize++] = start;
+                stack[stackSize++] = furthest;
+                stack[stackSize++] = furthest;
+                stack[stackSize++] = end;
+            }
+        }
+
+        int keptCount = 0;
+        for (boolean isKept : kept) {
+            if (isKept) keptCount++;
+        }
+        double[] simplified = new double[keptCount * 2];
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            if (!kept[i]) continue;
+            simplified[next++] = points[i * 2];
+            simplified[next++] = points[i * 2 + 1];
+        }
+        return simplified;
+    }
+
+    /**
+     * @return The squared distance of a point from the segment between two other points,
+     *         or from the first of them if they are the same point, as at the ends of a closed line.
+     */
+    private static double getSegmentDistanceSquared(double[] points, int point, int start, int end) {
+        double x = points[point * 2];
+        double y = points[point * 2 + 1];
+        double startX = points[start * 2];
+        double startY = points[start * 2 + 1];
+        double dx = points[end * 2] - startX;
+        double dy = points[end * 2 + 1] - startY;
+
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? ((x - startX) * dx + (y - startY) * dy) / lengthSquared : 0;
+        t = Math.min(Math.max(t, 0), 1);
+
+        double offsetX = x - (startX + t * dx);
+        double offsetY = y - (startY + t * dy);
+        return offsetX * offsetX + offsetY * offsetY;
+    }
+}
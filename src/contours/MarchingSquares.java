@@ -0,0 +1,201 @@
+package contours;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traces the contour lines of a grid of values at a level with the marching squares algorithm.
+ *
+ * Each square of four neighbouring grid points is classified by which corners are at or above the
+ * level, which decides the edges the contour crosses; the crossing points are linearly interpolated
+ * along the edges. Squares with a missing corner (NaN) have no contour, so lines end at the edge of the
+ * data. The segments of neighbouring squares share their crossing edges, so they are joined into polylines.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class MarchingSquares {
+    // The edges of a square, between its corners 0 (column, row), 1 (column + 1, row), 2 (column + 1, row + 1) and 3 (column, row + 1):
+    private final static int BOTTOM = 0; // Corners 0 - 1.
+    private final static int RIGHT = 1; // Corners 1 - 2.
+    private final static int TOP = 2; // Corners 3 - 2.
+    private final static int LEFT = 3; // Corners 0 - 3.
+
+    /**
+     * The pairs of edges the contour crosses in each case, indexed by the corners at or above the level
+     * as bits 1 (corner 0), 2 (corner 1), 4 (corner 2) and 8 (corner 3). The saddles, cases 5 and 10,
+     * are listed for a centre below the level, and swapped when the centre is at or above it.
+     */
+    private final static int[][] SEGMENT_EDGES = {
+        {},
+        { LEFT, BOTTOM },
+        { BOTTOM, RIGHT },
+        { LEFT, RIGHT },
+        { RIGHT, TOP },
+        { LEFT, BOTTOM, RIGHT, TOP },
+        { BOTTOM, TOP },
+        { LEFT, TOP },
+        { TOP, LEFT },
+        { BOTTOM, TOP },
+        { BOTTOM, RIGHT, TOP, LEFT },
+        { RIGHT, TOP },
+        { LEFT, RIGHT },
+        { BOTTOM, RIGHT },
+        { LEFT, BOTTOM },
+        {}
+    };
+    private final static int[] SADDLE_5_CENTRE_ABOVE = { BOTTOM, RIGHT, TOP, LEFT };
+    private final static int[] SADDLE_10_CENTRE_ABOVE = { LEFT, BOTTOM, RIGHT, TOP };
+
+    private final double[] values;
+    private final int columns;
+    private final int rows;
+    private final double level;
+
+    // The crossed edges of each segment, as edge keys, see getEdgeKey():
+    private final List<long[]> segments = new ArrayList<>();
+    private final Map<Long, int[]> edgeSegments = new HashMap<>(); // The (at most two) segments crossing each edge, -1 for none.
+
+    /**
+     * Traces the contour lines of a grid at a level.
+     * @param values The value of each grid point in row-major order, NaN where missing.
+     * @param columns The number of grid columns.
+     * @param rows The number of grid rows.
+     * @param level The level to trace.
+     * @return The contour lines, each as x, y pairs of grid coordinates (column, row). Closed lines end with their first point.
+     */
+    public static List<double[]> trace(double[] values, int columns, int rows, double level) {
+        MarchingSquares marchingSquares = new MarchingSquares(values, columns, rows, level);
+        marchingSquares.findSegments();
+        return marchingSquares.joinSegments();
+    }
+
+    private MarchingSquares(double[] values, int columns, int rows, double level) {
+        this.values = values;
+        this.columns = columns;
+        this.rows = rows;
+        this.level = level;
+    }
+
+    /**
+     * Finds the contour segments of every square.
+     */
+    private void findSegments() {
+        for (int row = 0; row < rows - 1; row++) {
+            for (int column = 0; column < columns - 1; column++) {
+                double v0 = values[row * columns + column];
+                double v1 = values[row * columns + column + 1];
+                double v2 = values[(row + 1) * columns + column + 1];
+                double v3 = values[(row + 1) * columns + column];
+                if (Double.isNaN(v0) || Double.isNaN(v1) || Double.isNaN(v2) || Double.isNaN(v3)) continue; // No contour at the edge of the data.
+
+                int squareCase = (v0 >= level ? 1 : 0) | (v1 >= level ? 2 : 0) | (v2 >= level ? 4 : 0) | (v3 >= level ? 8 : 0);
+                int[] edges = SEGMENT_EDGES[squareCase];
+                if ((squareCase == 5 || squareCase == 10) && (v0 + v1 + v2 + v3) / 4 >= level) {
+                    edges = squareCase == 5 ? SADDLE_5_CENTRE_ABOVE : SADDLE_10_CENTRE_ABOVE;
+                }
+
+                for (int i = 0; i < edges.length; i += 2) {
+                    addSegment(getEdgeKey(column, row, edges[i]), getEdgeKey(column, row, edges[i + 1]));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A key identifying an edge of a square, shared with the neighbouring square.
+     */
+    private long getEdgeKey(int column, int row, int edge) {
+        // Horizontal edges are keyed by their left grid point, vertical edges by their bottom grid point.
+        return switch (edge) {
+            case BOTTOM -> ((long) row * columns + column) * 2;
+            case TOP -> ((long) (row + 1) * columns + column) * 2;
+            case LEFT -> ((long) row * columns + column) * 2 + 1;
+            default -> ((long) row * columns + column + 1) * 2 + 1; // Right.
+        };
+    }
+
+    private void addSegment(long startEdge, long endEdge) {
+        int segment = segments.size();
+        segments.add(new long[] { startEdge, endEdge });
+        for (long edge : new long[] { startEdge, endEdge }) {
+            int[] crossing = edgeSegments.computeIfAbsent(edge, key -> new int[] { -1, -1 });
+            crossing[crossing[0] == -1 ? 0 : 1] = segment;
+        }
+    }
+
+    /**
+     * Joins the segments into polylines, following the segments through their shared edges.
+     */
+    private List<double[]> joinSegments() {
+        List<double[]> lines = new ArrayList<>();
+        boolean[] joined = new boolean[segments.size()];
+
+        for (int first = 0; first < segments.size(); first++) {
+            if (joined[first]) continue;
+
+            // Walk back to the start of the line, or around a closed line back to the first segment.
+            int start = first;
+            long startEdge = segments.get(first)[0];
+            while (true) {
+                int previous = getOtherSegment(startEdge, start);
+                if (previous == -1 || previous == first) break;
+                startEdge = getOtherEdge(previous, startEdge);
+                start = previous;
+            }
+
+            // Walk forwards from the start, adding the crossing point of each edge.
+            List<Long> lineEdges = new ArrayList<>();
+            lineEdges.add(startEdge);
+            int segment = start;
+            long edge = startEdge;
+            while (segment != -1 && !joined[segment]) {
+                joined[segment] = true;
+                edge = getOtherEdge(segment, edge);
+                lineEdges.add(edge);
+                segment = getOtherSegment(edge, segment);
+            }
+
+            double[] points = new double[lineEdges.size() * 2];
+            for (int i = 0; i < lineEdges.size(); i++) {
+                setCrossingPoint(lineEdges.get(i), points, i * 2);
+            }
+            lines.add(points);
+        }
+        return lines;
+    }
+
+    /**
+     * @return The other segment crossing an edge, or -1 if there is none.
+     */
+    private int getOtherSegment(long edge, int segment) {
+        int[] crossing = edgeSegments.get(edge);
+        return crossing[0] == segment ? crossing[1] : crossing[0];
+    }
+
+    /**
+     * @return The other edge a segment crosses.
+     */
+    private long getOtherEdge(int segment, long edge) {
+        long[] edges = segments.get(segment);
+        return edges[0] == edge ? edges[1] : edges[0];
+    }
+
+    /**
+     * Writes the point where the contour crosses an edge, interpolated between the edge's grid points.
+     */
+    private void setCrossingPoint(long edge, double[] points, int offset) {
+        int point = (int) (edge / 2);
+        int column = point % columns;
+        int row = point / columns;
+        boolean vertical = edge % 2 == 1;
+
+        double startValue = values[point];
+        double endValue = values[vertical ? point + columns : point + 1];
+        double t = endValue != startValue ? (level - startValue) / (endValue - startValue) : 0.5;
+        points[offset] = vertical ? column : column + t;
+        points[offset + 1] = vertical ? row + t : row;
+    }
+}
@@ -0,0 +1,111 @@
+package dataProcessing;
+
+import java.util.Arrays;
+
+/**
+ * A lattice of 1 km cells covering the cells of several datasets on the same grid, used to join
+ * the datasets cell by cell. Each dataset is gathered into a dense array over the lattice, with
+ * NaN for missing cells, so the arrays are aligned: the same index is the same cell in every array.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class AlignedGrid {
+    private final static int CELL_SIZE = 1000; // The side length of a grid cell in meters.
+
+    private final int originEasting; // The easting of column 0.
+    private final int originNorthing; // The northing of row 0.
+    private final int columns;
+    private final int rows;
+
+    /**
+     * Creates the smallest lattice covering the valid cells of every dataset.
+     * @param dataSets The datasets to align, at least one.
+     * @throws IllegalArgumentException If the datasets are not on the same 1 km grid.
+     */
+    public AlignedGrid(DataSet... dataSets) throws IllegalArgumentException {
+        OccupancyMask firstMask = dataSets[0].getOccupancyMask();
+        int minEasting = Integer.MAX_VALUE;
+        int minNorthing = Integer.MAX_VALUE;
+        int maxEasting = Integer.MIN_VALUE;
+        int maxNorthing = Integer.MIN_VALUE;
+        for (DataSet dataSet : dataSets) {
+            OccupancyMask mask = dataSet.getOccupancyMask();
+            if (Math.floorMod(mask.getOriginEasting() - firstMask.getOriginEasting(), CELL_SIZE) != 0
+                || Math.floorMod(mask.getOriginNorthing() - firstMask.getOriginNorthing(), CELL_SIZE) != 0) {
+                throw new IllegalArgumentException("Datasets " + dataSets[0] + " and " + dataSet + " are not on the same grid");
+            }
+            if (mask.getCellCount() == 0) continue; // Covers no cells.
+
+            minEasting = Math.min(minEasting, mask.getOriginEasting());
+            minNorthing = Math.min(minNorthing, mask.getOriginNorthing());
+            maxEasting = Math.max(maxEasting, mask.getEasting(mask.getColumns() - 1));
+            maxNorthing = Math.max(maxNorthing, mask.getNorthing(mask.getRows() - 1));
+        }
+
+        boolean empty = minEasting > maxEasting;
+        originEasting = empty ? firstMask.getOriginEasting() : minEasting;
+        originNorthing = empty ? firstMask.getOriginNorthing() : minNorthing;
+        columns = empty ? 0 : (maxEasting - originEasting) / CELL_SIZE + 1;
+        rows = empty ? 0 : (maxNorthing - originNorthing) / CELL_SIZE + 1;
+    }
+
+    /**
+     * Gathers the valid values of a dataset into a dense array over the lattice, walking the runs
+     * of its occupancy mask so only cells with data are visited.
+     * @param dataSet The dataset to gather, on the lattice's grid.
+     * @param gridCodes The grid code of each gathered cell is written to this array.
+     * @return The value of every lattice cell in row-major order, NaN where the dataset has no valid value.
+     */
+    public double[] gather(DataSet dataSet, int[] gridCodes) {
+        double[] values = new double[getCellCount()];
+        Arrays.fill(values, Double.NaN);
+
+        OccupancyMask mask = dataSet.getOccupancyMask();
+        int columnOffset = (mask.getOriginEasting() - originEasting) / CELL_SIZE;
+        int rowOffset = (mask.getOriginNorthing() - originNorthing) / CELL_SIZE;
+        for (int row = 0; row < mask.getRows(); row++) {
+            int northing = mask.getNorthing(row);
+            int rowStart = (row + rowOffset) * columns + columnOffset;
+            for (int run = mask.getRowRunsStart(row); run < mask.getRowRunsEnd(row); run++) {
+                int runEnd = mask.getRunStartColumn(run) + mask.getRunLength(run);
+                for (int column = mask.getRunStartColumn(run); column < runEnd; column++) {
+                    DataPoint dataPoint = dataSet.getDataPoint(mask.getEasting(column), northing);
+                    values[rowStart + column] = dataPoint.value();
+                    gridCodes[rowStart + column] = dataPoint.gridCode();
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param easting An easting within a 1 km cell.
+     * @param northing A northing within a 1 km cell.
+     * @return The index of the lattice cell containing the position, or -1 if it is outside the lattice.
+     */
+    public int getIndex(int easting, int northing) {
+        // Cells extend half a cell either side of their centroid.
+        int column = Math.floorDiv(easting - originEasting + CELL_SIZE / 2, CELL_SIZE);
+        int row = Math.floorDiv(northing - originNorthing + CELL_SIZE / 2, CELL_SIZE);
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return -1;
+        return row * columns + column;
+    }
+
+    /**
+     * @return The easting of the centroid of a lattice cell.
+     */
+    public int getEasting(int index) {
+        return originEasting + (index % columns) * CELL_SIZE;
+    }
+
+    /**
+     * @return The northing of the centroid of a lattice cell.
+     */
+    public int getNorthing(int index) {
+        return originNorthing + (index / columns) * CELL_SIZE;
+    }
+
+    // Getters:
+    public int getCellCount() { return columns * rows; }
+}
@@ -0,0 +1,114 @@
+package dataProcessing;
+
+import java.util.Map;
+
+/**
+ * A dataset holding the composite Daily Air Quality Index (DAQI) band of every 1 km grid cell for
+ * a year: the highest band of any pollutant at the cell, as the index is driven by the worst
+ * pollutant. The pollutant driving each cell is kept with its band.
+ *
+ * The pollutants' datasets are gathered into aligned arrays over the same lattice of cells, then
+ * every cell's band and driving pollutant are found in a single pass and packed into one byte.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class CompositeIndexDataSet extends DataSet {
+    public final static int MIN_BAND = 1;
+    public final static int MAX_BAND = 10;
+
+    // Each cell is packed into a byte as the driving pollutant's ordinal, then the band in the low 4 bits:
+    private final static int BAND_MASK = 0xF;
+    private final static int DRIVER_SHIFT = 4;
+
+    private final static Pollutant[] POLLUTANTS = Pollutant.values();
+
+    private final AlignedGrid grid; // The lattice the pollutants' datasets are aligned to.
+    private final byte[] cells; // The packed band and driving pollutant of each lattice cell, band 0 where no pollutant has data.
+
+    /**
+     * Computes the composite band of every cell from a year's pollutant datasets.
+     * @param year The year of the datasets.
+     * @param dataSets The dataset of each pollutant, pollutants without data can be left out.
+     * @throws IllegalArgumentException If there are no datasets, or they are not on the same 1 km grid.
+     */
+    public CompositeIndexDataSet(String year, Map<Pollutant, DataSet> dataSets) throws IllegalArgumentException {
+        super("DAQI", year, "Daily Air Quality Index", "band");
+        if (dataSets.isEmpty()) throw new IllegalArgumentException("No datasets to combine for " + year);
+
+        Pollutant[] pollutants = dataSets.keySet().toArray(new Pollutant[0]);
+        DataSet[] sources = new DataSet[pollutants.length];
+        for (int i = 0; i < pollutants.length; i++) {
+            sources[i] = dataSets.get(pollutants[i]);
+        }
+
+        grid = new AlignedGrid(sources);
+        int[] gridCodes = new int[grid.getCellCount()];
+        double[][] values = new double[pollutants.length][];
+        for (int i = 0; i < pollutants.length; i++) {
+            values[i] = grid.gather(sources[i], gridCodes);
+        }
+
+        cells = new byte[grid.getCellCount()];
+        computeBands(pollutants, values, cells);
+
+        for (int i = 0; i < cells.length; i++) {
+            int band = cells[i] & BAND_MASK;
+            if (band == 0) continue; // No pollutant has data.
+
+            addDataPoint(new DataPoint(gridCodes[i], grid.getEasting(i), grid.getNorthing(i), band));
+        }
+    }
+
+    /**
+     * Finds the band and driving pollutant of every cell from aligned arrays, in one pass over the cells.
+     * When pollutants share the highest band, the first of them drives the cell.
+     * @param pollutants The pollutant of each array of values.
+     * @param values The concentration of each pollutant at each cell, NaN or negative where missing.
+     * @param cells The array to write the packed band and driving pollutant of each cell to.
+     */
+    private static void computeBands(Pollutant[] pollutants, double[][] values, byte[] cells) {
+        for (int i = 0; i < cells.length; i++) {
+            int cell = 0;
+            for (int p = 0; p < pollutants.length; p++) {
+                double value = values[p][i];
+                if (!(value >= 0)) continue; // Missing, also catches NaN.
+
+                int band = Pollutant.getPollutionLevel(pollutants[p], value);
+                if (band > (cell & BAND_MASK)) {
+                    cell = (pollutants[p].ordinal() << DRIVER_SHIFT) | band;
+                }
+            }
+            cells[i] = (byte) cell;
+        }
+    }
+
+    /**
+     * Bands are always coloured on the same scale, so each band keeps its colour at every LOD and threshold.
+     */
+    @Override
+    public double[] getFixedValueRange() {
+        return new double[] { MIN_BAND, MAX_BAND };
+    }
+
+    /**
+     * @param easting An easting within a 1 km cell.
+     * @param northing A northing within a 1 km cell.
+     * @return The composite band of the cell, or 0 if no pollutant has data there.
+     */
+    public int getBand(int easting, int northing) {
+        int index = grid.getIndex(easting, northing);
+        return index == -1 ? 0 : cells[index] & BAND_MASK;
+    }
+
+    /**
+     * @param easting An easting within a 1 km cell.
+     * @param northing A northing within a 1 km cell.
+     * @return The pollutant with the highest band at the cell, or null if no pollutant has data there.
+     */
+    public Pollutant getDrivingPollutant(int easting, int northing) {
+        int index = grid.getIndex(easting, northing);
+        if (index == -1 || (cells[index] & BAND_MASK) == 0) return null;
+        return POLLUTANTS[(cells[index] & 0xFF) >>> DRIVER_SHIFT];
+    }
+}
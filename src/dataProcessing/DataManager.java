@@ -1,5 +1,6 @@
 package dataProcessing;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,6 +10,7 @@ import javafx.util.Pair;
 /**
  * Manages the loading, caching, and updating of pollution data.
  * Acts as the main entry point for data access in the application.
+ * Thread-safe, so datasets can be loaded ahead in the background.
  *
  * @author Mehmet Kutay Bozkurt
  * @version 1.0
@@ -18,7 +20,14 @@ public class DataManager {
     
     // Cache for loaded datasets, key format as a pair: pollutant, year.
     private final Map<Pair<Pollutant, Integer>, DataSet> dataCache;
+    private final Map<DifferenceKey, DifferenceDataSet> differenceCache; // Cache for computed differences between datasets.
+    private final Map<Integer, CompositeIndexDataSet> compositeIndexCache; // Cache for computed composite DAQI bands, by year.
     private final DataPicker dataPicker;
+
+    /**
+     * Identifies a difference between two years of a pollutant.
+     */
+    private record DifferenceKey(Pollutant pollutant, int baseYear, int comparedYear, DifferenceType type) {}
     
     /**
      * Private constructor to enforce singleton pattern.
@@ -26,13 +35,15 @@ public class DataManager {
     private DataManager() {
         this.dataPicker = new DataPicker();
         this.dataCache = new HashMap<>();
+        this.differenceCache = new HashMap<>();
+        this.compositeIndexCache = new HashMap<>();
     }
     
     /**
      * Get the singleton instance of the DataManager.
      * @return The DataManager instance.
      */
-    public static DataManager getInstance() {
+    public static synchronized DataManager getInstance() {
         if (instance == null) {
             instance = new DataManager();
         }
@@ -46,7 +57,7 @@ public class DataManager {
      * @param pollutant The requested pollutant.
      * @return The DataSet for the specified pollutant and year.
      */
-    public DataSet getPollutantData(int year, Pollutant pollutant) throws IllegalArgumentException {
+    public synchronized DataSet getPollutantData(int year, Pollutant pollutant) throws IllegalArgumentException {
         if (!getAvailableYears(pollutant).contains(year)) {
             throw new IllegalArgumentException("Year " + year + " is not available for pollutant " + pollutant);
         }
@@ -65,11 +76,54 @@ public class DataManager {
         return dataSet;
     }
 
+    /**
+     * Get the change in a pollutant between two years, joined cell by cell.
+     * Returns cached data if available, otherwise computes it from the two years' data.
+     * @param baseYear The year the change is measured from.
+     * @param comparedYear The year the change is measured to.
+     * @param pollutant The requested pollutant.
+     * @param type Whether the change is absolute or a percentage of the base year's value.
+     * @return The DataSet of changes for the specified pollutant and years.
+     */
+    public synchronized DifferenceDataSet getDifferenceData(int baseYear, int comparedYear, Pollutant pollutant, DifferenceType type) throws IllegalArgumentException {
+        DifferenceKey cacheKey = new DifferenceKey(pollutant, baseYear, comparedYear, type);
+
+        DifferenceDataSet difference = differenceCache.get(cacheKey);
+        if (difference == null) {
+            difference = new DifferenceDataSet(getPollutantData(baseYear, pollutant), getPollutantData(comparedYear, pollutant), type);
+            differenceCache.put(cacheKey, difference);
+        }
+        return difference;
+    }
+
+    /**
+     * Get the composite DAQI band of every cell for a year, the highest band of any pollutant.
+     * Returns cached data if available, otherwise computes it from the year's data of every pollutant that has it.
+     * @param year The year requested as an integer.
+     * @return The DataSet of composite bands for the specified year.
+     */
+    public synchronized CompositeIndexDataSet getCompositeIndexData(int year) throws IllegalArgumentException {
+        CompositeIndexDataSet compositeIndex = compositeIndexCache.get(year);
+        if (compositeIndex == null) {
+            Map<Pollutant, DataSet> dataSets = new EnumMap<>(Pollutant.class);
+            for (Pollutant pollutant : Pollutant.values()) {
+                if (getAvailableYears(pollutant).contains(year)) {
+                    dataSets.put(pollutant, getPollutantData(year, pollutant));
+                }
+            }
+
+            compositeIndex = new CompositeIndexDataSet(String.valueOf(year), dataSets);
+            compositeIndexCache.put(year, compositeIndex);
+        }
+        return compositeIndex;
+    }
+
     /**
      * Get a list of available years in the data for a specific pollutant.
      * @param pollutant The pollutant to check for available years.
      * @return A list of available years.
      * @apiNote The returned list is arbitrary and may not be sorted.
+     * Not synchronized, so the JavaFX thread never waits for a dataset being loaded in the background.
      */
     public List<Integer> getAvailableYears(Pollutant pollutant) {
         return dataPicker.getAvailableYears(pollutant);
@@ -81,14 +135,16 @@ public class DataManager {
      * @param year The year to check.
      * @return True if the data is in the cache, false otherwise.
      */
-    public boolean isDataCached(Pollutant pollutant, int year) {
+    public synchronized boolean isDataCached(Pollutant pollutant, int year) {
         return dataCache.containsKey(new Pair<>(pollutant, year));
     }
 
     /**
      * Clear the data cache. This method is primarily intended for testing purposes.
      */
-    public void clearCache() {
+    public synchronized void clearCache() {
         dataCache.clear();
+        differenceCache.clear();
+        compositeIndexCache.clear();
     }
 }
@@ -4,10 +4,10 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -24,7 +24,7 @@ public class DataPicker {
     private static final String PROPERTIES_FILE = "src/csvpatterns.properties";
     private static final String USER_DIR = System.getProperty("user.dir");
 
-    // Cache for available years for each pollutant:
+    // Cache for available years for each pollutant, concurrent so it can be read while a dataset is loading:
     private final Map<Pollutant, List<Integer>> availableYearsCache;
 
     /**
@@ -33,7 +33,7 @@ public class DataPicker {
      */
     public DataPicker() {
         loadProperties();
-        this.availableYearsCache = new HashMap<>();
+        this.availableYearsCache = new ConcurrentHashMap<>();
     }
     
     /**
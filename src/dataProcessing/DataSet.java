@@ -24,6 +24,7 @@ public class DataSet {
     
     // Key is a pair of easting and northing respectively.
     private final HashMap<Pair<Integer, Integer>, DataPoint> data;
+    private OccupancyMask occupancyMask; // Cached mask of valid data points, created on first use.
 
     /**
      * Constructor for objects of class DataSet
@@ -82,6 +83,41 @@ public class DataSet {
             .orElse(Double.NaN); // Return NaN if list is empty.
     }
 
+    /**
+     * Check if a value is a valid pollution value. Missing values are stored as -1, so only
+     * non-negative values are valid. Datasets of signed values must override this.
+     * @param value The value to check.
+     * @return True if the value is valid, false if it is missing.
+     */
+    public boolean isValidValue(double value) {
+        return value >= 0;
+    }
+
+    /**
+     * @return True if the values can be negative, like changes between datasets, false if they are concentrations.
+     */
+    public boolean hasSignedValues() {
+        return false;
+    }
+
+    /**
+     * @return The minimum and maximum values colours are scaled to, or null to scale colours to the values displayed.
+     */
+    public double[] getFixedValueRange() {
+        return null;
+    }
+
+    /**
+     * Return the occupancy mask of the valid data points in this dataset, on a 1 km grid.
+     * The mask is created on first use and cached until more data is added.
+     */
+    public synchronized OccupancyMask getOccupancyMask() {
+        if (occupancyMask == null) {
+            occupancyMask = OccupancyMask.fromDataSet(this);
+        }
+        return occupancyMask;
+    }
+
     /**
      * Return a specific data point from this dataset.
      * @param easting The easting value of the data point.
@@ -106,14 +142,21 @@ public class DataSet {
      * @param values An array with the four data values (as Strings)
      */
     public void addData(String[] values) {
-        DataPoint dp = new DataPoint(
+        addDataPoint(new DataPoint(
             toInt(values[0]),
             toInt(values[1]),
             toInt(values[2]),
             toDouble(values[3])
-        );
+        ));
+    }
 
+    /**
+     * Add a data point to this dataset, replacing any data point at the same easting and northing.
+     * @param dp The data point to add.
+     */
+    public void addDataPoint(DataPoint dp) {
         data.put(new Pair<>(dp.x(), dp.y()), dp);
+        occupancyMask = null; // The mask is out of date.
     }
     
     /**
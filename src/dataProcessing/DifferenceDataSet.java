@@ -0,0 +1,123 @@
+package dataProcessing;
+
+/**
+ * A dataset holding the change in pollution between two datasets of the same pollutant, such as
+ * two years, at every 1 km grid cell with data in both.
+ *
+ * The datasets are joined cell by cell: each is first gathered into a dense array over the same
+ * lattice of cells, with NaN for missing cells, so the change of every cell is then computed in a
+ * single pass over the aligned arrays. The aligned arrays are kept, so the values of both datasets
+ * can be looked up at any cell. Values are signed, negative where pollution fell.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class DifferenceDataSet extends DataSet {
+    private final DifferenceType type;
+    private final String baseYear;
+    private final String comparedYear;
+
+    private final AlignedGrid grid; // The lattice both datasets are aligned to.
+
+    // Values of each lattice cell, NaN where there is no value:
+    private final double[] baseValues;
+    private final double[] comparedValues;
+    private final double[] changes;
+
+    private double maxChangeMagnitude = 0; // The largest absolute change of any cell.
+
+    /**
+     * Computes the change from a base dataset to a compared dataset.
+     * @param base The dataset the change is measured from, such as the earlier year.
+     * @param compared The dataset the change is measured to, such as the later year.
+     * @param type Whether the change is absolute or a percentage of the base value.
+     * @throws IllegalArgumentException If the datasets are not on the same 1 km grid.
+     */
+    public DifferenceDataSet(DataSet base, DataSet compared, DifferenceType type) throws IllegalArgumentException {
+        super(compared.getPollutant(), base.getYear() + "-" + compared.getYear(),
+            type.getDisplayName() + " in " + compared.getMetric(), type.getUnits(compared.getUnits()));
+        this.type = type;
+        this.baseYear = base.getYear();
+        this.comparedYear = compared.getYear();
+
+        grid = new AlignedGrid(base, compared);
+        int[] gridCodes = new int[grid.getCellCount()];
+        baseValues = grid.gather(base, gridCodes);
+        comparedValues = grid.gather(compared, gridCodes);
+        changes = new double[grid.getCellCount()];
+        computeChanges(baseValues, comparedValues, changes, type);
+
+        for (int i = 0; i < changes.length; i++) {
+            if (!isValidValue(changes[i])) continue; // Missing in either dataset.
+
+            addDataPoint(new DataPoint(gridCodes[i], grid.getEasting(i), grid.getNorthing(i), changes[i]));
+            maxChangeMagnitude = Math.max(maxChangeMagnitude, Math.abs(changes[i]));
+        }
+    }
+
+    /**
+     * Computes the change of every cell from aligned arrays. The loops have no branches and only
+     * touch consecutive elements, so the JIT compiler can vectorise them. Missing values are NaN,
+     * so the change of a cell missing in either array is NaN, as is a percentage change from 0.
+     * @param baseValues The base value of each cell.
+     * @param comparedValues The compared value of each cell.
+     * @param changes The array to write the change of each cell to.
+     * @param type Whether the change is absolute or a percentage of the base value.
+     */
+    private static void computeChanges(double[] baseValues, double[] comparedValues, double[] changes, DifferenceType type) {
+        if (type == DifferenceType.PERCENTAGE) {
+            for (int i = 0; i < changes.length; i++) {
+                changes[i] = (comparedValues[i] - baseValues[i]) / baseValues[i] * 100;
+            }
+        } else {
+            for (int i = 0; i < changes.length; i++) {
+                changes[i] = comparedValues[i] - baseValues[i];
+            }
+        }
+    }
+
+    /**
+     * Changes are signed, so every finite value is valid. Missing and undefined changes are NaN or infinite.
+     */
+    @Override
+    public boolean isValidValue(double value) {
+        return Double.isFinite(value);
+    }
+
+    @Override
+    public boolean hasSignedValues() {
+        return true;
+    }
+
+    /**
+     * @param easting An easting within a 1 km cell.
+     * @param northing A northing within a 1 km cell.
+     * @return The value of the cell in the base dataset, or NaN if it has none.
+     */
+    public double getBaseValue(int easting, int northing) {
+        return getLatticeValue(baseValues, easting, northing);
+    }
+
+    /**
+     * @param easting An easting within a 1 km cell.
+     * @param northing A northing within a 1 km cell.
+     * @return The value of the cell in the compared dataset, or NaN if it has none.
+     */
+    public double getComparedValue(int easting, int northing) {
+        return getLatticeValue(comparedValues, easting, northing);
+    }
+
+    /**
+     * @return The value of the lattice cell containing a position in an aligned array, or NaN if the position is outside the lattice.
+     */
+    private double getLatticeValue(double[] values, int easting, int northing) {
+        int index = grid.getIndex(easting, northing);
+        return index == -1 ? Double.NaN : values[index];
+    }
+
+    // Getters:
+    public DifferenceType getType() { return type; }
+    public String getBaseYear() { return baseYear; }
+    public String getComparedYear() { return comparedYear; }
+    public double getMaxChangeMagnitude() { return maxChangeMagnitude; }
+}
@@ -0,0 +1,28 @@
+package dataProcessing;
+
+/**
+ * Enum for the ways the change between two datasets can be measured.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public enum DifferenceType {
+    ABSOLUTE, PERCENTAGE;
+
+    /**
+     * @return The units of the change, given the units of the datasets.
+     */
+    public String getUnits(String dataUnits) {
+        return this == PERCENTAGE ? "%" : dataUnits;
+    }
+
+    /**
+     * @return The display name of the difference type.
+     */
+    public String getDisplayName() {
+        return switch (this) {
+            case ABSOLUTE -> "Absolute Change";
+            case PERCENTAGE -> "Percentage Change";
+        };
+    }
+}
@@ -0,0 +1,228 @@
+package dataProcessing;
+
+import java.util.Arrays;
+
+/**
+ * An occupancy bitmap over a regular grid of easting/northing cells, marking which cells hold data.
+ * Most of the bounding box of the UK grid is sea, so the occupied cells of every row are also
+ * stored as runs of consecutive columns. Loops can walk the runs to only visit occupied cells.
+ *
+ * The occupied cells are numbered in row-major order (row by row, then column by column),
+ * which is the order the runs are walked in.
+ *
+ * Cells are set with set() and the runs are built with compileRuns(), after which the mask
+ * should not be modified.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class OccupancyMask {
+    private final int originEasting; // The easting of column 0.
+    private final int originNorthing; // The northing of row 0.
+    private final int cellSize; // The side length of a cell in meters.
+    private final int columns;
+    private final int rows;
+
+    private final long[] bitmap; // One bit per cell, in row-major order.
+
+    // Row-run encoding:
+    private int[] rowRunOffsets; // The runs of row r are at indices rowRunOffsets[r] until rowRunOffsets[r + 1].
+    private int[] runStartColumns; // The first column of each run.
+    private int[] runLengths; // The number of cells in each run.
+    private int[] runFirstCells; // The index of the first cell of each run, counting occupied cells only.
+    private int cellCount = 0;
+
+    /**
+     * Creates an empty mask.
+     * @param originEasting The easting of column 0.
+     * @param originNorthing The northing of row 0.
+     * @param cellSize The side length of a cell in meters.
+     * @param columns The number of columns in the grid.
+     * @param rows The number of rows in the grid.
+     */
+    public OccupancyMask(int originEasting, int originNorthing, int cellSize, int columns, int rows) {
+        this.originEasting = originEasting;
+        this.originNorthing = originNorthing;
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+
+        bitmap = new long[(int) (((long) columns * rows + 63) / 64)];
+    }
+
+    /**
+     * Creates the mask of all valid data points of a dataset, on a 1 km grid. See DataSet.isValidValue().
+     * @param dataSet The dataset to create the mask from.
+     * @return The compiled mask.
+     */
+    public static OccupancyMask fromDataSet(DataSet dataSet) {
+        int minEasting = Integer.MAX_VALUE, maxEasting = Integer.MIN_VALUE;
+        int minNorthing = Integer.MAX_VALUE, maxNorthing = Integer.MIN_VALUE;
+        for (DataPoint dataPoint : dataSet.getData()) {
+            minEasting = Math.min(minEasting, dataPoint.x());
+            maxEasting = Math.max(maxEasting, dataPoint.x());
+            minNorthing = Math.min(minNorthing, dataPoint.y());
+            maxNorthing = Math.max(maxNorthing, dataPoint.y());
+        }
+
+        if (minEasting > maxEasting) { // Empty dataset.
+            OccupancyMask mask = new OccupancyMask(0, 0, 1000, 0, 0);
+            mask.compileRuns();
+            return mask;
+        }
+
+        int columns = (maxEasting - minEasting) / 1000 + 1;
+        int rows = (maxNorthing - minNorthing) / 1000 + 1;
+        OccupancyMask mask = new OccupancyMask(minEasting, minNorthing, 1000, columns, rows);
+        for (DataPoint dataPoint : dataSet.getData()) {
+            if (!dataSet.isValidValue(dataPoint.value())) continue; // Missing values are not occupied.
+            mask.set(mask.getColumn(dataPoint.x()), mask.getRow(dataPoint.y()));
+        }
+        mask.compileRuns();
+        return mask;
+    }
+
+    /**
+     * Marks a cell as occupied.
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     */
+    public void set(int column, int row) {
+        long bit = (long) row * columns + column;
+        bitmap[(int) (bit >>> 6)] |= 1L << bit;
+    }
+
+    /**
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     * @return True if the cell is inside the grid and occupied, false otherwise.
+     */
+    public boolean contains(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return false;
+        long bit = (long) row * columns + column;
+        return (bitmap[(int) (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Builds the row-run encoding from the bitmap. Must be called once all cells are set.
+     */
+    public void compileRuns() {
+        rowRunOffsets = new int[rows + 1];
+        int[] starts = new int[16];
+        int[] lengths = new int[16];
+        int runCount = 0;
+        cellCount = 0;
+
+        for (int row = 0; row < rows; row++) {
+            rowRunOffsets[row] = runCount;
+            int column = 0;
+            while (column < columns) {
+                if (!contains(column, row)) {
+                    column++;
+                    continue;
+                }
+
+                int start = column;
+                while (column < columns && contains(column, row)) column++;
+
+                if (runCount == starts.length) {
+                    starts = Arrays.copyOf(starts, runCount * 2);
+                    lengths = Arrays.copyOf(lengths, runCount * 2);
+                }
+                starts[runCount] = start;
+                lengths[runCount] = column - start;
+                runCount++;
+            }
+        }
+        rowRunOffsets[rows] = runCount;
+
+        runStartColumns = Arrays.copyOf(starts, runCount);
+        runLengths = Arrays.copyOf(lengths, runCount);
+        runFirstCells = new int[runCount];
+        for (int run = 0; run < runCount; run++) {
+            runFirstCells[run] = cellCount;
+            cellCount += runLengths[run];
+        }
+    }
+
+    /**
+     * Returns the index of an occupied cell, counting occupied cells only in row-major order.
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     * @return The cell index, or -1 if the cell is not occupied.
+     */
+    public int getCellIndex(int column, int row) {
+        if (!contains(column, row)) return -1;
+
+        // Binary search the runs of the row for the one containing the column.
+        int low = rowRunOffsets[row];
+        int high = rowRunOffsets[row + 1] - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (runStartColumns[middle] <= column) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return runFirstCells[low] + column - runStartColumns[low];
+    }
+
+    /**
+     * Checks if another mask occupies exactly the same cells of the same grid, so anything generated
+     * per cell of one mask, such as polygons, is numbered and placed the same for the other.
+     * @param other The mask to compare with.
+     * @return True if both masks have the same grid and occupied cells, false otherwise.
+     */
+    public boolean hasSameCells(OccupancyMask other) {
+        return originEasting == other.originEasting && originNorthing == other.originNorthing
+            && cellSize == other.cellSize && columns == other.columns && rows == other.rows
+            && Arrays.equals(bitmap, other.bitmap);
+    }
+
+    /**
+     * @param easting An easting inside the cell.
+     * @return The column of the cell containing the easting (may be outside the grid).
+     */
+    public int getColumn(int easting) {
+        return Math.floorDiv(easting - originEasting, cellSize);
+    }
+
+    /**
+     * @param northing A northing inside the cell.
+     * @return The row of the cell containing the northing (may be outside the grid).
+     */
+    public int getRow(int northing) {
+        return Math.floorDiv(northing - originNorthing, cellSize);
+    }
+
+    /**
+     * @return The easting of the given column, in the same reference as the origin easting.
+     */
+    public int getEasting(int column) {
+        return originEasting + column * cellSize;
+    }
+
+    /**
+     * @return The northing of the given row, in the same reference as the origin northing.
+     */
+    public int getNorthing(int row) {
+        return originNorthing + row * cellSize;
+    }
+
+    // Run getters:
+    public int getRowRunsStart(int row) { return rowRunOffsets[row]; }
+    public int getRowRunsEnd(int row) { return rowRunOffsets[row + 1]; }
+    public int getRunStartColumn(int run) { return runStartColumns[run]; }
+    public int getRunLength(int run) { return runLengths[run]; }
+    public int getRunFirstCell(int run) { return runFirstCells[run]; }
+    public int getRunCount() { return runLengths.length; }
+
+    // Getters:
+    public int getOriginEasting() { return originEasting; }
+    public int getOriginNorthing() { return originNorthing; }
+    public int getCellSize() { return cellSize; }
+    public int getColumns() { return columns; }
+    public int getRows() { return rows; }
+    public int getCellCount() { return cellCount; }
+}
@@ -53,6 +53,17 @@ public enum Pollutant {
         return concentrationBand.length + 1;
     }
 
+    /**
+     * @param pollutionLevel A pollution level returned by getPollutionLevel().
+     * @return The name of the band the pollution level is in.
+     */
+    public static String getPollutionBandName(int pollutionLevel) {
+        if (pollutionLevel <= 3) return "Low";
+        if (pollutionLevel <= 6) return "Moderate";
+        if (pollutionLevel <= 9) return "High";
+        return "Very High";
+    }
+
     @Override
     public String toString() {
         return switch (this) {
@@ -55,11 +55,12 @@ public class InfoPopup extends Popup {
      * @param latitude The latitude of the location.
      * @param longitude The longitude of the location.
      * @param pollutionValue The pollution value at the location, or null if unknown.
+     * @param valueDetails Details of the value at the location, or null if it is a pollution concentration.
      * @param addressDetails A Map containing the address details of the queried point, or null if unknown.
      * @param pollutant The pollutant type.
      */
-    public void update(double latitude, double longitude, int gridCode, Double pollutionValue, ShownLocationData addressDetails, ShownRealtimeData realtimeDataDetails, Pollutant pollutant) {
-        locationInfo.update(latitude, longitude, gridCode, pollutionValue, addressDetails);
+    public void update(double latitude, double longitude, int gridCode, Double pollutionValue, ShownValueDetails valueDetails, ShownLocationData addressDetails, ShownRealtimeData realtimeDataDetails, Pollutant pollutant) {
+        locationInfo.update(latitude, longitude, gridCode, pollutionValue, valueDetails, addressDetails);
         realtimeInfo.update(realtimeDataDetails, pollutant);
     }
 }
\ No newline at end of file
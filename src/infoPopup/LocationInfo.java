@@ -25,6 +25,7 @@ public class LocationInfo {
     private final TextFlow eastingNorthingFlow;
     private final TextFlow coordinatesFlow;
     private final TextFlow pollutionFlow;
+    private final TextFlow detailFlow;
     private final TextFlow boroughFlow;
     private final TextFlow countryFlow;
     private final TextFlow postcodeFlow;
@@ -34,6 +35,7 @@ public class LocationInfo {
     private final Label eastingNorthingLabel;
     private final Label coordinatesLabel;
     private final Label pollutionLabel;
+    private final Label detailLabel;
     private final Label boroughLabel;
     private final Label postcodeLabel;
     private final Label countryLabel;
@@ -43,6 +45,7 @@ public class LocationInfo {
     private final Label eastingNorthingInformation;
     private final Label coordinatesInformation;
     private final Label pollutionInformation;
+    private final Label detailInformation;
     private final Label boroughInformation;
     private final Label postcodeInformation;
     private final Label countryInformation;
@@ -55,6 +58,7 @@ public class LocationInfo {
         eastingNorthingFlow = new TextFlow();
         coordinatesFlow = new TextFlow();
         pollutionFlow = new TextFlow();
+        detailFlow = new TextFlow();
         boroughFlow = new TextFlow();
         postcodeFlow = new TextFlow();
         countryFlow = new TextFlow();
@@ -69,6 +73,8 @@ public class LocationInfo {
         coordinatesLabel.setStyle(labelStyle);
         pollutionLabel = new Label("Pollution Level: ");
         pollutionLabel.setStyle(labelStyle);
+        detailLabel = new Label();
+        detailLabel.setStyle(labelStyle);
         boroughLabel = new Label("Borough / County: ");
         boroughLabel.setStyle(labelStyle);
         countryLabel = new Label("Country: ");
@@ -80,6 +86,7 @@ public class LocationInfo {
         eastingNorthingInformation = new Label();
         coordinatesInformation = new Label();
         pollutionInformation = new Label();
+        detailInformation = new Label();
         boroughInformation = new Label();
         countryInformation = new Label();
         postcodeInformation = new Label();
@@ -88,11 +95,12 @@ public class LocationInfo {
         eastingNorthingFlow.getChildren().addAll(eastingNorthingLabel, eastingNorthingInformation);
         coordinatesFlow.getChildren().addAll(coordinatesLabel, coordinatesInformation);
         pollutionFlow.getChildren().addAll(pollutionLabel, pollutionInformation);
+        detailFlow.getChildren().addAll(detailLabel, detailInformation);
         boroughFlow.getChildren().addAll(boroughLabel, boroughInformation);
         countryFlow.getChildren().addAll(countryLabel, countryInformation);
         postcodeFlow.getChildren().addAll(postcodeLabel, postcodeInformation);
 
-        content = new VBox(10, titleLabel, gridCodeFlow, eastingNorthingFlow, coordinatesFlow, pollutionFlow, boroughFlow, countryFlow, postcodeFlow);
+        content = new VBox(10, titleLabel, gridCodeFlow, eastingNorthingFlow, coordinatesFlow, pollutionFlow, detailFlow, boroughFlow, countryFlow, postcodeFlow);
     }
 
     /**
@@ -100,9 +108,10 @@ public class LocationInfo {
      * @param latitude The latitude of the location.
      * @param longitude The longitude of the location.
      * @param pollutionValue The pollution value at the location, or null if unknown.
+     * @param valueDetails Details of the value at the location, or null if it is a pollution concentration.
      * @param addressDetails A Map containing the address details of the queried point, or null if unknown.
      */
-    public void update(double latitude, double longitude, int gridCode, Double pollutionValue, ShownLocationData addressDetails) {
+    public void update(double latitude, double longitude, int gridCode, Double pollutionValue, ShownValueDetails valueDetails, ShownLocationData addressDetails) {
         gridCodeInformation.setText("" + gridCode);
 
         int[] eastingNorthing = GeographicUtilities.convertLatLonToEastingNorthing(new MapPoint(latitude, longitude));
@@ -121,13 +130,34 @@ public class LocationInfo {
         }
 
         // Set pollution value information if available:
-        if (pollutionValue != null) {
+        boolean hasDetail = valueDetails != null && valueDetails.getDetailLabel() != null;
+        detailFlow.setVisible(hasDetail);
+        detailFlow.setManaged(hasDetail);
+        if (valueDetails != null) {
+            updateValueDetails(valueDetails);
+        } else if (pollutionValue != null) {
+            pollutionLabel.setText("Pollution Level: ");
             pollutionInformation.setText(String.format("%.2f %s", pollutionValue, Pollutant.UNITS)); // Displays microgram per meter cubed.
         } else {
+            pollutionLabel.setText("Pollution Level: ");
             pollutionInformation.setText("Not Available");
         }
     }
 
+    /**
+     * Updates the value in the popup from the details of a value that is not a pollution concentration.
+     * @param valueDetails The details of the value.
+     */
+    private void updateValueDetails(ShownValueDetails valueDetails) {
+        pollutionLabel.setText(valueDetails.getValueLabel());
+        pollutionInformation.setText(valueDetails.getValueText());
+
+        if (valueDetails.getDetailLabel() != null) {
+            detailLabel.setText(valueDetails.getDetailLabel());
+            detailInformation.setText(valueDetails.getDetailText());
+        }
+    }
+
     /**
      * Updates the location information in the popup.
      * @param addressDetails The address details.
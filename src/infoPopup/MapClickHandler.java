@@ -40,11 +40,20 @@ public class MapClickHandler {
      * Updates the information popup and shows it.
      */
     public void onMapClicked(double latitude, double longitude, int gridCode, double screenX, double screenY, double width, double height, Double pollutionValue, Pollutant pollutant) {
+        onMapClicked(latitude, longitude, gridCode, screenX, screenY, width, height, pollutionValue, null, pollutant);
+    }
+
+    /**
+     * Called when the map is clicked on a dataset whose values are not pollution concentrations, such as changes or DAQI bands.
+     * Updates the information popup and shows it.
+     * @param valueDetails Details of the value at the clicked location, or null if it is a pollution concentration.
+     */
+    public void onMapClicked(double latitude, double longitude, int gridCode, double screenX, double screenY, double width, double height, Double pollutionValue, ShownValueDetails valueDetails, Pollutant pollutant) {
         // Update the popup with the clicked location information:
         ShownLocationData addressDetails = getAddressFromCoordinates(latitude, longitude);
         ShownRealtimeData realtimeDataDetails = getRealtimeData(latitude, longitude);
 
-        infoPopup.update(latitude, longitude, gridCode, pollutionValue, addressDetails, realtimeDataDetails, pollutant);
+        infoPopup.update(latitude, longitude, gridCode, pollutionValue, valueDetails, addressDetails, realtimeDataDetails, pollutant);
         
         if (screenX + infoPopup.getWidth() > width) {
             screenX -= infoPopup.getWidth() + POPUP_OFFSET_X;
@@ -0,0 +1,32 @@
+package infoPopup;
+
+import dataProcessing.Pollutant;
+
+/**
+ * A record that stores the composite DAQI band at a location to be shown in the info popup.
+ * The driving pollutant is that of the 1 km cell clicked, or null if it has none.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public record ShownBandData(int band, Pollutant drivingPollutant) implements ShownValueDetails {
+    @Override
+    public String getValueLabel() {
+        return "DAQI Band: ";
+    }
+
+    @Override
+    public String getValueText() {
+        return String.format("%d (%s)", band, Pollutant.getPollutionBandName(band));
+    }
+
+    @Override
+    public String getDetailLabel() {
+        return drivingPollutant != null ? "Driven By (1 km): " : null;
+    }
+
+    @Override
+    public String getDetailText() {
+        return drivingPollutant != null ? drivingPollutant.getDisplayName() : null;
+    }
+}
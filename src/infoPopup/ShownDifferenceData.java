@@ -0,0 +1,39 @@
+package infoPopup;
+
+/**
+ * A record that stores the change in pollution between two datasets to be shown in the info popup.
+ * The base and compared values are those of the 1 km cell clicked, or null if it has none.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public record ShownDifferenceData(
+    String baseYear, String comparedYear, Double baseValue, Double comparedValue, double change, String units, String valueUnits
+) implements ShownValueDetails {
+    @Override
+    public String getValueLabel() {
+        return String.format("Change %s → %s: ", baseYear, comparedYear);
+    }
+
+    @Override
+    public String getValueText() {
+        return String.format("%+.2f %s", change, units);
+    }
+
+    @Override
+    public String getDetailLabel() {
+        return String.format("%s / %s (1 km): ", baseYear, comparedYear);
+    }
+
+    @Override
+    public String getDetailText() {
+        return String.format("%s / %s %s", formatValue(baseValue), formatValue(comparedValue), valueUnits);
+    }
+
+    /**
+     * @return A pollution value to two decimal places, or "N/A" if it is null.
+     */
+    private static String formatValue(Double value) {
+        return value != null ? String.format("%.2f", value) : "N/A";
+    }
+}
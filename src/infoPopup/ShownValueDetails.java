@@ -0,0 +1,30 @@
+package infoPopup;
+
+/**
+ * Details of the value at a clicked location to be shown in the info popup, for datasets whose
+ * values are not pollution concentrations, such as changes or DAQI bands.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public interface ShownValueDetails {
+    /**
+     * @return The label of the value, such as "Change 2018 → 2022: ".
+     */
+    String getValueLabel();
+
+    /**
+     * @return The value, formatted with its units.
+     */
+    String getValueText();
+
+    /**
+     * @return The label of a second line of detail about the value, or null if there is none.
+     */
+    String getDetailLabel();
+
+    /**
+     * @return The second line of detail about the value, or null if there is none.
+     */
+    String getDetailText();
+}
@@ -0,0 +1,33 @@
+package lod;
+
+/**
+ * Enum for the statistics that each LOD cell stores about the data points it covers.
+ * Every channel is computed in the same aggregation sweep, so the map can switch
+ * between them without regenerating the LODs.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public enum AggregationChannel {
+    MEAN, MAX, MIN, COUNT, P95;
+
+    /**
+     * @return True if the channel is measured in pollution concentration units, false if it is a count.
+     */
+    public boolean isConcentration() {
+        return this != COUNT;
+    }
+
+    /**
+     * @return The display name of the channel.
+     */
+    public String getDisplayName() {
+        return switch (this) {
+            case MEAN -> "Mean";
+            case MAX -> "Maximum";
+            case MIN -> "Minimum";
+            case COUNT -> "Data Point Count";
+            case P95 -> "95th Percentile";
+        };
+    }
+}
@@ -1,23 +1,32 @@
 package lod;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import dataProcessing.DataPoint;
 import dataProcessing.DataSet;
+import dataProcessing.OccupancyMask;
 
 /**
  * Store Level Of Detail data, generated from a DataSet's data.
+ * Each LOD cell carries several aggregation channels (mean, max, min, count and 95th percentile),
+ * which are all computed in a single sweep over the original data.
  * 
  * @author Anas Ahmed
- * @version 1.0
+ * @version 2.0
  */
 public class LODData {
+    private final static double PERCENTILE = 0.95; // Percentile stored in the P95 channel.
+
     // The levelOfDetail reduces the amount of data stored.
     // The approximate amount of data points in an LOD is totalDataPoints / (levelOfDetail ^ 2).
     // Pollution grid size length becomes levelOfDetail km long.
     private final int levelOfDetail;
-    private final List<DataPoint> LODdata;
+    private final List<DataPoint> LODdata; // Data points holding the mean value of each cell.
+    private double[][] channelValues; // Indexed by [AggregationChannel.ordinal()][cell index].
+    private OccupancyMask occupancyMask; // The occupied LOD cells, numbered like getData().
+    private final boolean signedValues; // True if values can be negative, see DataSet.hasSignedValues().
 
     /**
      * Create an LOD from a dataSet.
@@ -26,34 +35,77 @@ public class LODData {
      */
     public LODData(int levelOfDetail, DataSet dataSet) {
         this.levelOfDetail = levelOfDetail;
+        this.signedValues = dataSet.hasSignedValues();
         this.LODdata = generateLODData(dataSet);
     }
 
     /**
      * Generates the LOD data from a dataset.
+     * The grid is swept one band of LOD cells at a time, walking only the occupied runs of the
+     * dataset's occupancy mask; every valid data point is visited once, and all aggregation
+     * channels of the cell it falls into are updated together.
+     * Cells are emitted in row-major order, matching the cell numbering of the LOD's occupancy mask.
      * @param dataSet The DataSet to create the LOD from.
-     * @return The LOD data as a list of data points.
+     * @return The LOD data as a list of data points, holding the mean value of each cell.
      */
     private List<DataPoint> generateLODData(DataSet dataSet) {
         List<DataPoint> data = new ArrayList<>();
+        List<double[]> cellChannels = new ArrayList<>();
 
-        int minEasting = dataSet.getData().stream().mapToInt(DataPoint::x).min().orElse(Integer.MAX_VALUE);
-        int maxEasting = dataSet.getData().stream().mapToInt(DataPoint::x).max().orElse(Integer.MIN_VALUE);
-        int minNorthing = dataSet.getData().stream().mapToInt(DataPoint::y).min().orElse(Integer.MAX_VALUE);
-        int maxNorthing = dataSet.getData().stream().mapToInt(DataPoint::y).max().orElse(Integer.MIN_VALUE);
-
+        OccupancyMask gridMask = dataSet.getOccupancyMask();
         int gridSize = 1000 * levelOfDetail;
+        int columns = (gridMask.getColumns() + levelOfDetail - 1) / levelOfDetail;
+        int rows = (gridMask.getRows() + levelOfDetail - 1) / levelOfDetail;
+        occupancyMask = new OccupancyMask(gridMask.getOriginEasting(), gridMask.getOriginNorthing(), gridSize, columns, rows);
+
+        CellAccumulator[] band = new CellAccumulator[columns]; // Accumulators for the current band of cells.
+        int[] touchedColumns = new int[columns]; // Columns of the band that have an accumulator.
+
+        for (int bandRow = 0; bandRow < rows; bandRow++) {
+            int touchedCount = 0;
+
+            // Accumulate every valid data point in this band into its cell.
+            int lastGridRow = Math.min((bandRow + 1) * levelOfDetail, gridMask.getRows());
+            for (int gridRow = bandRow * levelOfDetail; gridRow < lastGridRow; gridRow++) {
+                int northing = gridMask.getNorthing(gridRow);
+                for (int run = gridMask.getRowRunsStart(gridRow); run < gridMask.getRowRunsEnd(gridRow); run++) {
+                    int runEnd = gridMask.getRunStartColumn(run) + gridMask.getRunLength(run);
+                    for (int gridColumn = gridMask.getRunStartColumn(run); gridColumn < runEnd; gridColumn++) {
+                        DataPoint dataPoint = dataSet.getDataPoint(gridMask.getEasting(gridColumn), northing);
+
+                        int column = gridColumn / levelOfDetail;
+                        if (band[column] == null) {
+                            band[column] = new CellAccumulator(levelOfDetail * levelOfDetail);
+                            touchedColumns[touchedCount++] = column;
+                        }
+                        band[column].add(dataPoint.value());
+                    }
+                }
+            }
 
-        for (int x = minEasting; x < maxEasting; x += gridSize) {
-            for (int y = minNorthing; y < maxNorthing; y += gridSize) {
-                DataPoint point = dataSet.getDataPoint(x, y);
-                if (point == null) continue;
-                if (point.value() < 0) continue;
+            // Emit a cell for every accumulator whose top left point exists, in column order.
+            Arrays.sort(touchedColumns, 0, touchedCount);
+            for (int i = 0; i < touchedCount; i++) {
+                int column = touchedColumns[i];
+                CellAccumulator accumulator = band[column];
+                band[column] = null;
 
-                double value = getAverageValue(dataSet, gridSize, x, y);
+                if (!gridMask.contains(column * levelOfDetail, bandRow * levelOfDetail)) continue;
+                DataPoint point = dataSet.getDataPoint(gridMask.getEasting(column * levelOfDetail), gridMask.getNorthing(bandRow * levelOfDetail));
 
-                DataPoint updatedPoint = new DataPoint(point.gridCode(), point.x(), point.y(), value);
-                data.add(updatedPoint);
+                double[] channels = accumulator.getChannelValues();
+                data.add(new DataPoint(point.gridCode(), point.x(), point.y(), channels[AggregationChannel.MEAN.ordinal()]));
+                cellChannels.add(channels);
+                occupancyMask.set(column, bandRow);
+            }
+        }
+        occupancyMask.compileRuns();
+
+        channelValues = new double[AggregationChannel.values().length][cellChannels.size()];
+        for (int i = 0; i < cellChannels.size(); i++) {
+            double[] channels = cellChannels.get(i);
+            for (int channel = 0; channel < channels.length; channel++) {
+                channelValues[channel][i] = channels[channel];
             }
         }
 
@@ -61,29 +113,79 @@ public class LODData {
     }
 
     /**
-     * Averages all data points pollution values in a certain grid size from a certain easting and northing.
-     * @param dataSet The DataSet of all points.
-     * @param gridSize The size of the grid.
-     * @param easting The easting of the larger grid.
-     * @param northing The northing of the larger grid.
-     * @return The average of all pollution values.
+     * Accumulates all aggregation channels of a single LOD cell.
      */
-    private double getAverageValue(DataSet dataSet, int gridSize, int easting, int northing) {
-        double value = 0; int i = 0;
-        for (int x = easting; x < easting + gridSize; x += 1000) {
-            for (int y = northing; y < northing + gridSize; y += 1000) {
-                DataPoint dataPoint = dataSet.getDataPoint(x, y);
-                if (dataPoint == null) continue;
-                if (dataPoint.value() < 0) continue;
-                value += dataPoint.value();
-                i++;
-            }
+    private static class CellAccumulator {
+        private double[] values;
+        private int count = 0;
+        private double sum = 0;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        /**
+         * @param capacity The maximum number of data points that can fall into the cell.
+         */
+        CellAccumulator(int capacity) {
+            values = new double[capacity];
         }
 
-        return value / i;
+        /**
+         * Adds a pollution value to the cell.
+         */
+        void add(double value) {
+            if (count == values.length) values = Arrays.copyOf(values, count * 2);
+            values[count++] = value;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        /**
+         * @return The value of every channel, indexed by AggregationChannel.ordinal().
+         */
+        double[] getChannelValues() {
+            double[] channels = new double[AggregationChannel.values().length];
+            channels[AggregationChannel.MEAN.ordinal()] = sum / count;
+            channels[AggregationChannel.MAX.ordinal()] = max;
+            channels[AggregationChannel.MIN.ordinal()] = min;
+            channels[AggregationChannel.COUNT.ordinal()] = count;
+            channels[AggregationChannel.P95.ordinal()] = getPercentile(PERCENTILE);
+            return channels;
+        }
+
+        /**
+         * Nearest-rank percentile of the values in the cell.
+         * @param percentile The percentile, in range 0 - 1.
+         */
+        private double getPercentile(double percentile) {
+            if (count == 1) return values[0];
+            Arrays.sort(values, 0, count);
+            int rank = (int) Math.ceil(percentile * count);
+            return values[Math.max(rank - 1, 0)];
+        }
+    }
+
+    /**
+     * Returns the value of a single cell in the given channel.
+     * @param cellIndex The index of the cell, matching the index in getData().
+     * @param channel The aggregation channel to read.
+     * @return The channel value of the cell.
+     */
+    public double getValue(int cellIndex, AggregationChannel channel) {
+        return channelValues[channel.ordinal()][cellIndex];
+    }
+
+    /**
+     * @param channel The aggregation channel to read.
+     * @return The values of all cells in the given channel, indexed like getData(). Do not modify.
+     */
+    public double[] getChannelValues(AggregationChannel channel) {
+        return channelValues[channel.ordinal()];
     }
 
     // Getters:
     public int getLevelOfDetail() { return levelOfDetail; }
     public List<DataPoint> getData() { return LODdata; }
-}
\ No newline at end of file
+    public OccupancyMask getOccupancyMask() { return occupancyMask; }
+    public boolean hasSignedValues() { return signedValues; }
+}
@@ -0,0 +1,165 @@
+package pollutionLayer;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+import colors.ColorLookupTable;
+import utility.WebMercator;
+
+/**
+ * Renders whole frames of the pollution layer into pixel buffers on a background thread, so LOD
+ * generation, culling, projection and rasterisation never block the JavaFX thread.
+ *
+ * Each request supersedes every earlier one: queued frames that were superseded are skipped, and a
+ * frame being rendered stops drawing polygons once it is superseded and is discarded. Completed
+ * frames are handed to the JavaFX thread, which uploads them and hands the buffer back with
+ * releaseFrame(), so the buffers are reused and a frame is never drawn into while it is uploaded.
+ *
+ * The render thread reads the polygons of the requested LOD directly, without switching the polygon
+ * manager's current LOD, and projects them into its own scratch array, so it never changes state the
+ * JavaFX thread reads. The JavaFX thread switches to the LOD of a frame once it is displayed.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class BackgroundFrameRenderer {
+    private final static int CANCEL_CHECK_INTERVAL = 256; // Polygons drawn between checks for a newer request.
+
+    // One thread shared by all pollution layers, as only the displayed layer requests frames.
+    private final static ExecutorService RENDER_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Pollution frame renderer");
+        thread.setDaemon(true); // Do not keep the application alive.
+        return thread;
+    });
+
+    private final PollutionPolygonManager polygonManager;
+    private final AtomicLong latestRequest = new AtomicLong(); // The number of the latest requested frame.
+    private final ConcurrentLinkedQueue<PollutionRasteriser> freeBuffers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A completed frame.
+     * @param buffer The pixel buffer holding the frame, to be handed back with releaseFrame().
+     * @param number The request number of the frame, higher for later requests.
+     * @param lodIndex The index of the LOD the frame shows.
+     * @param zoom The zoom level the frame was rendered at.
+     * @param translateX The x translation of the base map the frame was rendered at.
+     * @param translateY The y translation of the base map the frame was rendered at.
+     * @param polygonsDrawn The number of polygons drawn into the frame.
+     */
+    public record Frame(PollutionRasteriser buffer, long number, int lodIndex, double zoom, double translateX, double translateY, int polygonsDrawn) {}
+
+    /**
+     * A snapshot of everything needed to render a frame, taken on the JavaFX thread.
+     * @param lodIndex The index of the LOD to display.
+     * @param zoom The zoom level of the map.
+     * @param translateX The x translation of the base map.
+     * @param translateY The y translation of the base map.
+     * @param width The width of the frame in pixels.
+     * @param height The height of the frame in pixels.
+     * @param colorTable The colour lookup table to colour polygons with.
+     * @param thresholdValue Polygons with a value at or below this are drawn in the null colour.
+     */
+    public record FrameRequest(int lodIndex, double zoom, double translateX, double translateY, int width, int height,
+                               ColorLookupTable colorTable, double thresholdValue) {}
+
+    /**
+     * Constructor.
+     * @param polygonManager The polygon manager of the layer, used to read and generate polygons off the JavaFX thread.
+     */
+    public BackgroundFrameRenderer(PollutionPolygonManager polygonManager) {
+        this.polygonManager = polygonManager;
+    }
+
+    /**
+     * Queues a frame to be rendered, superseding all earlier requests.
+     * @param request The frame to render.
+     * @param onRendered Called on the JavaFX thread with the frame once it is complete.
+     */
+    public void requestFrame(FrameRequest request, Consumer<Frame> onRendered) {
+        long number = latestRequest.incrementAndGet();
+
+        RENDER_EXECUTOR.execute(() -> {
+            if (isSuperseded(number)) return;
+            PolygonSpatialIndex spatialIndex = polygonManager.getLODSpatialIndex(request.lodIndex()); // Generated here if needed.
+            if (isSuperseded(number)) return;
+
+            PollutionRasteriser buffer = freeBuffers.poll();
+            if (buffer == null) buffer = new PollutionRasteriser();
+
+            int polygonsDrawn = renderFrame(spatialIndex, request, buffer, () -> isSuperseded(number));
+            if (polygonsDrawn < 0) {
+                freeBuffers.add(buffer); // Superseded part way through.
+                return;
+            }
+
+            Frame frame = new Frame(buffer, number, request.lodIndex(), request.zoom(), request.translateX(), request.translateY(), polygonsDrawn);
+            Platform.runLater(() -> onRendered.accept(frame));
+        });
+    }
+
+    /**
+     * Renders the polygons of a spatial index that are visible in a frame into a buffer.
+     * The LOD index of the request is not used, the polygons of the spatial index are drawn.
+     * @param spatialIndex The polygons to draw.
+     * @param request The view and colouring of the frame.
+     * @param buffer The buffer to render into, resized to the frame.
+     * @param isCancelled Checked every few hundred polygons, rendering stops once it returns true.
+     * @return The number of polygons drawn, or -1 if rendering was cancelled before it was completed.
+     */
+    public static int renderFrame(PolygonSpatialIndex spatialIndex, FrameRequest request, PollutionRasteriser buffer, BooleanSupplier isCancelled) {
+        buffer.resize(request.width(), request.height());
+        buffer.clear();
+
+        PolygonBuffer polygons = spatialIndex.getPolygons();
+        double thresholdValue = request.thresholdValue();
+        ColorLookupTable colorTable = request.colorTable();
+
+        // The frame's pixels are map pixels offset by the translation, so the origin is the negated translation.
+        double worldSize = WebMercator.getWorldSize(request.zoom());
+        double originX = -request.translateX();
+        double originY = -request.translateY();
+
+        double minLatitude = WebMercator.toLatitude((originY + request.height()) / worldSize);
+        double maxLatitude = WebMercator.toLatitude(originY / worldSize);
+        double minLongitude = WebMercator.toLongitude(originX / worldSize);
+        double maxLongitude = WebMercator.toLongitude((originX + request.width()) / worldSize);
+
+        double[] points = new double[PolygonBuffer.COORDINATES];
+        int[] drawn = { 0 };
+        boolean[] cancelled = { false };
+
+        spatialIndex.forEachInBounds(minLatitude, maxLatitude, minLongitude, maxLongitude, i -> {
+            if (cancelled[0]) return;
+            if (++drawn[0] % CANCEL_CHECK_INTERVAL == 0 && isCancelled.getAsBoolean()) {
+                cancelled[0] = true;
+                return;
+            }
+
+            polygons.projectPoints(i, worldSize, originX, originY, points);
+            buffer.fillConvexPolygon(points, 0, PolygonBuffer.CORNERS, colorTable.getArgb(polygons.getColorIndex(i, thresholdValue)));
+        });
+
+        return cancelled[0] ? -1 : drawn[0];
+    }
+
+    /**
+     * Hands the buffer of a frame back for reuse, once it has been uploaded.
+     * @param frame The frame to release.
+     */
+    public void releaseFrame(Frame frame) {
+        freeBuffers.add(frame.buffer());
+    }
+
+    /**
+     * @return True if a later frame has been requested since the given one.
+     */
+    private boolean isSuperseded(long number) {
+        return latestRequest.get() != number;
+    }
+}
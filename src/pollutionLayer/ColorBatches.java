@@ -0,0 +1,103 @@
+package pollutionLayer;
+
+import java.util.Arrays;
+
+import colors.ColorLookupTable;
+
+/**
+ * Groups the polygons of a frame by their colour lookup table index, so that the polygons of each
+ * colour can be drawn as one path with a single fill, instead of one fill per polygon.
+ *
+ * Polygons are added with add(), grouped with sort(), and then walked one colour at a time.
+ * The added polygons can also be walked in the order they were added, without sorting, and re-coloured in place.
+ * The arrays are reused between frames, so a frame does not allocate once they are large enough.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class ColorBatches {
+    private final static int COLOR_COUNT = ColorLookupTable.NULL_INDEX + 1; // Every table index, including the null colour.
+
+    private int[] polygons = new int[1024]; // The added polygon indices, in the order they were added.
+    private int[] colors = new int[1024]; // The colour index of each added polygon.
+    private int[] sortedPolygons = new int[1024]; // The added polygon indices, grouped by colour.
+    private int count = 0;
+
+    private final int[] batchStarts = new int[COLOR_COUNT + 1]; // The polygons of colour c are at sortedPolygons[batchStarts[c]] until batchStarts[c + 1].
+
+    /**
+     * Removes all polygons, ready for the next frame.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Adds a polygon to the batch of its colour.
+     * @param polygon The index of the polygon.
+     * @param colorIndex The colour lookup table index of the polygon.
+     */
+    public void add(int polygon, int colorIndex) {
+        if (count == polygons.length) {
+            polygons = Arrays.copyOf(polygons, count * 2);
+            colors = Arrays.copyOf(colors, count * 2);
+        }
+        polygons[count] = polygon;
+        colors[count] = colorIndex;
+        count++;
+    }
+
+    /**
+     * Changes the colour of an added polygon, so a frame can be re-coloured without adding its polygons again.
+     * The batches must be sorted again before they are walked.
+     * @param i The position of the polygon, in the order polygons were added.
+     * @param colorIndex The new colour lookup table index of the polygon.
+     */
+    public void setColor(int i, int colorIndex) {
+        colors[i] = colorIndex;
+    }
+
+    /**
+     * Groups the added polygons by colour, with a counting sort. Must be called before walking the batches.
+     */
+    public void sort() {
+        if (sortedPolygons.length < count) sortedPolygons = new int[polygons.length];
+
+        Arrays.fill(batchStarts, 0);
+        for (int i = 0; i < count; i++) {
+            batchStarts[colors[i] + 1]++;
+        }
+        for (int color = 0; color < COLOR_COUNT; color++) {
+            batchStarts[color + 1] += batchStarts[color];
+        }
+
+        // Place each polygon after the ones of its colour placed before it, using the start of the next batch as a cursor.
+        for (int i = 0; i < count; i++) {
+            sortedPolygons[batchStarts[colors[i]]++] = polygons[i];
+        }
+        for (int color = COLOR_COUNT; color > 0; color--) {
+            batchStarts[color] = batchStarts[color - 1];
+        }
+        batchStarts[0] = 0;
+    }
+
+    /**
+     * @return The number of colours with at least one polygon.
+     */
+    public int getBatchCount() {
+        int batchCount = 0;
+        for (int color = 0; color < COLOR_COUNT; color++) {
+            if (batchStarts[color + 1] > batchStarts[color]) batchCount++;
+        }
+        return batchCount;
+    }
+
+    // Getters:
+    public int getPolygon(int i) { return polygons[i]; }
+    public int getColor(int i) { return colors[i]; }
+    public int getBatchStart(int colorIndex) { return batchStarts[colorIndex]; }
+    public int getBatchEnd(int colorIndex) { return batchStarts[colorIndex + 1]; }
+    public int getSortedPolygon(int i) { return sortedPolygons[i]; }
+    public int getColorCount() { return COLOR_COUNT; }
+    public int getCount() { return count; }
+}
@@ -0,0 +1,134 @@
+package pollutionLayer;
+
+import dataProcessing.DataPoint;
+import dataProcessing.Pollutant;
+
+/**
+ * Finds the cell under the mouse pointer for the hover readout. Each lookup interpolates the
+ * pointer's easting/northing and looks the cell up in the occupancy mask, in constant time and
+ * without allocating, so it can run on every mouse move event.
+ *
+ * The readout only needs updating when the hovered cell changes, which inspect() reports.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class HoverInspector {
+    private final PollutionPolygonManager polygonManager;
+    private Pollutant pollutant;
+    private final ScreenGridMapping gridMapping;
+    private boolean fullResolution = false; // True to inspect 1 km cells, whatever LOD is displayed.
+
+    // The hovered cell:
+    private DataPoint hoveredCell; // The data point of the hovered LOD or 1 km cell, null if no cell is hovered.
+    private int cellEasting;
+    private int cellNorthing;
+    private double value;
+
+    /**
+     * Constructor.
+     * @param polygonManager The polygon manager of the layer to inspect.
+     * @param pollutant The pollutant of the layer, used to find the DAQI band of values.
+     */
+    public HoverInspector(PollutionPolygonManager polygonManager, Pollutant pollutant) {
+        this.polygonManager = polygonManager;
+        this.pollutant = pollutant;
+        gridMapping = new ScreenGridMapping();
+    }
+
+    /**
+     * Finds the cell under a screen position.
+     * @param projection The projection of the current frame.
+     * @param viewWidth The width of the viewport in pixels.
+     * @param viewHeight The height of the viewport in pixels.
+     * @param screenX The x coordinate of the pointer.
+     * @param screenY The y coordinate of the pointer.
+     * @return True if the hovered cell changed, false otherwise.
+     */
+    public boolean inspect(ScreenProjection projection, double viewWidth, double viewHeight, double screenX, double screenY) {
+        gridMapping.locate(projection, viewWidth, viewHeight, screenX, screenY);
+        int easting = (int) Math.floor(gridMapping.getEasting());
+        int northing = (int) Math.floor(gridMapping.getNorthing());
+
+        DataPoint dataPoint;
+        double cellValue;
+        if (fullResolution) {
+            dataPoint = polygonManager.getDataPointAt(easting, northing);
+            cellValue = dataPoint == null ? 0 : dataPoint.value();
+        } else {
+            PolygonBuffer polygons = polygonManager.getPolygons();
+            int polygon = polygons.getPolygonAt(easting, northing);
+            dataPoint = polygon == -1 ? null : polygons.getDataPoint(polygon);
+            cellValue = polygon == -1 ? 0 : polygons.getValue(polygon);
+        }
+
+        if (dataPoint == hoveredCell) return false;
+
+        hoveredCell = dataPoint;
+        if (dataPoint != null) {
+            cellEasting = dataPoint.x();
+            cellNorthing = dataPoint.y();
+            value = cellValue;
+        }
+        return true;
+    }
+
+    /**
+     * Forgets the hovered cell, so the next inspection reports a change. Call when cell values change.
+     */
+    public void reset() {
+        hoveredCell = null;
+    }
+
+    /**
+     * Sets the pollutant of the layer, when the layer switches to another dataset, and forgets the hovered cell.
+     * @param pollutant The pollutant of the layer.
+     */
+    public void setPollutant(Pollutant pollutant) {
+        this.pollutant = pollutant;
+        reset();
+    }
+
+    /**
+     * Sets whether 1 km cells are inspected, instead of the cells of the displayed LOD.
+     * @param fullResolution True to inspect 1 km cells.
+     */
+    public void setFullResolution(boolean fullResolution) {
+        this.fullResolution = fullResolution;
+        reset();
+    }
+
+    /**
+     * @return True if the hovered value is a data point count, false if it is a concentration or a change in concentration.
+     */
+    public boolean isDataPointCount() {
+        return !fullResolution && !polygonManager.getAggregationChannel().isConcentration();
+    }
+
+    /**
+     * @return True if the hovered value is a concentration with a DAQI band, false if it is a data point count or a change.
+     */
+    public boolean hasPollutionLevel() {
+        return !isDataPointCount() && !polygonManager.hasSignedValues();
+    }
+
+    /**
+     * @return True if the hovered cell is a 1 km cell, either inspected at full resolution or of the displayed LOD.
+     */
+    public boolean isFullResolutionCell() {
+        return fullResolution || polygonManager.getCurrentLevelOfDetail() == 1;
+    }
+
+    /**
+     * @return The DAQI pollution level of the hovered value, see Pollutant.getPollutionLevel().
+     */
+    public int getPollutionLevel() {
+        return Pollutant.getPollutionLevel(pollutant, value);
+    }
+
+    // Getters:
+    public boolean hasCell() { return hoveredCell != null; }
+    public int getCellEasting() { return cellEasting; }
+    public int getCellNorthing() { return cellNorthing; }
+    public double getValue() { return value; }
+}
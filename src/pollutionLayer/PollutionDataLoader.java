@@ -0,0 +1,116 @@
+package pollutionLayer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import dataProcessing.DataSet;
+import lod.LODManager;
+
+/**
+ * Loads the datasets shown on the pollution layer in the background, so the JavaFX thread never
+ * waits for CSV files to be read or LODs to be generated.
+ *
+ * Only the latest load is delivered. Starting a load cancels the previous one: it is removed from
+ * the queue if it has not started, and otherwise stops after its current stage and is discarded.
+ * Loads are not interrupted, so a file being read is never left half-read in the data cache.
+ * Must be used from the thread results are delivered on, normally the JavaFX thread.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class PollutionDataLoader {
+    // One thread shared by all loaders, so a superseded load holds up at most the load after it.
+    private final static ExecutorService LOAD_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Pollution data loader");
+        thread.setDaemon(true); // Do not keep the application alive.
+        return thread;
+    });
+
+    /**
+     * A loaded dataset, ready to be shown on a pollution layer without any further loading.
+     * @param dataSet The dataset.
+     * @param lodManager The LODs of the dataset.
+     */
+    public record LoadedData(DataSet dataSet, LODManager lodManager) {}
+
+    private final Executor resultExecutor; // Runs the callbacks of completed loads.
+    private final AtomicLong generation = new AtomicLong(); // Increased by every load and cancel, to discard older loads.
+    private Future<?> currentLoad; // The latest load, null if it was delivered or cancelled.
+
+    /**
+     * Constructor.
+     * @param resultExecutor Runs the callbacks of completed loads, such as Platform::runLater.
+     */
+    public PollutionDataLoader(Executor resultExecutor) {
+        this.resultExecutor = resultExecutor;
+    }
+
+    /**
+     * Loads a dataset and generates its LODs in the background, cancelling the previous load.
+     * @param dataSetSupplier Reads or computes the dataset, on the loading thread.
+     * @param onLoaded Called with the loaded data, unless the load was cancelled in the meantime.
+     * @param onFailed Called with the exception if the dataset could not be loaded, unless the load was cancelled in the meantime.
+     */
+    public void load(Supplier<DataSet> dataSetSupplier, Consumer<LoadedData> onLoaded, Consumer<RuntimeException> onFailed) {
+        cancel();
+        long loadGeneration = generation.get();
+        currentLoad = LOAD_EXECUTOR.submit(() -> run(dataSetSupplier, onLoaded, onFailed, loadGeneration));
+    }
+
+    /**
+     * Cancels the current load, if any, so it is never delivered.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        if (currentLoad != null) currentLoad.cancel(false);
+        currentLoad = null;
+    }
+
+    /**
+     * Loads a dataset and its LODs, on the loading thread, checking between stages if the load was cancelled.
+     */
+    private void run(Supplier<DataSet> dataSetSupplier, Consumer<LoadedData> onLoaded, Consumer<RuntimeException> onFailed, long loadGeneration) {
+        try {
+            if (isSuperseded(loadGeneration)) return;
+            DataSet dataSet = dataSetSupplier.get();
+            if (isSuperseded(loadGeneration)) return; // The dataset stays cached, but its LODs are not needed.
+
+            LoadedData loadedData = new LoadedData(dataSet, PollutionPolygonManager.generateLODs(dataSet));
+            deliver(loadGeneration, () -> onLoaded.accept(loadedData));
+        } catch (RuntimeException e) {
+            deliver(loadGeneration, () -> onFailed.accept(e));
+        }
+    }
+
+    /**
+     * Runs a callback of a load on the result executor, unless the load was cancelled by then.
+     */
+    private void deliver(long loadGeneration, Runnable callback) {
+        if (isSuperseded(loadGeneration)) return;
+
+        resultExecutor.execute(() -> {
+            if (isSuperseded(loadGeneration)) return;
+            currentLoad = null;
+            callback.run();
+        });
+    }
+
+    /**
+     * @return True if a load or cancel happened after the load of the given generation started.
+     */
+    private boolean isSuperseded(long loadGeneration) {
+        return generation.get() != loadGeneration;
+    }
+
+    /**
+     * @return True if a load is in progress, whose result has not been delivered yet.
+     */
+    public boolean isLoading() {
+        return currentLoad != null;
+    }
+}
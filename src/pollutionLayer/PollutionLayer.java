@@ -1,128 +1,976 @@
 package pollutionLayer;
 
 import com.gluonhq.maps.MapLayer;
-import com.gluonhq.maps.MapPoint;
 
 import colors.*;
+import contours.ContourCache;
+import contours.ContourLevels;
+import contours.ContourLine;
+import contours.ContourSet;
+import dataProcessing.CompositeIndexDataSet;
 import dataProcessing.DataPoint;
 import dataProcessing.DataSet;
 import dataProcessing.Pollutant;
 import infoPopup.MapClickHandler;
+import lod.AggregationChannel;
+import lod.LODData;
+import lod.LODManager;
 import utility.CustomMapView;
+import utility.WebMercator;
 
-import javafx.geometry.Point2D;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import javafx.application.Platform;
+import javafx.scene.SnapshotParameters;
 import javafx.scene.canvas.Canvas;
+import javafx.scene.control.Label;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
 
 /**
  * Class for pollution rendering on the map. Handles rendering pollution data as polygons
  * on the map layer.
  *
+ * The layer is kept for the lifetime of the map, and new datasets and colour schemes are swapped in,
+ * so only what changed is updated: a colour scheme change only re-colours the polygons, and a dataset
+ * with the same cells only swaps the polygons' values.
+ *
  * @author Anas Ahmed
  * @version 2.0
  */
 public class PollutionLayer extends MapLayer {
+    public final static double DEFAULT_POLYGON_OPACITY = 0.7; // The opacity polygons are drawn with, in range 0 - 1.
+    private final static double HOVER_READOUT_OFFSET = 14; // Distance of the hover readout from the pointer in pixels.
+    private final static double CONTOUR_LINE_WIDTH = 2;
+    private final static long FRAME_BUDGET = 8_000_000; // Time a progressively drawn vector frame may take, in nanoseconds.
+
     private final CustomMapView mapView;
+    private DataSet dataSet;
     private final PollutionPolygonManager pollutionPolygonManager;
     private final PollutionLayerEventHandler pollutionLayerEventHandler;
 
     private final Canvas canvas;
     private final GraphicsContext gc;
+    private final PollutionRasteriser rasteriser;
+    private final ScreenProjection projection; // The projection of the frame being drawn.
+    private final ColorBatches colorBatches; // The visible polygons of the frame, grouped by colour in vector mode.
+    private final RenderStatistics statistics;
+
+    // The state the raster was last rendered with, so it can be reused when the map is panned:
+    private boolean rasterValid = false; // False when the raster must be fully re-rendered.
+    private double rasterZoom;
+    private PolygonSpatialIndex rasterIndex;
+    private int previousRasterTranslateX;
+    private int previousRasterTranslateY;
+
+    // The view the last vector frame was drawn at, so it can be re-coloured without culling or projecting again:
+    private boolean vectorFrameValid = false; // False when colorBatches does not hold the polygons of the displayed vector frame.
+    private double vectorFrameZoom;
+    private double vectorFrameTranslateX;
+    private double vectorFrameTranslateY;
+    private double vectorFrameWidth;
+    private double vectorFrameHeight;
+    private PolygonSpatialIndex vectorFrameIndex;
+    private int vectorFrameLODIndex = -1; // The LOD the last vector frame was drawn at, to draw LOD changes progressively.
+    private final RenderScheduler renderScheduler; // Refines a vector frame across frames after a LOD change.
+    private RenderMode renderMode = RenderMode.VECTOR;
+
+    private final PollutionTileCache tileCache;
+    private PollutionTileRenderer tileRenderer; // Snapshot of the layer for rendering tiles, null when out of date.
+    private PolygonSpatialIndex tileRendererIndex; // The polygons the tile renderer snapshot was taken of.
+
+    private final ContourCache contourCache;
+    private Pollutant pollutant;
+    private ContourLevels contourLevels = ContourLevels.EVENLY_SPACED;
+    private double[] contourLevelValues; // The levels of the contour lines, found when first drawn.
+
+    // The view the canvas was last rendered at, so it can be scaled to the view during a zoom gesture:
+    private boolean renderedViewValid = false; // False until the canvas holds a rendered frame.
+    private double renderedZoom;
+    private double renderedTranslateX;
+    private double renderedTranslateY;
+    private WritableImage zoomGestureImage; // The canvas as last rendered, captured on the first step of a zoom gesture.
+    private boolean zoomGestureImageValid = false; // False when the image must be captured on the next zoom gesture step.
 
-    private double polygonOpacity = 0.7;
-    private final ColorSchemeManager colorSchemeManager;
+    private final BackgroundFrameRenderer frameRenderer;
+    private WritableImage frontImage; // The latest completed background frame, drawn by the JavaFX thread.
+    private BackgroundFrameRenderer.Frame frontFrame; // The latest completed background frame, its buffer already released.
+
+    private final HoverInspector hoverInspector;
+    private final ScreenProjection hoverProjection; // The projection of the map when the pointer last moved.
+    private final Label hoverReadout; // Shows the value of the hovered cell next to the pointer.
+
+    private double polygonOpacity = DEFAULT_POLYGON_OPACITY;
+    private ColorSchemeManager colorSchemeManager;
 
     private double pollutionThresholdPercentage = 0; // Maximum percentage value relative to max pollution value that polygons can be displayed.
-    private final double maxPollutionValue; // Maximum pollution value of all polygons currently displayed.
+    private double maxPollutionValue; // Maximum pollution value of all polygons currently displayed.
 
 
     /**
      * Initialises the PollutionLayer.
      * @param mapView The map view to render the pollution layer on.
      * @param dataSet The currently used dataset.
+     * @param lodManager The LODs of the dataset, from PollutionPolygonManager.generateLODs().
      * @param clickHandler The click handler for the map on info popups.
      * @param pollutant The currently used pollutant.
      * @param colorSchemeManager The color scheme manager to use for rendering the colours.
+     * @param tileCache The tile cache used in tiled render mode, shared between pollution layers.
+     * @param contourCache The contour cache used in contour render mode, shared between pollution layers.
+     * @param statistics The render statistics to record frames into, shared between pollution layers.
      */
-    public PollutionLayer(CustomMapView mapView, DataSet dataSet, MapClickHandler clickHandler, Pollutant pollutant, ColorSchemeManager colorSchemeManager) {
+    public PollutionLayer(CustomMapView mapView, DataSet dataSet, LODManager lodManager, MapClickHandler clickHandler, Pollutant pollutant, ColorSchemeManager colorSchemeManager, PollutionTileCache tileCache, ContourCache contourCache, RenderStatistics statistics) {
         this.mapView = mapView;
+        this.dataSet = dataSet;
+        this.pollutant = pollutant;
+        this.tileCache = tileCache;
+        this.contourCache = contourCache;
+        this.statistics = statistics;
 
-        pollutionPolygonManager = new PollutionPolygonManager(dataSet);
+        pollutionPolygonManager = new PollutionPolygonManager(dataSet, lodManager);
         pollutionLayerEventHandler = new PollutionLayerEventHandler(clickHandler, mapView);
 
         this.colorSchemeManager = colorSchemeManager;
 
-        //Calculate maximum pollution value (used in pollution threshold calculations)
-        maxPollutionValue = dataSet.getData().stream().map(DataPoint::value).max(Double::compareTo).orElse(0.0);
+        //Maximum pollution value (used in pollution threshold calculations)
+        //For signed values, such as changes, the threshold is relative to the largest magnitude.
+        maxPollutionValue = pollutionPolygonManager.getMaxValueMagnitude();
 
         canvas = new Canvas();
         gc = canvas.getGraphicsContext2D();
+        rasteriser = new PollutionRasteriser();
+        projection = new ScreenProjection();
+        colorBatches = new ColorBatches();
+        renderScheduler = new RenderScheduler(FRAME_BUDGET);
+        frameRenderer = new BackgroundFrameRenderer(pollutionPolygonManager);
         this.getChildren().add(canvas);
 
-        canvas.setOnMouseClicked(e -> pollutionLayerEventHandler.handleMouseClick(pollutionPolygonManager, pollutant, e));
+        canvas.setOnMouseClicked(e -> pollutionLayerEventHandler.handleMouseClick(pollutionPolygonManager, this.dataSet, this.pollutant, e));
+
+        hoverInspector = new HoverInspector(pollutionPolygonManager, pollutant);
+        hoverProjection = new ScreenProjection();
+        hoverReadout = new Label();
+        hoverReadout.getStyleClass().add("hover-readout");
+        hoverReadout.setMouseTransparent(true);
+        hoverReadout.setVisible(false);
+        this.getChildren().add(hoverReadout);
 
         pollutionPolygonManager.updatePollutionPolygons(mapView);
     }
 
     /**
-     * Re-draws all polygons every time the mapView is moved around.
+     * Re-draws all polygons every time the mapView is moved around. During a scroll zoom gesture,
+     * the last rendered frame is scaled instead, and the polygons are re-rendered once it settles.
      */
     @Override
     protected void layoutLayer() {
-        pollutionPolygonManager.updatePollutionPolygons(mapView);
-        renderPolygons();
+        // Background frames are already drawn scaled, see renderBackground().
+        if (mapView.isZoomGestureActive() && renderMode != RenderMode.BACKGROUND && drawZoomGestureFrame()) return;
+        zoomGestureImageValid = false; // The canvas is re-rendered.
+
+        statistics.beginFrame();
+
+        if (renderMode == RenderMode.BACKGROUND) {
+            renderBackground(); // Polygons are generated on the render thread.
+        } else {
+            long updateStart = statistics.startTimer();
+            pollutionPolygonManager.updatePollutionPolygons(getDisplayedLODIndex());
+            statistics.stopTimer(RenderStatistics.Stage.UPDATE_POLYGONS, updateStart);
+
+            if (renderMode == RenderMode.TILED) {
+                renderTiles();
+            } else {
+                renderPolygons();
+            }
+
+            renderedViewValid = baseMap != null && getScene() != null;
+            if (renderedViewValid) {
+                renderedZoom = baseMap.zoom().get();
+                renderedTranslateX = baseMap.getTranslateX();
+                renderedTranslateY = baseMap.getTranslateY();
+            }
+        }
+
+        statistics.endFrame(pollutionPolygonManager.getPolygons().getCount(), pollutionPolygonManager.getCurrentLODIndex());
+    }
+
+    /**
+     * @return The index of the LOD to display at the current zoom. In vector mode, if the LOD's polygons
+     * are not generated yet, they are generated in the background and the coarsest LOD is displayed
+     * until they are ready, instead of generating them during the frame.
+     */
+    private int getDisplayedLODIndex() {
+        int lodIndex = pollutionPolygonManager.getLODIndex(mapView);
+        int coarsestLODIndex = pollutionPolygonManager.getCoarsestLODIndex();
+        if (renderMode != RenderMode.VECTOR || lodIndex == coarsestLODIndex || pollutionPolygonManager.isGenerated(lodIndex)) return lodIndex;
+
+        pollutionPolygonManager.generatePolygonsInBackground(lodIndex, () -> Platform.runLater(this::markDirty));
+        return coarsestLODIndex;
+    }
+
+    /**
+     * Draws the canvas as last rendered, moved and scaled to the current view, instead of re-rendering
+     * the polygons at every step of a zoom gesture. The canvas is captured into an image on the first
+     * step, so each later step only draws one image, like the base map scales its tiles.
+     * @return True if the frame was drawn, false if there is no rendered frame, so the layer must be rendered.
+     */
+    private boolean drawZoomGestureFrame() {
+        if (!renderedViewValid || baseMap == null || getScene() == null) return false;
+
+        statistics.beginFrame();
+        long drawStart = statistics.startTimer();
+        if (!zoomGestureImageValid) {
+            SnapshotParameters parameters = new SnapshotParameters();
+            parameters.setFill(Color.TRANSPARENT);
+            zoomGestureImage = canvas.snapshot(parameters, zoomGestureImage); // Reuses the image if it is large enough.
+            zoomGestureImageValid = true;
+        }
+
+        canvas.setWidth(mapView.getWidth());
+        canvas.setHeight(mapView.getHeight());
+        gc.clearRect(0, 0, mapView.getWidth(), mapView.getHeight()); // Clear canvas.
+        drawScaledImage(zoomGestureImage, renderedZoom, renderedTranslateX, renderedTranslateY);
+        statistics.stopTimer(RenderStatistics.Stage.DRAWING, drawStart);
+
+        statistics.endFrame(pollutionPolygonManager.getPolygons().getCount(), pollutionPolygonManager.getCurrentLODIndex());
+        return true;
+    }
+
+    /**
+     * Draw the visible tiles from the tile cache to the canvas. Tiles that are not cached yet are
+     * rendered in the background, and the layer is re-drawn once they are ready.
+     */
+    private void renderTiles() {
+        canvas.setWidth(mapView.getWidth());
+        canvas.setHeight(mapView.getHeight());
+
+        gc.clearRect(0, 0, mapView.getWidth(), mapView.getHeight()); // Clear canvas.
+
+        if (baseMap == null || getScene() == null) {
+            return; // Edge case when switching to statistics panel.
+        }
+
+        // Map pixel coordinates are offset from the screen by the base map's translation.
+        double zoom = baseMap.zoom().get();
+        double translateX = baseMap.getTranslateX();
+        double translateY = baseMap.getTranslateY();
+
+        int firstTileX = (int) Math.floor(-translateX / WebMercator.TILE_SIZE);
+        int lastTileX = (int) Math.floor((mapView.getWidth() - translateX) / WebMercator.TILE_SIZE);
+        int firstTileY = (int) Math.floor(-translateY / WebMercator.TILE_SIZE);
+        int lastTileY = (int) Math.floor((mapView.getHeight() - translateY) / WebMercator.TILE_SIZE);
+
+        String dataSetKey = getDataSetKey();
+        String colorSchemeKey = colorSchemeManager.getColorScheme().toString();
+        int levelOfDetail = pollutionPolygonManager.getCurrentLevelOfDetail();
+        int opacity = (int) Math.round(polygonOpacity * 255);
+
+        long drawStart = statistics.startTimer();
+        for (int tileY = firstTileY; tileY <= lastTileY; tileY++) {
+            for (int tileX = firstTileX; tileX <= lastTileX; tileX++) {
+                TileKey key = new TileKey(dataSetKey, colorSchemeKey, zoom, levelOfDetail, tileX, tileY, opacity);
+
+                Image tile = tileCache.getTile(key);
+                statistics.recordTileLookup(tileCache.containsTile(key));
+                if (tile != null) {
+                    gc.drawImage(tile, tileX * WebMercator.TILE_SIZE + translateX, tileY * WebMercator.TILE_SIZE + translateY);
+                } else if (!tileCache.containsTile(key)) {
+                    tileCache.requestTile(key, getTileRenderer(), this::markDirty);
+                }
+            }
+        }
+        statistics.stopTimer(RenderStatistics.Stage.DRAWING, drawStart);
+    }
+
+    /**
+     * @return A tile renderer holding a snapshot of the current polygons and colours.
+     */
+    private PollutionTileRenderer getTileRenderer() {
+        PolygonSpatialIndex spatialIndex = pollutionPolygonManager.getSpatialIndex();
+        if (tileRenderer == null || tileRendererIndex != spatialIndex) {
+            tileRendererIndex = spatialIndex;
+            tileRenderer = new PollutionTileRenderer(spatialIndex, colorSchemeManager.getColorScheme(), getThresholdValue(), polygonOpacity);
+        }
+        return tileRenderer;
+    }
+
+    /**
+     * @return A key identifying the displayed data, used to identify cached tiles.
+     */
+    private String getDataSetKey() {
+        return dataSet.getPollutant() + "/" + dataSet.getYear() + "/" + dataSet.getMetric() + "/" + pollutionPolygonManager.getAggregationChannel() + "/" + getThresholdValue();
     }
 
     /**
      * Draw all polygons to the canvas.
+     * The viewport is inverse-projected to latitude/longitude bounds, and only the polygons the
+     * spatial index finds inside those bounds are projected and drawn.
      */
     private void renderPolygons() {
-        double iconSize = 1000 * pollutionPolygonManager.getCurrentLevelOfDetail() * mapView.getPixelScale();
-
+        long frameStart = renderScheduler.getTime();
         canvas.setWidth(mapView.getWidth());
         canvas.setHeight(mapView.getHeight());
 
+        // A progressively drawn vector frame of the same view is continued, on top of the tiles already drawn.
+        if (renderMode == RenderMode.VECTOR && renderScheduler.hasPendingTiles() && baseMap != null && getScene() != null && isVectorFrameView()) {
+            projection.update(baseMap.zoom().get(), baseMap.getTranslateX(), baseMap.getTranslateY());
+            refineVectorTiles(frameStart);
+            return;
+        }
+
         gc.clearRect(0, 0, mapView.getWidth(), mapView.getHeight()); // Clear canvas.
 
-        for (PollutionPolygon polygon : pollutionPolygonManager.getPolygons()) {
-            MapPoint polygonTopLeft = polygon.getWorldCoordinates().getFirst();
-            Point2D polygonTopLeftScreen = getMapPoint(polygonTopLeft.getLatitude(), polygonTopLeft.getLongitude());
+        if (baseMap == null || getScene() == null) {
+            return; // Edge case when switching to statistics panel.
+        }
+
+        if (renderMode == RenderMode.RASTER) {
+            renderRaster();
+            return;
+        }
+
+        // Map pixel coordinates are offset from the screen by the base map's translation.
+        projection.update(baseMap.zoom().get(), baseMap.getTranslateX(), baseMap.getTranslateY());
+        if (renderMode == RenderMode.CONTOUR) {
+            renderContours();
+        } else {
+            renderVector(frameStart);
+        }
+    }
+
+    /**
+     * Draw the contour lines of the current LOD onto the canvas, simplified for the zoom level, one path per level.
+     * Lines at or below the visibility threshold are not drawn, and lines outside the viewport are culled by their bounds.
+     */
+    private void renderContours() {
+        if (contourLevelValues == null) contourLevelValues = contourLevels.getLevels(dataSet, pollutant);
+
+        int lodIndex = pollutionPolygonManager.getCurrentLODIndex();
+        AggregationChannel channel = pollutionPolygonManager.getAggregationChannel();
+        ContourSet contourSet = contourCache.getContourSet(dataSet, lodIndex, channel, contourLevelValues, () -> {
+            LODData lodData = pollutionPolygonManager.getLODData(lodIndex);
+            return new ContourSet(lodData.getOccupancyMask(), lodData.getChannelValues(channel), contourLevelValues);
+        });
+        List<ContourLine> lines = contourSet.getLines((int) Math.round(baseMap.zoom().get()));
 
-            if (polygonTopLeft == null) {
-                continue; // Edge case when switching to statistics panel.
+        ColorLookupTable colorTable = colorSchemeManager.getColorScheme().getLookupTable(1);
+        double thresholdValue = getThresholdValue();
+        double minX = projection.toNormalisedX(0);
+        double minY = projection.toNormalisedY(0);
+        double maxX = projection.toNormalisedX(mapView.getWidth());
+        double maxY = projection.toNormalisedY(mapView.getHeight());
+
+        long drawStart = statistics.startTimer();
+        gc.setLineWidth(CONTOUR_LINE_WIDTH);
+        int linesDrawn = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            double level = lines.get(i).level();
+            boolean newLevel = i == 0 || lines.get(i - 1).level() != level;
+            boolean lastOfLevel = i == lines.size() - 1 || lines.get(i + 1).level() != level;
+            if (newLevel) {
+                int colorIndex = ColorLookupTable.getIndex(pollutionPolygonManager.getNormalisedValue(level));
+                gc.setStroke(colorTable.getColor(colorIndex));
+                gc.beginPath();
             }
 
-            if (!mapView.isPointOnScreen(polygonTopLeftScreen.getX(), polygonTopLeftScreen.getY(), iconSize)) {
-                continue; // Skip if not on screen.
+            ContourLine line = lines.get(i);
+            boolean visible = (dataSet.hasSignedValues() ? Math.abs(level) : level) > thresholdValue
+                && line.maxX() >= minX && line.minX() <= maxX && line.maxY() >= minY && line.minY() <= maxY;
+            if (visible) {
+                double[] points = line.points();
+                gc.moveTo(projection.toScreenX(points[0]), projection.toScreenY(points[1]));
+                for (int point = 2; point < points.length; point += 2) {
+                    gc.lineTo(projection.toScreenX(points[point]), projection.toScreenY(points[point + 1]));
+                }
+                linesDrawn++;
             }
 
-            polygon.updatePoints(this);
+            if (lastOfLevel) gc.stroke();
+        }
+        statistics.stopTimer(RenderStatistics.Stage.DRAWING, drawStart);
+        statistics.addPolygonsDrawn(linesDrawn);
+    }
 
-            if (polygon.getDataPoint().value() <= pollutionThresholdPercentage * maxPollutionValue){
-                polygon.draw(gc, colorSchemeManager.getColorScheme().getNullColour(), polygonOpacity);
-            } else {
-                polygon.drawFromColourScheme(gc, colorSchemeManager.getColorScheme(), polygonOpacity);
+    /**
+     * Sets how the levels of the contour lines are chosen and re-draws the layer.
+     * @param contourLevels The way to choose contour levels.
+     */
+    public void setContourLevels(ContourLevels contourLevels) {
+        this.contourLevels = contourLevels;
+        contourLevelValues = null; // Found again when next drawn.
+        markDirty(); // Re-draw.
+    }
+
+    /**
+     * Draw the visible polygons onto the canvas, one path per colour. Polygons are grouped by their
+     * colour lookup table index, so the fill only changes once per colour rather than once per polygon.
+     *
+     * After a LOD change, or if the view changed before the last one was fully drawn, the frame is
+     * drawn progressively: the coarsest LOD is drawn over the whole view, then screen tiles are
+     * redrawn at the current LOD across the following frames, nearest to the centre of the view first.
+     * @param frameStart The time the frame started, from the render scheduler.
+     */
+    private void renderVector(long frameStart) {
+        PolygonSpatialIndex spatialIndex = pollutionPolygonManager.getSpatialIndex();
+        int lodIndex = pollutionPolygonManager.getCurrentLODIndex();
+        int coarsestLODIndex = pollutionPolygonManager.getCoarsestLODIndex();
+        ColorLookupTable colorTable = colorSchemeManager.getColorScheme().getLookupTable(polygonOpacity);
+        boolean progressive = (lodIndex != vectorFrameLODIndex || renderScheduler.hasPendingTiles()) && lodIndex != coarsestLODIndex;
+
+        vectorFrameZoom = baseMap.zoom().get();
+        vectorFrameTranslateX = projection.getTranslateX();
+        vectorFrameTranslateY = projection.getTranslateY();
+        vectorFrameWidth = mapView.getWidth();
+        vectorFrameHeight = mapView.getHeight();
+        vectorFrameIndex = spatialIndex;
+        vectorFrameLODIndex = lodIndex;
+
+        if (progressive) {
+            vectorFrameValid = false; // The colour batches only ever hold one tile of a progressive frame.
+            PolygonSpatialIndex coarseIndex = pollutionPolygonManager.getLODSpatialIndex(coarsestLODIndex);
+            double coarseThresholdValue = getThresholdValue(pollutionPolygonManager.getLevelOfDetail(coarsestLODIndex));
+            drawPolygonsInRegion(coarseIndex, coarseThresholdValue, colorTable, 0, 0, mapView.getWidth(), mapView.getHeight());
+
+            renderScheduler.start(mapView.getWidth(), mapView.getHeight());
+            refineVectorTiles(frameStart);
+        } else {
+            drawPolygonsInRegion(spatialIndex, getThresholdValue(), colorTable, 0, 0, mapView.getWidth(), mapView.getHeight());
+            vectorFrameValid = true;
+        }
+    }
+
+    /**
+     * Redraw queued screen tiles of a progressive vector frame at the current LOD, until the frame's
+     * budget is spent, and request another frame if tiles are left.
+     * @param frameStart The time the frame started, from the render scheduler.
+     */
+    private void refineVectorTiles(long frameStart) {
+        ColorLookupTable colorTable = colorSchemeManager.getColorScheme().getLookupTable(polygonOpacity);
+        double thresholdValue = getThresholdValue();
+
+        renderScheduler.refine(frameStart, (minX, minY, maxX, maxY) -> {
+            // Clipped, so polygons overlapping the tile do not draw over the coarse LOD around it.
+            gc.save();
+            gc.beginPath();
+            gc.rect(minX, minY, maxX - minX, maxY - minY);
+            gc.clip();
+            gc.clearRect(minX, minY, maxX - minX, maxY - minY);
+            drawPolygonsInRegion(vectorFrameIndex, thresholdValue, colorTable, minX, minY, maxX, maxY);
+            gc.restore();
+        });
+
+        if (renderScheduler.hasPendingTiles()) Platform.runLater(this::markDirty); // Continue in the next frame.
+    }
+
+    /**
+     * Draw the polygons overlapping a rectangle of the screen onto the canvas, grouped into colour batches.
+     */
+    private void drawPolygonsInRegion(PolygonSpatialIndex spatialIndex, double thresholdValue, ColorLookupTable colorTable, double minX, double minY, double maxX, double maxY) {
+        PolygonBuffer polygons = spatialIndex.getPolygons();
+
+        long cullStart = statistics.startTimer();
+        colorBatches.clear();
+        forEachPolygonInRegion(spatialIndex, minX, minY, maxX, maxY,
+            i -> colorBatches.add(i, polygons.getColorIndex(i, thresholdValue)));
+        colorBatches.sort();
+        statistics.stopTimer(RenderStatistics.Stage.CULLING, cullStart);
+
+        long projectionStart = statistics.startTimer();
+        for (int i = 0; i < colorBatches.getCount(); i++) {
+            polygons.updatePoints(colorBatches.getPolygon(i), projection);
+        }
+        statistics.stopTimer(RenderStatistics.Stage.PROJECTION, projectionStart);
+
+        drawColorBatches(polygons, colorTable);
+    }
+
+    /**
+     * Draw the sorted colour batches onto the canvas, one path per colour, using the polygons' last projected points.
+     */
+    private void drawColorBatches(PolygonBuffer polygons, ColorLookupTable colorTable) {
+        long drawStart = statistics.startTimer();
+        for (int color = 0; color < colorBatches.getColorCount(); color++) {
+            int start = colorBatches.getBatchStart(color);
+            int end = colorBatches.getBatchEnd(color);
+            if (start == end) continue;
+
+            gc.setFill(colorTable.getColor(color));
+            gc.beginPath();
+            for (int i = start; i < end; i++) {
+                polygons.appendPath(colorBatches.getSortedPolygon(i), gc);
             }
+            gc.fill();
+        }
+        statistics.stopTimer(RenderStatistics.Stage.DRAWING, drawStart);
+        statistics.addPolygonsDrawn(colorBatches.getCount());
+    }
+
+    /**
+     * Draw the latest completed background frame, moved and scaled to the current view, and request
+     * a new frame for the current view. The JavaFX thread only draws one image per layout, however
+     * many polygons are visible, and picks up the new frame once the render thread completes it.
+     */
+    private void renderBackground() {
+        canvas.setWidth(mapView.getWidth());
+        canvas.setHeight(mapView.getHeight());
+
+        if (baseMap == null || getScene() == null) {
+            gc.clearRect(0, 0, mapView.getWidth(), mapView.getHeight()); // Clear canvas.
+            return; // Edge case when switching to statistics panel.
+        }
+
+        long drawStart = statistics.startTimer();
+        drawFrontFrame();
+        statistics.stopTimer(RenderStatistics.Stage.DRAWING, drawStart);
+        if (frontFrame != null) statistics.addPolygonsDrawn(frontFrame.polygonsDrawn());
+
+        // During a zoom gesture, the front frame is scaled until it settles, unless there is none yet.
+        if (mapView.isZoomGestureActive() && frontFrame != null) return;
+
+        int lodIndex = pollutionPolygonManager.getLODIndex(mapView);
+        frameRenderer.requestFrame(new BackgroundFrameRenderer.FrameRequest(
+            lodIndex, baseMap.zoom().get(), baseMap.getTranslateX(), baseMap.getTranslateY(),
+            (int) Math.ceil(mapView.getWidth()), (int) Math.ceil(mapView.getHeight()),
+            colorSchemeManager.getColorScheme().getLookupTable(polygonOpacity),
+            getThresholdValue(pollutionPolygonManager.getLevelOfDetail(lodIndex))
+        ), this::onFrameRendered);
+    }
+
+    /**
+     * Swaps in a frame completed by the render thread and draws it.
+     * @param frame The completed frame.
+     */
+    private void onFrameRendered(BackgroundFrameRenderer.Frame frame) {
+        if (renderMode != RenderMode.BACKGROUND || (frontFrame != null && frame.number() < frontFrame.number())) {
+            frameRenderer.releaseFrame(frame); // Older than the displayed frame, or no longer needed.
+            return;
+        }
+
+        PollutionRasteriser buffer = frame.buffer();
+        if (frontImage == null || frontImage.getWidth() != buffer.getWidth() || frontImage.getHeight() != buffer.getHeight()) {
+            frontImage = new WritableImage(buffer.getWidth(), buffer.getHeight());
+        }
+        buffer.upload(frontImage);
+        frameRenderer.releaseFrame(frame);
+        frontFrame = frame;
+        pollutionPolygonManager.updatePollutionPolygons(frame.lodIndex()); // Clicks and hovers look up the displayed LOD.
+
+        drawFrontFrame();
+    }
+
+    /**
+     * Draw the front frame to the canvas, moved and scaled from the view it was rendered at to the current view.
+     */
+    private void drawFrontFrame() {
+        gc.clearRect(0, 0, mapView.getWidth(), mapView.getHeight()); // Clear canvas.
+        if (frontFrame == null || baseMap == null) return;
+
+        drawScaledImage(frontImage, frontFrame.zoom(), frontFrame.translateX(), frontFrame.translateY());
+    }
+
+    /**
+     * Draw an image of the layer to the canvas, moved and scaled from the view it was drawn at to the current view.
+     * @param image The image, whose top left corner was at the top left of the view it was drawn at.
+     * @param imageZoom The zoom level of the view the image was drawn at.
+     * @param imageTranslateX The x translation of the base map when the image was drawn.
+     * @param imageTranslateY The y translation of the base map when the image was drawn.
+     */
+    private void drawScaledImage(Image image, double imageZoom, double imageTranslateX, double imageTranslateY) {
+        double scale = Math.pow(2, baseMap.zoom().get() - imageZoom);
+        double x = baseMap.getTranslateX() - imageTranslateX * scale;
+        double y = baseMap.getTranslateY() - imageTranslateY * scale;
+        gc.drawImage(image, x, y, image.getWidth() * scale, image.getHeight() * scale);
+    }
+
+    /**
+     * Draw all polygons into the raster and present it. When the map has only been panned since the
+     * last frame, the previous raster is shifted by the pan distance and only the exposed strips are rendered.
+     *
+     * The raster is aligned to whole pixels of the map, so pans always move it by a whole number of
+     * pixels. It is one pixel larger than the canvas, and drawn at the fractional part of the translation.
+     */
+    private void renderRaster() {
+        vectorFrameValid = false; // The colour batches are reused for the raster's regions.
+        double translateX = baseMap.getTranslateX();
+        double translateY = baseMap.getTranslateY();
+        int rasterTranslateX = (int) Math.floor(translateX) + 1;
+        int rasterTranslateY = (int) Math.floor(translateY) + 1;
 
+        double zoom = baseMap.zoom().get();
+        int width = (int) Math.ceil(mapView.getWidth()) + 1;
+        int height = (int) Math.ceil(mapView.getHeight()) + 1;
+        PolygonSpatialIndex spatialIndex = pollutionPolygonManager.getSpatialIndex();
+
+        boolean canReuse = rasterValid && zoom == rasterZoom && spatialIndex == rasterIndex
+            && width == rasteriser.getWidth() && height == rasteriser.getHeight();
+
+        rasteriser.resize(width, height);
+        projection.update(zoom, rasterTranslateX, rasterTranslateY);
+        statistics.recordRasterReuse(canReuse);
+
+        if (canReuse) {
+            int dx = rasterTranslateX - previousRasterTranslateX;
+            int dy = rasterTranslateY - previousRasterTranslateY;
+            rasteriser.shift(dx, dy);
+
+            // Columns exposed on the left or right, then rows exposed at the top or bottom.
+            if (dx > 0) renderRasterRegion(spatialIndex, 0, 0, dx, height);
+            if (dx < 0) renderRasterRegion(spatialIndex, width + dx, 0, width, height);
+            if (dy > 0) renderRasterRegion(spatialIndex, 0, 0, width, dy);
+            if (dy < 0) renderRasterRegion(spatialIndex, 0, height + dy, width, height);
+        } else {
+            rasteriser.clear();
+            renderRasterRegion(spatialIndex, 0, 0, width, height);
+        }
+
+        rasterValid = true;
+        rasterZoom = zoom;
+        rasterIndex = spatialIndex;
+        previousRasterTranslateX = rasterTranslateX;
+        previousRasterTranslateY = rasterTranslateY;
+
+        long presentStart = statistics.startTimer();
+        rasteriser.present(gc, translateX - rasterTranslateX, translateY - rasterTranslateY); // One image upload and draw for the whole frame.
+        statistics.stopTimer(RenderStatistics.Stage.DRAWING, presentStart);
+    }
+
+    /**
+     * Render the polygons inside a rectangle of the raster, without touching pixels outside it.
+     */
+    private void renderRasterRegion(PolygonSpatialIndex spatialIndex, int minX, int minY, int maxX, int maxY) {
+        PolygonBuffer polygons = spatialIndex.getPolygons();
+        ColorLookupTable colorTable = colorSchemeManager.getColorScheme().getLookupTable(polygonOpacity);
+        double thresholdValue = getThresholdValue();
+
+        long cullStart = statistics.startTimer();
+        colorBatches.clear();
+        forEachPolygonInRegion(spatialIndex, minX, minY, maxX, maxY,
+            i -> colorBatches.add(i, polygons.getColorIndex(i, thresholdValue)));
+        statistics.stopTimer(RenderStatistics.Stage.CULLING, cullStart);
+
+        long projectionStart = statistics.startTimer();
+        for (int i = 0; i < colorBatches.getCount(); i++) {
+            polygons.updatePoints(colorBatches.getPolygon(i), projection);
+        }
+        statistics.stopTimer(RenderStatistics.Stage.PROJECTION, projectionStart);
+
+        long drawStart = statistics.startTimer();
+        rasteriser.setClip(minX, minY, maxX, maxY);
+        for (int i = 0; i < colorBatches.getCount(); i++) {
+            polygons.rasterise(colorBatches.getPolygon(i), rasteriser, colorTable.getArgb(colorBatches.getColor(i)));
         }
+        rasteriser.resetClip();
+        statistics.stopTimer(RenderStatistics.Stage.DRAWING, drawStart);
+        statistics.addPolygonsDrawn(colorBatches.getCount());
+    }
+
+    /**
+     * Calls the visitor with the index of every polygon overlapping a rectangle of the screen, using the current projection.
+     */
+    private void forEachPolygonInRegion(PolygonSpatialIndex spatialIndex, double minX, double minY, double maxX, double maxY, IntConsumer visitor) {
+        spatialIndex.forEachInBounds(
+            WebMercator.toLatitude(projection.toNormalisedY(maxY)), WebMercator.toLatitude(projection.toNormalisedY(minY)),
+            WebMercator.toLongitude(projection.toNormalisedX(minX)), WebMercator.toLongitude(projection.toNormalisedX(maxX)),
+            visitor
+        );
+    }
+
+    /**
+     * @return The value at or below which polygons are drawn in the null colour.
+     */
+    private double getThresholdValue() {
+        return getThresholdValue(pollutionPolygonManager.getCurrentLevelOfDetail());
+    }
+
+    /**
+     * @param levelOfDetail The level of detail the polygons are displayed at.
+     * @return The value at or below which polygons are drawn in the null colour.
+     */
+    private double getThresholdValue(int levelOfDetail) {
+        return pollutionThresholdPercentage * getThresholdReferenceValue(levelOfDetail);
     }
 
     /**
-     * Wrapper for getMapPoint to use in pollutionLayer.PollutionPolygon.updatePoints().
-     * @param latitude Latitude of position.
-     * @param longitude Longitude of the position.
-     * @return The screen position of this longitude/latitude point.
+     * @param levelOfDetail The level of detail the polygons are displayed at.
+     * @return The value that the pollution threshold percentage is relative to, for the displayed aggregation channel.
      */
-    public Point2D getScreenPoint(double latitude, double longitude) {
-        return getMapPoint(latitude, longitude);
+    private double getThresholdReferenceValue(int levelOfDetail) {
+        if (pollutionPolygonManager.getAggregationChannel().isConcentration()) return maxPollutionValue;
+        return levelOfDetail * levelOfDetail; // Maximum number of data points in a cell.
     }
 
     /**
      * Sets the threshold percentage for pollution visibility and re-draws layer.
+     *
+     * Moving the threshold only changes the colour of the polygons with a value between the old and
+     * new threshold values, which are found in the polygons' value sorted index. If the view has not
+     * changed since the last frame, the frame is re-coloured instead of re-rendered: the raster only
+     * redraws the changed polygons, and a vector frame is redrawn from its already projected polygons.
      * @param thresholdPercentage The threshold percentage.
      */
     public void setVisiblePolygonThreshold(double thresholdPercentage) {
+        double previousThresholdValue = getThresholdValue();
         pollutionThresholdPercentage = thresholdPercentage;
+        double thresholdValue = getThresholdValue();
+        tileRenderer = null; // Tiles are now coloured differently.
+
+        if (renderMode == RenderMode.RASTER && isRasterCurrent()) {
+            statistics.beginFrame();
+            recolourRaster(previousThresholdValue, thresholdValue);
+            statistics.endFrame(rasterIndex.getPolygons().getCount(), pollutionPolygonManager.getCurrentLODIndex());
+        } else if (renderMode == RenderMode.VECTOR && isVectorFrameCurrent()) {
+            statistics.beginFrame();
+            recolourVector(previousThresholdValue, thresholdValue);
+            statistics.endFrame(vectorFrameIndex.getPolygons().getCount(), pollutionPolygonManager.getCurrentLODIndex());
+        } else {
+            rasterValid = false;
+            renderScheduler.cancel(); // Tiles still queued would be coloured with the old threshold.
+            markDirty(); // Re-draw.
+        }
+    }
+
+    /**
+     * @return True if the raster holds the current view, so it only needs re-colouring when the threshold changes.
+     */
+    private boolean isRasterCurrent() {
+        if (!rasterValid || baseMap == null || getScene() == null) return false;
+
+        return baseMap.zoom().get() == rasterZoom
+            && (int) Math.floor(baseMap.getTranslateX()) + 1 == previousRasterTranslateX
+            && (int) Math.floor(baseMap.getTranslateY()) + 1 == previousRasterTranslateY
+            && (int) Math.ceil(mapView.getWidth()) + 1 == rasteriser.getWidth()
+            && (int) Math.ceil(mapView.getHeight()) + 1 == rasteriser.getHeight()
+            && pollutionPolygonManager.getSpatialIndex() == rasterIndex
+            && pollutionPolygonManager.getLODIndex(mapView) == pollutionPolygonManager.getCurrentLODIndex();
+    }
+
+    /**
+     * @return True if the colour batches hold the displayed vector frame of the current view.
+     */
+    private boolean isVectorFrameCurrent() {
+        if (!vectorFrameValid || baseMap == null || getScene() == null) return false;
+
+        return isVectorFrameView() && pollutionPolygonManager.getLODIndex(mapView) == pollutionPolygonManager.getCurrentLODIndex();
+    }
+
+    /**
+     * @return True if the last vector frame was drawn at the current view, with the current polygons.
+     */
+    private boolean isVectorFrameView() {
+        return baseMap.zoom().get() == vectorFrameZoom
+            && baseMap.getTranslateX() == vectorFrameTranslateX
+            && baseMap.getTranslateY() == vectorFrameTranslateY
+            && mapView.getWidth() == vectorFrameWidth
+            && mapView.getHeight() == vectorFrameHeight
+            && pollutionPolygonManager.getSpatialIndex() == vectorFrameIndex;
+    }
+
+    /**
+     * Re-colour the raster for a new threshold value, by redrawing only the polygons whose value lies
+     * between the old and new threshold values. The pixels of every other polygon are unchanged.
+     */
+    private void recolourRaster(double previousThresholdValue, double thresholdValue) {
+        PolygonBuffer polygons = rasterIndex.getPolygons();
+        ColorLookupTable colorTable = colorSchemeManager.getColorScheme().getLookupTable(polygonOpacity);
+        ValueSortedIndex valueIndex = pollutionPolygonManager.getValueSortedIndex(rasterIndex);
+        double low = Math.min(previousThresholdValue, thresholdValue);
+        double high = Math.max(previousThresholdValue, thresholdValue);
+
+        int changed = valueIndex.countBetween(low, high);
+        if (changed > 0) {
+            projection.update(rasterZoom, previousRasterTranslateX, previousRasterTranslateY);
+            long drawStart = statistics.startTimer();
+            valueIndex.forEachBetween(low, high, i -> {
+                polygons.updatePoints(i, projection);
+                polygons.rasterise(i, rasteriser, colorTable.getArgb(polygons.getColorIndex(i, thresholdValue)));
+            });
+            gc.clearRect(0, 0, mapView.getWidth(), mapView.getHeight()); // Clear canvas.
+            rasteriser.present(gc, baseMap.getTranslateX() - previousRasterTranslateX, baseMap.getTranslateY() - previousRasterTranslateY);
+            statistics.stopTimer(RenderStatistics.Stage.DRAWING, drawStart);
+        }
+        statistics.addPolygonsDrawn(changed);
+        statistics.recordRasterReuse(true);
+    }
+
+    /**
+     * Re-colour the displayed vector frame for a new threshold value. The canvas must be redrawn
+     * whole, but the visible polygons and their screen points are reused from the frame, so nothing
+     * is culled or projected. The frame is left untouched if no polygon changes colour.
+     */
+    private void recolourVector(double previousThresholdValue, double thresholdValue) {
+        PolygonBuffer polygons = vectorFrameIndex.getPolygons();
+        ValueSortedIndex valueIndex = pollutionPolygonManager.getValueSortedIndex(vectorFrameIndex);
+        if (valueIndex.countBetween(Math.min(previousThresholdValue, thresholdValue), Math.max(previousThresholdValue, thresholdValue)) == 0) return;
+
+        for (int i = 0; i < colorBatches.getCount(); i++) {
+            colorBatches.setColor(i, polygons.getColorIndex(colorBatches.getPolygon(i), thresholdValue));
+        }
+        colorBatches.sort();
+
+        gc.clearRect(0, 0, mapView.getWidth(), mapView.getHeight()); // Clear canvas.
+        drawColorBatches(polygons, colorSchemeManager.getColorScheme().getLookupTable(polygonOpacity));
+    }
+
+    /**
+     * Sets whether clicking the layer shows the full resolution 1 km value, instead of the value of the displayed LOD cell.
+     * @param fullResolutionClicks True to show the 1 km value.
+     */
+    public void setFullResolutionClicks(boolean fullResolutionClicks) {
+        pollutionLayerEventHandler.setFullResolutionClicks(fullResolutionClicks);
+        hoverInspector.setFullResolution(fullResolutionClicks);
+    }
+
+    /**
+     * Turns the hover readout on or off. While it is on, the value, easting/northing and DAQI band of
+     * the cell under the pointer are shown next to it. While it is off, no mouse move handler is installed.
+     * @param hoverInspection True to show the hover readout.
+     */
+    public void setHoverInspection(boolean hoverInspection) {
+        if (hoverInspection) {
+            canvas.setOnMouseMoved(this::handleMouseHover);
+            canvas.setOnMouseExited(e -> hoverReadout.setVisible(false));
+        } else {
+            canvas.setOnMouseMoved(null);
+            canvas.setOnMouseExited(null);
+            hoverReadout.setVisible(false);
+        }
+        hoverInspector.reset();
+    }
+
+    /**
+     * Updates the hover readout for the pointer position. The cell lookup does not allocate, and
+     * the readout text is only rebuilt when the hovered cell changes.
+     * @param event The mouse move event.
+     */
+    private void handleMouseHover(MouseEvent event) {
+        if (baseMap == null) return;
+
+        hoverProjection.update(baseMap.zoom().get(), baseMap.getTranslateX(), baseMap.getTranslateY());
+        if (hoverInspector.inspect(hoverProjection, mapView.getWidth(), mapView.getHeight(), event.getX(), event.getY())) {
+            updateHoverReadoutText();
+        }
+
+        hoverReadout.setVisible(hoverInspector.hasCell());
+        hoverReadout.setTranslateX(event.getX() + HOVER_READOUT_OFFSET);
+        hoverReadout.setTranslateY(event.getY() + HOVER_READOUT_OFFSET);
+    }
+
+    /**
+     * Rebuilds the hover readout text from the hovered cell.
+     */
+    private void updateHoverReadoutText() {
+        if (!hoverInspector.hasCell()) return;
+
+        String valueText;
+        if (hoverInspector.isDataPointCount()) {
+            valueText = String.format("%.0f data points", hoverInspector.getValue());
+        } else if (dataSet instanceof CompositeIndexDataSet compositeIndex) {
+            int band = (int) Math.round(hoverInspector.getValue());
+            valueText = String.format("DAQI band %d (%s)", band, Pollutant.getPollutionBandName(band));
+
+            // Coarse cells cover many 1 km cells, so only a 1 km cell has a single driving pollutant.
+            Pollutant drivingPollutant = compositeIndex.getDrivingPollutant(hoverInspector.getCellEasting(), hoverInspector.getCellNorthing());
+            if (hoverInspector.isFullResolutionCell() && drivingPollutant != null) {
+                valueText += ", driven by " + drivingPollutant.getDisplayName();
+            }
+        } else if (hoverInspector.hasPollutionLevel()) {
+            valueText = String.format("%.2f %s (%s)", hoverInspector.getValue(), Pollutant.UNITS, Pollutant.getPollutionBandName(hoverInspector.getPollutionLevel()));
+        } else {
+            valueText = String.format("%+.2f %s change", hoverInspector.getValue(), dataSet.getUnits());
+        }
+        hoverReadout.setText(String.format("%s%nE %d, N %d", valueText, hoverInspector.getCellEasting(), hoverInspector.getCellNorthing()));
+    }
+
+    /**
+     * Switches the layer to a new dataset and re-draws it, keeping the layer's other settings.
+     * If the dataset has the same cells as the displayed one, the polygons are kept and only their
+     * values are swapped, see PollutionPolygonManager.setDataSet().
+     * @param dataSet The dataset to display.
+     * @param lodManager The LODs of the dataset, from PollutionPolygonManager.generateLODs().
+     * @param pollutant The pollutant of the dataset.
+     */
+    public void setDataSet(DataSet dataSet, LODManager lodManager, Pollutant pollutant) {
+        if (dataSet == this.dataSet && pollutant == this.pollutant) return;
+
+        this.dataSet = dataSet;
+        this.pollutant = pollutant;
+        pollutionPolygonManager.setDataSet(dataSet, lodManager);
+        maxPollutionValue = pollutionPolygonManager.getMaxValueMagnitude();
+
+        hoverInspector.setPollutant(pollutant); // Cell values changed.
+        contourLevelValues = null; // Found again when next drawn.
+        tileRenderer = null; // Tiles now show different values.
+        rasterValid = false;
+        vectorFrameValid = false;
+        renderScheduler.cancel(); // Tiles still queued would show the old values.
+        markDirty(); // Re-draw.
+    }
+
+    /**
+     * Switches the colour scheme manager the polygons are coloured with, or re-colours the layer after
+     * the current manager's colour scheme changed. Polygon values and colour indices are unchanged, so
+     * if the displayed vector frame is still current, it is redrawn from its colour batches without
+     * culling or projecting.
+     * @param colorSchemeManager The colour scheme manager holding the colour scheme to use.
+     */
+    public void setColorSchemeManager(ColorSchemeManager colorSchemeManager) {
+        this.colorSchemeManager = colorSchemeManager;
+        tileRenderer = null; // Tiles are now coloured differently.
+
+        if (renderMode == RenderMode.VECTOR && isVectorFrameCurrent()) {
+            statistics.beginFrame();
+            gc.clearRect(0, 0, mapView.getWidth(), mapView.getHeight()); // Clear canvas.
+            drawColorBatches(vectorFrameIndex.getPolygons(), colorSchemeManager.getColorScheme().getLookupTable(polygonOpacity));
+            statistics.endFrame(vectorFrameIndex.getPolygons().getCount(), pollutionPolygonManager.getCurrentLODIndex());
+        } else {
+            rasterValid = false;
+            renderScheduler.cancel(); // Tiles still queued would be coloured with the old scheme.
+            markDirty(); // Re-draw.
+        }
+    }
+
+    /**
+     * Sets how the polygons are drawn and re-draws the layer.
+     * @param renderMode The render mode to use.
+     */
+    public void setRenderMode(RenderMode renderMode) {
+        this.renderMode = renderMode;
+        rasterValid = false;
+        vectorFrameValid = false;
+        renderScheduler.cancel(); // Only vector frames are drawn progressively.
+        markDirty(); // Re-draw.
+    }
+
+    /**
+     * Sets the aggregation channel of the LODs to display and re-colours the layer.
+     * The LODs already hold every channel, so they are not regenerated.
+     * @param aggregationChannel The aggregation channel to display.
+     */
+    public void setAggregationChannel(AggregationChannel aggregationChannel) {
+        pollutionPolygonManager.setAggregationChannel(aggregationChannel);
+        hoverInspector.reset(); // Cell values changed.
+        tileRenderer = null; // Tiles are now coloured differently.
+        rasterValid = false;
+        vectorFrameValid = false;
+        renderScheduler.cancel(); // Tiles still queued would show the old values.
         markDirty(); // Re-draw.
     }
+
+    /**
+     * @return The displayed dataset.
+     */
+    public DataSet getDataSet() {
+        return dataSet;
+    }
+
+    /**
+     * @return The opacity the polygons are drawn with, in range 0 - 1.
+     */
+    public double getPolygonOpacity() {
+        return polygonOpacity;
+    }
 }
@@ -5,11 +5,18 @@ import com.gluonhq.maps.MapView;
 
 import dataProcessing.Pollutant;
 import dataProcessing.DataPoint;
+import dataProcessing.CompositeIndexDataSet;
+import dataProcessing.DataSet;
+import dataProcessing.DifferenceDataSet;
 import javafx.stage.Window;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 
 import infoPopup.MapClickHandler;
+import infoPopup.ShownBandData;
+import infoPopup.ShownDifferenceData;
+import infoPopup.ShownValueDetails;
+import utility.GeographicUtilities;
 
 /**
  * Handles the mouse click events on the pollution layer. Currently handles 
@@ -21,6 +28,7 @@ import infoPopup.MapClickHandler;
 public class PollutionLayerEventHandler {
     private final MapClickHandler clickHandler; // Callback interface for click events.
     private final MapView mapView;
+    private boolean fullResolutionClicks = false; // True to show the 1 km value on click, whatever LOD is displayed.
 
     /**
      * Constructor.
@@ -33,28 +41,34 @@ public class PollutionLayerEventHandler {
     }
 
     /**
-     * Finds a polygon at the given screen coordinates.
+     * Finds a polygon at the given screen coordinates, by converting them to a grid position and
+     * looking the cell up directly, rather than testing every polygon.
      * @param x The x coordinate in screen space.
      * @param y The y coordinate in screen space.
-     * @return A pollution polygon if found, null otherwise.
+     * @return The id of the pollution polygon in the manager's current polygons if found, -1 otherwise.
      * @author Mehmet Kutay Bozkurt
      */
-    public PollutionPolygon getPolygonAtScreenCoordinates(double x, double y, PollutionPolygonManager polygonManager) {
-        for (PollutionPolygon polygon : polygonManager.getPolygons()) {
-            if (polygon.containsScreenPoint(x, y)) {
-                return polygon;
-            }
-        }
-        return null;
+    public int getPolygonAtScreenCoordinates(double x, double y, PollutionPolygonManager polygonManager) {
+        int[] eastingNorthing = GeographicUtilities.approximateLatLonToEastingNorthing(mapView.getMapPosition(x, y));
+        return polygonManager.getPolygons().getPolygonAt(eastingNorthing[0], eastingNorthing[1]);
+    }
+
+    /**
+     * Sets whether clicks show the full resolution 1 km value, instead of the value of the displayed LOD cell.
+     * @param fullResolutionClicks True to show the 1 km value.
+     */
+    public void setFullResolutionClicks(boolean fullResolutionClicks) {
+        this.fullResolutionClicks = fullResolutionClicks;
     }
 
     /**
      * Handles mouse click events on the canvas.
      * @param polygonManager The polygon manager class.
+     * @param dataSet The dataset displayed by the polygons.
      * @param event The mouse event.
      * @author Mehmet Kutay Bozkurt
      */
-    public void handleMouseClick(PollutionPolygonManager polygonManager, Pollutant pollutant, MouseEvent event) {
+    public void handleMouseClick(PollutionPolygonManager polygonManager, DataSet dataSet, Pollutant pollutant, MouseEvent event) {
         if (event.getButton() != MouseButton.SECONDARY) return; // Only handle right clicks.
 
         double x = event.getX();
@@ -70,17 +84,39 @@ public class PollutionLayerEventHandler {
         // Convert screen coordinates to map coordinates:
         MapPoint mapPoint = mapView.getMapPosition(x, y);
 
-        // Find the clicked polygon if any:
-        PollutionPolygon clickedPolygon = getPolygonAtScreenCoordinates(x, y, polygonManager);
-        DataPoint dataPoint = clickedPolygon == null ? null : clickedPolygon.getDataPoint();
+        // Find the clicked cell if any, at full resolution or at the displayed LOD:
+        int[] eastingNorthing = GeographicUtilities.approximateLatLonToEastingNorthing(mapPoint);
+        DataPoint dataPoint;
+        double pollutionValue;
+        if (fullResolutionClicks) {
+            dataPoint = polygonManager.getDataPointAt(eastingNorthing[0], eastingNorthing[1]);
+            if (dataPoint == null) return;
+            pollutionValue = dataPoint.value();
+        } else {
+            PolygonBuffer polygons = polygonManager.getPolygons();
+            int clickedPolygon = polygons.getPolygonAt(eastingNorthing[0], eastingNorthing[1]);
+            if (clickedPolygon == -1) return;
+            dataPoint = polygons.getDataPoint(clickedPolygon);
+            pollutionValue = polygons.getValue(clickedPolygon);
+        }
 
-        if (dataPoint == null) return;
+        // Changes are shown with the values they were computed from, and bands with the pollutant driving them, at the clicked 1 km cell:
+        ShownValueDetails valueDetails = null;
+        if (dataSet instanceof DifferenceDataSet differenceDataSet) {
+            double baseValue = differenceDataSet.getBaseValue(eastingNorthing[0], eastingNorthing[1]);
+            double comparedValue = differenceDataSet.getComparedValue(eastingNorthing[0], eastingNorthing[1]);
+            valueDetails = new ShownDifferenceData(differenceDataSet.getBaseYear(), differenceDataSet.getComparedYear(),
+                Double.isNaN(baseValue) ? null : baseValue, Double.isNaN(comparedValue) ? null : comparedValue,
+                pollutionValue, differenceDataSet.getUnits(), Pollutant.UNITS);
+        } else if (dataSet instanceof CompositeIndexDataSet compositeIndex) {
+            valueDetails = new ShownBandData((int) Math.round(pollutionValue), compositeIndex.getDrivingPollutant(eastingNorthing[0], eastingNorthing[1]));
+        }
 
         Window window = mapView.getScene().getWindow();
         double width = window.getWidth();
         double height = window.getHeight();
 
         // Notify the listener:
-        clickHandler.onMapClicked(mapPoint.getLatitude(), mapPoint.getLongitude(), dataPoint.gridCode(), mouseX, mouseY, width, height, dataPoint.value(), pollutant);
+        clickHandler.onMapClicked(mapPoint.getLatitude(), mapPoint.getLongitude(), dataPoint.gridCode(), mouseX, mouseY, width, height, pollutionValue, valueDetails, pollutant);
     }
 }
@@ -1,14 +1,16 @@
 package pollutionLayer;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import dataProcessing.DataPoint;
 import dataProcessing.DataSet;
+import dataProcessing.OccupancyMask;
+import lod.AggregationChannel;
 import lod.LODData;
 import lod.LODManager;
 import utility.CustomMapView;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Organises generating, updating and querying pollution polygons.
  * Handles Level Of Detail updates.
@@ -19,47 +21,179 @@ import java.util.List;
 public class PollutionPolygonManager {
     private final static int NUMBER_OF_LODS = 3;
 
-    private final List<PollutionPolygon> polygons;
+    // One thread shared by all managers, generating the polygons of LODs before they are first displayed.
+    private final static ExecutorService GENERATOR_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Pollution polygon generator");
+        thread.setDaemon(true); // Do not keep the application alive.
+        return thread;
+    });
+
+    // The current polygons and their index. Only replaced, never modified, once displayed so renderers can keep a snapshot.
+    private volatile PolygonSpatialIndex spatialIndex;
 
-    private final LODManager lodManager;
-    private int currentLODIndex = -1;
+    // The polygons of each LOD, generated on first display and reused by every later LOD switch:
+    private final PolygonSpatialIndex[] lodSpatialIndices = new PolygonSpatialIndex[NUMBER_OF_LODS];
+    private final AggregationChannel[] lodChannels = new AggregationChannel[NUMBER_OF_LODS]; // The channel each LOD's polygon values are from, null if not set yet.
+    private final double[][] lodValueRanges = new double[NUMBER_OF_LODS][]; // The min, max and constant normalised value each LOD's values are normalised with.
+    private final boolean[] generatingLODs = new boolean[NUMBER_OF_LODS]; // True while a LOD's polygons are generated in the background.
+
+    private volatile LODManager lodManager;
+    private boolean signedValues; // True if values can be negative, see DataSet.hasSignedValues().
+    private double[] fixedValueRange; // The values colours are scaled to, null to scale to each LOD's values.
+    private double maxValueMagnitude; // The largest value of the 1 km cells, or the largest magnitude if values are signed.
+    private volatile int currentLODIndex = -1;
+    private AggregationChannel aggregationChannel = AggregationChannel.MEAN;
+
+    // The polygons sorted by value, built on first use for the spatial index and channel it was built with:
+    private ValueSortedIndex valueSortedIndex;
+    private PolygonSpatialIndex valueSortedSpatialIndex;
+    private AggregationChannel valueSortedChannel;
 
     /**
      * Constructor.
      */
     public PollutionPolygonManager(DataSet dataSet) {
-        polygons = new ArrayList<>();
-        lodManager = new LODManager(dataSet, NUMBER_OF_LODS);
+        this(dataSet, generateLODs(dataSet));
+    }
+
+    /**
+     * Constructor, for a dataset whose LODs were already generated, such as in the background.
+     * @param dataSet The dataset to display.
+     * @param lodManager The LODs of the dataset, from generateLODs().
+     */
+    public PollutionPolygonManager(DataSet dataSet, LODManager lodManager) {
+        this.lodManager = lodManager;
+        signedValues = dataSet.hasSignedValues();
+        fixedValueRange = dataSet.getFixedValueRange();
+        maxValueMagnitude = findMaxValueMagnitude();
+    }
+
+    /**
+     * Generates the LODs of a dataset, for a polygon manager. Can be called on any thread, so the
+     * LODs can be generated in the background and handed to the manager once ready.
+     * @param dataSet The dataset to generate the LODs of.
+     * @return The LODs of the dataset.
+     */
+    public static LODManager generateLODs(DataSet dataSet) {
+        return new LODManager(dataSet, NUMBER_OF_LODS);
+    }
+
+    /**
+     * Switches to a new dataset, generating its LODs, see setDataSet(DataSet, LODManager).
+     * @param dataSet The dataset to display.
+     * @return True if the generated polygons were kept, false if they were discarded.
+     */
+    public boolean setDataSet(DataSet dataSet) {
+        return setDataSet(dataSet, generateLODs(dataSet));
+    }
+
+    /**
+     * Switches to a new dataset, keeping the aggregation channel and displayed LOD. If the dataset
+     * has the same cells as the current one, such as another year of the same pollutant, the generated
+     * polygons are kept and only given new values, like an aggregation channel change.
+     * Otherwise each LOD's polygons are regenerated when next displayed. Safe to call from any thread.
+     * @param dataSet The dataset to display.
+     * @param lodManager The LODs of the dataset, from generateLODs().
+     * @return True if the generated polygons were kept, false if they were discarded.
+     */
+    public synchronized boolean setDataSet(DataSet dataSet, LODManager lodManager) {
+        // The LODs of a dataset are generated from its 1 km cells, so they all match if the 1 km cells do.
+        boolean sameCells = this.lodManager.getLODData(0).getOccupancyMask().hasSameCells(lodManager.getLODData(0).getOccupancyMask());
+
+        this.lodManager = lodManager;
+        signedValues = dataSet.hasSignedValues();
+        fixedValueRange = dataSet.getFixedValueRange();
+        maxValueMagnitude = findMaxValueMagnitude();
+
+        for (int i = 0; i < NUMBER_OF_LODS; i++) {
+            if (sameCells && lodSpatialIndices[i] != null) {
+                PolygonSpatialIndex index = lodSpatialIndices[i];
+                lodSpatialIndices[i] = index.withPolygons(index.getPolygons().withLODData(lodManager.getLODData(i)));
+            } else {
+                lodSpatialIndices[i] = null;
+            }
+            lodChannels[i] = null; // Values are applied when the LOD is next displayed.
+        }
+        valueSortedIndex = null; // Sorted by the old values.
+
+        int lodIndex = currentLODIndex;
+        currentLODIndex = -1;
+        if (lodIndex != -1) updatePollutionPolygons(lodIndex); // Swap in the values of the displayed LOD now.
+        return sameCells;
+    }
+
+    /**
+     * @return The largest value of the 1 km LOD, whose cells hold the dataset's values, or the largest magnitude if values are signed.
+     */
+    private double findMaxValueMagnitude() {
+        double[] values = lodManager.getLODData(0).getChannelValues(AggregationChannel.MEAN);
+        double max = 0;
+        for (double value : values) {
+            max = Math.max(max, signedValues ? Math.abs(value) : value);
+        }
+        return max;
     }
 
     /**
-     * Regenerate polygons based on the current LOD.
-     * @param lodData the LOD data to use to generate the polygons.
+     * Sets the value and normalised value of every polygon of a LOD from the current aggregation channel.
+     * Polygons whose values were already set may be held by renderers, so the values are set on a new
+     * view of them, which replaces the LOD's polygons.
+     * @param lodIndex The index of the LOD, whose polygons must be generated.
      */
-    private void generatePollutionPolygons(LODData lodData) {
-        polygons.clear(); // Reset polygons.
+    private void applyAggregationChannel(int lodIndex) {
+        if (lodChannels[lodIndex] != null) {
+            PolygonSpatialIndex index = lodSpatialIndices[lodIndex];
+            lodSpatialIndices[lodIndex] = index.withPolygons(index.getPolygons().withLODData(lodManager.getLODData(lodIndex)));
+        }
+        PolygonBuffer polygons = lodSpatialIndices[lodIndex].getPolygons();
+        double[] values = lodManager.getLODData(lodIndex).getChannelValues(aggregationChannel);
 
         // Find min/max values for color mapping.
         double minValue = Double.POSITIVE_INFINITY;
         double maxValue = Double.NEGATIVE_INFINITY;
-        for (DataPoint dataPoint : lodData.getData()) {
-            double value = dataPoint.value();
-            if (value == -1) continue; // If the value is missing, skip it.
-            minValue = Math.min(minValue, value);
-            maxValue = Math.max(maxValue, value);
+        for (int i = 0; i < polygons.getCount(); i++) {
+            minValue = Math.min(minValue, values[i]);
+            maxValue = Math.max(maxValue, values[i]);
+        }
+
+        // Signed values are normalised symmetrically, so no change is in the middle of a diverging colour scheme.
+        double constantValue = 0; // The normalised value when all values are equal.
+        if (signedValues && aggregationChannel.isConcentration()) {
+            double maxMagnitude = Math.max(Math.abs(minValue), Math.abs(maxValue));
+            minValue = -maxMagnitude;
+            maxValue = maxMagnitude;
+            constantValue = 0.5;
         }
 
-        for (DataPoint dataPoint : lodData.getData()) {
-            if (dataPoint.value() == -1) continue; // Do not generate polygons for missing values.
+        // Values on a fixed scale, such as bands, keep their colour whatever the LOD's values are.
+        if (fixedValueRange != null && aggregationChannel.isConcentration()) {
+            minValue = fixedValueRange[0];
+            maxValue = fixedValueRange[1];
+        }
 
+        double[] valueRange = { minValue, maxValue, constantValue };
+        for (int i = 0; i < polygons.getCount(); i++) {
             // Normalise the pollution value for colour interpolation.
-            double normalisedValue = (dataPoint.value() - minValue) / (maxValue - minValue);
+            polygons.setValue(i, values[i], normalise(values[i], valueRange));
+        }
+        lodValueRanges[lodIndex] = valueRange;
+    }
 
-            int sideLength = 1000 * lodManager.getLODData(currentLODIndex).getLevelOfDetail();
+    /**
+     * @return A value normalised to a LOD's value range, see applyAggregationChannel().
+     */
+    private static double normalise(double value, double[] valueRange) {
+        return valueRange[1] > valueRange[0] ? (value - valueRange[0]) / (valueRange[1] - valueRange[0]) : valueRange[2];
+    }
 
-            PollutionPolygon polygon = new PollutionPolygon(sideLength, dataPoint, normalisedValue);
-            polygons.add(polygon);
-        }
+    /**
+     * Normalises a value in the current aggregation channel the same way as the current LOD's polygons,
+     * so anything drawn at that value, such as a contour line, has the colour of polygons with it.
+     * @param value The value to normalise.
+     * @return The normalised value, not clamped to 0 - 1.
+     */
+    public synchronized double getNormalisedValue(double value) {
+        return normalise(value, lodValueRanges[currentLODIndex]);
     }
 
     /**
@@ -67,17 +201,166 @@ public class PollutionPolygonManager {
      * Should be called every time a LOD change is detected, or a new dataset is added.
      */
     public void updatePollutionPolygons(CustomMapView mapView) {
-        int lodIndex = lodManager.getLODIndex(mapView.getPixelScale(), mapView.getWidth(), mapView.getHeight());
+        updatePollutionPolygons(getLODIndex(mapView));
+    }
+
+    /**
+     * Displays the pollution polygons of a LOD, if it is not the current LOD. A LOD's polygons are
+     * generated the first time it is displayed and kept, so later switches back to it only swap the
+     * current polygons, re-applying the aggregation channel if it changed in the meantime.
+     * Safe to call from any thread, so polygons can be generated off the JavaFX thread.
+     * @param lodIndex The index of the LOD to display.
+     */
+    public synchronized void updatePollutionPolygons(int lodIndex) {
         if (lodIndex == currentLODIndex) return; // No LOD update needed, exit.
 
+        spatialIndex = getLODSpatialIndex(lodIndex);
         currentLODIndex = lodIndex;
-        generatePollutionPolygons(lodManager.getLODData(currentLODIndex));
+    }
+
+    /**
+     * Returns the polygons of a LOD with the current aggregation channel's values, without displaying
+     * the LOD, generating them if needed. Used to draw a LOD other than the current one, such as a
+     * coarse LOD shown while the current LOD is drawn over several frames.
+     * @param lodIndex The index of the LOD.
+     * @return The spatial index holding the LOD's polygons.
+     */
+    public synchronized PolygonSpatialIndex getLODSpatialIndex(int lodIndex) {
+        if (lodSpatialIndices[lodIndex] == null) {
+            // LOD cells only exist for valid data, so there is exactly one polygon per cell.
+            lodSpatialIndices[lodIndex] = new PolygonSpatialIndex(new PolygonBuffer(lodManager.getLODData(lodIndex)));
+        }
+        if (lodChannels[lodIndex] != aggregationChannel) {
+            applyAggregationChannel(lodIndex);
+            lodChannels[lodIndex] = aggregationChannel;
+        }
+        return lodSpatialIndices[lodIndex];
+    }
+
+    /**
+     * @param lodIndex The index of a LOD.
+     * @return True if the LOD's polygons are generated, so displaying it does not generate them.
+     */
+    public synchronized boolean isGenerated(int lodIndex) {
+        return lodSpatialIndices[lodIndex] != null;
+    }
+
+    /**
+     * Generates the polygons of a LOD on the generator thread, so the LOD can be displayed without
+     * generating them on the calling thread. Does nothing if they are generated or being generated.
+     * The polygons are discarded if the dataset changes before they are ready.
+     * @param lodIndex The index of the LOD.
+     * @param onGenerated Called on the generator thread once generating completes, whether the polygons were kept or discarded.
+     */
+    public synchronized void generatePolygonsInBackground(int lodIndex, Runnable onGenerated) {
+        if (lodSpatialIndices[lodIndex] != null || generatingLODs[lodIndex]) return;
+
+        generatingLODs[lodIndex] = true;
+        LODManager generatingLODManager = lodManager;
+        GENERATOR_EXECUTOR.execute(() -> {
+            PolygonSpatialIndex generated = new PolygonSpatialIndex(new PolygonBuffer(generatingLODManager.getLODData(lodIndex)));
+            synchronized (this) {
+                generatingLODs[lodIndex] = false;
+                if (lodManager == generatingLODManager && lodSpatialIndices[lodIndex] == null) {
+                    lodSpatialIndices[lodIndex] = generated;
+                    lodChannels[lodIndex] = null; // Values are applied when the LOD is first displayed.
+                }
+            }
+            onGenerated.run();
+        });
+    }
+
+    /**
+     * @param mapView The map view the polygons are displayed on.
+     * @return The index of the LOD that should be displayed at the map view's current zoom.
+     */
+    public int getLODIndex(CustomMapView mapView) {
+        return getLODIndex(mapView.getPixelScale(), mapView.getWidth(), mapView.getHeight());
+    }
+
+    /**
+     * @param pixelScale The number of pixels per meter of the map.
+     * @param width The width of the map in pixels.
+     * @param height The height of the map in pixels.
+     * @return The index of the LOD that should be displayed on a map of this scale and size.
+     */
+    public int getLODIndex(double pixelScale, double width, double height) {
+        return lodManager.getLODIndex(pixelScale, width, height);
+    }
+
+    /**
+     * Switches the aggregation channel the polygons display. Only the polygon values are replaced,
+     * the LODs and polygon coordinates are kept.
+     * @param aggregationChannel The aggregation channel to display.
+     */
+    public synchronized void setAggregationChannel(AggregationChannel aggregationChannel) {
+        if (this.aggregationChannel == aggregationChannel) return;
+
+        this.aggregationChannel = aggregationChannel;
+        if (currentLODIndex != -1) { // The other LODs are updated when they are next displayed.
+            applyAggregationChannel(currentLODIndex);
+            lodChannels[currentLODIndex] = aggregationChannel;
+            spatialIndex = lodSpatialIndices[currentLODIndex];
+        }
+    }
+
+    /**
+     * Returns the polygons of a spatial index sorted by their value in the current aggregation channel.
+     * The sorted index is kept until the polygons or the channel change, so repeated threshold
+     * changes only sort the polygons once.
+     * @param spatialIndex The spatial index holding the polygons, from getSpatialIndex().
+     * @return The value sorted index of the polygons.
+     */
+    public synchronized ValueSortedIndex getValueSortedIndex(PolygonSpatialIndex spatialIndex) {
+        if (valueSortedIndex == null || valueSortedSpatialIndex != spatialIndex || valueSortedChannel != aggregationChannel) {
+            valueSortedIndex = new ValueSortedIndex(spatialIndex.getPolygons());
+            valueSortedSpatialIndex = spatialIndex;
+            valueSortedChannel = aggregationChannel;
+        }
+        return valueSortedIndex;
+    }
 
+    /**
+     * Finds the full resolution 1 km data point covering a grid position, whatever LOD is displayed.
+     * The 1 km LOD holds one cell per valid data point, so the point is found through its occupancy mask.
+     * @param easting The easting of the position.
+     * @param northing The northing of the position.
+     * @return The data point covering the position, or null if there is none or its value is missing.
+     */
+    public DataPoint getDataPointAt(int easting, int northing) {
+        LODData fullResolution = lodManager.getLODData(0);
+        OccupancyMask mask = fullResolution.getOccupancyMask();
+        int cellIndex = mask.getCellIndex(mask.getColumn(easting + 500), mask.getRow(northing + 500));
+        if (cellIndex == -1) return null;
+
+        return fullResolution.getData().get(cellIndex);
+    }
+
+    /**
+     * @param lodIndex The index of a LOD.
+     * @return The LOD data, from which the LOD's polygons are generated.
+     */
+    public LODData getLODData(int lodIndex) {
+        return lodManager.getLODData(lodIndex);
+    }
+
+    /**
+     * @param lodIndex The index of a LOD.
+     * @return The level of detail of the LOD, without generating its polygons.
+     */
+    public int getLevelOfDetail(int lodIndex) {
+        return lodManager.getLODData(lodIndex).getLevelOfDetail();
     }
 
     // Getters:
     public int getCurrentLevelOfDetail() {
         return lodManager.getLODData(currentLODIndex).getLevelOfDetail();
     }
-    public List<PollutionPolygon> getPolygons() { return polygons; }
+    public int getCurrentLODIndex() { return currentLODIndex; }
+    public int getCoarsestLODIndex() { return NUMBER_OF_LODS - 1; }
+    public AggregationChannel getAggregationChannel() { return aggregationChannel; }
+    public PolygonBuffer getPolygons() { return spatialIndex.getPolygons(); }
+    public PolygonSpatialIndex getSpatialIndex() { return spatialIndex; }
+    public boolean hasSignedValues() { return signedValues; }
+    public double getMaxValueMagnitude() { return maxValueMagnitude; }
 }
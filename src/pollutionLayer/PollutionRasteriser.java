@@ -0,0 +1,220 @@
+package pollutionLayer;
+
+import java.util.Arrays;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Rasterises pollution polygons into an ARGB pixel buffer, which is uploaded to a WritableImage
+ * and drawn onto the canvas once per frame. This replaces one canvas fill per polygon with a
+ * single image upload and draw.
+ *
+ * Pixels are stored as premultiplied ARGB, the format JavaFX can upload without converting.
+ * Pollution polygons never overlap, so filled pixels are written rather than blended.
+ *
+ * When the map is panned, the previous frame can be shifted by the pan distance with shift(),
+ * and only the newly exposed strips re-rendered with the clip set to each strip.
+ *
+ * @author Anas Ahmed
+ * @version 1.1
+ */
+public class PollutionRasteriser {
+    private int width = 0;
+    private int height = 0;
+    private int[] pixels = new int[0];
+    private WritableImage image; // Created on first upload, so the buffer can be filled before the toolkit is needed.
+
+    // The clip rectangle, polygons are only filled inside it:
+    private int clipMinX = 0;
+    private int clipMinY = 0;
+    private int clipMaxX = 0; // Exclusive.
+    private int clipMaxY = 0; // Exclusive.
+
+    /**
+     * Resizes the pixel buffer, if the size changed. The buffer contents are undefined afterwards.
+     * @param width The width of the buffer in pixels.
+     * @param height The height of the buffer in pixels.
+     */
+    public void resize(int width, int height) {
+        width = Math.max(width, 1);
+        height = Math.max(height, 1);
+        if (width == this.width && height == this.height) return;
+
+        this.width = width;
+        this.height = height;
+        pixels = new int[width * height];
+        image = null;
+        resetClip();
+    }
+
+    /**
+     * Clears the pixel buffer to fully transparent pixels.
+     */
+    public void clear() {
+        Arrays.fill(pixels, 0);
+    }
+
+    /**
+     * Restricts polygon fills to a rectangle. The rectangle is clamped to the buffer.
+     * @param minX The left edge of the rectangle in pixels.
+     * @param minY The top edge of the rectangle in pixels.
+     * @param maxX The right edge of the rectangle in pixels, exclusive.
+     * @param maxY The bottom edge of the rectangle in pixels, exclusive.
+     */
+    public void setClip(int minX, int minY, int maxX, int maxY) {
+        clipMinX = Math.max(minX, 0);
+        clipMinY = Math.max(minY, 0);
+        clipMaxX = Math.min(maxX, width);
+        clipMaxY = Math.min(maxY, height);
+    }
+
+    /**
+     * Resets the clip rectangle to the whole buffer.
+     */
+    public void resetClip() {
+        setClip(0, 0, width, height);
+    }
+
+    /**
+     * Moves the contents of the pixel buffer, for when the map is panned. Pixels moved out of the
+     * buffer are lost, and the exposed pixels are cleared to fully transparent.
+     * @param dx The distance to move the contents right in pixels, negative to move left.
+     * @param dy The distance to move the contents down in pixels, negative to move up.
+     */
+    public void shift(int dx, int dy) {
+        if (Math.abs(dx) >= width || Math.abs(dy) >= height) {
+            clear(); // Nothing is kept.
+            return;
+        }
+
+        int rowLength = width - Math.abs(dx);
+        int sourceColumn = Math.max(-dx, 0);
+        int targetColumn = Math.max(dx, 0);
+
+        // Walk the rows against the direction of the move, so no row is overwritten before it is copied.
+        if (dy > 0) {
+            for (int row = height - 1; row >= dy; row--) {
+                System.arraycopy(pixels, (row - dy) * width + sourceColumn, pixels, row * width + targetColumn, rowLength);
+            }
+        } else {
+            for (int row = 0; row < height + dy; row++) {
+                System.arraycopy(pixels, (row - dy) * width + sourceColumn, pixels, row * width + targetColumn, rowLength);
+            }
+        }
+
+        // Clear the exposed rows and columns.
+        int firstKeptRow = Math.max(dy, 0);
+        int lastKeptRow = height + Math.min(dy, 0); // Exclusive.
+        Arrays.fill(pixels, 0, firstKeptRow * width, 0);
+        Arrays.fill(pixels, lastKeptRow * width, height * width, 0);
+        for (int row = firstKeptRow; row < lastKeptRow; row++) {
+            int rowOffset = row * width;
+            if (dx > 0) Arrays.fill(pixels, rowOffset, rowOffset + dx, 0);
+            if (dx < 0) Arrays.fill(pixels, rowOffset + width + dx, rowOffset + width, 0);
+        }
+    }
+
+    /**
+     * Fills a convex polygon with a colour. A pixel is filled if its centre lies inside the polygon,
+     * so adjacent polygons share no pixels and leave no gaps.
+     * @param points The polygon's points in pixels, as interleaved x, y coordinates.
+     * @param offset The index of the first point's x coordinate in the array.
+     * @param numPoints The number of points of the polygon.
+     * @param argb The premultiplied ARGB colour to fill with.
+     */
+    public void fillConvexPolygon(double[] points, int offset, int numPoints, int argb) {
+        int end = offset + 2 * numPoints;
+        double minX = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = offset; i < end; i += 2) {
+            minX = Math.min(minX, points[i]);
+            maxX = Math.max(maxX, points[i]);
+            minY = Math.min(minY, points[i + 1]);
+            maxY = Math.max(maxY, points[i + 1]);
+        }
+        if (maxX < clipMinX || minX > clipMaxX) return; // Entirely left or right of the clip rectangle.
+
+        int firstRow = Math.max((int) Math.ceil(minY - 0.5), clipMinY);
+        int lastRow = Math.min((int) Math.ceil(maxY - 0.5), clipMaxY); // Exclusive.
+
+        for (int row = firstRow; row < lastRow; row++) {
+            double centreY = row + 0.5;
+
+            // Find where the pixel row's centre line enters and leaves the polygon.
+            double left = Double.POSITIVE_INFINITY;
+            double right = Double.NEGATIVE_INFINITY;
+            for (int i = offset, j = end - 2; i < end; j = i, i += 2) {
+                double xi = points[i], yi = points[i + 1];
+                double xj = points[j], yj = points[j + 1];
+                if ((yi > centreY) == (yj > centreY)) continue; // Edge does not cross the centre line.
+
+                double x = xi + (centreY - yi) * (xj - xi) / (yj - yi);
+                left = Math.min(left, x);
+                right = Math.max(right, x);
+            }
+            if (left > right) continue;
+
+            int firstColumn = Math.max((int) Math.ceil(left - 0.5), clipMinX);
+            int lastColumn = Math.min((int) Math.ceil(right - 0.5), clipMaxX); // Exclusive.
+            if (firstColumn >= lastColumn) continue;
+
+            int rowOffset = row * width;
+            Arrays.fill(pixels, rowOffset + firstColumn, rowOffset + lastColumn, argb);
+        }
+    }
+
+    /**
+     * Uploads the pixel buffer to the image with a single write, and draws the image onto the canvas.
+     * @param gc The graphics context of the canvas to draw onto.
+     */
+    public void present(GraphicsContext gc) {
+        present(gc, 0, 0);
+    }
+
+    /**
+     * Uploads the pixel buffer to the image with a single write, and draws the image onto the canvas at an offset.
+     * @param gc The graphics context of the canvas to draw onto.
+     * @param x The x coordinate to draw the top left corner of the image at.
+     * @param y The y coordinate to draw the top left corner of the image at.
+     */
+    public void present(GraphicsContext gc, double x, double y) {
+        if (image == null) image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+        gc.drawImage(image, x, y);
+    }
+
+    /**
+     * Uploads the pixel buffer to an image of the same size with a single write.
+     * @param target The image to write the pixels to.
+     */
+    public void upload(WritableImage target) {
+        target.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+    }
+
+    /**
+     * Creates a new image holding a copy of the pixel buffer. Safe to call from any thread.
+     * @return The new image.
+     */
+    public WritableImage createImage() {
+        WritableImage newImage = new WritableImage(width, height);
+        newImage.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+        return newImage;
+    }
+
+    /**
+     * @param x The column of the pixel.
+     * @param y The row of the pixel.
+     * @return The premultiplied ARGB value of the pixel.
+     */
+    public int getPixel(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    // Getters:
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
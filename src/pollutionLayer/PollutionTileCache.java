@@ -0,0 +1,144 @@
+package pollutionLayer;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+/**
+ * A cache of pre-rendered pollution layer tiles. Tiles are rendered on background threads and
+ * evicted in least recently used order once the cache exceeds its memory budget.
+ * Every method must be called from the JavaFX thread.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class PollutionTileCache {
+    private final static long EMPTY_TILE_BYTES = 64; // Nominal size of an empty tile entry, so empty tiles are evicted too.
+
+    private final long byteBudget; // The maximum total size of all cached tile images in bytes.
+    private long cachedBytes = 0;
+
+    private final LinkedHashMap<TileKey, Image> tiles; // In least recently used order. Empty tiles map to null.
+    private final Set<TileKey> pendingTiles; // Tiles that are queued or being rendered.
+    private final Executor renderExecutor;
+    private final Executor resultExecutor; // Runs the updates of completed renders on the JavaFX thread.
+
+    private volatile double latestZoom = Double.NaN; // Queued tiles of any other zoom are skipped.
+
+    /**
+     * Constructor.
+     * @param byteBudget The maximum total size of all cached tile images in bytes.
+     */
+    public PollutionTileCache(long byteBudget) {
+        this(byteBudget, Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), runnable -> {
+            Thread thread = new Thread(runnable, "Pollution tile renderer");
+            thread.setDaemon(true); // Do not keep the application alive.
+            return thread;
+        }), Platform::runLater);
+    }
+
+    /**
+     * Constructor.
+     * @param byteBudget The maximum total size of all cached tile images in bytes.
+     * @param renderExecutor Renders tiles in the background.
+     * @param resultExecutor Runs the updates of completed renders, such as Platform::runLater.
+     */
+    public PollutionTileCache(long byteBudget, Executor renderExecutor, Executor resultExecutor) {
+        this.byteBudget = byteBudget;
+        this.renderExecutor = renderExecutor;
+        this.resultExecutor = resultExecutor;
+        tiles = new LinkedHashMap<>(64, 0.75f, true);
+        pendingTiles = new HashSet<>();
+    }
+
+    /**
+     * Returns a cached tile, marking it as recently used.
+     * @param key The tile to get.
+     * @return The tile image, or null if the tile is empty or not cached.
+     */
+    public Image getTile(TileKey key) {
+        return tiles.get(key);
+    }
+
+    /**
+     * @param key The tile to check.
+     * @return True if the tile is cached, including empty tiles, false otherwise.
+     */
+    public boolean containsTile(TileKey key) {
+        return tiles.containsKey(key);
+    }
+
+    /**
+     * Queues a tile to be rendered in the background, unless it is cached or already queued.
+     * A tile whose render fails is not cached, so it is rendered again when next requested.
+     * @param key The tile to render.
+     * @param renderer The renderer holding the layer snapshot to render the tile from.
+     * @param onRendered Called on the JavaFX thread once the tile is cached.
+     */
+    public void requestTile(TileKey key, PollutionTileRenderer renderer, Runnable onRendered) {
+        latestZoom = key.zoom();
+        if (tiles.containsKey(key) || !pendingTiles.add(key)) return;
+
+        renderExecutor.execute(() -> {
+            if (key.zoom() != latestZoom) { // The map was zoomed before the tile was rendered.
+                resultExecutor.execute(() -> pendingTiles.remove(key));
+                return;
+            }
+
+            WritableImage image;
+            try {
+                image = renderer.render(key);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to render the pollution tile " + key + ": " + e.getMessage());
+                resultExecutor.execute(() -> pendingTiles.remove(key)); // Otherwise the tile could never be requested again.
+                return;
+            }
+            resultExecutor.execute(() -> {
+                pendingTiles.remove(key);
+                putTile(key, image);
+                onRendered.run();
+            });
+        });
+    }
+
+    /**
+     * Adds a tile to the cache, evicting least recently used tiles to stay within the budget.
+     */
+    private void putTile(TileKey key, Image image) {
+        if (tiles.containsKey(key)) cachedBytes -= getSize(tiles.get(key));
+        tiles.put(key, image);
+        cachedBytes += getSize(image);
+
+        Iterator<Map.Entry<TileKey, Image>> iterator = tiles.entrySet().iterator();
+        while (cachedBytes > byteBudget && iterator.hasNext()) {
+            Map.Entry<TileKey, Image> eldest = iterator.next();
+            if (eldest.getKey().equals(key)) continue; // Never evict the tile just added.
+
+            cachedBytes -= getSize(eldest.getValue());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * @return The size of an image in bytes, at 4 bytes per pixel.
+     */
+    private static long getSize(Image image) {
+        if (image == null) return EMPTY_TILE_BYTES;
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    /**
+     * @return The total size of all cached tile images in bytes.
+     */
+    public long getCachedBytes() {
+        return cachedBytes;
+    }
+}
@@ -0,0 +1,65 @@
+package pollutionLayer;
+
+import javafx.scene.image.WritableImage;
+
+import colors.ColorLookupTable;
+import colors.ColorScheme;
+import utility.WebMercator;
+
+/**
+ * Renders tiles of the pollution layer into images. Holds a snapshot of everything needed to render,
+ * so tiles can be rendered on background threads while the layer keeps changing on the JavaFX thread.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class PollutionTileRenderer {
+    private final PolygonSpatialIndex spatialIndex;
+    private final ColorLookupTable colorTable;
+    private final double thresholdValue;
+
+    /**
+     * Creates a renderer from a snapshot of the layer. The polygon list must not be modified afterwards.
+     * @param spatialIndex The spatial index of the polygons of the current LOD.
+     * @param colorScheme The colour scheme to colour polygons with.
+     * @param thresholdValue Polygons with a value at or below this are drawn in the null colour.
+     * @param opacity The opacity of the polygons.
+     */
+    public PollutionTileRenderer(PolygonSpatialIndex spatialIndex, ColorScheme colorScheme, double thresholdValue, double opacity) {
+        this.spatialIndex = spatialIndex;
+        this.colorTable = colorScheme.getLookupTable(opacity);
+        this.thresholdValue = thresholdValue;
+    }
+
+    /**
+     * Renders a tile. Safe to call from any thread.
+     * @param key The tile to render.
+     * @return The rendered tile image, or null if no polygon is inside the tile.
+     */
+    public WritableImage render(TileKey key) {
+        PollutionRasteriser rasteriser = new PollutionRasteriser();
+        rasteriser.resize(WebMercator.TILE_SIZE, WebMercator.TILE_SIZE);
+
+        double worldSize = WebMercator.getWorldSize(key.zoom());
+        double originX = (double) key.tileX() * WebMercator.TILE_SIZE;
+        double originY = (double) key.tileY() * WebMercator.TILE_SIZE;
+
+        PolygonBuffer polygons = spatialIndex.getPolygons();
+        double[] points = new double[PolygonBuffer.COORDINATES];
+        boolean[] empty = { true };
+
+        // Inverse-project the tile's edges to find the polygons inside it.
+        double minLatitude = WebMercator.toLatitude((originY + WebMercator.TILE_SIZE) / worldSize);
+        double maxLatitude = WebMercator.toLatitude(originY / worldSize);
+        double minLongitude = WebMercator.toLongitude(originX / worldSize);
+        double maxLongitude = WebMercator.toLongitude((originX + WebMercator.TILE_SIZE) / worldSize);
+
+        spatialIndex.forEachInBounds(minLatitude, maxLatitude, minLongitude, maxLongitude, i -> {
+            polygons.projectPoints(i, worldSize, originX, originY, points);
+            rasteriser.fillConvexPolygon(points, 0, PolygonBuffer.CORNERS, colorTable.getArgb(polygons.getColorIndex(i, thresholdValue)));
+            empty[0] = false;
+        });
+
+        return empty[0] ? null : rasteriser.createImage();
+    }
+}
@@ -0,0 +1,282 @@
+package pollutionLayer;
+
+import java.util.List;
+
+import javafx.scene.canvas.GraphicsContext;
+
+import colors.ColorLookupTable;
+import dataProcessing.DataPoint;
+import dataProcessing.OccupancyMask;
+import lod.LODData;
+import utility.GeographicUtilities;
+import utility.GridVertexLattice;
+import utility.WebMercator;
+
+/**
+ * The pollution polygons of one LOD, packed into flat arrays indexed by polygon id. Each polygon
+ * represents one LOD cell as a close approximation of a square, with the color of the polygon
+ * representing the pollution scale. We use these approximate squares to account for curvature of
+ * the earth, making a seamless grid mapped onto the earth.
+ *
+ * Polygon ids are the cell indices of the LOD's occupancy mask, so a polygon's data point is at the
+ * same index of the LOD's data. Corners are stored in the order south-west, south-east, north-east,
+ * north-west, as interleaved pairs of coordinates, 8 values per polygon.
+ *
+ * The buffer is generated once per LOD and reused, so switching LODs allocates nothing per polygon.
+ * New values, such as of another aggregation channel or another dataset with the same cells, are
+ * set on a new view of the buffer from withLODData(), which shares the coordinates but has its own
+ * values. A buffer's values are only set before it is handed to renderers, so renderers on other
+ * threads always see one consistent set of values. Only the screen coordinates change afterwards,
+ * and only on the JavaFX thread.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class PolygonBuffer {
+    public final static int CORNERS = 4;
+    public final static int COORDINATES = 2 * CORNERS; // Number of coordinates stored per polygon.
+
+    private final int count;
+    private final int sideLength; // The side length of the squares in meters.
+    private final List<DataPoint> dataPoints; // The data point of each polygon, shared with the LOD data.
+    private final OccupancyMask occupancyMask; // The occupied cells of the LOD, numbered like the polygons.
+    private final boolean signedValues; // True if values can be negative, so their magnitude is compared with the threshold.
+
+    // Shared by every view of the buffer:
+    private final double[] worldCoordinates; // Latitude, longitude of each corner.
+    private final double[] normalisedCoordinates; // x, y of each corner in normalised Web Mercator coordinates.
+    private final double[] screenCoordinates; // x, y of each corner in screen coordinates, as of the last updatePoints().
+
+    private final double[] values; // The pollution value of the currently displayed aggregation channel.
+    private final float[] normalisedValues; // The normalised pollution value in range 0-1.
+
+    /**
+     * Generates the polygons of every cell of a LOD, looking their corners' latitude and longitude up
+     * in the shared grid vertex lattice, which converts each grid corner only once. The corners are also
+     * projected once into normalised Web Mercator coordinates, so that projecting them to the screen is
+     * only a scale and a translation. Values are all 0 until set with setValue().
+     * @param lodData The LOD data to generate the polygons from.
+     */
+    public PolygonBuffer(LODData lodData) {
+        dataPoints = lodData.getData();
+        occupancyMask = lodData.getOccupancyMask();
+        sideLength = 1000 * lodData.getLevelOfDetail();
+        signedValues = lodData.hasSignedValues();
+        count = dataPoints.size();
+
+        worldCoordinates = new double[count * COORDINATES];
+        normalisedCoordinates = new double[count * COORDINATES];
+        screenCoordinates = new double[count * COORDINATES];
+        values = new double[count];
+        normalisedValues = new float[count];
+
+        // The easting and northing values given are the centroids of the grid, meaning we need to offset them.
+        // We offset by 500m in both directions.
+        int[] minEastings = new int[count];
+        int[] minNorthings = new int[count];
+        for (int i = 0; i < count; i++) {
+            minEastings[i] = dataPoints.get(i).x() - 500;
+            minNorthings[i] = dataPoints.get(i).y() - 500;
+        }
+        GridVertexLattice lattice = GridVertexLattice.getShared();
+        lattice.prepareSquares(minEastings, minNorthings, sideLength); // Convert the corners in one parallel pass.
+
+        for (int i = 0; i < count; i++) {
+            int minEasting = minEastings[i];
+            int minNorthing = minNorthings[i];
+
+            setCorner(i, 0, minEasting, minNorthing);
+            setCorner(i, 1, minEasting + sideLength, minNorthing);
+            setCorner(i, 2, minEasting + sideLength, minNorthing + sideLength);
+            setCorner(i, 3, minEasting, minNorthing + sideLength);
+        }
+    }
+
+    /**
+     * Converts a corner of a polygon into world and normalised Web Mercator coordinates. Corners off
+     * the 1 km lattice are converted directly with the approximate transform.
+     */
+    private void setCorner(int polygon, int corner, int easting, int northing) {
+        double latitude, longitude;
+        if (GridVertexLattice.isVertex(easting, northing)) {
+            GridVertexLattice lattice = GridVertexLattice.getShared();
+            latitude = lattice.getLatitude(easting, northing);
+            longitude = lattice.getLongitude(easting, northing);
+        } else {
+            double[] latitudeLongitude = new double[2];
+            GeographicUtilities.approximateEastingNorthingToLatLon(easting, northing, latitudeLongitude);
+            latitude = latitudeLongitude[0];
+            longitude = latitudeLongitude[1];
+        }
+
+        int offset = polygon * COORDINATES + 2 * corner;
+        worldCoordinates[offset] = latitude;
+        worldCoordinates[offset + 1] = longitude;
+        normalisedCoordinates[offset] = WebMercator.toNormalisedX(longitude);
+        normalisedCoordinates[offset + 1] = WebMercator.toNormalisedY(latitude);
+    }
+
+    /**
+     * Creates a view of a buffer's polygons for the LOD of another dataset with the same cells.
+     */
+    private PolygonBuffer(PolygonBuffer polygons, LODData lodData) {
+        dataPoints = lodData.getData();
+        occupancyMask = lodData.getOccupancyMask();
+        sideLength = polygons.sideLength;
+        signedValues = lodData.hasSignedValues();
+        count = polygons.count;
+
+        worldCoordinates = polygons.worldCoordinates;
+        normalisedCoordinates = polygons.normalisedCoordinates;
+        screenCoordinates = polygons.screenCoordinates;
+        values = new double[count];
+        normalisedValues = new float[count];
+    }
+
+    /**
+     * Creates a view of the polygons with its own values, for new values or the LOD of another dataset
+     * with the same cells, so the polygons are reused instead of regenerated. This buffer's values are
+     * unchanged, so renderers still using it are not affected. Values are all 0 until set with setValue().
+     * @param lodData The LOD data, whose occupancy mask must have the same cells as the polygons' LOD.
+     * @return The new view, sharing the coordinates of this buffer.
+     * @throws IllegalArgumentException If the LOD data does not have the same cells.
+     */
+    public PolygonBuffer withLODData(LODData lodData) throws IllegalArgumentException {
+        if (!occupancyMask.hasSameCells(lodData.getOccupancyMask())) {
+            throw new IllegalArgumentException("The LOD data does not have the same cells as the polygons.");
+        }
+        return new PolygonBuffer(this, lodData);
+    }
+
+    /**
+     * @param polygons Another buffer.
+     * @return True if the buffers are views of the same generated polygons, see withLODData().
+     */
+    public boolean hasSameGeometry(PolygonBuffer polygons) {
+        return normalisedCoordinates == polygons.normalisedCoordinates;
+    }
+
+    /**
+     * Updates the displayed value of a polygon, without regenerating its coordinates.
+     * Must only be called before the buffer is handed to renderers.
+     * @param polygon The polygon id.
+     * @param value The pollution value of the displayed aggregation channel.
+     * @param normalisedValue The normalised pollution value in range 0-1.
+     */
+    public void setValue(int polygon, double value, double normalisedValue) {
+        values[polygon] = value;
+        normalisedValues[polygon] = (float) normalisedValue;
+    }
+
+    /**
+     * Gets the lookup table index of the colour a polygon is displayed with, taking the pollution threshold into account.
+     * @param polygon The polygon id.
+     * @param thresholdValue Polygons with a visibility value at or below this are displayed in the null colour.
+     * @return The colour index, ColorLookupTable.NULL_INDEX for the null colour.
+     */
+    public int getColorIndex(int polygon, double thresholdValue) {
+        if (getVisibilityValue(polygon) <= thresholdValue) return ColorLookupTable.NULL_INDEX;
+        return ColorLookupTable.getIndex(normalisedValues[polygon]);
+    }
+
+    /**
+     * Gets the value of a polygon that is compared with the visibility threshold. For signed values,
+     * such as changes, this is the magnitude, so large falls are shown as well as large rises.
+     * @param polygon The polygon id.
+     * @return The displayed value, or its magnitude if values are signed.
+     */
+    public double getVisibilityValue(int polygon) {
+        return signedValues ? Math.abs(values[polygon]) : values[polygon];
+    }
+
+    /**
+     * Updates the screen coordinates of a polygon based on the current map projection.
+     * @param polygon The polygon id.
+     * @param projection The projection of the current frame.
+     */
+    public void updatePoints(int polygon, ScreenProjection projection) {
+        int offset = polygon * COORDINATES;
+        for (int i = offset; i < offset + COORDINATES; i += 2) {
+            screenCoordinates[i] = projection.toScreenX(normalisedCoordinates[i]);
+            screenCoordinates[i + 1] = projection.toScreenY(normalisedCoordinates[i + 1]);
+        }
+    }
+
+    /**
+     * Projects the corners of a polygon into map pixel coordinates relative to an origin, without changing the screen coordinates.
+     * @param polygon The polygon id.
+     * @param worldSize The side length of the whole world in pixels.
+     * @param originX The x coordinate of the origin in map pixels.
+     * @param originY The y coordinate of the origin in map pixels.
+     * @param points The array to write the interleaved x, y coordinates of the corners to.
+     */
+    public void projectPoints(int polygon, double worldSize, double originX, double originY, double[] points) {
+        int offset = polygon * COORDINATES;
+        for (int i = 0; i < COORDINATES; i += 2) {
+            points[i] = normalisedCoordinates[offset + i] * worldSize - originX;
+            points[i + 1] = normalisedCoordinates[offset + i + 1] * worldSize - originY;
+        }
+    }
+
+    /**
+     * Add a polygon to the graphics context's current path as a closed sub-path, so many polygons can be filled at once.
+     * @param polygon The polygon id.
+     * @param gc The graphics context holding the path.
+     */
+    public void appendPath(int polygon, GraphicsContext gc) {
+        int offset = polygon * COORDINATES;
+        gc.moveTo(screenCoordinates[offset], screenCoordinates[offset + 1]);
+        gc.lineTo(screenCoordinates[offset + 2], screenCoordinates[offset + 3]);
+        gc.lineTo(screenCoordinates[offset + 4], screenCoordinates[offset + 5]);
+        gc.lineTo(screenCoordinates[offset + 6], screenCoordinates[offset + 7]);
+        gc.closePath();
+    }
+
+    /**
+     * Rasterise a polygon into a pixel buffer, at its screen coordinates.
+     * @param polygon The polygon id.
+     * @param rasteriser The rasteriser holding the pixel buffer.
+     * @param argb The premultiplied ARGB colour of the polygon.
+     */
+    public void rasterise(int polygon, PollutionRasteriser rasteriser, int argb) {
+        rasteriser.fillConvexPolygon(screenCoordinates, polygon * COORDINATES, CORNERS, argb);
+    }
+
+    /**
+     * Finds the polygon covering a grid position, by snapping the position to the LOD's cell lattice
+     * and looking the cell up in its occupancy mask. Takes constant time however many polygons there are.
+     * @param easting The easting of the position.
+     * @param northing The northing of the position.
+     * @return The id of the polygon covering the position, or -1 if there is none.
+     */
+    public int getPolygonAt(int easting, int northing) {
+        // Cells are addressed by the centroid of their top left 1 km cell, so their edges are 500 m before it.
+        int polygon = occupancyMask.getCellIndex(occupancyMask.getColumn(easting + 500), occupancyMask.getRow(northing + 500));
+        if (polygon == -1 || !containsGridPosition(polygon, easting, northing)) return -1;
+        return polygon;
+    }
+
+    /**
+     * Checks if a grid position is inside a polygon's square. Edges on the west and south are inside,
+     * edges on the east and north are outside, so every position is inside exactly one square of a grid.
+     * @param polygon The polygon id.
+     * @param easting The easting of the position.
+     * @param northing The northing of the position.
+     * @return True if the position is inside the polygon, false otherwise.
+     */
+    public boolean containsGridPosition(int polygon, int easting, int northing) {
+        int minEasting = dataPoints.get(polygon).x() - 500;
+        int minNorthing = dataPoints.get(polygon).y() - 500;
+        return easting >= minEasting && easting < minEasting + sideLength
+            && northing >= minNorthing && northing < minNorthing + sideLength;
+    }
+
+    // Getters:
+    public int getCount() { return count; }
+    public int getSideLength() { return sideLength; }
+    public DataPoint getDataPoint(int polygon) { return dataPoints.get(polygon); }
+    public double getValue(int polygon) { return values[polygon]; }
+    public double getNormalisedValue(int polygon) { return normalisedValues[polygon]; }
+    public double getCornerLatitude(int polygon, int corner) { return worldCoordinates[polygon * COORDINATES + 2 * corner]; }
+    public double getCornerLongitude(int polygon, int corner) { return worldCoordinates[polygon * COORDINATES + 2 * corner + 1]; }
+}
@@ -0,0 +1,196 @@
+package pollutionLayer;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A uniform grid index over the latitude/longitude bounds of pollution polygons, used to find the
+ * polygons inside the viewport without projecting every polygon.
+ *
+ * Each polygon is stored in the single bucket containing the south-west corner of its bounds, and
+ * queries are widened by the largest polygon extent, so every polygon is reported at most once.
+ * The web map projection keeps latitude/longitude rectangles axis-aligned, so the viewport's
+ * bounds can be found by inverse-projecting two of its corners.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class PolygonSpatialIndex {
+    private final static int BUCKET_CELLS = 16; // Approximate number of polygons along the side of a bucket.
+
+    private final PolygonBuffer polygons; // The indexed polygons, so the polygons and their index are always used together.
+
+    private final double minLatitude; // The south edge of bucket row 0.
+    private final double minLongitude; // The west edge of bucket column 0.
+    private final double bucketLatitudeSize;
+    private final double bucketLongitudeSize;
+    private final int columns;
+    private final int rows;
+
+    private final double maxPolygonLatitudeSize; // The largest latitude extent of a polygon.
+    private final double maxPolygonLongitudeSize; // The largest longitude extent of a polygon.
+
+    private final int[] bucketOffsets; // The polygons of bucket b are at indices bucketOffsets[b] until bucketOffsets[b + 1].
+    private final int[] bucketPolygons; // Polygon indices, grouped by bucket.
+
+    // Bounds of every polygon, indexed by polygon index:
+    private final double[] polygonMinLatitudes;
+    private final double[] polygonMaxLatitudes;
+    private final double[] polygonMinLongitudes;
+    private final double[] polygonMaxLongitudes;
+
+    /**
+     * Builds the index of a list of polygons.
+     * @param polygons The polygons to index. Query results are polygon ids of the buffer.
+     */
+    public PolygonSpatialIndex(PolygonBuffer polygons) {
+        this.polygons = polygons;
+        int count = polygons.getCount();
+        polygonMinLatitudes = new double[count];
+        polygonMaxLatitudes = new double[count];
+        polygonMinLongitudes = new double[count];
+        polygonMaxLongitudes = new double[count];
+
+        double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+        double maxLatSize = 0, maxLonSize = 0;
+
+        for (int i = 0; i < count; i++) {
+            double polygonMinLat = Double.POSITIVE_INFINITY, polygonMaxLat = Double.NEGATIVE_INFINITY;
+            double polygonMinLon = Double.POSITIVE_INFINITY, polygonMaxLon = Double.NEGATIVE_INFINITY;
+            for (int corner = 0; corner < PolygonBuffer.CORNERS; corner++) {
+                double latitude = polygons.getCornerLatitude(i, corner);
+                double longitude = polygons.getCornerLongitude(i, corner);
+                polygonMinLat = Math.min(polygonMinLat, latitude);
+                polygonMaxLat = Math.max(polygonMaxLat, latitude);
+                polygonMinLon = Math.min(polygonMinLon, longitude);
+                polygonMaxLon = Math.max(polygonMaxLon, longitude);
+            }
+
+            polygonMinLatitudes[i] = polygonMinLat;
+            polygonMaxLatitudes[i] = polygonMaxLat;
+            polygonMinLongitudes[i] = polygonMinLon;
+            polygonMaxLongitudes[i] = polygonMaxLon;
+
+            minLat = Math.min(minLat, polygonMinLat);
+            maxLat = Math.max(maxLat, polygonMaxLat);
+            minLon = Math.min(minLon, polygonMinLon);
+            maxLon = Math.max(maxLon, polygonMaxLon);
+            maxLatSize = Math.max(maxLatSize, polygonMaxLat - polygonMinLat);
+            maxLonSize = Math.max(maxLonSize, polygonMaxLon - polygonMinLon);
+        }
+
+        if (count == 0) {
+            minLat = maxLat = minLon = maxLon = 0;
+        }
+
+        minLatitude = minLat;
+        minLongitude = minLon;
+        maxPolygonLatitudeSize = maxLatSize;
+        maxPolygonLongitudeSize = maxLonSize;
+        bucketLatitudeSize = Math.max(maxLatSize * BUCKET_CELLS, 1e-6);
+        bucketLongitudeSize = Math.max(maxLonSize * BUCKET_CELLS, 1e-6);
+        columns = (int) ((maxLon - minLon) / bucketLongitudeSize) + 1;
+        rows = (int) ((maxLat - minLat) / bucketLatitudeSize) + 1;
+
+        // Counting sort of the polygons into their buckets.
+        int[] polygonBuckets = new int[count];
+        bucketOffsets = new int[columns * rows + 1];
+        for (int i = 0; i < count; i++) {
+            polygonBuckets[i] = getRow(polygonMinLatitudes[i]) * columns + getColumn(polygonMinLongitudes[i]);
+            bucketOffsets[polygonBuckets[i] + 1]++;
+        }
+        for (int bucket = 0; bucket < columns * rows; bucket++) {
+            bucketOffsets[bucket + 1] += bucketOffsets[bucket];
+        }
+
+        bucketPolygons = new int[count];
+        int[] bucketFill = new int[columns * rows];
+        for (int i = 0; i < count; i++) {
+            int bucket = polygonBuckets[i];
+            bucketPolygons[bucketOffsets[bucket] + bucketFill[bucket]++] = i;
+        }
+    }
+
+    /**
+     * Creates an index of another view of the indexed polygons, sharing the index structure.
+     */
+    private PolygonSpatialIndex(PolygonSpatialIndex index, PolygonBuffer polygons) {
+        this.polygons = polygons;
+        minLatitude = index.minLatitude;
+        minLongitude = index.minLongitude;
+        bucketLatitudeSize = index.bucketLatitudeSize;
+        bucketLongitudeSize = index.bucketLongitudeSize;
+        columns = index.columns;
+        rows = index.rows;
+        maxPolygonLatitudeSize = index.maxPolygonLatitudeSize;
+        maxPolygonLongitudeSize = index.maxPolygonLongitudeSize;
+        bucketOffsets = index.bucketOffsets;
+        bucketPolygons = index.bucketPolygons;
+        polygonMinLatitudes = index.polygonMinLatitudes;
+        polygonMaxLatitudes = index.polygonMaxLatitudes;
+        polygonMinLongitudes = index.polygonMinLongitudes;
+        polygonMaxLongitudes = index.polygonMaxLongitudes;
+    }
+
+    /**
+     * Creates an index of another view of the indexed polygons, such as one with new values, without rebuilding the index.
+     * @param polygons A view of the indexed polygons, from PolygonBuffer.withLODData().
+     * @return The index of the view.
+     * @throws IllegalArgumentException If the buffer is not a view of the indexed polygons.
+     */
+    public PolygonSpatialIndex withPolygons(PolygonBuffer polygons) throws IllegalArgumentException {
+        if (!polygons.hasSameGeometry(this.polygons)) {
+            throw new IllegalArgumentException("The polygons are not a view of the indexed polygons.");
+        }
+        return new PolygonSpatialIndex(this, polygons);
+    }
+
+    /**
+     * Calls the visitor with the index of every polygon whose bounds overlap the given bounds.
+     * @param minLat The south edge of the bounds.
+     * @param maxLat The north edge of the bounds.
+     * @param minLon The west edge of the bounds.
+     * @param maxLon The east edge of the bounds.
+     * @param visitor Called once for each overlapping polygon index.
+     */
+    public void forEachInBounds(double minLat, double maxLat, double minLon, double maxLon, IntConsumer visitor) {
+        // A polygon is stored by its south-west corner, which can be up to one polygon extent outside the bounds.
+        int firstRow = Math.max(getRow(minLat - maxPolygonLatitudeSize), 0);
+        int lastRow = Math.min(getRow(maxLat), rows - 1);
+        int firstColumn = Math.max(getColumn(minLon - maxPolygonLongitudeSize), 0);
+        int lastColumn = Math.min(getColumn(maxLon), columns - 1);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int bucket = row * columns + column;
+                for (int i = bucketOffsets[bucket]; i < bucketOffsets[bucket + 1]; i++) {
+                    int polygon = bucketPolygons[i];
+                    if (polygonMaxLatitudes[polygon] < minLat || polygonMinLatitudes[polygon] > maxLat) continue;
+                    if (polygonMaxLongitudes[polygon] < minLon || polygonMinLongitudes[polygon] > maxLon) continue;
+                    visitor.accept(polygon);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The indexed polygons. Query results are polygon ids of the buffer.
+     */
+    public PolygonBuffer getPolygons() {
+        return polygons;
+    }
+
+    /**
+     * @return The bucket row containing the latitude (may be outside the grid).
+     */
+    private int getRow(double latitude) {
+        return (int) Math.floor((latitude - minLatitude) / bucketLatitudeSize);
+    }
+
+    /**
+     * @return The bucket column containing the longitude (may be outside the grid).
+     */
+    private int getColumn(double longitude) {
+        return (int) Math.floor((longitude - minLongitude) / bucketLongitudeSize);
+    }
+}
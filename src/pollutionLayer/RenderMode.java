@@ -0,0 +1,24 @@
+package pollutionLayer;
+
+/**
+ * Enum for the different ways the pollution layer can draw its polygons, or contour lines traced from them.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public enum RenderMode {
+    VECTOR, RASTER, TILED, BACKGROUND, CONTOUR;
+
+    /**
+     * @return The display name of the render mode.
+     */
+    public String getDisplayName() {
+        return switch (this) {
+            case VECTOR -> "Vector Rendering";
+            case RASTER -> "Raster Rendering";
+            case TILED -> "Cached Tile Rendering";
+            case BACKGROUND -> "Background Thread Rendering";
+            case CONTOUR -> "Contour Lines";
+        };
+    }
+}
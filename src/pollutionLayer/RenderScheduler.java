@@ -0,0 +1,128 @@
+package pollutionLayer;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Spreads the drawing of a frame over several frames, so no frame takes longer than a time budget.
+ * The view is split into square screen tiles, which are refined in order of their distance from
+ * the centre of the view, so the detail the user is looking at appears first. Each frame refines
+ * tiles until its budget is spent, and the remaining tiles are refined in later frames.
+ *
+ * At least one tile is refined per frame, so refinement always completes however slow drawing is.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class RenderScheduler {
+    public final static int TILE_SIZE = 256; // Side length of the screen tiles in pixels.
+
+    private final long frameBudget; // The time a frame may take, in nanoseconds.
+    private final LongSupplier clock; // The current time in nanoseconds.
+
+    private double width;
+    private double height;
+    private int columns;
+    private int[] tileOrder = new int[0]; // Tile indices, in row-major order, sorted by distance from the centre.
+    private int tileCount = 0;
+    private int nextTile = 0; // The position in tileOrder of the next tile to refine.
+
+    /**
+     * A callback that refines the part of the view covered by a tile.
+     */
+    @FunctionalInterface
+    public interface TileRefiner {
+        /**
+         * @param minX The left edge of the tile in screen coordinates.
+         * @param minY The top edge of the tile in screen coordinates.
+         * @param maxX The right edge of the tile in screen coordinates, clamped to the view.
+         * @param maxY The bottom edge of the tile in screen coordinates, clamped to the view.
+         */
+        void refine(double minX, double minY, double maxX, double maxY);
+    }
+
+    /**
+     * Constructor, timing frames with System.nanoTime().
+     * @param frameBudget The time a frame may take, in nanoseconds.
+     */
+    public RenderScheduler(long frameBudget) {
+        this(frameBudget, System::nanoTime);
+    }
+
+    /**
+     * Constructor.
+     * @param frameBudget The time a frame may take, in nanoseconds.
+     * @param clock Supplies the current time in nanoseconds.
+     */
+    public RenderScheduler(long frameBudget, LongSupplier clock) {
+        this.frameBudget = frameBudget;
+        this.clock = clock;
+    }
+
+    /**
+     * Queues every tile of a view for refinement, nearest to the centre first, replacing any tiles still queued.
+     * @param width The width of the view in pixels.
+     * @param height The height of the view in pixels.
+     */
+    public void start(double width, double height) {
+        this.width = width;
+        this.height = height;
+        columns = (int) Math.ceil(width / TILE_SIZE);
+        int rows = (int) Math.ceil(height / TILE_SIZE);
+        tileCount = columns * rows;
+        nextTile = 0;
+
+        // Sort the tiles by the squared distance of their centre from the view's centre, packed with the tile index.
+        long[] keys = new long[tileCount];
+        for (int tile = 0; tile < tileCount; tile++) {
+            double dx = (tile % columns + 0.5) * TILE_SIZE - width / 2;
+            double dy = (tile / columns + 0.5) * TILE_SIZE - height / 2;
+            keys[tile] = ((long) (dx * dx + dy * dy) << 32) | tile;
+        }
+        Arrays.sort(keys);
+
+        if (tileOrder.length < tileCount) tileOrder = new int[tileCount];
+        for (int i = 0; i < tileCount; i++) {
+            tileOrder[i] = (int) keys[i];
+        }
+    }
+
+    /**
+     * Refines queued tiles until the frame's budget is spent, or no tiles are left.
+     * @param frameStart The time the frame started, from the same clock, so earlier drawing counts towards the budget.
+     * @param refiner Refines each tile.
+     * @return The number of tiles refined.
+     */
+    public int refine(long frameStart, TileRefiner refiner) {
+        int refined = 0;
+        while (nextTile < tileCount && (refined == 0 || clock.getAsLong() - frameStart < frameBudget)) {
+            int tile = tileOrder[nextTile++];
+            double minX = (tile % columns) * TILE_SIZE;
+            double minY = (tile / columns) * TILE_SIZE;
+            refiner.refine(minX, minY, Math.min(minX + TILE_SIZE, width), Math.min(minY + TILE_SIZE, height));
+            refined++;
+        }
+        return refined;
+    }
+
+    /**
+     * Drops the queued tiles, when the view they were queued for is no longer shown.
+     */
+    public void cancel() {
+        nextTile = tileCount;
+    }
+
+    /**
+     * @return True if tiles are queued, so refinement should continue in the next frame.
+     */
+    public boolean hasPendingTiles() {
+        return nextTile < tileCount;
+    }
+
+    /**
+     * @return The time of the clock, to pass to refine() as the start of a frame.
+     */
+    public long getTime() {
+        return clock.getAsLong();
+    }
+}
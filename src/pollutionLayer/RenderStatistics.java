@@ -0,0 +1,232 @@
+package pollutionLayer;
+
+import java.util.Arrays;
+
+/**
+ * Collects timing and counters of the pollution layer's frames, for the render statistics overlay
+ * and for benchmarks. A frame is one layout of the pollution layer on the JavaFX thread.
+ *
+ * Nothing is recorded while the statistics are disabled: the timer methods return immediately,
+ * so the layer can call them on every frame without measurable cost. Every method other than
+ * isEnabled() and setEnabled() must be called from the JavaFX thread.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class RenderStatistics {
+    private final static int WINDOW_SIZE = 120; // The number of recent frames statistics are computed over.
+    private final static long NANOSECONDS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * The stages of a frame that are timed separately.
+     */
+    public enum Stage {
+        UPDATE_POLYGONS, CULLING, PROJECTION, DRAWING;
+
+        /**
+         * @return The display name of the stage.
+         */
+        public String getDisplayName() {
+            return switch (this) {
+                case UPDATE_POLYGONS -> "Update polygons";
+                case CULLING -> "Culling";
+                case PROJECTION -> "Projection";
+                case DRAWING -> "Drawing";
+            };
+        }
+    }
+
+    private volatile boolean enabled = false;
+
+    // Ring buffers of the recent frames, the latest frame is at index (frameCount - 1) % WINDOW_SIZE:
+    private final long[] frameEndTimes = new long[WINDOW_SIZE];
+    private final long[] frameDurations = new long[WINDOW_SIZE];
+    private final long[][] stageDurations = new long[Stage.values().length][WINDOW_SIZE];
+    private long frameCount = 0;
+
+    // The frame being recorded:
+    private long frameStartTime;
+    private final long[] currentStageDurations = new long[Stage.values().length];
+    private int currentPolygonsDrawn;
+
+    // The latest completed frame:
+    private int polygonsDrawn = 0;
+    private int polygonsCulled = 0;
+    private int lodIndex = -1;
+
+    // Cache counters since the last reset:
+    private long tileCacheHits = 0;
+    private long tileCacheMisses = 0;
+    private long rasterReuseHits = 0;
+    private long rasterReuseMisses = 0;
+
+    /**
+     * Enables or disables recording. Enabling clears all previous statistics.
+     * @param enabled True to record statistics, false to stop recording.
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled) reset();
+        this.enabled = enabled;
+    }
+
+    /**
+     * Clears all recorded statistics.
+     */
+    public void reset() {
+        frameCount = 0;
+        polygonsDrawn = polygonsCulled = 0;
+        lodIndex = -1;
+        tileCacheHits = tileCacheMisses = rasterReuseHits = rasterReuseMisses = 0;
+    }
+
+    /**
+     * Starts recording a frame.
+     */
+    public void beginFrame() {
+        if (!enabled) return;
+        frameStartTime = System.nanoTime();
+        Arrays.fill(currentStageDurations, 0);
+        currentPolygonsDrawn = 0;
+    }
+
+    /**
+     * @return The start time to pass to stopTimer(), or 0 if the statistics are disabled.
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds the time since startTimer() to a stage of the current frame.
+     * @param stage The stage the time was spent in.
+     * @param startTime The value returned by startTimer().
+     */
+    public void stopTimer(Stage stage, long startTime) {
+        if (!enabled) return;
+        currentStageDurations[stage.ordinal()] += System.nanoTime() - startTime;
+    }
+
+    /**
+     * Adds to the number of polygons drawn in the current frame.
+     * @param count The number of polygons drawn.
+     */
+    public void addPolygonsDrawn(int count) {
+        if (!enabled) return;
+        currentPolygonsDrawn += count;
+    }
+
+    /**
+     * Records a tile cache lookup.
+     * @param hit True if the tile was cached, false if it had to be rendered.
+     */
+    public void recordTileLookup(boolean hit) {
+        if (!enabled) return;
+        if (hit) tileCacheHits++; else tileCacheMisses++;
+    }
+
+    /**
+     * Records whether a raster frame reused the previous frame.
+     * @param hit True if the previous frame was shifted and reused, false if the frame was fully rendered.
+     */
+    public void recordRasterReuse(boolean hit) {
+        if (!enabled) return;
+        if (hit) rasterReuseHits++; else rasterReuseMisses++;
+    }
+
+    /**
+     * Finishes recording a frame.
+     * @param totalPolygons The number of polygons of the current LOD.
+     * @param lodIndex The index of the current LOD.
+     */
+    public void endFrame(int totalPolygons, int lodIndex) {
+        if (!enabled) return;
+        long endTime = System.nanoTime();
+        int slot = (int) (frameCount % WINDOW_SIZE);
+
+        frameEndTimes[slot] = endTime;
+        frameDurations[slot] = endTime - frameStartTime;
+        for (Stage stage : Stage.values()) {
+            stageDurations[stage.ordinal()][slot] = currentStageDurations[stage.ordinal()];
+        }
+        frameCount++;
+
+        polygonsDrawn = currentPolygonsDrawn;
+        polygonsCulled = Math.max(totalPolygons - currentPolygonsDrawn, 0);
+        this.lodIndex = lodIndex;
+    }
+
+    /**
+     * @return The number of frames completed in the last second.
+     */
+    public int getFramesPerSecond() {
+        long now = System.nanoTime();
+        int frames = 0;
+        for (int i = 0; i < getWindowFrameCount(); i++) {
+            if (now - frameEndTimes[i] <= NANOSECONDS_PER_SECOND) frames++;
+        }
+        return frames;
+    }
+
+    /**
+     * @param percentile The percentile in range 0 - 1.
+     * @return The frame time at the percentile over the recent frames in milliseconds, or 0 if no frame was recorded.
+     */
+    public double getFrameTimePercentile(double percentile) {
+        int count = getWindowFrameCount();
+        if (count == 0) return 0;
+
+        long[] sorted = Arrays.copyOf(frameDurations, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * count); // Nearest rank.
+        return toMilliseconds(sorted[Math.min(Math.max(rank, 1), count) - 1]);
+    }
+
+    /**
+     * @param stage The stage to get the time of.
+     * @return The mean time per frame spent in the stage over the recent frames in milliseconds.
+     */
+    public double getMeanStageTime(Stage stage) {
+        int count = getWindowFrameCount();
+        if (count == 0) return 0;
+
+        long total = 0;
+        for (int i = 0; i < count; i++) total += stageDurations[stage.ordinal()][i];
+        return toMilliseconds(total) / count;
+    }
+
+    /**
+     * @return The fraction of tile lookups that hit the cache, or NaN if there were none.
+     */
+    public double getTileCacheHitRate() {
+        return getRate(tileCacheHits, tileCacheMisses);
+    }
+
+    /**
+     * @return The fraction of raster frames that reused the previous frame, or NaN if there were none.
+     */
+    public double getRasterReuseRate() {
+        return getRate(rasterReuseHits, rasterReuseMisses);
+    }
+
+    private static double getRate(long hits, long misses) {
+        return hits + misses == 0 ? Double.NaN : (double) hits / (hits + misses);
+    }
+
+    private static double toMilliseconds(long nanoseconds) {
+        return nanoseconds / 1e6;
+    }
+
+    /**
+     * @return The number of frames in the ring buffers.
+     */
+    private int getWindowFrameCount() {
+        return (int) Math.min(frameCount, WINDOW_SIZE);
+    }
+
+    // Getters:
+    public boolean isEnabled() { return enabled; }
+    public long getFrameCount() { return frameCount; }
+    public int getPolygonsDrawn() { return polygonsDrawn; }
+    public int getPolygonsCulled() { return polygonsCulled; }
+    public int getLODIndex() { return lodIndex; }
+}
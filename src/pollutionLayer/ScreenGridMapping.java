@@ -0,0 +1,114 @@
+package pollutionLayer;
+
+import utility.GeographicUtilities;
+import utility.WebMercator;
+
+/**
+ * Maps screen positions to easting/northing without running the OSGB transform for every position.
+ * The approximate transform is sampled on a lattice of points around the viewport, and positions are
+ * bilinearly interpolated between the samples. Over the sample spacing the transform is very close
+ * to linear, so the interpolation error is a few meters, far below the 1 km cell size.
+ *
+ * The lattice is laid out in normalised Web Mercator coordinates, so panning the map does not
+ * invalidate it. It is rebuilt when the zoom changes or a position falls outside it.
+ * Locating a position does not allocate.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class ScreenGridMapping {
+    private final static double SAMPLE_SPACING = 64; // Screen pixels between sample points.
+
+    private double scale = Double.NaN; // The projection scale the lattice was built for.
+    private double originX; // The normalised x coordinate of sample column 0.
+    private double originY; // The normalised y coordinate of sample row 0.
+    private double step; // The normalised distance between samples.
+    private int columns = 0;
+    private int rows = 0;
+    private double[] eastings = new double[0]; // Sampled eastings, in row-major order.
+    private double[] northings = new double[0]; // Sampled northings, in row-major order.
+
+    private double easting; // The easting of the last located position.
+    private double northing; // The northing of the last located position.
+
+    /**
+     * Locates a screen position on the grid. The result is read with getEasting() and getNorthing().
+     * @param projection The projection of the current frame.
+     * @param viewWidth The width of the viewport in pixels.
+     * @param viewHeight The height of the viewport in pixels.
+     * @param screenX The x coordinate of the position.
+     * @param screenY The y coordinate of the position.
+     */
+    public void locate(ScreenProjection projection, double viewWidth, double viewHeight, double screenX, double screenY) {
+        double normalisedX = projection.toNormalisedX(screenX);
+        double normalisedY = projection.toNormalisedY(screenY);
+
+        if (projection.getScale() != scale || !isInsideLattice(normalisedX, normalisedY)) {
+            rebuild(projection, viewWidth, viewHeight);
+        }
+
+        double u = (normalisedX - originX) / step;
+        double v = (normalisedY - originY) / step;
+        int column = Math.min(Math.max((int) Math.floor(u), 0), columns - 2);
+        int row = Math.min(Math.max((int) Math.floor(v), 0), rows - 2);
+        double fractionX = u - column;
+        double fractionY = v - row;
+
+        int topLeft = row * columns + column;
+        int bottomLeft = topLeft + columns;
+        easting = interpolate(eastings, topLeft, bottomLeft, fractionX, fractionY);
+        northing = interpolate(northings, topLeft, bottomLeft, fractionX, fractionY);
+    }
+
+    /**
+     * Bilinearly interpolates between four neighbouring samples.
+     */
+    private static double interpolate(double[] samples, int topLeft, int bottomLeft, double fractionX, double fractionY) {
+        double top = samples[topLeft] + (samples[topLeft + 1] - samples[topLeft]) * fractionX;
+        double bottom = samples[bottomLeft] + (samples[bottomLeft + 1] - samples[bottomLeft]) * fractionX;
+        return top + (bottom - top) * fractionY;
+    }
+
+    /**
+     * @return True if the normalised position is inside the sampled lattice.
+     */
+    private boolean isInsideLattice(double normalisedX, double normalisedY) {
+        return normalisedX >= originX && normalisedX <= originX + (columns - 1) * step
+            && normalisedY >= originY && normalisedY <= originY + (rows - 1) * step;
+    }
+
+    /**
+     * Samples the approximate transform on a lattice covering the viewport and half a viewport around it.
+     */
+    private void rebuild(ScreenProjection projection, double viewWidth, double viewHeight) {
+        viewWidth = Math.max(viewWidth, 1);
+        viewHeight = Math.max(viewHeight, 1);
+
+        scale = projection.getScale();
+        step = SAMPLE_SPACING / scale;
+        originX = projection.toNormalisedX(-viewWidth / 2);
+        originY = projection.toNormalisedY(-viewHeight / 2);
+        columns = (int) Math.ceil(2 * viewWidth / SAMPLE_SPACING) + 1;
+        rows = (int) Math.ceil(2 * viewHeight / SAMPLE_SPACING) + 1;
+
+        if (eastings.length < columns * rows) {
+            eastings = new double[columns * rows];
+            northings = new double[columns * rows];
+        }
+
+        double[] eastingNorthing = new double[2];
+        for (int row = 0; row < rows; row++) {
+            double latitude = WebMercator.toLatitude(originY + row * step);
+            for (int column = 0; column < columns; column++) {
+                double longitude = WebMercator.toLongitude(originX + column * step);
+                GeographicUtilities.approximateLatLonToEastingNorthing(latitude, longitude, eastingNorthing);
+                eastings[row * columns + column] = eastingNorthing[0];
+                northings[row * columns + column] = eastingNorthing[1];
+            }
+        }
+    }
+
+    // Getters:
+    public double getEasting() { return easting; }
+    public double getNorthing() { return northing; }
+}
@@ -0,0 +1,66 @@
+package pollutionLayer;
+
+import utility.WebMercator;
+
+/**
+ * The projection from normalised Web Mercator coordinates to screen coordinates for one frame.
+ * At a fixed zoom level the projection is only a scale and a translation, so projecting a point
+ * is one multiply-add per axis, and the projection is updated once per frame rather than per point.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class ScreenProjection {
+    private double scale; // The side length of the whole world in screen pixels.
+    private double translateX; // The screen x coordinate of normalised x = 0.
+    private double translateY; // The screen y coordinate of normalised y = 0.
+
+    /**
+     * Updates the projection for a new frame.
+     * @param zoom The zoom level of the map.
+     * @param translateX The x translation of the base map on the screen.
+     * @param translateY The y translation of the base map on the screen.
+     */
+    public void update(double zoom, double translateX, double translateY) {
+        this.scale = WebMercator.getWorldSize(zoom);
+        this.translateX = translateX;
+        this.translateY = translateY;
+    }
+
+    /**
+     * @param normalisedX The normalised x coordinate.
+     * @return The screen x coordinate.
+     */
+    public double toScreenX(double normalisedX) {
+        return normalisedX * scale + translateX;
+    }
+
+    /**
+     * @param normalisedY The normalised y coordinate.
+     * @return The screen y coordinate.
+     */
+    public double toScreenY(double normalisedY) {
+        return normalisedY * scale + translateY;
+    }
+
+    /**
+     * @param screenX The screen x coordinate.
+     * @return The normalised x coordinate.
+     */
+    public double toNormalisedX(double screenX) {
+        return (screenX - translateX) / scale;
+    }
+
+    /**
+     * @param screenY The screen y coordinate.
+     * @return The normalised y coordinate.
+     */
+    public double toNormalisedY(double screenY) {
+        return (screenY - translateY) / scale;
+    }
+
+    // Getters:
+    public double getScale() { return scale; }
+    public double getTranslateX() { return translateX; }
+    public double getTranslateY() { return translateY; }
+}
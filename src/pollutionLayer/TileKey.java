@@ -0,0 +1,18 @@
+package pollutionLayer;
+
+/**
+ * Identifies a pre-rendered tile of the pollution layer. A tile is only valid for the exact
+ * content and zoom it was rendered with, so all of them are part of the key.
+ *
+ * @param dataSet Identifies the displayed data: pollutant, year, aggregation channel and threshold.
+ * @param colorScheme The name of the colour scheme.
+ * @param zoom The exact zoom level of the map.
+ * @param levelOfDetail The level of detail of the polygons in the tile.
+ * @param tileX The column of the tile at the zoom level.
+ * @param tileY The row of the tile at the zoom level.
+ * @param opacity The opacity of the polygons, in range 0 - 255.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public record TileKey(String dataSet, String colorScheme, double zoom, int levelOfDetail, int tileX, int tileY, int opacity) { }
@@ -0,0 +1,257 @@
+package pollutionLayer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.IntConsumer;
+
+import javafx.scene.image.WritableImage;
+
+import colors.ColorLookupTable;
+import dataProcessing.DataSet;
+import dataProcessing.Pollutant;
+import lod.AggregationChannel;
+
+/**
+ * Prepares the frames of a year time-lapse ahead of playback. The datasets of the requested years
+ * are loaded, their polygons generated and their frames rendered on a background thread, so a
+ * year's frame is ready before it is shown. Only the frames of a window of years are kept.
+ *
+ * When the view changes, the frames are re-rendered for the new view, and the existing frames are
+ * kept to be drawn moved and scaled until then. When the style changes, the existing frames are
+ * discarded, as they show the wrong values.
+ *
+ * If a year cannot be loaded or rendered, such as when its file is missing, the failure is reported
+ * and the year is not queued again, so playback can skip it instead of waiting for its frame.
+ * Must be used from the thread results are delivered on, normally the JavaFX thread.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class TimeLapseFrameCache {
+    // One thread shared by all time-lapses, which renders the years in the order they are requested.
+    private final static ExecutorService PRELOAD_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Time-lapse frame renderer");
+        thread.setDaemon(true); // Do not keep the application alive.
+        return thread;
+    });
+
+    /**
+     * What the frames show.
+     * @param pollutant The pollutant of the datasets.
+     * @param aggregationChannel The aggregation channel of the LODs to display.
+     * @param thresholdPercentage Polygons with a value at or below this percentage of the reference value are drawn in the null colour.
+     * @param colorTable The colour lookup table to colour polygons with.
+     */
+    public record FrameStyle(Pollutant pollutant, AggregationChannel aggregationChannel, double thresholdPercentage, ColorLookupTable colorTable) {}
+
+    /**
+     * The view of the map the frames are rendered at.
+     * @param pixelScale The number of pixels per meter, used to pick the LOD.
+     * @param zoom The zoom level of the map.
+     * @param translateX The x translation of the base map.
+     * @param translateY The y translation of the base map.
+     * @param width The width of the frame in pixels.
+     * @param height The height of the frame in pixels.
+     */
+    public record FrameView(double pixelScale, double zoom, double translateX, double translateY, int width, int height) {}
+
+    /**
+     * A rendered frame.
+     * @param image The image of the frame.
+     * @param view The view the frame was rendered at, which may be older than the current view.
+     */
+    public record Frame(WritableImage image, FrameView view) {}
+
+    /**
+     * The polygons of a year, kept while the year is in the window so re-rendering it for a new view does not regenerate them.
+     */
+    private record YearPolygons(Pollutant pollutant, PollutionPolygonManager polygonManager, double maxPollutionValue) {}
+
+    private final Map<Integer, Frame> frames = new HashMap<>();
+    private final Set<Integer> pending = new HashSet<>(); // Years queued for rendering with the current style and view.
+    private final Set<Integer> failed = new HashSet<>(); // Years that could not be rendered, never queued again until cleared.
+    private final Map<Integer, YearPolygons> yearPolygons = new ConcurrentHashMap<>(); // Shared with the render thread.
+    private final ConcurrentLinkedQueue<PollutionRasteriser> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final AtomicLong generation = new AtomicLong(); // Increased whenever the style or view changes, to discard older renders.
+
+    private final BiFunction<Integer, Pollutant, DataSet> dataSupplier; // Loads the dataset of a year, on the render thread.
+    private final Executor resultExecutor; // Runs the callbacks of completed renders.
+    private final IntConsumer onFailed; // Called with each year that could not be rendered.
+
+    private FrameStyle style;
+    private FrameView view;
+
+    /**
+     * Constructor.
+     * @param dataSupplier Loads the dataset of a pollutant's year, on the render thread, such as from the DataManager.
+     * @param resultExecutor Runs the callbacks of completed renders, such as Platform::runLater.
+     * @param onFailed Called on the result executor with each year that could not be loaded or rendered.
+     */
+    public TimeLapseFrameCache(BiFunction<Integer, Pollutant, DataSet> dataSupplier, Executor resultExecutor, IntConsumer onFailed) {
+        this.dataSupplier = dataSupplier;
+        this.resultExecutor = resultExecutor;
+        this.onFailed = onFailed;
+    }
+
+    /**
+     * Keeps the frames of the given years ready, rendering the missing ones in the background in
+     * the given order, and discards the frames of every other year.
+     * @param years The years of the window, the most urgent first.
+     * @param style What the frames show.
+     * @param view The current view of the map.
+     */
+    public void preload(List<Integer> years, FrameStyle style, FrameView view) {
+        if (!style.equals(this.style)) {
+            frames.clear(); // Frames of the previous style show the wrong values.
+            invalidate();
+        } else if (!view.equals(this.view)) {
+            invalidate(); // Frames of the previous view are kept until they are re-rendered.
+        }
+        this.style = style;
+        this.view = view;
+
+        frames.keySet().retainAll(years);
+        pending.retainAll(years);
+        yearPolygons.keySet().retainAll(years);
+
+        long currentGeneration = generation.get();
+        for (int year : years) {
+            Frame frame = frames.get(year);
+            if ((frame != null && frame.view().equals(view)) || failed.contains(year) || !pending.add(year)) continue;
+
+            PRELOAD_EXECUTOR.execute(() -> render(year, style, view, currentGeneration));
+        }
+    }
+
+    /**
+     * Supersedes every queued and running render.
+     */
+    private void invalidate() {
+        generation.incrementAndGet();
+        pending.clear();
+    }
+
+    /**
+     * Renders the frame of a year, on the render thread, reporting the year as failed if it cannot be loaded or rendered.
+     */
+    private void render(int year, FrameStyle style, FrameView view, long renderGeneration) {
+        try {
+            renderFrame(year, style, view, renderGeneration);
+        } catch (RuntimeException e) {
+            resultExecutor.execute(() -> onRenderFailed(year, renderGeneration, e));
+        }
+    }
+
+    /**
+     * Renders the frame of a year, on the render thread.
+     */
+    private void renderFrame(int year, FrameStyle style, FrameView view, long renderGeneration) {
+        if (isSuperseded(renderGeneration)) return;
+
+        YearPolygons polygons = yearPolygons.get(year);
+        if (polygons == null || polygons.pollutant() != style.pollutant()) {
+            DataSet dataSet = dataSupplier.apply(year, style.pollutant());
+            polygons = new YearPolygons(style.pollutant(), new PollutionPolygonManager(dataSet), dataSet.getMaxPollutionValue());
+            yearPolygons.put(year, polygons);
+        }
+
+        PollutionPolygonManager polygonManager = polygons.polygonManager();
+        polygonManager.setAggregationChannel(style.aggregationChannel());
+        int lodIndex = polygonManager.getLODIndex(view.pixelScale(), view.width(), view.height());
+        polygonManager.updatePollutionPolygons(lodIndex);
+        if (isSuperseded(renderGeneration)) return;
+
+        // The threshold is relative to the same reference value as in the pollution layer.
+        int levelOfDetail = polygonManager.getLevelOfDetail(lodIndex);
+        double referenceValue = style.aggregationChannel().isConcentration() ? polygons.maxPollutionValue() : levelOfDetail * levelOfDetail;
+
+        BackgroundFrameRenderer.FrameRequest request = new BackgroundFrameRenderer.FrameRequest(
+            lodIndex, view.zoom(), view.translateX(), view.translateY(), view.width(), view.height(),
+            style.colorTable(), style.thresholdPercentage() * referenceValue
+        );
+
+        PollutionRasteriser buffer = freeBuffers.poll();
+        if (buffer == null) buffer = new PollutionRasteriser();
+        if (BackgroundFrameRenderer.renderFrame(polygonManager.getSpatialIndex(), request, buffer, () -> isSuperseded(renderGeneration)) < 0) {
+            freeBuffers.add(buffer);
+            return;
+        }
+
+        PollutionRasteriser renderedBuffer = buffer;
+        resultExecutor.execute(() -> onRendered(year, view, renderGeneration, renderedBuffer));
+    }
+
+    /**
+     * Uploads a rendered frame, on the JavaFX thread, unless it was superseded in the meantime.
+     */
+    private void onRendered(int year, FrameView view, long renderGeneration, PollutionRasteriser buffer) {
+        if (!isSuperseded(renderGeneration) && pending.remove(year)) {
+            // The year's previous frame is replaced, so its image can be reused.
+            Frame previous = frames.get(year);
+            WritableImage image = previous == null ? null : previous.image();
+            if (image == null || image.getWidth() != buffer.getWidth() || image.getHeight() != buffer.getHeight()) {
+                image = new WritableImage(buffer.getWidth(), buffer.getHeight());
+            }
+            buffer.upload(image);
+            frames.put(year, new Frame(image, view));
+        }
+        freeBuffers.add(buffer);
+    }
+
+    /**
+     * Reports a year whose frame could not be rendered, unless the render was superseded in the meantime.
+     */
+    private void onRenderFailed(int year, long renderGeneration, RuntimeException e) {
+        if (isSuperseded(renderGeneration) || !pending.remove(year)) return;
+
+        failed.add(year);
+        System.err.println("Failed to render the time-lapse frame of " + year + ": " + e.getMessage());
+        onFailed.accept(year);
+    }
+
+    /**
+     * @return True if the style or view changed since the render of the given generation was requested.
+     */
+    private boolean isSuperseded(long renderGeneration) {
+        return generation.get() != renderGeneration;
+    }
+
+    /**
+     * Discards every frame and stops rendering, releasing the memory of the frames and polygons.
+     */
+    public void clear() {
+        invalidate();
+        frames.clear();
+        failed.clear(); // Retried when playback starts again.
+        yearPolygons.clear();
+        freeBuffers.clear();
+        style = null;
+        view = null;
+    }
+
+    /**
+     * @param year The year of the frame.
+     * @return The latest frame of the year, possibly rendered at an older view, or null if it has not been rendered yet.
+     */
+    public Frame getFrame(int year) {
+        return frames.get(year);
+    }
+
+    /**
+     * @param year The year of the frame.
+     * @return True if a frame of the year can be shown.
+     */
+    public boolean isReady(int year) {
+        return frames.containsKey(year);
+    }
+}
@@ -0,0 +1,103 @@
+package pollutionLayer;
+
+import com.gluonhq.maps.MapLayer;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+import utility.CustomMapView;
+
+/**
+ * Map layer that plays a time-lapse of prerendered pollution frames. Each frame is a single image,
+ * so showing a frame or crossfading between two never touches the polygons.
+ *
+ * Frames are drawn moved and scaled from the view they were rendered at to the current view, so the
+ * map can be panned and zoomed during playback while frames for the new view are rendered.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class TimeLapseLayer extends MapLayer {
+    private final CustomMapView mapView;
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+
+    private TimeLapseFrameCache.Frame currentFrame;
+    private TimeLapseFrameCache.Frame nextFrame;
+    private double crossfadeProgress;
+
+    /**
+     * Constructor.
+     * @param mapView The map view to play the time-lapse on.
+     */
+    public TimeLapseLayer(CustomMapView mapView) {
+        this.mapView = mapView;
+        canvas = new Canvas();
+        gc = canvas.getGraphicsContext2D();
+        canvas.setMouseTransparent(true); // Do not block dragging the map underneath.
+        this.getChildren().add(canvas);
+    }
+
+    /**
+     * Re-draws the frames every time the mapView is moved around.
+     */
+    @Override
+    protected void layoutLayer() {
+        draw();
+    }
+
+    /**
+     * Shows a frame, partly crossfaded into the next frame, and re-draws the layer.
+     * @param currentFrame The frame to show, or null to show nothing.
+     * @param nextFrame The frame to crossfade into, or null for no crossfade.
+     * @param crossfadeProgress How far the crossfade has progressed, in range 0 - 1.
+     */
+    public void showFrames(TimeLapseFrameCache.Frame currentFrame, TimeLapseFrameCache.Frame nextFrame, double crossfadeProgress) {
+        this.currentFrame = currentFrame;
+        this.nextFrame = nextFrame;
+        this.crossfadeProgress = crossfadeProgress;
+        draw();
+    }
+
+    /**
+     * Draw the current frame, fading out, and the next frame, fading in, to the canvas.
+     */
+    private void draw() {
+        canvas.setWidth(mapView.getWidth());
+        canvas.setHeight(mapView.getHeight());
+        gc.clearRect(0, 0, mapView.getWidth(), mapView.getHeight()); // Clear canvas.
+        if (baseMap == null) return;
+
+        double crossfade = nextFrame == null ? 0 : crossfadeProgress;
+        drawFrame(currentFrame, 1 - crossfade);
+        drawFrame(nextFrame, crossfade);
+        gc.setGlobalAlpha(1);
+    }
+
+    /**
+     * Draw a frame, moved and scaled from the view it was rendered at to the current view.
+     */
+    private void drawFrame(TimeLapseFrameCache.Frame frame, double alpha) {
+        if (frame == null || alpha <= 0) return;
+
+        TimeLapseFrameCache.FrameView view = frame.view();
+        double scale = Math.pow(2, baseMap.zoom().get() - view.zoom());
+        double x = baseMap.getTranslateX() - view.translateX() * scale;
+        double y = baseMap.getTranslateY() - view.translateY() * scale;
+        gc.setGlobalAlpha(alpha);
+        gc.drawImage(frame.image(), x, y, view.width() * scale, view.height() * scale);
+    }
+
+    /**
+     * @return The current view of the map, to render frames at, or null if the layer is not shown on a map yet.
+     */
+    public TimeLapseFrameCache.FrameView getView() {
+        int width = (int) Math.ceil(mapView.getWidth());
+        int height = (int) Math.ceil(mapView.getHeight());
+        if (baseMap == null || width <= 0 || height <= 0) return null;
+
+        return new TimeLapseFrameCache.FrameView(
+            mapView.getPixelScale(), baseMap.zoom().get(), baseMap.getTranslateX(), baseMap.getTranslateY(), width, height
+        );
+    }
+}
@@ -0,0 +1,150 @@
+package pollutionLayer;
+
+import java.util.function.IntPredicate;
+
+/**
+ * The clock of a time-lapse through a sequence of frames, such as the years of a pollutant.
+ * Playback loops back to the first frame after the last.
+ *
+ * Each frame is shown for the same duration, the end of which can be a crossfade into the next
+ * frame. Playback never moves on to a frame that is not ready: it holds the current frame, before
+ * its crossfade starts, until the next frame is ready. With the next frames prepared ahead, every
+ * frame is shown for its full duration and the playback rate stays steady.
+ *
+ * Frames that can never be shown, such as years whose data failed to load, are skipped, so
+ * playback never waits for them.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class TimeLapsePlayback {
+    private final int frameCount;
+    private final double frameDuration; // The time each frame is shown for in seconds, including its crossfade.
+    private final double crossfadeDuration; // The time the crossfade into the next frame takes in seconds.
+    private final boolean[] skipped; // True for frames that playback passes over.
+    private int skippedCount = 0;
+
+    private int frame = 0; // The index of the current frame.
+    private double frameTime = 0; // The time the current frame has been shown for in seconds.
+    private boolean crossfade = false;
+    private boolean waiting = false; // True if the last advance was held up by a frame that was not ready.
+
+    /**
+     * Constructor.
+     * @param frameCount The number of frames to play through, at least 1.
+     * @param frameDuration The time each frame is shown for in seconds, including its crossfade.
+     * @param crossfadeDuration The time the crossfade into the next frame takes in seconds, at most the frame duration.
+     */
+    public TimeLapsePlayback(int frameCount, double frameDuration, double crossfadeDuration) {
+        this.frameCount = frameCount;
+        this.frameDuration = frameDuration;
+        this.crossfadeDuration = crossfadeDuration;
+        skipped = new boolean[frameCount];
+    }
+
+    /**
+     * Advances the playback by some time, moving on to the following frames as their time comes.
+     * @param seconds The time passed since the last advance.
+     * @param isReady Tests if the frame at an index is ready to be shown.
+     */
+    public void advance(double seconds, IntPredicate isReady) {
+        waiting = !isReady.test(frame);
+        if (waiting) return; // The current frame is not shown yet, so its time has not started.
+
+        frameTime += seconds;
+        while (true) {
+            double readyTime = getReadyTime();
+            if (frameTime < readyTime) return;
+
+            if (!isReady.test(getNextFrame())) {
+                frameTime = readyTime; // Hold until the next frame is ready.
+                waiting = true;
+                return;
+            }
+            if (frameTime < frameDuration) return;
+
+            frame = getNextFrame();
+            frameTime -= frameDuration;
+        }
+    }
+
+    /**
+     * @return The time into the current frame by which the next frame must be ready.
+     */
+    private double getReadyTime() {
+        return crossfade ? frameDuration - crossfadeDuration : frameDuration;
+    }
+
+    /**
+     * Jumps to the start of a frame.
+     * @param frame The index of the frame.
+     */
+    public void seek(int frame) {
+        this.frame = Math.floorMod(frame, frameCount);
+        if (skipped[this.frame]) this.frame = getFrameAfter(this.frame);
+        frameTime = 0;
+    }
+
+    /**
+     * Skips a frame that can never be shown. If it is the current frame, playback moves on to the
+     * start of the following frame.
+     * @param frame The index of the frame.
+     */
+    public void skip(int frame) {
+        if (skipped[frame]) return;
+
+        skipped[frame] = true;
+        skippedCount++;
+        if (frame == this.frame) {
+            this.frame = getFrameAfter(frame);
+            frameTime = 0;
+        }
+    }
+
+    /**
+     * @param frame The index of a frame.
+     * @return The index of the first frame after it that is not skipped, looping back to the first
+     * frame after the last, or the frame itself if every other frame is skipped.
+     */
+    private int getFrameAfter(int frame) {
+        for (int i = 1; i < frameCount; i++) {
+            int next = (frame + i) % frameCount;
+            if (!skipped[next]) return next;
+        }
+        return frame;
+    }
+
+    /**
+     * @return How far the crossfade into the next frame has progressed, in range 0 - 1. Always 0 when crossfading is off.
+     */
+    public double getCrossfadeProgress() {
+        if (!crossfade) return 0;
+        return Math.clamp((frameTime - getReadyTime()) / crossfadeDuration, 0, 1);
+    }
+
+    /**
+     * Gets the frames that should be ready soon, starting with the current frame, so they can be prepared ahead.
+     * @param size The number of frames in the window.
+     * @return The indices of the current and following frames that are not skipped, at most one of each frame.
+     */
+    public int[] getWindow(int size) {
+        int[] window = new int[Math.min(size, frameCount - skippedCount)];
+        int index = frame;
+        for (int i = 0; i < window.length; i++) {
+            window[i] = index;
+            index = getFrameAfter(index);
+        }
+        return window;
+    }
+
+    // Setters:
+    public void setCrossfade(boolean crossfade) { this.crossfade = crossfade; }
+
+    // Getters:
+    public int getFrame() { return frame; }
+    public int getNextFrame() { return getFrameAfter(frame); }
+    public int getFrameCount() { return frameCount; }
+    public boolean isCrossfade() { return crossfade; }
+    public boolean isWaiting() { return waiting; }
+    public boolean hasFrames() { return skippedCount < frameCount; }
+}
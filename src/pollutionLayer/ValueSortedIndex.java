@@ -0,0 +1,86 @@
+package pollutionLayer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntConsumer;
+
+/**
+ * The ids of a buffer of polygons sorted by their visibility value, used to find the polygons
+ * whose value lies between two thresholds without visiting every polygon.
+ *
+ * When the visibility threshold moves from one value to another, only the polygons with a value
+ * between the two change colour, so they can be found with one binary search.
+ * The index is a snapshot of the polygon values, so it must be rebuilt when they change.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class ValueSortedIndex {
+    private final int[] sortedPolygons; // Polygon ids in ascending order of value.
+    private final double[] sortedValues; // The value of each polygon in sortedPolygons.
+
+    /**
+     * Builds the index of a buffer of polygons from their current values.
+     * @param polygons The polygons to index. Visited indices are polygon ids of the buffer.
+     */
+    public ValueSortedIndex(PolygonBuffer polygons) {
+        int count = polygons.getCount();
+        double[] values = new double[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = polygons.getVisibilityValue(i);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> values[i]));
+
+        sortedPolygons = new int[count];
+        sortedValues = new double[count];
+        for (int i = 0; i < count; i++) {
+            sortedPolygons[i] = order[i];
+            sortedValues[i] = values[order[i]];
+        }
+    }
+
+    /**
+     * Calls the visitor with the index of every polygon whose value is above the low value and
+     * at or below the high value. These are the polygons that change between drawn and hidden
+     * when the threshold moves between the two values.
+     * @param low The exclusive lower bound.
+     * @param high The inclusive upper bound.
+     * @param visitor Called once for each polygon index in the range.
+     */
+    public void forEachBetween(double low, double high, IntConsumer visitor) {
+        for (int i = getFirstAbove(low); i < sortedValues.length && sortedValues[i] <= high; i++) {
+            visitor.accept(sortedPolygons[i]);
+        }
+    }
+
+    /**
+     * @param low The exclusive lower bound.
+     * @param high The inclusive upper bound.
+     * @return The number of polygons whose value is above the low value and at or below the high value.
+     */
+    public int countBetween(double low, double high) {
+        return Math.max(getFirstAbove(high) - getFirstAbove(low), 0);
+    }
+
+    /**
+     * @return The position in the sorted order of the first polygon with a value above the given value.
+     */
+    private int getFirstAbove(double value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Getters:
+    public int getCount() { return sortedPolygons.length; }
+}
@@ -0,0 +1,84 @@
+package test;
+
+import com.gluonhq.maps.MapPoint;
+
+import colors.DefaultColorScheme;
+import dataProcessing.DataSet;
+import pollutionLayer.BackgroundFrameRenderer;
+import pollutionLayer.BackgroundFrameRenderer.FrameRequest;
+import pollutionLayer.PolygonSpatialIndex;
+import pollutionLayer.PollutionPolygonManager;
+import pollutionLayer.PollutionRasteriser;
+import utility.GeographicUtilities;
+import utility.WebMercator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for rendering background frames: that frames of another LOD leave the polygon manager's
+ * current LOD unchanged, and that cancelled frames stop part way through.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class BackgroundFrameRendererTest {
+    private final static int GRID_LENGTH = 40; // The synthetic grid is GRID_LENGTH x GRID_LENGTH km.
+    private final static int VIEW_SIZE = 1024;
+    private final static double ZOOM = 11; // The whole grid is about 500 pixels wide, inside the view.
+
+    private PollutionPolygonManager polygonManager;
+
+    @BeforeEach
+    public void setUp() {
+        DataSet dataSet = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        int value = 0;
+        for (int y = 0; y < GRID_LENGTH; y++) {
+            for (int x = 0; x < GRID_LENGTH; x++) {
+                dataSet.addData(new String[] { Integer.toString(value), Integer.toString(510500 + x * 1000), Integer.toString(160500 + y * 1000), Integer.toString(value % 50) });
+                value++;
+            }
+        }
+        polygonManager = new PollutionPolygonManager(dataSet);
+        polygonManager.updatePollutionPolygons(0);
+    }
+
+    /**
+     * @return A request for a frame of an LOD, centred on the synthetic grid.
+     */
+    private static FrameRequest createRequest(int lodIndex) {
+        MapPoint centre = GeographicUtilities.convertEastingNorthingToLatLon(510000 + GRID_LENGTH * 500, 160000 + GRID_LENGTH * 500);
+        double worldSize = WebMercator.getWorldSize(ZOOM);
+        double translateX = VIEW_SIZE / 2.0 - WebMercator.toNormalisedX(centre.getLongitude()) * worldSize;
+        double translateY = VIEW_SIZE / 2.0 - WebMercator.toNormalisedY(centre.getLatitude()) * worldSize;
+        return new FrameRequest(lodIndex, ZOOM, translateX, translateY, VIEW_SIZE, VIEW_SIZE, new DefaultColorScheme().getLookupTable(0.7), 0);
+    }
+
+    @Test
+    public void testRenderingAnotherLODKeepsCurrentLOD() {
+        PolygonSpatialIndex currentIndex = polygonManager.getSpatialIndex();
+        PolygonSpatialIndex coarseIndex = polygonManager.getLODSpatialIndex(1);
+
+        int polygonsDrawn = BackgroundFrameRenderer.renderFrame(coarseIndex, createRequest(1), new PollutionRasteriser(), () -> false);
+
+        assertEquals(coarseIndex.getPolygons().getCount(), polygonsDrawn, "Every polygon of the LOD should be in view.");
+        assertEquals((GRID_LENGTH / 2) * (GRID_LENGTH / 2), polygonsDrawn);
+        assertEquals(0, polygonManager.getCurrentLODIndex(), "Rendering another LOD should not switch the current LOD.");
+        assertSame(currentIndex, polygonManager.getSpatialIndex());
+        assertEquals(GRID_LENGTH * GRID_LENGTH, polygonManager.getPolygons().getCount());
+    }
+
+    @Test
+    public void testCancelledFrameReturnsNegative() {
+        PolygonSpatialIndex spatialIndex = polygonManager.getLODSpatialIndex(0);
+        int[] checks = { 0 };
+        int polygonsDrawn = BackgroundFrameRenderer.renderFrame(spatialIndex, createRequest(0), new PollutionRasteriser(), () -> {
+            checks[0]++;
+            return true;
+        });
+
+        assertTrue(polygonsDrawn < 0, "A cancelled frame should not report the polygons drawn.");
+        assertEquals(1, checks[0], "Rendering should stop at the first check that finds it cancelled.");
+    }
+}
@@ -0,0 +1,80 @@
+package test;
+
+import dataProcessing.DataPoint;
+import dataProcessing.DataSet;
+import pollutionLayer.PolygonBuffer;
+import pollutionLayer.PollutionPolygonManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for looking up the polygon and data point at a grid position, as used by map clicks.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class ClickLookupTest {
+    private final static double EPSILON = 1e-9;
+    private final static int GRID_LENGTH = 4; // The synthetic grid is GRID_LENGTH x GRID_LENGTH km.
+
+    private PollutionPolygonManager polygonManager;
+
+    @BeforeEach
+    public void setUp() {
+        // Values 1 to 16 on a 4x4 km grid, with the cell at (3500, 2500) missing.
+        DataSet dataSet = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        int value = 1;
+        for (int y = 0; y < GRID_LENGTH; y++) {
+            for (int x = 0; x < GRID_LENGTH; x++) {
+                String cellValue = (x == 3 && y == 2) ? "MISSING" : Integer.toString(value);
+                dataSet.addData(new String[] { Integer.toString(value), Integer.toString(x * 1000 + 500), Integer.toString(y * 1000 + 500), cellValue });
+                value++;
+            }
+        }
+        polygonManager = new PollutionPolygonManager(dataSet);
+    }
+
+    @Test
+    public void testPolygonLookupAtFullResolution() {
+        polygonManager.updatePollutionPolygons(0);
+        PolygonBuffer polygons = polygonManager.getPolygons();
+
+        int polygon = polygons.getPolygonAt(1200, 300);
+        assertNotEquals(-1, polygon);
+        assertEquals(2, polygons.getValue(polygon), EPSILON);
+
+        // Cell edges belong to the cell to the east and north.
+        assertEquals(2, polygons.getValue(polygons.getPolygonAt(1000, 0)), EPSILON);
+        assertEquals(6, polygons.getValue(polygons.getPolygonAt(1999, 1000)), EPSILON);
+
+        assertEquals(-1, polygons.getPolygonAt(3600, 2700), "Missing values should have no polygon.");
+        assertEquals(-1, polygons.getPolygonAt(-100, 300), "Positions outside the grid should have no polygon.");
+    }
+
+    @Test
+    public void testPolygonLookupAtCoarseLOD() {
+        polygonManager.updatePollutionPolygons(1); // 2 km cells.
+        PolygonBuffer polygons = polygonManager.getPolygons();
+
+        int polygon = polygons.getPolygonAt(1200, 300);
+        assertNotEquals(-1, polygon);
+        assertEquals((1 + 2 + 5 + 6) / 4.0, polygons.getValue(polygon), EPSILON);
+        assertEquals(polygon, polygons.getPolygonAt(1900, 1900), "Positions in the same coarse cell should find the same polygon.");
+    }
+
+    @Test
+    public void testFullResolutionLookupAtCoarseLOD() {
+        polygonManager.updatePollutionPolygons(1);
+
+        DataPoint dataPoint = polygonManager.getDataPointAt(1200, 300);
+        assertNotNull(dataPoint);
+        assertEquals(2, dataPoint.value(), EPSILON);
+        assertEquals(1500, dataPoint.x());
+        assertEquals(500, dataPoint.y());
+
+        assertNull(polygonManager.getDataPointAt(3600, 2700), "Missing values should have no data point.");
+        assertNull(polygonManager.getDataPointAt(4100, 300), "Positions outside the grid should have no data point.");
+    }
+}
@@ -0,0 +1,52 @@
+package test;
+
+import colors.ColorLookupTable;
+import pollutionLayer.ColorBatches;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the ColorBatches class.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class ColorBatchesTest {
+    @Test
+    public void testPolygonsAreGroupedByColour() {
+        ColorBatches batches = new ColorBatches();
+        batches.add(0, 5);
+        batches.add(1, ColorLookupTable.NULL_INDEX);
+        batches.add(2, 5);
+        batches.add(3, 0);
+        batches.sort();
+
+        assertEquals(3, batches.getBatchCount());
+        assertEquals(1, batches.getBatchEnd(0) - batches.getBatchStart(0));
+        assertEquals(3, batches.getSortedPolygon(batches.getBatchStart(0)));
+
+        // Polygons of the same colour keep the order they were added in.
+        assertEquals(2, batches.getBatchEnd(5) - batches.getBatchStart(5));
+        assertEquals(0, batches.getSortedPolygon(batches.getBatchStart(5)));
+        assertEquals(2, batches.getSortedPolygon(batches.getBatchStart(5) + 1));
+
+        assertEquals(1, batches.getSortedPolygon(batches.getBatchStart(ColorLookupTable.NULL_INDEX)));
+        assertEquals(batches.getBatchStart(6), batches.getBatchEnd(6), "Unused colours should have empty batches.");
+    }
+
+    @Test
+    public void testBatchesAreReusedAfterClear() {
+        ColorBatches batches = new ColorBatches();
+        for (int i = 0; i < 5000; i++) batches.add(i, i % 7);
+        batches.sort();
+        assertEquals(7, batches.getBatchCount());
+
+        batches.clear();
+        batches.add(42, 3);
+        batches.sort();
+        assertEquals(1, batches.getCount());
+        assertEquals(1, batches.getBatchCount());
+        assertEquals(42, batches.getSortedPolygon(batches.getBatchStart(3)));
+    }
+}
@@ -0,0 +1,103 @@
+package test;
+
+import colors.ColorLookupTable;
+import colors.ColorScheme;
+import colors.ColorblindColorScheme;
+import colors.DefaultColorScheme;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the ColorLookupTable class, including a check that colouring a frame of polygons
+ * through the lookup table does not allocate.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class ColorLookupTableTest {
+    private final static int POLYGONS_PER_FRAME = 20000; // Roughly the visible polygons at 1 km LOD.
+    private final static double OPACITY = 0.7;
+
+    /**
+     * Asserts that every channel of two premultiplied ARGB pixels differs by at most the tolerance.
+     */
+    private void assertArgbClose(int expected, int actual, int tolerance) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            int expectedChannel = (expected >>> shift) & 0xFF;
+            int actualChannel = (actual >>> shift) & 0xFF;
+            assertTrue(Math.abs(expectedChannel - actualChannel) <= tolerance,
+                String.format("Expected %08X but was %08X.", expected, actual));
+        }
+    }
+
+    @Test
+    public void testTableMatchesColorScheme() {
+        for (ColorScheme colorScheme : new ColorScheme[] { new DefaultColorScheme(), new ColorblindColorScheme() }) {
+            ColorLookupTable table = colorScheme.getLookupTable(OPACITY);
+            for (double value = 0; value <= 1; value += 0.001) {
+                int expected = ColorLookupTable.toPremultipliedArgb(colorScheme.getColor(value), OPACITY);
+                int actual = table.getArgb(ColorLookupTable.getIndex(value));
+                assertArgbClose(expected, actual, 2);
+            }
+        }
+    }
+
+    @Test
+    public void testNullColour() {
+        ColorScheme colorScheme = new DefaultColorScheme();
+        ColorLookupTable table = colorScheme.getLookupTable(OPACITY);
+
+        assertEquals(ColorLookupTable.toPremultipliedArgb(colorScheme.getNullColour(), OPACITY), table.getArgb(ColorLookupTable.NULL_INDEX));
+        assertEquals(OPACITY, table.getColor(ColorLookupTable.NULL_INDEX).getOpacity(), 1.0 / 255);
+    }
+
+    @Test
+    public void testIndexIsClamped() {
+        assertEquals(0, ColorLookupTable.getIndex(-0.5));
+        assertEquals(0, ColorLookupTable.getIndex(Double.NaN));
+        assertEquals(ColorLookupTable.SIZE - 1, ColorLookupTable.getIndex(1.5));
+    }
+
+    @Test
+    public void testTablesAreCached() {
+        ColorScheme colorScheme = new DefaultColorScheme();
+        assertSame(colorScheme.getLookupTable(OPACITY), colorScheme.getLookupTable(OPACITY));
+        assertNotSame(colorScheme.getLookupTable(OPACITY), colorScheme.getLookupTable(0.5));
+    }
+
+    /**
+     * Checks that colouring a frame of polygons through the lookup table does not allocate.
+     */
+    @Test
+    public void testAllocationPerFrame() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        ColorLookupTable table = new DefaultColorScheme().getLookupTable(OPACITY);
+        double[] values = new double[POLYGONS_PER_FRAME];
+        for (int i = 0; i < values.length; i++) values[i] = (i * 0.618034) % 1;
+
+        long checksum = 0;
+        for (int warmUp = 0; warmUp < 5; warmUp++) {
+            checksum += colourWithTable(table, values);
+        }
+
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        long frameChecksum = colourWithTable(table, values);
+        long tableBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(checksum, 5 * frameChecksum, "Every frame should colour the polygons the same.");
+        assertTrue(tableBytes < 1024, "The lookup table path should not allocate per polygon.");
+    }
+
+    private long colourWithTable(ColorLookupTable table, double[] values) {
+        long checksum = 0;
+        for (double value : values) {
+            checksum += table.getArgb(ColorLookupTable.getIndex(value));
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,79 @@
+package test;
+
+import dataProcessing.CompositeIndexDataSet;
+import dataProcessing.DataSet;
+import dataProcessing.Pollutant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Test class for the CompositeIndexDataSet class.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class CompositeIndexDataSetTest {
+    private CompositeIndexDataSet compositeIndex;
+
+    @BeforeEach
+    public void setUp() {
+        DataSet no2 = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        addCell(no2, 0, 0, "100"); // Band 2.
+        addCell(no2, 1, 0, "700"); // Band 10.
+        addCell(no2, 2, 0, "-1");
+        addCell(no2, 3, 0, "-1");
+
+        DataSet pm25 = new DataSet("PM2_5", "2018", "Annual Mean", "ug/m3");
+        addCell(pm25, 0, 0, "30"); // Band 3.
+
+        DataSet pm10 = new DataSet("PM10", "2018", "Annual Mean", "ug/m3");
+        addCell(pm10, 0, 0, "40"); // Band 3.
+        addCell(pm10, 2, 0, "5"); // Band 1.
+        addCell(pm10, 3, 0, "-1");
+
+        Map<Pollutant, DataSet> dataSets = new EnumMap<>(Pollutant.class);
+        dataSets.put(Pollutant.NO2, no2);
+        dataSets.put(Pollutant.PM2_5, pm25);
+        dataSets.put(Pollutant.PM10, pm10);
+        compositeIndex = new CompositeIndexDataSet("2018", dataSets);
+    }
+
+    private static void addCell(DataSet dataSet, int x, int y, String value) {
+        dataSet.addData(new String[] { Integer.toString(y * 10 + x), Integer.toString(x * 1000 + 500), Integer.toString(y * 1000 + 500), value });
+    }
+
+    @Test
+    public void testBandIsWorstPollutant() {
+        assertEquals(3, compositeIndex.getBand(500, 500));
+        assertEquals(Pollutant.PM2_5, compositeIndex.getDrivingPollutant(500, 500), "The first pollutant with the highest band should drive the cell.");
+
+        assertEquals(10, compositeIndex.getBand(1500, 500));
+        assertEquals(Pollutant.NO2, compositeIndex.getDrivingPollutant(1500, 500));
+
+        assertEquals(1, compositeIndex.getBand(2500, 500), "Missing pollutants should not affect the band.");
+        assertEquals(Pollutant.PM10, compositeIndex.getDrivingPollutant(2500, 500));
+    }
+
+    @Test
+    public void testCellsWithoutDataHaveNoBand() {
+        assertEquals(0, compositeIndex.getBand(3500, 500));
+        assertNull(compositeIndex.getDrivingPollutant(3500, 500));
+        assertNull(compositeIndex.getDataPoint(3500, 500));
+        assertEquals(0, compositeIndex.getBand(-5000, 500), "Positions outside the grid have no band.");
+
+        assertEquals(3, compositeIndex.getData().size());
+        assertEquals(10, compositeIndex.getDataPoint(1500, 500).value());
+        assertEquals(1, compositeIndex.getDataPoint(1500, 500).gridCode());
+    }
+
+    @Test
+    public void testFixedValueRange() {
+        assertArrayEquals(new double[] { CompositeIndexDataSet.MIN_BAND, CompositeIndexDataSet.MAX_BAND }, compositeIndex.getFixedValueRange());
+        assertNull(new DataSet("NO2", "2018", "Annual Mean", "ug/m3").getFixedValueRange());
+    }
+}
@@ -0,0 +1,81 @@
+package test;
+
+import contours.DouglasPeucker;
+import contours.MarchingSquares;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+/**
+ * Test class for the MarchingSquares and DouglasPeucker classes.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class ContourTest {
+    @Test
+    public void testPeakTracesClosedLine() {
+        double[] values = {
+            0, 0, 0,
+            0, 4, 0,
+            0, 0, 0
+        };
+        List<double[]> lines = MarchingSquares.trace(values, 3, 3, 2);
+
+        assertEquals(1, lines.size());
+        double[] line = lines.getFirst();
+        assertEquals(5, line.length / 2, "A closed line around one point should cross its 4 edges and end at its first point.");
+        assertEquals(line[0], line[line.length - 2], 1e-9);
+        assertEquals(line[1], line[line.length - 1], 1e-9);
+
+        // Crossings are interpolated halfway between the peak and its neighbours.
+        for (int i = 0; i < line.length; i += 2) {
+            assertEquals(0.5, Math.abs(line[i] - 1) + Math.abs(line[i + 1] - 1), 1e-9);
+        }
+    }
+
+    @Test
+    public void testLinesEndAtMissingValues() {
+        double[] values = {
+            0, 1, 2, 3,
+            0, 1, 2, Double.NaN
+        };
+        List<double[]> lines = MarchingSquares.trace(values, 4, 2, 1.5);
+
+        assertEquals(1, lines.size());
+        assertArrayEquals(new double[] { 1.5, 0, 1.5, 1 }, lines.getFirst(), 1e-9, "The line should cross between columns 1 and 2 only.");
+        assertTrue(MarchingSquares.trace(values, 4, 2, 2.5).isEmpty(), "Squares with a missing corner should have no contour.");
+    }
+
+    @Test
+    public void testSaddleIsResolvedByCentre() {
+        double[] values = {
+            1, 0,
+            0, 1
+        };
+        assertEquals(2, MarchingSquares.trace(values, 2, 2, 0.6).size(), "Centre below the level should separate the high corners.");
+        assertEquals(2, MarchingSquares.trace(values, 2, 2, 0.4).size(), "Centre above the level should separate the low corners.");
+    }
+
+    @Test
+    public void testSimplifyRemovesStraightRuns() {
+        double[] line = { 0, 0, 1, 0.01, 2, 0, 3, 0, 3, 1, 3, 2 };
+        double[] simplified = DouglasPeucker.simplify(line, 0.1);
+
+        assertArrayEquals(new double[] { 0, 0, 3, 0, 3, 2 }, simplified, 1e-9);
+        assertArrayEquals(new double[] { 0, 0, 1, 0.01, 2, 0, 3, 0, 3, 2 }, DouglasPeucker.simplify(line, 0.001), 1e-9,
+            "Points further than the tolerance should be kept, and points on the line removed.");
+    }
+
+    @Test
+    public void testSimplifyKeepsClosedLines() {
+        double[] square = { 0, 0, 1, 0, 2, 0, 2, 2, 0, 2, 0, 0 };
+        double[] simplified = DouglasPeucker.simplify(square, 0.1);
+
+        assertEquals(5, simplified.length / 2, "The corners of a closed line should be kept.");
+        assertEquals(0, simplified[0]);
+        assertEquals(0, simplified[simplified.length - 2]);
+    }
+}
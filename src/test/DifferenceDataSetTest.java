@@ -0,0 +1,93 @@
+package test;
+
+import dataProcessing.DataPoint;
+import dataProcessing.DataSet;
+import dataProcessing.DifferenceDataSet;
+import dataProcessing.DifferenceType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the DifferenceDataSet class.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class DifferenceDataSetTest {
+    private DataSet base;
+    private DataSet compared;
+
+    @BeforeEach
+    public void setUp() {
+        // The compared dataset is offset by one cell, so the grids only partly overlap.
+        base = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        addCell(base, 0, 0, "10");
+        addCell(base, 1, 0, "20");
+        addCell(base, 2, 0, "0");
+        addCell(base, 3, 0, "5"); // Missing in the compared dataset.
+        addCell(base, 1, 1, "-1"); // Invalid in the base dataset.
+
+        compared = new DataSet("NO2", "2019", "Annual Mean", "ug/m3");
+        addCell(compared, 0, 0, "15");
+        addCell(compared, 1, 0, "12");
+        addCell(compared, 2, 0, "4");
+        addCell(compared, 1, 1, "8");
+        addCell(compared, 4, 2, "7"); // Outside the base dataset's grid.
+    }
+
+    private static void addCell(DataSet dataSet, int x, int y, String value) {
+        dataSet.addData(new String[] { Integer.toString(y * 10 + x), Integer.toString(x * 1000 + 500), Integer.toString(y * 1000 + 500), value });
+    }
+
+    @Test
+    public void testAbsoluteChange() {
+        DifferenceDataSet difference = new DifferenceDataSet(base, compared, DifferenceType.ABSOLUTE);
+
+        assertEquals(3, difference.getData().size(), "Only cells with valid values in both datasets should have a change.");
+        assertEquals(5, difference.getDataPoint(500, 500).value(), 1e-9);
+        assertEquals(-8, difference.getDataPoint(1500, 500).value(), 1e-9);
+        assertEquals(4, difference.getDataPoint(2500, 500).value(), 1e-9);
+        assertEquals(1, difference.getDataPoint(1500, 500).gridCode());
+        assertNull(difference.getDataPoint(3500, 500));
+        assertNull(difference.getDataPoint(1500, 1500));
+
+        assertEquals(8, difference.getMaxChangeMagnitude(), 1e-9);
+        assertEquals("2018-2019", difference.getYear());
+        assertEquals("ug/m3", difference.getUnits());
+    }
+
+    @Test
+    public void testPercentageChange() {
+        DifferenceDataSet difference = new DifferenceDataSet(base, compared, DifferenceType.PERCENTAGE);
+
+        assertEquals(50, difference.getDataPoint(500, 500).value(), 1e-9);
+        assertEquals(-40, difference.getDataPoint(1500, 500).value(), 1e-9);
+        assertNull(difference.getDataPoint(2500, 500), "A percentage change from 0 is undefined.");
+        assertEquals("%", difference.getUnits());
+    }
+
+    @Test
+    public void testNegativeChangesAreValid() {
+        DifferenceDataSet difference = new DifferenceDataSet(base, compared, DifferenceType.ABSOLUTE);
+
+        assertTrue(difference.hasSignedValues());
+        assertTrue(difference.isValidValue(-8));
+        assertFalse(difference.isValidValue(Double.NaN));
+        assertEquals(3, difference.getOccupancyMask().getCellCount(), "Negative changes should be in the occupancy mask.");
+        assertEquals(difference.getData().stream().mapToDouble(DataPoint::value).min().orElse(0), -8, 1e-9);
+    }
+
+    @Test
+    public void testBaseAndComparedValues() {
+        DifferenceDataSet difference = new DifferenceDataSet(base, compared, DifferenceType.ABSOLUTE);
+
+        assertEquals(20, difference.getBaseValue(1500, 500), 1e-9);
+        assertEquals(12, difference.getComparedValue(1200, 900), 1e-9, "Any position in a cell should find its values.");
+        assertEquals(5, difference.getBaseValue(3500, 500), 1e-9);
+        assertTrue(Double.isNaN(difference.getComparedValue(3500, 500)));
+        assertEquals(7, difference.getComparedValue(4500, 2500), 1e-9);
+        assertTrue(Double.isNaN(difference.getBaseValue(-5000, 500)), "Positions outside both grids have no values.");
+    }
+}
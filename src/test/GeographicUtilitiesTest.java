@@ -0,0 +1,63 @@
+package test;
+
+import com.gluonhq.maps.MapPoint;
+
+import utility.GeographicUtilities;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the approximate OSGB transforms: their maximum error against the exact transforms
+ * across the national grid, and falling back to the exact transforms outside it.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class GeographicUtilitiesTest {
+    private final static int SAMPLES = 200_000;
+    private final static double MAX_TO_LAT_LON_ERROR = 1.0; // The documented error bounds in meters.
+    private final static double MAX_TO_EASTING_NORTHING_ERROR = 0.5;
+
+    @Test
+    public void testMaximumErrorAcrossNationalGrid() {
+        Random random = new Random(42);
+        double[] latitudeLongitude = new double[2];
+        double[] eastingNorthing = new double[2];
+        double maxToLatLonError = 0;
+        double maxToEastingNorthingError = 0;
+
+        for (int i = 0; i < SAMPLES; i++) {
+            int easting = random.nextInt(700001);
+            int northing = random.nextInt(1300001);
+            MapPoint exact = GeographicUtilities.convertEastingNorthingToLatLon(easting, northing);
+
+            GeographicUtilities.approximateEastingNorthingToLatLon(easting, northing, latitudeLongitude);
+            double error = GeographicUtilities.geodesicDistance(exact, new MapPoint(latitudeLongitude[0], latitudeLongitude[1]));
+            maxToLatLonError = Math.max(maxToLatLonError, error);
+
+            // The exact transforms are inverses of each other to well below a millimetre.
+            GeographicUtilities.approximateLatLonToEastingNorthing(exact.getLatitude(), exact.getLongitude(), eastingNorthing);
+            error = Math.hypot(eastingNorthing[0] - easting, eastingNorthing[1] - northing);
+            maxToEastingNorthingError = Math.max(maxToEastingNorthingError, error);
+        }
+
+        assertTrue(maxToLatLonError < MAX_TO_LAT_LON_ERROR);
+        assertTrue(maxToEastingNorthingError < MAX_TO_EASTING_NORTHING_ERROR);
+    }
+
+    @Test
+    public void testOutsideGridUsesExactTransform() {
+        MapPoint newYork = new MapPoint(40.7128, -74.0060);
+        int[] exact = GeographicUtilities.convertLatLonToEastingNorthing(newYork);
+        assertArrayEquals(exact, GeographicUtilities.approximateLatLonToEastingNorthing(newYork));
+
+        double[] latitudeLongitude = new double[2];
+        GeographicUtilities.approximateEastingNorthingToLatLon(-200000, 100000, latitudeLongitude);
+        MapPoint exactPoint = GeographicUtilities.convertEastingNorthingToLatLon(-200000, 100000);
+        assertEquals(exactPoint.getLatitude(), latitudeLongitude[0], 0);
+        assertEquals(exactPoint.getLongitude(), latitudeLongitude[1], 0);
+    }
+}
@@ -0,0 +1,90 @@
+package test;
+
+import com.gluonhq.maps.MapPoint;
+
+import dataProcessing.DataSet;
+import pollutionLayer.PolygonBuffer;
+import pollutionLayer.PollutionPolygonManager;
+import utility.GeographicUtilities;
+import utility.GridVertexLattice;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the shared grid vertex lattice: that its vertices match converting each corner exactly,
+ * and that each block of vertices is only converted once however many polygons share it.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class GridVertexLatticeTest {
+    private final static int GRID_LENGTH = 200; // The synthetic grid is GRID_LENGTH x GRID_LENGTH km.
+
+    @Test
+    public void testVerticesMatchExactConversion() {
+        GridVertexLattice lattice = new GridVertexLattice();
+        int[][] vertices = { { 0, 0 }, { 530000, 180000 }, { 63000, 64000 }, { 64000, 63000 }, { 700000, 1300000 }, { 325000, 673000 } };
+        for (int[] vertex : vertices) {
+            assertTrue(GridVertexLattice.isVertex(vertex[0], vertex[1]));
+            MapPoint expected = GeographicUtilities.convertEastingNorthingToLatLon(vertex[0], vertex[1]);
+            MapPoint actual = new MapPoint(lattice.getLatitude(vertex[0], vertex[1]), lattice.getLongitude(vertex[0], vertex[1]));
+            assertTrue(GeographicUtilities.geodesicDistance(expected, actual) < 1, "Vertex " + vertex[0] + ", " + vertex[1] + " should be within 1 m.");
+        }
+
+        assertFalse(GridVertexLattice.isVertex(530500, 180000), "Positions off the 1 km lattice are not vertices.");
+        assertFalse(GridVertexLattice.isVertex(-1000, 180000), "Positions outside the national grid are not vertices.");
+    }
+
+    @Test
+    public void testOnlyBlocksWithSquaresAreConverted() {
+        GridVertexLattice lattice = new GridVertexLattice();
+        lattice.prepareSquares(new int[] { 10000, 127000 }, new int[] { 10000, 10000 }, 1000);
+        assertEquals(3, lattice.getConvertedBlockCount(), "A square crossing a block edge needs both blocks.");
+
+        lattice.prepareSquares(new int[] { 10000 }, new int[] { 10000 }, 1000);
+        assertEquals(3, lattice.getConvertedBlockCount(), "Converted blocks are reused.");
+        assertEquals(3L * 64 * 64, lattice.getConversionCount());
+    }
+
+    /**
+     * Checks that the polygons of a large grid convert each lattice block they touch once, and that
+     * polygons built again for another dataset sharing the lattice have the same corners.
+     */
+    @Test
+    public void testLargeGridConvertsEachBlockOnce() {
+        int[] minEastings = new int[GRID_LENGTH * GRID_LENGTH];
+        int[] minNorthings = new int[GRID_LENGTH * GRID_LENGTH];
+        DataSet dataSet = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        for (int i = 0; i < GRID_LENGTH * GRID_LENGTH; i++) {
+            int easting = 300000 + (i % GRID_LENGTH) * 1000;
+            int northing = 100000 + (i / GRID_LENGTH) * 1000;
+            minEastings[i] = easting;
+            minNorthings[i] = northing;
+            dataSet.addData(new String[] { Integer.toString(i), Integer.toString(easting + 500), Integer.toString(northing + 500), Integer.toString(i % 97) });
+        }
+
+        // Vertices from 300 to 500 km east are in block columns 4 to 7, and from 100 to 300 km north in block rows 1 to 4.
+        GridVertexLattice lattice = new GridVertexLattice();
+        lattice.prepareSquares(minEastings, minNorthings, 1000);
+        assertEquals(16, lattice.getConvertedBlockCount());
+        assertEquals(16L * 64 * 64, lattice.getConversionCount());
+
+        lattice.prepareSquares(minEastings, minNorthings, 1000);
+        assertEquals(16L * 64 * 64, lattice.getConversionCount(), "Converted blocks should not be converted again.");
+
+        PollutionPolygonManager firstManager = new PollutionPolygonManager(dataSet);
+        PollutionPolygonManager secondManager = new PollutionPolygonManager(dataSet);
+        firstManager.updatePollutionPolygons(0);
+        secondManager.updatePollutionPolygons(0);
+
+        PolygonBuffer first = firstManager.getPolygons();
+        PolygonBuffer polygons = secondManager.getPolygons();
+        assertEquals(GRID_LENGTH * GRID_LENGTH, polygons.getCount());
+        assertEquals(GeographicUtilities.convertEastingNorthingToLatLon(300000, 100000).getLatitude(), polygons.getCornerLatitude(0, 0), 1e-5);
+        for (int i = 0; i < polygons.getCount(); i += 997) {
+            assertEquals(first.getCornerLatitude(i, 2), polygons.getCornerLatitude(i, 2), 0, "Polygons sharing the lattice should have the same corners.");
+            assertEquals(first.getCornerLongitude(i, 2), polygons.getCornerLongitude(i, 2), 0);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package test;
+
+import com.gluonhq.maps.MapPoint;
+
+import dataProcessing.DataSet;
+import dataProcessing.Pollutant;
+import pollutionLayer.HoverInspector;
+import pollutionLayer.PollutionPolygonManager;
+import pollutionLayer.ScreenGridMapping;
+import pollutionLayer.ScreenProjection;
+import utility.GeographicUtilities;
+import utility.WebMercator;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the hover readout lookup: the accuracy of the interpolated screen to grid mapping,
+ * and that mouse move events find cell changes without allocating.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class HoverInspectorTest {
+    private final static double VIEW_WIDTH = 1280;
+    private final static double VIEW_HEIGHT = 720;
+    private final static MapPoint LONDON = new MapPoint(51.508045, -0.128217);
+    private final static int SWEEP_EVENTS = 1_000_000;
+
+    private static PollutionPolygonManager polygonManager;
+
+    @BeforeAll
+    public static void setUp() {
+        // An 80 x 80 km synthetic grid around London.
+        DataSet dataSet = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        int gridCode = 0;
+        for (int northing = 140500; northing < 220500; northing += 1000) {
+            for (int easting = 490500; easting < 570500; easting += 1000) {
+                String value = Integer.toString(gridCode % 50);
+                dataSet.addData(new String[] { Integer.toString(gridCode++), Integer.toString(easting), Integer.toString(northing), value });
+            }
+        }
+        polygonManager = new PollutionPolygonManager(dataSet);
+        polygonManager.updatePollutionPolygons(0);
+    }
+
+    /**
+     * @return A projection of the map centred on London at a zoom level.
+     */
+    private static ScreenProjection createProjection(double zoom) {
+        double scale = WebMercator.getWorldSize(zoom);
+        double translateX = VIEW_WIDTH / 2 - WebMercator.toNormalisedX(LONDON.getLongitude()) * scale;
+        double translateY = VIEW_HEIGHT / 2 - WebMercator.toNormalisedY(LONDON.getLatitude()) * scale;
+
+        ScreenProjection projection = new ScreenProjection();
+        projection.update(zoom, translateX, translateY);
+        return projection;
+    }
+
+    @Test
+    public void testMappingMatchesExactTransform() {
+        Random random = new Random(38);
+        for (double zoom : new double[] { 8, 11, 14 }) {
+            ScreenProjection projection = createProjection(zoom);
+            ScreenGridMapping mapping = new ScreenGridMapping();
+
+            for (int i = 0; i < 500; i++) {
+                double x = random.nextDouble() * VIEW_WIDTH;
+                double y = random.nextDouble() * VIEW_HEIGHT;
+                mapping.locate(projection, VIEW_WIDTH, VIEW_HEIGHT, x, y);
+
+                MapPoint mapPoint = new MapPoint(
+                    WebMercator.toLatitude(projection.toNormalisedY(y)),
+                    WebMercator.toLongitude(projection.toNormalisedX(x)));
+                int[] exact = GeographicUtilities.convertLatLonToEastingNorthing(mapPoint);
+
+                assertEquals(exact[0], mapping.getEasting(), 25, "Easting is too far from the exact transform at zoom " + zoom);
+                assertEquals(exact[1], mapping.getNorthing(), 25, "Northing is too far from the exact transform at zoom " + zoom);
+            }
+        }
+    }
+
+    @Test
+    public void testInspectFindsHoveredCell() {
+        HoverInspector inspector = new HoverInspector(polygonManager, Pollutant.NO2);
+        ScreenProjection projection = createProjection(12);
+
+        assertTrue(inspector.inspect(projection, VIEW_WIDTH, VIEW_HEIGHT, VIEW_WIDTH / 2, VIEW_HEIGHT / 2));
+        assertTrue(inspector.hasCell());
+        assertFalse(inspector.inspect(projection, VIEW_WIDTH, VIEW_HEIGHT, VIEW_WIDTH / 2, VIEW_HEIGHT / 2), "The same cell should not report a change.");
+
+        int[] centre = GeographicUtilities.convertLatLonToEastingNorthing(LONDON);
+        assertEquals(Math.floorDiv(centre[0], 1000) * 1000 + 500, inspector.getCellEasting());
+        assertEquals(Math.floorDiv(centre[1], 1000) * 1000 + 500, inspector.getCellNorthing());
+    }
+
+    /**
+     * Sweeps the pointer across the view, checking that cell changes are found and that lookups do not allocate.
+     */
+    @Test
+    public void testPerEventAllocation() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        HoverInspector inspector = new HoverInspector(polygonManager, Pollutant.NO2);
+        ScreenProjection projection = createProjection(11);
+
+        int warmUpChanges = sweep(inspector, projection, SWEEP_EVENTS); // Warm up.
+
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        int changes = sweep(inspector, projection, SWEEP_EVENTS);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(changes > 1000, "Sweeping across the view should move between many cells.");
+        assertTrue(changes < SWEEP_EVENTS, "Moves within the same cell should not report a change.");
+        assertEquals(warmUpChanges, changes, "The same sweep should find the same cell changes.");
+        assertTrue(allocated < 1024, "Hover lookups should not allocate.");
+    }
+
+    private int sweep(HoverInspector inspector, ScreenProjection projection, int events) {
+        int changes = 0;
+        for (int i = 0; i < events; i++) {
+            double x = (i * 7.31) % VIEW_WIDTH;
+            double y = (i * 0.013) % VIEW_HEIGHT;
+            if (inspector.inspect(projection, VIEW_WIDTH, VIEW_HEIGHT, x, y)) changes++;
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,104 @@
+package test;
+
+import dataProcessing.DataPoint;
+import dataProcessing.DataSet;
+import lod.AggregationChannel;
+import lod.LODData;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the aggregation channels of LODData, using a small synthetic grid.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class LODAggregationTest {
+    private final static double EPSILON = 1e-9;
+    private final static int GRID_LENGTH = 4; // The synthetic grid is GRID_LENGTH x GRID_LENGTH km.
+
+    private DataSet dataSet;
+
+    @BeforeEach
+    public void setUp() {
+        // Values 1 to 16 on a 4x4 km grid, with the cell at (3500, 2500) missing.
+        dataSet = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        int value = 1;
+        for (int y = 0; y < GRID_LENGTH; y++) {
+            for (int x = 0; x < GRID_LENGTH; x++) {
+                String cellValue = (x == 3 && y == 2) ? "MISSING" : Integer.toString(value);
+                dataSet.addData(new String[] { Integer.toString(value), Integer.toString(x * 1000 + 500), Integer.toString(y * 1000 + 500), cellValue });
+                value++;
+            }
+        }
+    }
+
+    @Test
+    public void testFullResolutionChannelsMatchData() {
+        LODData lodData = new LODData(1, dataSet);
+        assertEquals(GRID_LENGTH * GRID_LENGTH - 1, lodData.getData().size(), "Every valid data point should have a cell.");
+
+        for (int i = 0; i < lodData.getData().size(); i++) {
+            double value = lodData.getData().get(i).value();
+            assertEquals(value, lodData.getValue(i, AggregationChannel.MAX), EPSILON);
+            assertEquals(value, lodData.getValue(i, AggregationChannel.MIN), EPSILON);
+            assertEquals(value, lodData.getValue(i, AggregationChannel.P95), EPSILON);
+            assertEquals(1, lodData.getValue(i, AggregationChannel.COUNT), EPSILON);
+        }
+    }
+
+    @Test
+    public void testCoarseChannels() {
+        LODData lodData = new LODData(2, dataSet);
+        assertEquals(4, lodData.getData().size(), "A 4x4 km grid should produce four 2 km cells.");
+
+        for (int i = 0; i < lodData.getData().size(); i++) {
+            DataPoint cell = lodData.getData().get(i);
+            assertEquals(cell.value(), lodData.getValue(i, AggregationChannel.MEAN), EPSILON, "getData() should hold the mean channel.");
+
+            if (cell.x() == 2500 && cell.y() == 2500) {
+                // Values 11, 12, 15 and 16, with 12 missing.
+                assertEquals((11 + 15 + 16) / 3.0, lodData.getValue(i, AggregationChannel.MEAN), EPSILON);
+                assertEquals(16, lodData.getValue(i, AggregationChannel.MAX), EPSILON);
+                assertEquals(11, lodData.getValue(i, AggregationChannel.MIN), EPSILON);
+                assertEquals(3, lodData.getValue(i, AggregationChannel.COUNT), EPSILON);
+                assertEquals(16, lodData.getValue(i, AggregationChannel.P95), EPSILON);
+            }
+
+            if (cell.x() == 500 && cell.y() == 500) {
+                // Values 1, 2, 5 and 6.
+                assertEquals(3.5, lodData.getValue(i, AggregationChannel.MEAN), EPSILON);
+                assertEquals(6, lodData.getValue(i, AggregationChannel.MAX), EPSILON);
+                assertEquals(1, lodData.getValue(i, AggregationChannel.MIN), EPSILON);
+                assertEquals(4, lodData.getValue(i, AggregationChannel.COUNT), EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void testCellsWithMissingTopLeftAreSkipped() {
+        dataSet.addData(new String[] { "1", "500", "500", "MISSING" });
+
+        LODData lodData = new LODData(2, dataSet);
+        assertEquals(3, lodData.getData().size(), "The cell whose top left data point is missing should be skipped.");
+        for (DataPoint cell : lodData.getData()) {
+            assertFalse(cell.x() == 500 && cell.y() == 500, "The cell whose top left data point is missing should be skipped.");
+        }
+    }
+
+    @Test
+    public void testPercentile() {
+        // A single 20 km cell holding the values 1 to 400.
+        DataSet largeDataSet = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        for (int i = 0; i < 400; i++) {
+            largeDataSet.addData(new String[] { Integer.toString(i), Integer.toString((i % 20) * 1000 + 500), Integer.toString((i / 20) * 1000 + 500), Integer.toString(i + 1) });
+        }
+
+        LODData lodData = new LODData(20, largeDataSet);
+        assertEquals(1, lodData.getData().size());
+        assertEquals(380, lodData.getValue(0, AggregationChannel.P95), EPSILON, "Nearest-rank 95th percentile of 1 to 400 should be 380.");
+        assertEquals(400, lodData.getValue(0, AggregationChannel.COUNT), EPSILON);
+    }
+}
@@ -0,0 +1,112 @@
+package test;
+
+import dataProcessing.DataSet;
+import dataProcessing.OccupancyMask;
+import lod.LODData;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the OccupancyMask class and its use in LODData.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class OccupancyMaskTest {
+    private OccupancyMask mask;
+
+    @BeforeEach
+    public void setUp() {
+        // Row 0: columns 0-2 and 5. Row 1: empty. Row 2: column 9.
+        mask = new OccupancyMask(500, 500, 1000, 10, 3);
+        mask.set(0, 0);
+        mask.set(1, 0);
+        mask.set(2, 0);
+        mask.set(5, 0);
+        mask.set(9, 2);
+        mask.compileRuns();
+    }
+
+    @Test
+    public void testContains() {
+        assertTrue(mask.contains(1, 0));
+        assertFalse(mask.contains(3, 0));
+        assertFalse(mask.contains(0, 1));
+        assertTrue(mask.contains(9, 2));
+        assertFalse(mask.contains(-1, 0), "Cells outside the grid should not be occupied.");
+        assertFalse(mask.contains(10, 2), "Cells outside the grid should not be occupied.");
+    }
+
+    @Test
+    public void testRuns() {
+        assertEquals(3, mask.getRunCount());
+        assertEquals(5, mask.getCellCount());
+
+        assertEquals(2, mask.getRowRunsEnd(0) - mask.getRowRunsStart(0), "Row 0 should have two runs.");
+        assertEquals(0, mask.getRowRunsEnd(1) - mask.getRowRunsStart(1), "Row 1 should have no runs.");
+
+        int secondRun = mask.getRowRunsStart(0) + 1;
+        assertEquals(5, mask.getRunStartColumn(secondRun));
+        assertEquals(1, mask.getRunLength(secondRun));
+        assertEquals(3, mask.getRunFirstCell(secondRun));
+    }
+
+    @Test
+    public void testCellIndex() {
+        assertEquals(0, mask.getCellIndex(0, 0));
+        assertEquals(2, mask.getCellIndex(2, 0));
+        assertEquals(3, mask.getCellIndex(5, 0));
+        assertEquals(4, mask.getCellIndex(9, 2));
+        assertEquals(-1, mask.getCellIndex(4, 0));
+    }
+
+    @Test
+    public void testCoordinates() {
+        assertEquals(2, mask.getColumn(2500));
+        assertEquals(2, mask.getColumn(2999));
+        assertEquals(-1, mask.getColumn(-100));
+        assertEquals(5500, mask.getEasting(5));
+        assertEquals(2500, mask.getNorthing(2));
+    }
+
+    @Test
+    public void testSameCells() {
+        OccupancyMask same = new OccupancyMask(500, 500, 1000, 10, 3);
+        for (int column : new int[] { 0, 1, 2, 5 }) same.set(column, 0);
+        same.set(9, 2);
+        same.compileRuns();
+        assertTrue(mask.hasSameCells(same));
+
+        same.set(4, 1);
+        assertFalse(mask.hasSameCells(same), "Masks with different occupied cells should not match.");
+
+        OccupancyMask shifted = new OccupancyMask(1500, 500, 1000, 10, 3);
+        for (int column : new int[] { 0, 1, 2, 5 }) shifted.set(column, 0);
+        shifted.set(9, 2);
+        shifted.compileRuns();
+        assertFalse(mask.hasSameCells(shifted), "Masks on different grids should not match.");
+    }
+
+    @Test
+    public void testLODMaskMatchesData() {
+        DataSet dataSet = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 6; x++) {
+                String value = (x + y) % 4 == 0 ? "MISSING" : Integer.toString(x + y);
+                dataSet.addData(new String[] { "0", Integer.toString(x * 1000 + 500), Integer.toString(y * 1000 + 500), value });
+            }
+        }
+
+        LODData lodData = new LODData(2, dataSet);
+        OccupancyMask lodMask = lodData.getOccupancyMask();
+        assertEquals(lodData.getData().size(), lodMask.getCellCount(), "The mask should have one cell per LOD data point.");
+
+        for (int i = 0; i < lodData.getData().size(); i++) {
+            int column = lodMask.getColumn(lodData.getData().get(i).x());
+            int row = lodMask.getRow(lodData.getData().get(i).y());
+            assertEquals(i, lodMask.getCellIndex(column, row), "LOD data should be in the mask's cell order.");
+        }
+    }
+}
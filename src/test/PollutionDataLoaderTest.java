@@ -0,0 +1,94 @@
+package test;
+
+import dataProcessing.DataSet;
+import pollutionLayer.PollutionDataLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the PollutionDataLoader class.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class PollutionDataLoaderTest {
+    private final static long TIMEOUT_SECONDS = 10;
+
+    private final LinkedBlockingQueue<Runnable> results = new LinkedBlockingQueue<>(); // Callbacks, run on the test thread.
+    private final PollutionDataLoader loader = new PollutionDataLoader(results::add);
+
+    /**
+     * @return A small dataset of the given year.
+     */
+    private static DataSet createDataSet(String year) {
+        DataSet dataSet = new DataSet("NO2", year, "Annual Mean", "ug/m3");
+        for (int x = 0; x < 3; x++) {
+            dataSet.addData(new String[] { Integer.toString(x), Integer.toString(530500 + x * 1000), "180500", "10" });
+        }
+        return dataSet;
+    }
+
+    /**
+     * Runs the next callback delivered by the loader on the test thread.
+     */
+    private void runNextResult() throws InterruptedException {
+        Runnable result = results.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(result, "The load should be delivered.");
+        result.run();
+    }
+
+    @Test
+    public void testDeliversDataSetWithLODs() throws InterruptedException {
+        List<PollutionDataLoader.LoadedData> loaded = new ArrayList<>();
+        loader.load(() -> createDataSet("2018"), loaded::add, e -> fail(e));
+        assertTrue(loader.isLoading());
+
+        runNextResult();
+        assertEquals(1, loaded.size());
+        assertEquals("2018", loaded.get(0).dataSet().getYear());
+        assertEquals(3, loaded.get(0).lodManager().getLODData(0).getData().size());
+        assertFalse(loader.isLoading());
+    }
+
+    @Test
+    public void testOnlyLatestLoadIsDelivered() throws InterruptedException {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        List<String> loadedYears = new ArrayList<>();
+
+        loader.load(() -> {
+            firstStarted.countDown();
+            try {
+                releaseFirst.await(TIMEOUT_SECONDS, TimeUnit.SECONDS); // Still reading when the next year is picked.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return createDataSet("2018");
+        }, data -> loadedYears.add(data.dataSet().getYear()), e -> fail(e));
+        assertTrue(firstStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        loader.load(() -> createDataSet("2019"), data -> loadedYears.add(data.dataSet().getYear()), e -> fail(e));
+        releaseFirst.countDown();
+
+        runNextResult();
+        assertEquals(List.of("2019"), loadedYears, "The superseded load should not be delivered.");
+        assertNull(results.poll(100, TimeUnit.MILLISECONDS), "Nothing else should be delivered.");
+    }
+
+    @Test
+    public void testFailureIsDelivered() throws InterruptedException {
+        List<RuntimeException> failures = new ArrayList<>();
+        loader.load(() -> { throw new IllegalArgumentException("Year 1900 is not available"); }, data -> fail("Nothing should load."), failures::add);
+
+        runNextResult();
+        assertEquals(1, failures.size());
+        assertFalse(loader.isLoading());
+    }
+}
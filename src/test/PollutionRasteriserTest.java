@@ -0,0 +1,109 @@
+package test;
+
+import pollutionLayer.PollutionRasteriser;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the PollutionRasteriser class, checking that a panned frame built by shifting the
+ * previous frame matches a frame rendered from scratch.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class PollutionRasteriserTest {
+    private final static int WIDTH = 64;
+    private final static int HEIGHT = 48;
+    private final static double SQUARE_SIZE = 7.3; // Not a whole number, so edges fall between pixels.
+
+    /**
+     * Fills a grid of squares with distinct colours, offset by the map translation.
+     */
+    private void renderSquares(PollutionRasteriser rasteriser, int translateX, int translateY) {
+        for (int row = -20; row < 20; row++) {
+            for (int column = -20; column < 20; column++) {
+                double x = column * SQUARE_SIZE + translateX;
+                double y = row * SQUARE_SIZE + translateY;
+                double[] points = { x, y, x + SQUARE_SIZE, y, x + SQUARE_SIZE, y + SQUARE_SIZE, x, y + SQUARE_SIZE };
+                rasteriser.fillConvexPolygon(points, 0, 4, 0xFF000000 | ((row + 20) << 8) | (column + 20));
+            }
+        }
+    }
+
+    private void assertSamePixels(PollutionRasteriser expected, PollutionRasteriser actual) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(expected.getPixel(x, y), actual.getPixel(x, y), "Pixel (" + x + ", " + y + ") differs.");
+            }
+        }
+    }
+
+    @Test
+    public void testShiftedFrameMatchesFullRender() {
+        int[][] pans = { {5, 0}, {0, -3}, {-11, 7}, {13, 13}, {-1, -1} };
+        for (int[] pan : pans) {
+            int dx = pan[0], dy = pan[1];
+
+            PollutionRasteriser panned = new PollutionRasteriser();
+            panned.resize(WIDTH, HEIGHT);
+            renderSquares(panned, 3, 2);
+            panned.shift(dx, dy);
+
+            // Re-render only the exposed strips.
+            int[][] strips = {
+                dx > 0 ? new int[] {0, 0, dx, HEIGHT} : new int[] {WIDTH + dx, 0, WIDTH, HEIGHT},
+                dy > 0 ? new int[] {0, 0, WIDTH, dy} : new int[] {0, HEIGHT + dy, WIDTH, HEIGHT}
+            };
+            for (int[] strip : strips) {
+                panned.setClip(strip[0], strip[1], strip[2], strip[3]);
+                renderSquares(panned, 3 + dx, 2 + dy);
+            }
+            panned.resetClip();
+
+            PollutionRasteriser full = new PollutionRasteriser();
+            full.resize(WIDTH, HEIGHT);
+            renderSquares(full, 3 + dx, 2 + dy);
+
+            assertSamePixels(full, panned);
+        }
+    }
+
+    @Test
+    public void testShiftClearsExposedPixels() {
+        PollutionRasteriser rasteriser = new PollutionRasteriser();
+        rasteriser.resize(WIDTH, HEIGHT);
+        renderSquares(rasteriser, 0, 0);
+        rasteriser.shift(4, -2);
+
+        assertEquals(0, rasteriser.getPixel(3, 10), "Exposed columns should be transparent.");
+        assertEquals(0, rasteriser.getPixel(30, HEIGHT - 1), "Exposed rows should be transparent.");
+        assertNotEquals(0, rasteriser.getPixel(4, 10), "Kept pixels should not be cleared.");
+    }
+
+    @Test
+    public void testShiftFurtherThanBufferClearsEverything() {
+        PollutionRasteriser rasteriser = new PollutionRasteriser();
+        rasteriser.resize(WIDTH, HEIGHT);
+        renderSquares(rasteriser, 0, 0);
+        rasteriser.shift(WIDTH, 0);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(0, rasteriser.getPixel(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testClipRestrictsFills() {
+        PollutionRasteriser rasteriser = new PollutionRasteriser();
+        rasteriser.resize(WIDTH, HEIGHT);
+        rasteriser.setClip(10, 10, 20, 20);
+        renderSquares(rasteriser, 0, 0);
+
+        assertNotEquals(0, rasteriser.getPixel(15, 15));
+        assertEquals(0, rasteriser.getPixel(9, 15), "Pixels left of the clip should not be filled.");
+        assertEquals(0, rasteriser.getPixel(15, 20), "Pixels below the clip should not be filled.");
+    }
+}
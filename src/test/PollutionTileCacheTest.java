@@ -0,0 +1,142 @@
+package test;
+
+import colors.DefaultColorScheme;
+import pollutionLayer.PollutionTileCache;
+import pollutionLayer.PollutionTileRenderer;
+import pollutionLayer.TileKey;
+
+import javafx.scene.image.WritableImage;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the PollutionTileCache class. Renders and their results are queued, so the test
+ * decides when each one runs.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class PollutionTileCacheTest {
+    private final static int TILE_LENGTH = 16;
+    private final static long TILE_BYTES = TILE_LENGTH * TILE_LENGTH * 4;
+
+    private final Queue<Runnable> renders = new ArrayDeque<>();
+    private final Queue<Runnable> results = new ArrayDeque<>();
+    private final PollutionTileCache cache = new PollutionTileCache(2 * TILE_BYTES, renders::add, results::add);
+    private final TestRenderer renderer = new TestRenderer();
+    private int renderedCallbacks = 0;
+
+    /**
+     * A renderer of blank tiles that counts its renders, and can fail a number of them first.
+     */
+    private static class TestRenderer extends PollutionTileRenderer {
+        private int renderCount = 0;
+        private int failuresLeft = 0;
+
+        private TestRenderer() {
+            super(null, new DefaultColorScheme(), 0, 1);
+        }
+
+        @Override
+        public WritableImage render(TileKey key) {
+            renderCount++;
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("Test failure.");
+            }
+            return new WritableImage(TILE_LENGTH, TILE_LENGTH);
+        }
+    }
+
+    private static TileKey createKey(double zoom, int tileX) {
+        return new TileKey("NO2 2018", "Default", zoom, 0, tileX, 0, 255);
+    }
+
+    private void request(TileKey key) {
+        cache.requestTile(key, renderer, () -> renderedCallbacks++);
+    }
+
+    /**
+     * Runs every queued render, then every queued result.
+     */
+    private void runQueued() {
+        while (!renders.isEmpty()) renders.poll().run();
+        while (!results.isEmpty()) results.poll().run();
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedWithinBudget() {
+        TileKey first = createKey(10, 0);
+        TileKey second = createKey(10, 1);
+        TileKey third = createKey(10, 2);
+
+        request(first);
+        request(second);
+        runQueued();
+        assertEquals(2 * TILE_BYTES, cache.getCachedBytes());
+
+        assertNotNull(cache.getTile(first)); // Mark the first tile as recently used.
+        request(third);
+        runQueued();
+
+        assertTrue(cache.containsTile(first));
+        assertFalse(cache.containsTile(second), "The least recently used tile should be evicted.");
+        assertTrue(cache.containsTile(third));
+        assertEquals(2 * TILE_BYTES, cache.getCachedBytes(), "The cache should stay within its budget.");
+        assertEquals(3, renderedCallbacks);
+    }
+
+    @Test
+    public void testSkipsStaleZoom() {
+        TileKey stale = createKey(10, 0);
+        TileKey latest = createKey(11, 0);
+
+        request(stale);
+        request(latest); // The map is zoomed before the first tile is rendered.
+        runQueued();
+
+        assertEquals(1, renderer.renderCount, "Tiles of an earlier zoom should not be rendered.");
+        assertFalse(cache.containsTile(stale));
+        assertTrue(cache.containsTile(latest));
+
+        // The skipped tile is no longer pending, so it is rendered if the map zooms back.
+        request(stale);
+        runQueued();
+        assertTrue(cache.containsTile(stale));
+    }
+
+    @Test
+    public void testDeduplicatesPendingTiles() {
+        TileKey key = createKey(10, 0);
+        request(key);
+        request(key);
+        assertEquals(1, renders.size(), "A pending tile should not be queued again.");
+
+        runQueued();
+        request(key);
+        assertTrue(renders.isEmpty(), "A cached tile should not be queued again.");
+        assertEquals(1, renderer.renderCount);
+        assertEquals(1, renderedCallbacks);
+    }
+
+    @Test
+    public void testFailedRenderIsRetried() {
+        TileKey key = createKey(10, 0);
+        renderer.failuresLeft = 1;
+        request(key);
+        runQueued();
+
+        assertFalse(cache.containsTile(key), "A failed tile should not be cached.");
+        assertEquals(0, renderedCallbacks);
+
+        request(key);
+        runQueued();
+        assertTrue(cache.containsTile(key), "A failed tile should be rendered again when next requested.");
+        assertEquals(2, renderer.renderCount);
+        assertEquals(1, renderedCallbacks);
+    }
+}
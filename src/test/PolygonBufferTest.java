@@ -0,0 +1,116 @@
+package test;
+
+import dataProcessing.DataSet;
+import lod.AggregationChannel;
+import pollutionLayer.PolygonBuffer;
+import pollutionLayer.PollutionPolygonManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the packed polygon buffers of the LODs, and reusing them between LOD switches.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class PolygonBufferTest {
+    private final static double EPSILON = 1e-9;
+    private final static int GRID_LENGTH = 4; // The synthetic grid is GRID_LENGTH x GRID_LENGTH km.
+
+    private PollutionPolygonManager polygonManager;
+
+    @BeforeEach
+    public void setUp() {
+        // Values 1 to 16 on a 4x4 km grid near London.
+        polygonManager = new PollutionPolygonManager(createDataSet("2018", 1));
+    }
+
+    /**
+     * @return A dataset on the synthetic grid, with values from the first value upwards in row-major order.
+     */
+    private static DataSet createDataSet(String year, int firstValue) {
+        DataSet dataSet = new DataSet("NO2", year, "Annual Mean", "ug/m3");
+        int value = firstValue;
+        for (int y = 0; y < GRID_LENGTH; y++) {
+            for (int x = 0; x < GRID_LENGTH; x++) {
+                dataSet.addData(new String[] { Integer.toString(value), Integer.toString(530500 + x * 1000), Integer.toString(180500 + y * 1000), Integer.toString(value) });
+                value++;
+            }
+        }
+        return dataSet;
+    }
+
+    @Test
+    public void testCornersAreShared() {
+        polygonManager.updatePollutionPolygons(0);
+        PolygonBuffer polygons = polygonManager.getPolygons();
+        assertEquals(GRID_LENGTH * GRID_LENGTH, polygons.getCount());
+
+        // Corners go south-west, south-east, north-east, north-west.
+        for (int i = 0; i < polygons.getCount(); i++) {
+            assertTrue(polygons.getCornerLongitude(i, 1) > polygons.getCornerLongitude(i, 0));
+            assertTrue(polygons.getCornerLatitude(i, 2) > polygons.getCornerLatitude(i, 1));
+            assertTrue(polygons.getCornerLongitude(i, 3) < polygons.getCornerLongitude(i, 2));
+        }
+
+        // Neighbouring polygons share their edge, and are projected consistently.
+        double[] west = new double[PolygonBuffer.COORDINATES];
+        double[] east = new double[PolygonBuffer.COORDINATES];
+        polygons.projectPoints(0, 1 << 20, 0, 0, west);
+        polygons.projectPoints(1, 1 << 20, 0, 0, east);
+        assertEquals(west[2], east[0], 1e-6, "The south-east corner of a cell is the south-west corner of the next.");
+        assertEquals(west[3], east[1], 1e-6);
+        assertTrue(west[5] < west[3], "Screen y grows southwards.");
+    }
+
+    @Test
+    public void testPolygonsAreReusedBetweenLODSwitches() {
+        polygonManager.updatePollutionPolygons(0);
+        PolygonBuffer fullResolution = polygonManager.getPolygons();
+        polygonManager.updatePollutionPolygons(1);
+        PolygonBuffer coarse = polygonManager.getPolygons();
+        assertNotSame(fullResolution, coarse);
+        assertEquals(4, coarse.getCount());
+
+        polygonManager.updatePollutionPolygons(0);
+        assertSame(fullResolution, polygonManager.getPolygons(), "Switching back should reuse the generated polygons.");
+        polygonManager.updatePollutionPolygons(1);
+
+        // A channel change gives the polygons new values, without changing the values renderers may hold.
+        polygonManager.setAggregationChannel(AggregationChannel.MAX);
+        PolygonBuffer coarseMax = polygonManager.getPolygons();
+        assertTrue(coarseMax.hasSameGeometry(coarse));
+        assertEquals(6, coarseMax.getValue(coarseMax.getPolygonAt(531000, 181000)), EPSILON);
+        assertEquals(3.5, coarse.getValue(coarse.getPolygonAt(531000, 181000)), EPSILON);
+
+        // A channel changed on another LOD is applied when switching back.
+        polygonManager.updatePollutionPolygons(0);
+        PolygonBuffer fullResolutionMax = polygonManager.getPolygons();
+        assertTrue(fullResolutionMax.hasSameGeometry(fullResolution), "Switching back should reuse the generated polygons.");
+        assertEquals(1, fullResolutionMax.getValue(0), EPSILON);
+        assertEquals(0, fullResolutionMax.getNormalisedValue(0), EPSILON);
+        assertEquals(1, fullResolutionMax.getNormalisedValue(fullResolutionMax.getCount() - 1), 1e-6);
+    }
+
+    @Test
+    public void testPolygonsAreReusedForDataSetOnSameCells() {
+        polygonManager.updatePollutionPolygons(0);
+        PolygonBuffer polygons = polygonManager.getPolygons();
+
+        assertTrue(polygonManager.setDataSet(createDataSet("2019", 101)));
+        PolygonBuffer reused = polygonManager.getPolygons();
+        assertTrue(reused.hasSameGeometry(polygons), "A dataset on the same cells should reuse the generated polygons.");
+        assertEquals(101, reused.getValue(0), EPSILON);
+        assertEquals(1, polygons.getValue(0), EPSILON, "Renderers holding the previous dataset's polygons should keep its values.");
+        assertEquals(116, polygonManager.getMaxValueMagnitude(), EPSILON);
+
+        // A dataset missing a cell has different polygons.
+        DataSet missingCell = createDataSet("2020", 1);
+        missingCell.addData(new String[] { "1", "530500", "180500", "MISSING" });
+        assertFalse(polygonManager.setDataSet(missingCell));
+        assertFalse(polygonManager.getPolygons().hasSameGeometry(polygons));
+        assertEquals(GRID_LENGTH * GRID_LENGTH - 1, polygonManager.getPolygons().getCount());
+    }
+}
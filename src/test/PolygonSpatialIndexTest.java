@@ -0,0 +1,154 @@
+package test;
+
+import dataProcessing.DataSet;
+import lod.LODData;
+import pollutionLayer.PolygonBuffer;
+import pollutionLayer.PolygonSpatialIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the PolygonSpatialIndex class: that bounds queries find the same polygons as testing
+ * the bounds of every polygon, and that views of the indexed polygons share the index.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class PolygonSpatialIndexTest {
+    private final static int GRID_LENGTH = 50; // The synthetic grid is GRID_LENGTH x GRID_LENGTH km, about 3 x 3 buckets.
+
+    private PolygonBuffer polygons;
+    private PolygonSpatialIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        polygons = new PolygonBuffer(new LODData(1, createDataSet(1)));
+        index = new PolygonSpatialIndex(polygons);
+    }
+
+    /**
+     * @return A dataset on the synthetic grid near London, with a hole in the middle, and values from the first value upwards.
+     */
+    private static DataSet createDataSet(int firstValue) {
+        DataSet dataSet = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        int value = firstValue;
+        for (int y = 0; y < GRID_LENGTH; y++) {
+            for (int x = 0; x < GRID_LENGTH; x++) {
+                if (Math.abs(x - 25) < 5 && Math.abs(y - 25) < 5) continue;
+                dataSet.addData(new String[] { Integer.toString(value), Integer.toString(510500 + x * 1000), Integer.toString(160500 + y * 1000), Integer.toString(value) });
+                value++;
+            }
+        }
+        return dataSet;
+    }
+
+    /**
+     * @return The polygons of the index overlapping the bounds, in the order the index visits them.
+     */
+    private static List<Integer> query(PolygonSpatialIndex index, double minLat, double maxLat, double minLon, double maxLon) {
+        List<Integer> found = new ArrayList<>();
+        index.forEachInBounds(minLat, maxLat, minLon, maxLon, found::add);
+        return found;
+    }
+
+    /**
+     * @return The polygons overlapping the bounds, by testing the corners of every polygon, in polygon order.
+     */
+    private List<Integer> bruteForce(double minLat, double maxLat, double minLon, double maxLon) {
+        List<Integer> found = new ArrayList<>();
+        for (int i = 0; i < polygons.getCount(); i++) {
+            double polygonMinLat = Double.POSITIVE_INFINITY, polygonMaxLat = Double.NEGATIVE_INFINITY;
+            double polygonMinLon = Double.POSITIVE_INFINITY, polygonMaxLon = Double.NEGATIVE_INFINITY;
+            for (int corner = 0; corner < PolygonBuffer.CORNERS; corner++) {
+                polygonMinLat = Math.min(polygonMinLat, polygons.getCornerLatitude(i, corner));
+                polygonMaxLat = Math.max(polygonMaxLat, polygons.getCornerLatitude(i, corner));
+                polygonMinLon = Math.min(polygonMinLon, polygons.getCornerLongitude(i, corner));
+                polygonMaxLon = Math.max(polygonMaxLon, polygons.getCornerLongitude(i, corner));
+            }
+            if (polygonMaxLat >= minLat && polygonMinLat <= maxLat && polygonMaxLon >= minLon && polygonMinLon <= maxLon) found.add(i);
+        }
+        return found;
+    }
+
+    private void assertMatchesBruteForce(double minLat, double maxLat, double minLon, double maxLon) {
+        List<Integer> found = query(index, minLat, maxLat, minLon, maxLon);
+        found.sort(null);
+        assertEquals(bruteForce(minLat, maxLat, minLon, maxLon), found,
+            "Query " + minLat + ", " + maxLat + ", " + minLon + ", " + maxLon + " should find each overlapping polygon once.");
+    }
+
+    @Test
+    public void testRandomBoundsMatchBruteForce() {
+        double south = polygons.getCornerLatitude(0, 0);
+        double west = polygons.getCornerLongitude(0, 0);
+        double height = polygons.getCornerLatitude(polygons.getCount() - 1, 2) - south;
+        double width = polygons.getCornerLongitude(polygons.getCount() - 1, 2) - west;
+
+        // Bounds from inside the grid to well outside it, so some queries are clamped to the edges of the index.
+        Random random = new Random(30);
+        for (int i = 0; i < 500; i++) {
+            double minLat = south + (random.nextDouble() * 1.4 - 0.2) * height;
+            double minLon = west + (random.nextDouble() * 1.4 - 0.2) * width;
+            assertMatchesBruteForce(minLat, minLat + random.nextDouble() * height / 2, minLon, minLon + random.nextDouble() * width / 2);
+        }
+    }
+
+    @Test
+    public void testCornerQueriesMatchBruteForce() {
+        // A point on a polygon's corner touches up to four polygons, which can be stored in different buckets.
+        for (int i = 0; i < polygons.getCount(); i++) {
+            for (int corner = 0; corner < PolygonBuffer.CORNERS; corner++) {
+                double latitude = polygons.getCornerLatitude(i, corner);
+                double longitude = polygons.getCornerLongitude(i, corner);
+                assertMatchesBruteForce(latitude, latitude, longitude, longitude);
+            }
+        }
+    }
+
+    @Test
+    public void testMapEdges() {
+        assertEquals(polygons.getCount(), query(index, -85, 85, -180, 180).size(), "The whole map should find every polygon once.");
+        assertTrue(query(index, -85, 0, -180, -90).isEmpty(), "Bounds away from the grid should find no polygons.");
+        assertTrue(query(index, 60, 85, 90, 180).isEmpty());
+
+        // Strips along each edge of the grid, reaching to the edge of the map.
+        double south = polygons.getCornerLatitude(0, 0);
+        double west = polygons.getCornerLongitude(0, 0);
+        double north = polygons.getCornerLatitude(polygons.getCount() - 1, 2);
+        double east = polygons.getCornerLongitude(polygons.getCount() - 1, 2);
+        assertTrue(north > south && east > west, "The first and last polygons should be the south-west and north-east corners of the grid.");
+        assertMatchesBruteForce(-85, south, -180, 180);
+        assertMatchesBruteForce(north, 85, -180, 180);
+        assertMatchesBruteForce(-85, 85, -180, west);
+        assertMatchesBruteForce(-85, 85, east, 180);
+    }
+
+    @Test
+    public void testViewSharesIndex() {
+        PolygonBuffer view = polygons.withLODData(new LODData(1, createDataSet(1000)));
+        assertTrue(view.hasSameGeometry(polygons));
+        assertEquals(1000, view.getDataPoint(0).value(), "The view should have the values of its own LOD data.");
+
+        PolygonSpatialIndex viewIndex = index.withPolygons(view);
+        assertSame(view, viewIndex.getPolygons());
+        assertSame(polygons, index.getPolygons(), "The original index should still use the original polygons.");
+
+        Random random = new Random(35);
+        double south = polygons.getCornerLatitude(0, 0);
+        double west = polygons.getCornerLongitude(0, 0);
+        for (int i = 0; i < 50; i++) {
+            double minLat = south + random.nextDouble() * 0.4;
+            double minLon = west + random.nextDouble() * 0.7;
+            assertEquals(query(index, minLat, minLat + 0.1, minLon, minLon + 0.1), query(viewIndex, minLat, minLat + 0.1, minLon, minLon + 0.1));
+        }
+
+        PolygonBuffer otherGeometry = new PolygonBuffer(new LODData(1, createDataSet(1)));
+        assertThrows(IllegalArgumentException.class, () -> index.withPolygons(otherGeometry), "Polygons generated separately are not a view of the indexed polygons.");
+    }
+}
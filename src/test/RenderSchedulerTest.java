@@ -0,0 +1,79 @@
+package test;
+
+import pollutionLayer.RenderScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the RenderScheduler class.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class RenderSchedulerTest {
+    private final static long FRAME_BUDGET = 10;
+
+    private long time = 0; // The time of the test clock, advanced by each refined tile.
+    private final RenderScheduler scheduler = new RenderScheduler(FRAME_BUDGET, () -> time);
+
+    @Test
+    public void testTilesCoverView() {
+        List<double[]> tiles = new ArrayList<>();
+        scheduler.start(600, 300);
+        scheduler.refine(0, (minX, minY, maxX, maxY) -> tiles.add(new double[] { minX, minY, maxX, maxY }));
+
+        assertEquals(6, tiles.size(), "A 600 x 300 view should be split into 3 x 2 tiles.");
+        double area = 0;
+        for (double[] tile : tiles) {
+            assertTrue(tile[2] <= 600 && tile[3] <= 300, "Tiles should be clamped to the view.");
+            area += (tile[2] - tile[0]) * (tile[3] - tile[1]);
+        }
+        assertEquals(600 * 300, area, "The tiles should cover the view exactly once.");
+        assertFalse(scheduler.hasPendingTiles());
+    }
+
+    @Test
+    public void testNearestTilesFirst() {
+        List<Double> distances = new ArrayList<>();
+        scheduler.start(1280, 768);
+        scheduler.refine(0, (minX, minY, maxX, maxY) ->
+            distances.add(Math.hypot((minX + maxX) / 2 - 640, (minY + maxY) / 2 - 384)));
+
+        assertEquals(15, distances.size());
+        for (int i = 1; i < distances.size(); i++) {
+            assertTrue(distances.get(i - 1) <= distances.get(i), "Tiles should be refined nearest to the centre first.");
+        }
+    }
+
+    @Test
+    public void testStopsWhenBudgetSpent() {
+        scheduler.start(1024, 1024); // 16 tiles.
+        int refined = scheduler.refine(0, (minX, minY, maxX, maxY) -> time += 4);
+        assertEquals(3, refined, "Refining should stop once the tile that spends the budget is done.");
+        assertTrue(scheduler.hasPendingTiles());
+
+        // A frame whose budget was already spent before refining still refines one tile, so refinement completes.
+        long frameStart = time;
+        time += FRAME_BUDGET;
+        assertEquals(1, scheduler.refine(frameStart, (minX, minY, maxX, maxY) -> time += 4));
+
+        int frames = 2;
+        while (scheduler.hasPendingTiles()) {
+            scheduler.refine(time, (minX, minY, maxX, maxY) -> time += 4);
+            frames++;
+        }
+        assertEquals(6, frames, "The remaining 12 tiles should take 4 more frames.");
+    }
+
+    @Test
+    public void testCancel() {
+        scheduler.start(512, 512);
+        scheduler.cancel();
+        assertFalse(scheduler.hasPendingTiles());
+        assertEquals(0, scheduler.refine(0, (minX, minY, maxX, maxY) -> fail("Cancelled tiles should not be refined.")));
+    }
+}
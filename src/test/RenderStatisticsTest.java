@@ -0,0 +1,75 @@
+package test;
+
+import pollutionLayer.RenderStatistics;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the RenderStatistics class.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class RenderStatisticsTest {
+    private void recordFrame(RenderStatistics statistics, int polygonsDrawn) {
+        statistics.beginFrame();
+        long start = statistics.startTimer();
+        statistics.stopTimer(RenderStatistics.Stage.DRAWING, start);
+        statistics.addPolygonsDrawn(polygonsDrawn);
+        statistics.endFrame(100, 2);
+    }
+
+    @Test
+    public void testNothingIsRecordedWhenDisabled() {
+        RenderStatistics statistics = new RenderStatistics();
+        assertEquals(0, statistics.startTimer(), "The timer should not read the clock when disabled.");
+
+        recordFrame(statistics, 10);
+        statistics.recordTileLookup(true);
+
+        assertEquals(0, statistics.getFrameCount());
+        assertEquals(0, statistics.getPolygonsDrawn());
+        assertTrue(Double.isNaN(statistics.getTileCacheHitRate()));
+    }
+
+    @Test
+    public void testFrameCounters() {
+        RenderStatistics statistics = new RenderStatistics();
+        statistics.setEnabled(true);
+        recordFrame(statistics, 30);
+
+        assertEquals(1, statistics.getFrameCount());
+        assertEquals(30, statistics.getPolygonsDrawn());
+        assertEquals(70, statistics.getPolygonsCulled());
+        assertEquals(2, statistics.getLODIndex());
+        assertEquals(1, statistics.getFramesPerSecond());
+        assertTrue(statistics.getFrameTimePercentile(0.95) >= statistics.getMeanStageTime(RenderStatistics.Stage.DRAWING));
+    }
+
+    @Test
+    public void testHitRates() {
+        RenderStatistics statistics = new RenderStatistics();
+        statistics.setEnabled(true);
+        statistics.recordTileLookup(true);
+        statistics.recordTileLookup(true);
+        statistics.recordTileLookup(true);
+        statistics.recordTileLookup(false);
+        statistics.recordRasterReuse(false);
+
+        assertEquals(0.75, statistics.getTileCacheHitRate(), 1e-9);
+        assertEquals(0.0, statistics.getRasterReuseRate(), 1e-9);
+    }
+
+    @Test
+    public void testEnablingResetsStatistics() {
+        RenderStatistics statistics = new RenderStatistics();
+        statistics.setEnabled(true);
+        recordFrame(statistics, 30);
+        statistics.setEnabled(false);
+        statistics.setEnabled(true);
+
+        assertEquals(0, statistics.getFrameCount());
+        assertEquals(0, statistics.getFrameTimePercentile(0.5));
+    }
+}
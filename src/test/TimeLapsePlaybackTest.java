@@ -0,0 +1,113 @@
+package test;
+
+import dataProcessing.Pollutant;
+import lod.AggregationChannel;
+import pollutionLayer.TimeLapseFrameCache;
+import pollutionLayer.TimeLapsePlayback;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the TimeLapsePlayback class and its use with TimeLapseFrameCache.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class TimeLapsePlaybackTest {
+    @Test
+    public void testAdvancesOneFramePerDurationAndLoops() {
+        TimeLapsePlayback playback = new TimeLapsePlayback(3, 1.0, 0.4);
+
+        playback.advance(0.9, frame -> true);
+        assertEquals(0, playback.getFrame());
+        playback.advance(0.2, frame -> true);
+        assertEquals(1, playback.getFrame());
+        playback.advance(2.0, frame -> true);
+        assertEquals(0, playback.getFrame(), "Playback should loop back to the first frame after the last.");
+        assertFalse(playback.isWaiting());
+    }
+
+    @Test
+    public void testHoldsUntilNextFrameIsReady() {
+        TimeLapsePlayback playback = new TimeLapsePlayback(3, 1.0, 0.4);
+        playback.setCrossfade(true);
+
+        playback.advance(5.0, frame -> frame == 0);
+        assertEquals(0, playback.getFrame());
+        assertTrue(playback.isWaiting());
+        assertEquals(0, playback.getCrossfadeProgress(), "The crossfade should not start before the next frame is ready.");
+
+        // Once ready, the held frame only has its crossfade left to show.
+        playback.advance(0.2, frame -> true);
+        assertEquals(0, playback.getFrame());
+        assertEquals(0.5, playback.getCrossfadeProgress(), 1e-9);
+        playback.advance(0.2, frame -> true);
+        assertEquals(1, playback.getFrame());
+        assertEquals(0, playback.getCrossfadeProgress(), 1e-9);
+
+        // The current frame's time does not start until it is ready.
+        playback.seek(2);
+        playback.advance(5.0, frame -> frame != 2);
+        assertTrue(playback.isWaiting());
+        playback.advance(0.5, frame -> true);
+        assertEquals(2, playback.getFrame());
+        assertEquals(0, playback.getCrossfadeProgress(), 1e-9);
+    }
+
+    @Test
+    public void testWindowStartsAtCurrentFrameAndWraps() {
+        TimeLapsePlayback playback = new TimeLapsePlayback(3, 1.0, 0.4);
+        playback.seek(2);
+
+        assertArrayEquals(new int[] { 2, 0 }, playback.getWindow(2));
+        assertArrayEquals(new int[] { 2, 0, 1 }, playback.getWindow(5), "The window should hold each frame at most once.");
+    }
+
+    @Test
+    public void testSkipsFrames() {
+        TimeLapsePlayback playback = new TimeLapsePlayback(4, 1.0, 0.4);
+        playback.skip(1);
+        assertEquals(2, playback.getNextFrame());
+        assertArrayEquals(new int[] { 0, 2, 3 }, playback.getWindow(4), "Skipped frames should not be in the window.");
+
+        playback.seek(3);
+        playback.skip(3);
+        assertEquals(0, playback.getFrame(), "Skipping the current frame should move on to the following frame.");
+
+        playback.skip(0);
+        playback.skip(2);
+        assertFalse(playback.hasFrames());
+        assertEquals(0, playback.getWindow(4).length);
+    }
+
+    @Test
+    public void testFailingYearDoesNotStallPlayback() throws InterruptedException {
+        List<Integer> years = List.of(2018, 2019, 2020);
+        TimeLapsePlayback playback = new TimeLapsePlayback(years.size(), 1.0, 0.4);
+        LinkedBlockingQueue<Runnable> results = new LinkedBlockingQueue<>(); // Callbacks, run on the test thread.
+        TimeLapseFrameCache frameCache = new TimeLapseFrameCache(
+            (year, pollutant) -> { throw new IllegalArgumentException("Year " + year + " is not available"); },
+            results::add, year -> playback.skip(years.indexOf(year))
+        );
+
+        TimeLapseFrameCache.FrameStyle style = new TimeLapseFrameCache.FrameStyle(Pollutant.NO2, AggregationChannel.MEAN, 0, null);
+        frameCache.preload(List.of(2019), style, new TimeLapseFrameCache.FrameView(0.01, 10, 0, 0, 256, 256));
+        Runnable result = results.poll(10, TimeUnit.SECONDS);
+        assertNotNull(result, "The failure should be delivered.");
+        result.run();
+        assertFalse(frameCache.isReady(2019));
+
+        // Frames 0 and 2 are ready, so playback moves from 0 to 2 without waiting for 2019.
+        playback.advance(1.5, frame -> frame != 1);
+        assertEquals(2, playback.getFrame());
+        assertFalse(playback.isWaiting());
+
+        frameCache.preload(List.of(2019), style, new TimeLapseFrameCache.FrameView(0.01, 10, 0, 0, 256, 256));
+        assertNull(results.poll(100, TimeUnit.MILLISECONDS), "A failed year should not be rendered again.");
+    }
+}
@@ -0,0 +1,79 @@
+package test;
+
+import dataProcessing.DataSet;
+import lod.AggregationChannel;
+import pollutionLayer.PolygonBuffer;
+import pollutionLayer.PollutionPolygonManager;
+import pollutionLayer.ValueSortedIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for finding the polygons that change colour when the visibility threshold moves.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class ValueSortedIndexTest {
+    private final static int GRID_LENGTH = 8; // The synthetic grid is GRID_LENGTH x GRID_LENGTH km.
+
+    private PollutionPolygonManager polygonManager;
+
+    @BeforeEach
+    public void setUp() {
+        // Values 0 to 63 on an 8x8 km grid, in a scrambled order so the index has to sort them.
+        DataSet dataSet = new DataSet("NO2", "2018", "Annual Mean", "ug/m3");
+        for (int i = 0; i < GRID_LENGTH * GRID_LENGTH; i++) {
+            int x = i % GRID_LENGTH;
+            int y = i / GRID_LENGTH;
+            int value = (i * 37) % (GRID_LENGTH * GRID_LENGTH);
+            dataSet.addData(new String[] { Integer.toString(i), Integer.toString(x * 1000 + 500), Integer.toString(y * 1000 + 500), Integer.toString(value) });
+        }
+        polygonManager = new PollutionPolygonManager(dataSet);
+        polygonManager.updatePollutionPolygons(0);
+    }
+
+    @Test
+    public void testVisitsExactlyTheChangedPolygons() {
+        PolygonBuffer polygons = polygonManager.getPolygons();
+        ValueSortedIndex index = polygonManager.getValueSortedIndex(polygonManager.getSpatialIndex());
+
+        double[][] thresholdMoves = { { 10, 20 }, { 20, 10 }, { -1, 63 }, { 12.5, 13.5 }, { 30, 30 }, { 63, 100 } };
+        for (double[] move : thresholdMoves) {
+            double low = Math.min(move[0], move[1]);
+            double high = Math.max(move[0], move[1]);
+
+            // A polygon changes colour exactly when it is hidden by one threshold and drawn with the other.
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < polygons.getCount(); i++) {
+                if ((polygons.getValue(i) <= move[0]) != (polygons.getValue(i) <= move[1])) expected.add(i);
+            }
+
+            List<Integer> visited = new ArrayList<>();
+            index.forEachBetween(low, high, visited::add);
+            visited.sort(Integer::compare);
+            assertEquals(expected, visited, "Threshold move from " + move[0] + " to " + move[1]);
+            assertEquals(expected.size(), index.countBetween(low, high));
+        }
+    }
+
+    @Test
+    public void testIndexIsRebuiltWhenValuesChange() {
+        ValueSortedIndex meanIndex = polygonManager.getValueSortedIndex(polygonManager.getSpatialIndex());
+        assertSame(meanIndex, polygonManager.getValueSortedIndex(polygonManager.getSpatialIndex()), "The index should be cached.");
+
+        polygonManager.setAggregationChannel(AggregationChannel.COUNT);
+        ValueSortedIndex countIndex = polygonManager.getValueSortedIndex(polygonManager.getSpatialIndex());
+        assertNotSame(meanIndex, countIndex);
+        assertEquals(GRID_LENGTH * GRID_LENGTH, countIndex.countBetween(0, 1), "Every 1 km cell covers one data point.");
+
+        polygonManager.updatePollutionPolygons(1);
+        ValueSortedIndex coarseIndex = polygonManager.getValueSortedIndex(polygonManager.getSpatialIndex());
+        assertEquals(polygonManager.getPolygons().getCount(), coarseIndex.getCount());
+    }
+}
@@ -2,11 +2,16 @@ package utility;
 
 import com.gluonhq.maps.MapPoint;
 import com.gluonhq.maps.MapView;
+import javafx.animation.PauseTransition;
 import javafx.scene.input.ScrollEvent;
+import javafx.util.Duration;
 
 /**
  * The CustomMapView class extends MapView to restrict zooming and display pollution data.
  * Allows adding pollution points as markers on the map.
+ *
+ * Scroll zooming is tracked as a gesture, which lasts until no scroll has happened for a short idle
+ * period, so layers can show a cheap approximation while zooming and only re-render once it settles.
  * 
  * @author Anas Ahmed
  * @version 1.0
@@ -15,11 +20,20 @@ public class CustomMapView extends MapView {
     private final double minZoom = 3; // Min zoom allowed
     private final double maxZoom = 20; // Max zoom allowed
     private final double zoomStep = 0.1; // Smaller step for smooth zooming
+    private final static Duration ZOOM_SETTLE_DELAY = Duration.millis(150); // Idle time after the last scroll that ends a zoom gesture.
+
+    private final PauseTransition zoomSettleTimer;
+    private boolean zoomGestureActive = false; // True while scroll zooming, until it settles.
 
     /**
      * Constructor.
      */
     public CustomMapView() {
+        zoomSettleTimer = new PauseTransition(ZOOM_SETTLE_DELAY);
+        zoomSettleTimer.setOnFinished(e -> {
+            zoomGestureActive = false;
+            dirtyRefresh(); // Re-render the layers at the settled zoom.
+        });
         setupZoomControl();
     }
 
@@ -65,10 +79,19 @@ public class CustomMapView extends MapView {
      */
     private void handleScrollZoom(ScrollEvent event) {
         double zoomChange = event.getDeltaY() > 0 ? zoomStep : -zoomStep; // Zoom in on scroll up, out on scroll down.
+        zoomGestureActive = true;
+        zoomSettleTimer.playFromStart(); // The gesture settles once scrolling stops.
         applyZoom(zoomChange);
         event.consume(); // Prevent default zoom behaviour.
     }
 
+    /**
+     * @return True while a scroll zoom gesture is in progress, false once it has settled.
+     */
+    public boolean isZoomGestureActive() {
+        return zoomGestureActive;
+    }
+
     /**
      * Gets a scale factor to scale 1 pixel into 1 meter in the real world depending on current zoom level.
      * i.e. Pixel size * sf = real world size.
@@ -80,18 +103,6 @@ public class CustomMapView extends MapView {
         return this.getWidth() / GeographicUtilities.geodesicDistance(A, B);
     }
 
-    /**
-     * Takes in a pixel x/y coordinate and checks if it is on the screen.
-     * @param x The x coordinate in pixels.
-     * @param y The y coordinate in pixels.
-     * @param padding The padding inside the screen.
-     * @return True if the point is on the screen, false otherwise.
-     */
-    public boolean isPointOnScreen(double x, double y, double padding) {
-        return x >= -padding && x <= getWidth() + padding &&
-            y >= -padding && y <= getHeight() + padding;
-    }
-
     /**
      * Forces a map refresh when called.
      */
@@ -14,6 +14,28 @@ import uk.gov.dstl.geo.osgb.Constants;
  * @version 1.0
  */
 public class GeographicUtilities {
+    // Extent and sample spacing of the approximate transforms' grids:
+    private final static double MAX_EASTING = 700000; // The national grid's extent in meters.
+    private final static double MAX_NORTHING = 1300000;
+    private final static double EASTING_NORTHING_SPACING = 5000; // Meters between samples.
+    private final static double MIN_LATITUDE = 49.0; // Covers the national grid's extent.
+    private final static double MAX_LATITUDE = 61.5;
+    private final static double MIN_LONGITUDE = -10.0;
+    private final static double MAX_LONGITUDE = 3.5;
+    private final static double LATITUDE_LONGITUDE_SPACING = 0.05; // Degrees between samples.
+
+    /**
+     * The sampled exact transforms of the approximate transforms, created on first use.
+     */
+    private static class ApproximationGrids {
+        private final static TransformGrid TO_LAT_LON = new TransformGrid(
+            0, 0, MAX_EASTING, MAX_NORTHING, EASTING_NORTHING_SPACING,
+            (easting, northing, output) -> System.arraycopy(toLatLon(easting, northing), 0, output, 0, 2));
+        private final static TransformGrid TO_EASTING_NORTHING = new TransformGrid(
+            MIN_LONGITUDE, MIN_LATITUDE, MAX_LONGITUDE, MAX_LATITUDE, LATITUDE_LONGITUDE_SPACING,
+            (longitude, latitude, output) -> System.arraycopy(fromLatLon(latitude, longitude), 0, output, 0, 2));
+    }
+
     /**
      * Distance between two latitude and longitude positions on earth using vincenty formula.
      * @param point1 MapPoint of the first world position.
@@ -37,7 +59,69 @@ public class GeographicUtilities {
      * @return A new MapPoint with the corresponding latitude and longitude.
      */
     public static MapPoint convertEastingNorthingToLatLon(int easting, int northing) {
-        double[] latitudeLongitude = EastingNorthingConversion.toLatLon(
+        double[] latitudeLongitude = toLatLon(easting, northing);
+        return new MapPoint(latitudeLongitude[0], latitudeLongitude[1]);
+    }
+
+    /**
+     * Converts a latitude/longitude (WGS84) position to a UK easting/northing value.
+     * @param mapPoint Map point with longitude and latitude.
+     * @return The easting and northing value as an int array.
+     */
+    public static int[] convertLatLonToEastingNorthing(MapPoint mapPoint) {
+        double[] converted = fromLatLon(mapPoint.getLatitude(), mapPoint.getLongitude());
+        return new int[] { (int) Math.round(converted[0]), (int) Math.round(converted[1]) };
+    }
+
+    /**
+     * Approximately converts a UK easting/northing value to latitude/longitude (WGS84), by bilinear
+     * interpolation in a 5 km grid of exact conversions over the national grid. The error against the
+     * exact conversion is below 1 m across the national grid, far below what rendering a 1 km grid
+     * needs, and a conversion takes nanoseconds and does not allocate. Positions outside the national
+     * grid are converted exactly. Use the exact conversion for displayed coordinates.
+     * @param easting Easting value of point.
+     * @param northing Northing value of point.
+     * @param latitudeLongitude The array to write the latitude and longitude to.
+     */
+    public static void approximateEastingNorthingToLatLon(double easting, double northing, double[] latitudeLongitude) {
+        if (!ApproximationGrids.TO_LAT_LON.interpolate(easting, northing, latitudeLongitude)) {
+            System.arraycopy(toLatLon(easting, northing), 0, latitudeLongitude, 0, 2);
+        }
+    }
+
+    /**
+     * Approximately converts a latitude/longitude (WGS84) position to a UK easting/northing value, by
+     * bilinear interpolation in a 0.05 degree grid of exact conversions around the UK. The error against
+     * the exact conversion is below 0.5 m across the national grid, so it is used for finding the
+     * 1 km cell under the pointer. Positions outside the grid are converted exactly.
+     * @param latitude Latitude of point.
+     * @param longitude Longitude of point.
+     * @param eastingNorthing The array to write the easting and northing to.
+     */
+    public static void approximateLatLonToEastingNorthing(double latitude, double longitude, double[] eastingNorthing) {
+        if (!ApproximationGrids.TO_EASTING_NORTHING.interpolate(longitude, latitude, eastingNorthing)) {
+            System.arraycopy(fromLatLon(latitude, longitude), 0, eastingNorthing, 0, 2);
+        }
+    }
+
+    /**
+     * Approximately converts a latitude/longitude (WGS84) position to a UK easting/northing value.
+     * See approximateLatLonToEastingNorthing(double, double, double[]) for the error bound.
+     * @param mapPoint Map point with longitude and latitude.
+     * @return The easting and northing value as an int array.
+     */
+    public static int[] approximateLatLonToEastingNorthing(MapPoint mapPoint) {
+        double[] converted = new double[2];
+        approximateLatLonToEastingNorthing(mapPoint.getLatitude(), mapPoint.getLongitude(), converted);
+        return new int[] { (int) Math.round(converted[0]), (int) Math.round(converted[1]) };
+    }
+
+    /**
+     * Exactly converts an easting/northing value to latitude/longitude with the OSGB library.
+     * @return The latitude and longitude.
+     */
+    private static double[] toLatLon(double easting, double northing) {
+        return EastingNorthingConversion.toLatLon(
             new double[] {easting, northing},
             Constants.ELLIPSOID_AIRY1830_MAJORAXIS,
             Constants.ELLIPSOID_AIRY1830_MINORAXIS,
@@ -46,27 +130,22 @@ public class GeographicUtilities {
             Constants.NATIONALGRID_F0,
             Constants.NATIONALGRID_LAT0,
             Constants.NATIONALGRID_LON0);
-
-        return new MapPoint(latitudeLongitude[0], latitudeLongitude[1]);
     }
 
     /**
-     * Converts a latitude/longitude (WGS84) position to a UK easting/northing value.
-     * @param mapPoint Map point with longitude and latitude.
-     * @return The easting and northing value as an int array.
+     * Exactly converts a latitude/longitude position to easting/northing with the OSGB library.
+     * @return The easting and northing.
      */
-    public static int[] convertLatLonToEastingNorthing(MapPoint mapPoint) {
-        double[] converted =  EastingNorthingConversion.fromLatLon(
-                new double[] {mapPoint.getLatitude(), mapPoint.getLongitude()},
-                Constants.ELLIPSOID_AIRY1830_MAJORAXIS,
-                Constants.ELLIPSOID_AIRY1830_MINORAXIS,
-                Constants.NATIONALGRID_N0,
-                Constants.NATIONALGRID_E0,
-                Constants.NATIONALGRID_F0,
-                Constants.NATIONALGRID_LAT0,
-                Constants.NATIONALGRID_LON0);
-
-        return new int[] { (int) Math.round(converted[0]), (int) Math.round(converted[1]) };
+    private static double[] fromLatLon(double latitude, double longitude) {
+        return EastingNorthingConversion.fromLatLon(
+            new double[] {latitude, longitude},
+            Constants.ELLIPSOID_AIRY1830_MAJORAXIS,
+            Constants.ELLIPSOID_AIRY1830_MINORAXIS,
+            Constants.NATIONALGRID_N0,
+            Constants.NATIONALGRID_E0,
+            Constants.NATIONALGRID_F0,
+            Constants.NATIONALGRID_LAT0,
+            Constants.NATIONALGRID_LON0);
     }
 }
 
@@ -0,0 +1,164 @@
+package utility;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * A cache of the latitude/longitude (WGS84) of every 1 km corner of the British National Grid.
+ *
+ * Pollution cells are squares with corners on the 1 km lattice, and neighbouring cells share their
+ * corners, so converting each lattice vertex once saves up to four conversions per vertex in each
+ * LOD. The lattice is shared by every dataset, so all years, pollutants and LODs reuse the
+ * vertices converted for the first one displayed.
+ *
+ * The lattice is split into square blocks, which are converted whole, in parallel, the first time
+ * a vertex inside them is needed. Blocks without data, mostly sea, are never converted. Vertices are
+ * only rendered, so they are converted with the approximate transform, within 1 m of the exact one.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class GridVertexLattice {
+    public final static int SPACING = 1000; // The distance between vertices in meters.
+    private final static int MAX_EASTING = 700000; // The national grid's extent in meters.
+    private final static int MAX_NORTHING = 1300000;
+
+    private final static int BLOCK_SHIFT = 6;
+    private final static int BLOCK_SIZE = 1 << BLOCK_SHIFT; // The number of vertices along the side of a block.
+    private final static int BLOCK_COLUMNS = (MAX_EASTING / SPACING) / BLOCK_SIZE + 1;
+    private final static int BLOCK_ROWS = (MAX_NORTHING / SPACING) / BLOCK_SIZE + 1;
+
+    private final static GridVertexLattice SHARED = new GridVertexLattice();
+
+    // The interleaved latitude and longitude of each vertex of a block, row by row. Null until converted.
+    private final AtomicReferenceArray<double[]> blocks = new AtomicReferenceArray<>(BLOCK_COLUMNS * BLOCK_ROWS);
+    private final AtomicLong conversionCount = new AtomicLong();
+
+    /**
+     * @return The lattice shared by every dataset.
+     */
+    public static GridVertexLattice getShared() {
+        return SHARED;
+    }
+
+    /**
+     * @param easting The easting of a position.
+     * @param northing The northing of a position.
+     * @return True if the position is a vertex of the lattice, false if it must be converted directly.
+     */
+    public static boolean isVertex(int easting, int northing) {
+        return easting >= 0 && easting <= MAX_EASTING && northing >= 0 && northing <= MAX_NORTHING
+            && easting % SPACING == 0 && northing % SPACING == 0;
+    }
+
+    /**
+     * Converts every unconverted block holding a corner of the given squares, in one parallel pass.
+     * Call before looking up the corners of many squares, so they are not converted one block at a time.
+     * Corners outside the lattice are ignored.
+     * @param minEastings The easting of the south-west corner of each square.
+     * @param minNorthings The northing of the south-west corner of each square.
+     * @param sideLength The side length of the squares in meters.
+     */
+    public void prepareSquares(int[] minEastings, int[] minNorthings, int sideLength) {
+        boolean[] needed = new boolean[BLOCK_COLUMNS * BLOCK_ROWS];
+        for (int i = 0; i < minEastings.length; i++) {
+            int firstColumn = getBlockColumn(minEastings[i]);
+            int lastColumn = getBlockColumn(minEastings[i] + sideLength);
+            int firstRow = getBlockRow(minNorthings[i]);
+            int lastRow = getBlockRow(minNorthings[i] + sideLength);
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    needed[row * BLOCK_COLUMNS + column] = true;
+                }
+            }
+        }
+
+        IntStream.range(0, needed.length)
+            .filter(block -> needed[block] && blocks.get(block) == null)
+            .parallel()
+            .forEach(this::getBlock);
+    }
+
+    /**
+     * @param easting The easting of a lattice vertex, see isVertex().
+     * @param northing The northing of a lattice vertex.
+     * @return The latitude of the vertex.
+     */
+    public double getLatitude(int easting, int northing) {
+        return getVertexBlock(easting, northing)[getVertexOffset(easting, northing)];
+    }
+
+    /**
+     * @param easting The easting of a lattice vertex, see isVertex().
+     * @param northing The northing of a lattice vertex.
+     * @return The longitude of the vertex.
+     */
+    public double getLongitude(int easting, int northing) {
+        return getVertexBlock(easting, northing)[getVertexOffset(easting, northing) + 1];
+    }
+
+    /**
+     * @return The block holding a vertex, converting it first if needed.
+     */
+    private double[] getVertexBlock(int easting, int northing) {
+        return getBlock((northing / SPACING >> BLOCK_SHIFT) * BLOCK_COLUMNS + (easting / SPACING >> BLOCK_SHIFT));
+    }
+
+    /**
+     * @return The index of a vertex's latitude in its block.
+     */
+    private int getVertexOffset(int easting, int northing) {
+        int column = easting / SPACING & (BLOCK_SIZE - 1);
+        int row = northing / SPACING & (BLOCK_SIZE - 1);
+        return 2 * (row * BLOCK_SIZE + column);
+    }
+
+    /**
+     * @return The vertices of a block, converting them first if no thread has yet.
+     */
+    private double[] getBlock(int block) {
+        double[] vertices = blocks.get(block);
+        if (vertices != null) return vertices;
+
+        int minEasting = (block % BLOCK_COLUMNS) * BLOCK_SIZE * SPACING;
+        int minNorthing = (block / BLOCK_COLUMNS) * BLOCK_SIZE * SPACING;
+        vertices = new double[2 * BLOCK_SIZE * BLOCK_SIZE];
+        double[] latitudeLongitude = new double[2];
+        for (int row = 0; row < BLOCK_SIZE; row++) {
+            for (int column = 0; column < BLOCK_SIZE; column++) {
+                GeographicUtilities.approximateEastingNorthingToLatLon(minEasting + column * SPACING, minNorthing + row * SPACING, latitudeLongitude);
+                vertices[2 * (row * BLOCK_SIZE + column)] = latitudeLongitude[0];
+                vertices[2 * (row * BLOCK_SIZE + column) + 1] = latitudeLongitude[1];
+            }
+        }
+        conversionCount.addAndGet(BLOCK_SIZE * BLOCK_SIZE);
+
+        // Another thread may have converted the block meanwhile, in which case its vertices are kept.
+        return blocks.compareAndSet(block, null, vertices) ? vertices : blocks.get(block);
+    }
+
+    /**
+     * @return The block column holding an easting, clamped to the lattice.
+     */
+    private static int getBlockColumn(int easting) {
+        return Math.clamp((long) Math.floorDiv(easting, SPACING) >> BLOCK_SHIFT, 0, BLOCK_COLUMNS - 1);
+    }
+
+    /**
+     * @return The block row holding a northing, clamped to the lattice.
+     */
+    private static int getBlockRow(int northing) {
+        return Math.clamp((long) Math.floorDiv(northing, SPACING) >> BLOCK_SHIFT, 0, BLOCK_ROWS - 1);
+    }
+
+    // Getters:
+    public long getConversionCount() { return conversionCount.get(); }
+    public int getConvertedBlockCount() {
+        int count = 0;
+        for (int block = 0; block < blocks.length(); block++) {
+            if (blocks.get(block) != null) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,82 @@
+package utility;
+
+/**
+ * A regular grid of samples of a two-valued coordinate transform, bilinearly interpolated between
+ * the samples. Used for fast approximate coordinate transforms, where the exact transform is
+ * smooth enough to be close to linear over the sample spacing.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+class TransformGrid {
+    /**
+     * The exact transform that is sampled.
+     */
+    interface Transform {
+        /**
+         * Transforms a position, writing the two output coordinates to the output array.
+         */
+        void apply(double x, double y, double[] output);
+    }
+
+    private final double minX;
+    private final double minY;
+    private final double spacing; // The distance between samples, in input coordinates.
+    private final int columns;
+    private final int rows;
+    private final double[] samples; // The two output coordinates of each sample, interleaved, in row-major order.
+
+    /**
+     * Samples a transform over a rectangle of input coordinates.
+     * @param minX The smallest x coordinate of the rectangle.
+     * @param minY The smallest y coordinate of the rectangle.
+     * @param maxX The largest x coordinate of the rectangle.
+     * @param maxY The largest y coordinate of the rectangle.
+     * @param spacing The distance between samples.
+     * @param transform The exact transform to sample.
+     */
+    TransformGrid(double minX, double minY, double maxX, double maxY, double spacing, Transform transform) {
+        this.minX = minX;
+        this.minY = minY;
+        this.spacing = spacing;
+        columns = (int) Math.ceil((maxX - minX) / spacing) + 1;
+        rows = (int) Math.ceil((maxY - minY) / spacing) + 1;
+        samples = new double[2 * columns * rows];
+
+        double[] output = new double[2];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                transform.apply(minX + column * spacing, minY + row * spacing, output);
+                samples[2 * (row * columns + column)] = output[0];
+                samples[2 * (row * columns + column) + 1] = output[1];
+            }
+        }
+    }
+
+    /**
+     * Interpolates the transform at a position.
+     * @param x The x coordinate of the position.
+     * @param y The y coordinate of the position.
+     * @param output The array to write the two output coordinates to.
+     * @return True if the position is inside the grid and the output was written, false otherwise.
+     */
+    boolean interpolate(double x, double y, double[] output) {
+        double u = (x - minX) / spacing;
+        double v = (y - minY) / spacing;
+        if (!(u >= 0 && v >= 0 && u <= columns - 1 && v <= rows - 1)) return false; // Also rejects NaN.
+
+        int column = Math.min((int) u, columns - 2);
+        int row = Math.min((int) v, rows - 2);
+        double fractionX = u - column;
+        double fractionY = v - row;
+
+        int bottomLeft = 2 * (row * columns + column);
+        int topLeft = bottomLeft + 2 * columns;
+        for (int i = 0; i < 2; i++) {
+            double bottom = samples[bottomLeft + i] + (samples[bottomLeft + 2 + i] - samples[bottomLeft + i]) * fractionX;
+            double top = samples[topLeft + i] + (samples[topLeft + 2 + i] - samples[topLeft + i]) * fractionX;
+            output[i] = bottom + (top - bottom) * fractionY;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package utility;
+
+/**
+ * Utility class for the Web Mercator projection used by the map tiles.
+ * Positions are expressed in normalised coordinates in range 0 - 1 over the whole world, which are
+ * independent of the zoom level. Multiplying them by the world size gives map pixel coordinates.
+ *
+ * @author Anas Ahmed
+ * @version 1.0
+ */
+public class WebMercator {
+    public final static int TILE_SIZE = 256; // The side length of a map tile in pixels.
+
+    /**
+     * @param longitude Longitude in degrees.
+     * @return The normalised x coordinate, 0 at -180 degrees and 1 at 180 degrees.
+     */
+    public static double toNormalisedX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    /**
+     * @param latitude Latitude in degrees.
+     * @return The normalised y coordinate, 0 at the top of the map and 1 at the bottom.
+     */
+    public static double toNormalisedY(double latitude) {
+        double latitudeRadians = Math.toRadians(latitude);
+        return (1 - Math.log(Math.tan(latitudeRadians) + 1 / Math.cos(latitudeRadians)) / Math.PI) / 2;
+    }
+
+    /**
+     * @param normalisedX The normalised x coordinate.
+     * @return The longitude in degrees.
+     */
+    public static double toLongitude(double normalisedX) {
+        return normalisedX * 360 - 180;
+    }
+
+    /**
+     * @param normalisedY The normalised y coordinate.
+     * @return The latitude in degrees.
+     */
+    public static double toLatitude(double normalisedY) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * normalisedY))));
+    }
+
+    /**
+     * @param zoom The zoom level of the map.
+     * @return The side length of the whole world in map pixels at the zoom level.
+     */
+    public static double getWorldSize(double zoom) {
+        return TILE_SIZE * Math.pow(2, zoom);
+    }
+}